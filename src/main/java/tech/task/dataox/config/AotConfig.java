@@ -0,0 +1,59 @@
+package tech.task.dataox.config;
+
+import org.springframework.aot.AotDetector;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import tech.task.dataox.controller.TestController;
+import tech.task.dataox.service.impl.OrderIntakeServiceImpl;
+import tech.task.dataox.service.job.ArchiveJob;
+import tech.task.dataox.web.SqlAccountingFilter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Spring AOT (the prod build) evaluates {@code @ConditionalOnProperty} when the image is built: the generated
+ * bean definitions keep each switch below as application-prod.properties had it, and setting it at runtime
+ * changes nothing. Started from AOT artifacts, the application refuses to run when a switch disagrees with
+ * the beans that were built instead of silently ignoring it.
+ */
+@Configuration
+public class AotConfig {
+    static final List<Switch> SWITCHES = List.of(
+            new Switch("sharding.enabled", false, ShardingConfig.class),
+            new Switch("intake.journal.enabled", false, OrderIntakeServiceImpl.class),
+            new Switch("archive.enabled", true, ArchiveJob.class),
+            new Switch("sql.accounting.enabled", true, SqlAccountingFilter.class),
+            new Switch("app.test-fixtures.enabled", true, TestController.class));
+
+    @Bean
+    static ApplicationListener<ApplicationStartedEvent> aotSwitchCheck() {
+        return event -> {
+            if (AotDetector.useGeneratedArtifacts()) {
+                checkSwitches(event.getApplicationContext());
+            }
+        };
+    }
+
+    static void checkSwitches(ConfigurableApplicationContext context) {
+        List<String> mismatches = new ArrayList<>();
+        for (Switch s : SWITCHES) {
+            boolean enabled = context.getEnvironment().getProperty(s.property(), Boolean.class, s.matchIfMissing());
+            boolean built = context.getBeanNamesForType(s.beanType(), true, false).length > 0;
+            if (enabled != built) {
+                mismatches.add(s.property() + "=" + enabled + " but the image was built with " + built);
+            }
+        }
+        if (!mismatches.isEmpty()) {
+            throw new IllegalStateException("Switches fixed by the AOT build cannot change at runtime, "
+                    + "set them in application-prod.properties and rebuild: " + String.join(", ", mismatches));
+        }
+    }
+
+    // A @ConditionalOnProperty switch and a bean that exists exactly when it is on
+    record Switch(String property, boolean matchIfMissing, Class<?> beanType) {
+    }
+}
@@ -0,0 +1,97 @@
+package tech.task.dataox.config;
+
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import tech.task.dataox.lib.BucketFence;
+import tech.task.dataox.lib.RequestDeadline;
+import tech.task.dataox.lib.SqlAccounting;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor rollupExecutor(@Value("${report.rollup.queue-capacity:10000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("rollup-");
+        executor.setTaskDecorator(AsyncConfig::withCallerMdc);
+        // When the queue is full the committing thread applies its own delta instead of dropping it
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    // Shared by the rollup deltas and the rollup rebuilds, see RevenueRollupListener
+    @Bean
+    public BucketFence rollupFence() {
+        return new BucketFence();
+    }
+
+    // One thread: cascades run one after another, so two of them never lock the same orders
+    @Bean
+    public ThreadPoolTaskExecutor cascadeExecutor(@Value("${client.cascade.queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("cascade-");
+        executor.setTaskDecorator(AsyncConfig::withCallerMdc);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    // Creates the orders of a batch side by side; each still queues for processing like a single create
+    @Bean
+    public ThreadPoolTaskExecutor orderBatchExecutor(@Value("${order.batch.concurrency:16}") int concurrency) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setThreadNamePrefix("order-batch-");
+        executor.setTaskDecorator(AsyncConfig::withCallerRequest);
+        return executor;
+    }
+
+    // Keeps the correlation id of the originating request on log lines written by pool threads
+    private static Runnable withCallerMdc(Runnable task) {
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        return () -> {
+            if (context != null) {
+                MDC.setContextMap(context);
+            }
+            try {
+                task.run();
+            } finally {
+                MDC.clear();
+            }
+        };
+    }
+
+    // The correlation id, deadline and SQL accounting of the originating request
+    private static Runnable withCallerRequest(Runnable task) {
+        Optional<RequestDeadline> deadline = RequestDeadline.current();
+        SqlAccounting accounting = SqlAccounting.current();
+        Runnable withMdc = withCallerMdc(task);
+        return () -> {
+            deadline.ifPresent(RequestDeadline::set);
+            SqlAccounting.bind(accounting);
+            try {
+                withMdc.run();
+            } finally {
+                RequestDeadline.clear();
+                SqlAccounting.restore(null);
+            }
+        };
+    }
+}
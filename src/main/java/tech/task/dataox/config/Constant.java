@@ -1,7 +1,7 @@
 package tech.task.dataox.config;
 
-import java.math.BigDecimal;
+import tech.task.dataox.lib.Money;
 
 public class Constant {
-    public static final BigDecimal MIN_CONSUMER_PROFIT = new BigDecimal("-1000");
+    public static final Money MIN_CONSUMER_PROFIT = Money.valueOf("-1000");
 }
@@ -0,0 +1,23 @@
+package tech.task.dataox.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import tech.task.dataox.web.DtoJsonModule;
+
+// Module beans are picked up by the ObjectMapper Spring Boot builds for the message converters
+@Configuration
+public class JacksonConfig {
+
+    // Generated accessors instead of reflection for the DTOs without a hand-written serializer
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    @Bean
+    public Module dtoJsonModule() {
+        return new DtoJsonModule();
+    }
+}
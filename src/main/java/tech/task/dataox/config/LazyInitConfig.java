@@ -0,0 +1,27 @@
+package tech.task.dataox.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import tech.task.dataox.controller.ClientController;
+import tech.task.dataox.controller.OrderController;
+import tech.task.dataox.service.job.ArchiveJob;
+import tech.task.dataox.service.job.RevenueRollupJob;
+
+/**
+ * Beans kept eager when spring.main.lazy-initialization is on (prod profile):
+ * the order/client request path, so the first request does not pay for it,
+ * and the scheduled jobs, which are only registered once instantiated.
+ */
+@Configuration
+public class LazyInitConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+                OrderController.class,
+                ClientController.class,
+                ArchiveJob.class,
+                RevenueRollupJob.class);
+    }
+}
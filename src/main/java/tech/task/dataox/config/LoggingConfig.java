@@ -0,0 +1,36 @@
+package tech.task.dataox.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import tech.task.dataox.lib.LogSampler;
+import tech.task.dataox.lib.SqlAccountingInterceptor;
+import tech.task.dataox.lib.SqlAccountingSessionListener;
+import tech.task.dataox.lib.SqlDebugStatementInspector;
+
+@Configuration
+public class LoggingConfig {
+
+    @Bean
+    public LogSampler orderFlowLogSampler(@Value("${logging.sample.order-flow:1}") long rate) {
+        return new LogSampler(rate);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlDebugStatementInspector() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlDebugStatementInspector());
+    }
+
+    // Off with the filter: nothing would read the counts, and Hibernate would still call back on every statement
+    @Bean
+    @ConditionalOnProperty(name = "sql.accounting.enabled", havingValue = "true", matchIfMissing = true)
+    public HibernatePropertiesCustomizer sqlAccounting() {
+        return properties -> {
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, SqlAccountingSessionListener.class.getName());
+            properties.put(AvailableSettings.INTERCEPTOR, new SqlAccountingInterceptor());
+        };
+    }
+}
@@ -0,0 +1,78 @@
+package tech.task.dataox.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.Location;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import tech.task.dataox.lib.ShardRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Clients and orders spread over the databases in {@code sharding.urls}, see ShardRoutingService for the
+ * placement. Every shard gets the full schema plus {@code db/migration/sharding}, which makes the ids of a
+ * shard encode it. Username, password and driver are the ones of {@code spring.datasource}.
+ */
+@Configuration
+@Slf4j
+@ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+    private static final String SHARDING_MIGRATIONS = "classpath:db/migration/sharding";
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(DataSourceProperties properties,
+                                                         @Value("${sharding.urls}") List<String> urls) {
+        List<DataSource> shards = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource shard = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(urls.get(i))
+                    .build();
+            shard.setPoolName("shard-" + i);
+            shards.add(shard);
+        }
+        log.info("Sharding over {} databases", shards.size());
+        return new ShardRoutingDataSource(shards);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties, @Value("${sharding.urls}") List<String> urls) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource(properties, urls));
+    }
+
+    // Each shard is migrated on its own, with its index for the id sequences
+    @Bean
+    public FlywayMigrationStrategy shardedMigration(ShardRoutingDataSource shardRoutingDataSource) {
+        return flyway -> {
+            List<DataSource> shards = shardRoutingDataSource.getShards();
+            String[] locations = Stream.concat(
+                    Arrays.stream(flyway.getConfiguration().getLocations()).map(Location::getDescriptor),
+                    Stream.of(SHARDING_MIGRATIONS)).toArray(String[]::new);
+            for (int i = 0; i < shards.size(); i++) {
+                Flyway.configure()
+                        .configuration(flyway.getConfiguration())
+                        .dataSource(shards.get(i))
+                        .locations(locations)
+                        .placeholders(Map.of(
+                                "shard_count", String.valueOf(shards.size()),
+                                "shard_first_id", String.valueOf(i + 1)))
+                        .load()
+                        .migrate();
+            }
+        };
+    }
+}
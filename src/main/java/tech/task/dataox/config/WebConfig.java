@@ -0,0 +1,40 @@
+package tech.task.dataox.config;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import tech.task.dataox.web.OrderProtobufHttpMessageConverter;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    // Appended rather than declared as a bean, Boot puts converter beans ahead of JSON, and */* would
+    // then be answered in protobuf
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new OrderProtobufHttpMessageConverter());
+    }
+
+    // List responses have no single version to tag, so the ETag is a hash of the body. It spares the
+    // client the download, not the query; buffering the body also gives it a Content-Length, which lets
+    // Tomcat leave small lists uncompressed
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> listEtagFilter() {
+        ShallowEtagHeaderFilter filter = new ShallowEtagHeaderFilter();
+        filter.setWriteWeakETag(true);
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns(
+                "/api/clients",
+                "/api/clients/by-profit",
+                "/api/clients/summary",
+                "/api/orders/client/*",
+                "/api/orders/supplier/*",
+                "/api/orders/consumer/*");
+        return registration;
+    }
+}
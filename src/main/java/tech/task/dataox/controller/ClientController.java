@@ -1,20 +1,37 @@
 package tech.task.dataox.controller;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.data.domain.Page;
+import org.springframework.data.web.PagedModel;
 import org.springframework.data.domain.Pageable;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import tech.task.dataox.lib.Money;
+import tech.task.dataox.model.Client;
+import tech.task.dataox.model.archive.ArchivedClient;
+import tech.task.dataox.model.dto.BulkClientStatusDto;
+import tech.task.dataox.model.dto.BulkClientStatusResultDto;
 import tech.task.dataox.model.dto.ClientDto;
+import tech.task.dataox.model.dto.ClientSummaryDto;
+import tech.task.dataox.model.dto.ConflictStatsDto;
 import tech.task.dataox.model.dto.CreateClientDto;
+import tech.task.dataox.model.dto.ProfitFlushStatsDto;
 import tech.task.dataox.model.dto.UpdateClientDto;
+import tech.task.dataox.service.ArchiveService;
 import tech.task.dataox.service.ClientService;
+import tech.task.dataox.service.ClientSummaryService;
+import tech.task.dataox.service.OptimisticRetryService;
+import tech.task.dataox.service.ProfitWriteBehindService;
 import tech.task.dataox.service.mapper.ClientMapper;
+import tech.task.dataox.web.EntityTags;
+import tech.task.dataox.web.SparseFields;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -26,7 +43,9 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.parameters.RequestBody;
 
-import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/clients")
@@ -36,6 +55,10 @@ import java.math.BigDecimal;
 public class ClientController {
     private final ClientService clientService;
     private final ClientMapper clientMapper;
+    private final ArchiveService archiveService;
+    private final OptimisticRetryService optimisticRetryService;
+    private final ClientSummaryService clientSummaryService;
+    private final ProfitWriteBehindService profitWriteBehindService;
 
     @Operation(summary = "Create client",
             description = "Creates a new client and returns created entity")
@@ -70,21 +93,65 @@ public class ClientController {
         return ResponseEntity.status(HttpStatus.CREATED).body(client);
     }
 
-    @Operation(summary = "Get client by id")
+    @Operation(summary = "Get client by id",
+            description = "Supports If-None-Match with the ETag of a previous response")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Client found",
             content = @Content(mediaType = "application/json",
                 schema = @Schema(implementation = ClientDto.class))),
+        @ApiResponse(responseCode = "304", description = "Client unchanged since the given ETag"),
         @ApiResponse(responseCode = "404", description = "Client not found or inactive")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<ClientDto> getClient(@Parameter(description = "Client id") @PathVariable Long id) {
-        return ResponseEntity.ok(clientMapper.toDto(clientService.findClientById(id)));
+    public ResponseEntity<ClientDto> getClient(
+            @Parameter(description = "Client id") @PathVariable Long id,
+            @Parameter(description = "Also look up the client in the archive")
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            WebRequest request) {
+        if (includeArchived) {
+            Optional<ArchivedClient> archived = archiveService.findArchivedClientById(id);
+            if (archived.isPresent()) {
+                return ResponseEntity.ok(clientMapper.toDto(archived.get()));
+            }
+        }
+        if (isNotModified(request, EntityTags.CLIENT, id)) {
+            return null;
+        }
+        Client client = clientService.findClientById(id);
+        return ResponseEntity.ok()
+                .eTag(EntityTags.of(EntityTags.CLIENT, id, client.getVersion()))
+                .body(clientMapper.toDto(client));
+    }
+
+    @Operation(summary = "Get client summary",
+            description = "Order counts and totals as supplier and as consumer, last order time and current profit")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Client summary"),
+        @ApiResponse(responseCode = "404", description = "Client not found or inactive",
+            content = @Content(mediaType = "application/json"))
+    })
+    @GetMapping("/{id}/summary")
+    public ResponseEntity<ClientSummaryDto> getClientSummary(
+            @Parameter(description = "Client id") @PathVariable Long id) {
+        return ResponseEntity.ok(clientSummaryService.getSummary(id));
+    }
+
+    @Operation(summary = "Get summaries of several clients",
+            description = "Batch variant of /{id}/summary for up to 500 ids, unknown and inactive clients are left out")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Client summaries in the order of the ids"),
+        @ApiResponse(responseCode = "400", description = "Too many ids", content = @Content(mediaType = "application/json"))
+    })
+    @GetMapping("/summary")
+    public ResponseEntity<List<ClientSummaryDto>> getClientSummaries(
+            @Parameter(description = "Client ids", example = "1,2,3") @RequestParam List<Long> ids) {
+        return ResponseEntity.ok(clientSummaryService.getSummaries(ids));
     }
 
     @Operation(
             summary = "Get client profit by id",
-            description = "Returns the total profit of a client across all orders."
+            description = "Returns the total profit of a client across all orders. "
+                    + "Supplier credits of orders from the last milliseconds may not be included yet."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -95,14 +162,52 @@ public class ClientController {
                             schema = @Schema(type = "number", example = "199.99")
                     )
             ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Profit unchanged since the given ETag"
+            ),
             @ApiResponse(
                     responseCode = "404",
                     description = "Client not found or inactive"
             )
     })
     @GetMapping("/profit/{id}")
-    public ResponseEntity<BigDecimal> getProfit(@PathVariable Long id) {
-        return ResponseEntity.ok(clientService.findClientProfitById(id));
+    public ResponseEntity<Money> getProfit(@PathVariable Long id, WebRequest request) {
+        if (isNotModified(request, EntityTags.CLIENT_PROFIT, id)) {
+            return null;
+        }
+        Client client = clientService.findClientById(id);
+        return ResponseEntity.ok()
+                .eTag(EntityTags.of(EntityTags.CLIENT_PROFIT, id, client.getVersion()))
+                .body(client.getProfit());
+    }
+
+    @Operation(
+            summary = "Get optimistic lock conflict statistics",
+            description = "Conflicts and retries of order creation, price and client updates, "
+                    + "with the clients that conflict most often first."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Conflict statistics")
+    })
+    @GetMapping("/stats/conflicts")
+    public ResponseEntity<ConflictStatsDto> getConflictStats(
+            @Parameter(description = "Number of clients to return", example = "20")
+            @RequestParam(defaultValue = "20") @Positive int limit) {
+        return ResponseEntity.ok(optimisticRetryService.getStats(limit));
+    }
+
+    @Operation(
+            summary = "Get profit flush statistics",
+            description = "Supplier credits waiting on this instance to be added to client profits, "
+                    + "flushed client updates and their latency."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Profit flush statistics")
+    })
+    @GetMapping("/stats/profit-flush")
+    public ResponseEntity<ProfitFlushStatsDto> getProfitFlushStats() {
+        return ResponseEntity.ok(profitWriteBehindService.getStats());
     }
 
     @Operation(
@@ -118,13 +223,13 @@ public class ClientController {
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping("/by-profit")
-    public ResponseEntity<Page<ClientDto>> getClientsByProfit(
-            @Parameter(description = "Minimum profit value", example = "1000.00") @RequestParam BigDecimal min,
-            @Parameter(description = "Maximum profit value", example = "5000.00") @RequestParam BigDecimal max,
+    public ResponseEntity<PagedModel<ClientDto>> getClientsByProfit(
+            @Parameter(description = "Minimum profit value", example = "1000.00") @RequestParam Money min,
+            @Parameter(description = "Maximum profit value", example = "5000.00") @RequestParam Money max,
             @ParameterObject Pageable pageable) {
-        return ResponseEntity.ok(
+        return ResponseEntity.ok(new PagedModel<>(
                 clientService.findClientsByProfitBetween(pageable, min, max)
-                        .map(clientMapper::toDto));
+                        .map(clientMapper::toDto)));
     }
 
     @Operation(summary = "Search clients",
@@ -134,11 +239,18 @@ public class ClientController {
             content = @Content(mediaType = "application/json"))
     })
     @GetMapping
-    public ResponseEntity<Page<ClientDto>> getClients(
+    public ResponseEntity<PagedModel<ClientDto>> getClients(
             @Parameter(description = "Search keyword (min 3)") @RequestParam @Size(min = 3) String q,
+            @Parameter(description = "Comma separated client properties to return, all when omitted",
+                    example = "id,name,profit")
+            @RequestParam(required = false) String fields,
             Pageable pageable) {
-        Page<ClientDto> result = clientService.findClientsByKeyword(q, pageable)
-                .map(clientMapper::toDto);
+        Set<String> selected = SparseFields.parse(fields, SparseFields.CLIENT);
+        if (selected != null) {
+            return ResponseEntity.ok(new PagedModel<>(clientService.findClientsByKeyword(q, selected, pageable)));
+        }
+        PagedModel<ClientDto> result = new PagedModel<>(clientService.findClientsByKeyword(q, pageable)
+                .map(clientMapper::toDto));
         return ResponseEntity.ok(result);
     }
 
@@ -201,6 +313,68 @@ public class ClientController {
         return ResponseEntity.noContent().build();
     }
 
+    @Operation(summary = "Soft delete clients in bulk",
+            description = "Marks the clients given by ids or found by a keyword as inactive. "
+                    + "Their active orders are deactivated in the background after the response.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Matched and deactivated clients",
+            content = @Content(mediaType = "application/json",
+                schema = @Schema(implementation = BulkClientStatusResultDto.class))),
+        @ApiResponse(responseCode = "400", description = "Neither or both of ids and q, or too many ids",
+            content = @Content(mediaType = "application/json"))
+    })
+    @RequestBody(
+        required = true,
+        description = "Client ids or a search keyword",
+        content = @Content(
+            mediaType = "application/json",
+            schema = @Schema(implementation = BulkClientStatusDto.class),
+            examples = @ExampleObject(
+                value = """
+                {
+                  "ids": [1, 2, 3]
+                }
+                """
+            )
+        )
+    )
+    @PostMapping("/deactivate")
+    public ResponseEntity<BulkClientStatusResultDto> deactivateClients(
+            @Valid @org.springframework.web.bind.annotation.RequestBody BulkClientStatusDto dto) {
+        return ResponseEntity.ok(clientService.deactivateAll(dto));
+    }
+
+    @Operation(summary = "Recover clients in bulk",
+            description = "Activates the inactive clients given by ids or found by a keyword. "
+                    + "Orders deactivated together with the clients stay inactive.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Matched and recovered clients",
+            content = @Content(mediaType = "application/json",
+                schema = @Schema(implementation = BulkClientStatusResultDto.class))),
+        @ApiResponse(responseCode = "400", description = "Neither or both of ids and q, or too many ids",
+            content = @Content(mediaType = "application/json"))
+    })
+    @RequestBody(
+        required = true,
+        description = "Client ids or a search keyword",
+        content = @Content(
+            mediaType = "application/json",
+            schema = @Schema(implementation = BulkClientStatusDto.class),
+            examples = @ExampleObject(
+                value = """
+                {
+                  "q": "partner.com"
+                }
+                """
+            )
+        )
+    )
+    @PostMapping("/recover")
+    public ResponseEntity<BulkClientStatusResultDto> recoverClients(
+            @Valid @org.springframework.web.bind.annotation.RequestBody BulkClientStatusDto dto) {
+        return ResponseEntity.ok(clientService.recoverAll(dto));
+    }
+
     @Operation(
             summary = "Reset profit of all clients",
             description = "This endpoint sets the profit of all clients to 0. "
@@ -215,4 +389,12 @@ public class ClientController {
         clientService.resetAllProfit();
         return ResponseEntity.noContent().build();
     }
+
+    // Answers 304 from the version alone; an inactive or unknown client falls through to the 404 of the full lookup
+    private boolean isNotModified(WebRequest request, String kind, Long id) {
+        return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && clientService.findActiveClientVersion(id)
+                        .map(version -> request.checkNotModified(EntityTags.of(kind, id, version)))
+                        .orElse(false);
+    }
 }
@@ -3,19 +3,45 @@ package tech.task.dataox.controller;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
+import tech.task.dataox.lib.Money;
+import tech.task.dataox.model.Order;
+import tech.task.dataox.model.archive.ArchivedOrder;
+import tech.task.dataox.model.dto.ConcurrencyLimitStatsDto;
+import tech.task.dataox.model.dto.CreateOrderBatchDto;
 import tech.task.dataox.model.dto.CreateOrderDto;
+import tech.task.dataox.model.dto.DeadlineStatsDto;
+import tech.task.dataox.model.dto.OrderBatchDto;
+import tech.task.dataox.model.dto.OrderBatchItemDto;
 import tech.task.dataox.model.dto.OrderDto;
+import tech.task.dataox.model.dto.OrderQuoteBatchDto;
+import tech.task.dataox.model.dto.OrderQuoteDto;
+import tech.task.dataox.model.dto.ProcessingStatsDto;
+import tech.task.dataox.model.dto.SchedulerStatsDto;
+import tech.task.dataox.service.ArchiveService;
+import tech.task.dataox.service.OrderAdmissionService;
+import tech.task.dataox.service.OrderConcurrencyLimitService;
+import tech.task.dataox.service.OrderQuoteService;
 import tech.task.dataox.service.OrderService;
+import tech.task.dataox.service.ProcessingSchedulerService;
+import tech.task.dataox.service.ProcessingStatsService;
+import tech.task.dataox.service.RequestDeadlineService;
 import tech.task.dataox.service.mapper.OrderMapper;
+import tech.task.dataox.web.EntityTags;
+import tech.task.dataox.web.SparseFields;
 
-import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -35,13 +61,23 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 public class OrderController {
     private final OrderService orderService;
     private final OrderMapper orderMapper;
+    private final ArchiveService archiveService;
+    private final ProcessingStatsService processingStatsService;
+    private final OrderAdmissionService orderAdmissionService;
+    private final ProcessingSchedulerService processingSchedulerService;
+    private final RequestDeadlineService requestDeadlineService;
+    private final OrderConcurrencyLimitService orderConcurrencyLimitService;
+    private final OrderQuoteService orderQuoteService;
 
     @Operation(summary = "Create a new order",
             description = "Creates a new order for a client, supplier, and consumer")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "201", description = "Order created successfully"),
         @ApiResponse(responseCode = "400", description = "Invalid request data", content = @Content(mediaType = "application/json")),
-        @ApiResponse(responseCode = "404", description = "Client, supplier or consumer not found", content = @Content(mediaType = "application/json"))
+        @ApiResponse(responseCode = "404", description = "Client, supplier or consumer not found", content = @Content(mediaType = "application/json")),
+        @ApiResponse(responseCode = "429", description = "Order rate of the supplier or consumer exceeded, see Retry-After", content = @Content(mediaType = "application/json")),
+        @ApiResponse(responseCode = "503", description = "Order processing queue is full or too many orders in progress", content = @Content(mediaType = "application/json")),
+        @ApiResponse(responseCode = "504", description = "Order could not be processed within the request deadline", content = @Content(mediaType = "application/json"))
     })
     @RequestBody(description = "Order creation request", required = true,
         content = @Content(mediaType = "application/json", schema = @Schema(implementation = CreateOrderDto.class),
@@ -56,20 +92,145 @@ public class OrderController {
                 """)))
     @PostMapping
     public ResponseEntity<OrderDto> createOrder(@Valid @org.springframework.web.bind.annotation.RequestBody CreateOrderDto dto) {
+        orderAdmissionService.admit(dto.getSupplierId(), dto.getConsumerId());
         OrderDto order = orderMapper.toDto(orderService.create(orderMapper.toEntity(dto)));
         return ResponseEntity.status(HttpStatus.CREATED).body(order);
     }
 
+    @Operation(summary = "Create several orders",
+            description = "Creates the orders side by side, each with the rules and processing of POST /api/orders, "
+                    + "and answers the outcome of every order in the order of the request. The rate of the "
+                    + "suppliers and consumers is taken for the whole batch at once: when any of them is over its "
+                    + "rate nothing is created")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Outcomes in the order of the request, see allCreated"),
+        @ApiResponse(responseCode = "400", description = "Invalid request data, or more orders for a supplier or consumer than its rate allows at once", content = @Content(mediaType = "application/json")),
+        @ApiResponse(responseCode = "429", description = "Order rate of a supplier or consumer exceeded, see Retry-After", content = @Content(mediaType = "application/json"))
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<OrderBatchDto> createOrders(@Valid @org.springframework.web.bind.annotation.RequestBody CreateOrderBatchDto dto) {
+        List<Order> orders = dto.getOrders().stream().map(orderMapper::toEntity).toList();
+        // An invalid batch is refused before it costs any tokens
+        orders.forEach(orderService::validate);
+        orderAdmissionService.admitAll(orders);
+        List<OrderBatchItemDto> items = orderService.createAll(orders).stream()
+                .map(outcome -> outcome.rejection() == null
+                        ? OrderBatchItemDto.builder().created(true).order(orderMapper.toDto(outcome.order())).build()
+                        : OrderBatchItemDto.builder()
+                                .rejectedWith(outcome.rejection().getStatusCode().value())
+                                .reason(outcome.rejection().getReason())
+                                .build())
+                .toList();
+        return ResponseEntity.ok(OrderBatchDto.builder()
+                .items(items)
+                .allCreated(items.stream().allMatch(OrderBatchItemDto::isCreated))
+                .build());
+    }
+
+    @Operation(summary = "Quote an order",
+            description = "Checks whether POST /api/orders would accept the order now: active supplier and consumer, "
+                    + "not ordering from oneself, no existing order with the same title, supplier and consumer, and the "
+                    + "consumer profit staying above -1000. Answers at once and writes nothing")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Quote, with the status create would answer when not accepted"),
+        @ApiResponse(responseCode = "400", description = "Invalid request data", content = @Content(mediaType = "application/json"))
+    })
+    @PostMapping("/quote")
+    public ResponseEntity<OrderQuoteDto> quoteOrder(@Valid @org.springframework.web.bind.annotation.RequestBody CreateOrderDto dto) {
+        return ResponseEntity.ok(orderQuoteService.quote(orderMapper.toEntity(dto)));
+    }
+
+    @Operation(summary = "Quote several orders",
+            description = "Quotes the orders as if created one after another, like a cart: each counts against the "
+                    + "profit of its consumer for the ones after it, and a repeated title, supplier and consumer "
+                    + "is a duplicate")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Quotes in the order of the request"),
+        @ApiResponse(responseCode = "400", description = "Invalid request data", content = @Content(mediaType = "application/json"))
+    })
+    @PostMapping("/quote/batch")
+    public ResponseEntity<OrderQuoteBatchDto> quoteOrders(@Valid @org.springframework.web.bind.annotation.RequestBody CreateOrderBatchDto dto) {
+        List<OrderQuoteDto> quotes = orderQuoteService.quoteAll(dto.getOrders().stream().map(orderMapper::toEntity).toList());
+        return ResponseEntity.ok(OrderQuoteBatchDto.builder()
+                .quotes(quotes)
+                .allAccepted(quotes.stream().allMatch(OrderQuoteDto::isAccepted))
+                .build());
+    }
+
     @Operation(summary = "Get order by ID",
-            description = "Retrieve order details by its ID")
+            description = "Retrieve order details by its ID. Supports If-None-Match with the ETag of a previous response")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Order found"),
+        @ApiResponse(responseCode = "304", description = "Order unchanged since the given ETag"),
         @ApiResponse(responseCode = "404", description = "Order not found", content = @Content(mediaType = "application/json"))
     })
     @Parameter(name = "id", description = "Order ID", required = true)
+    @Parameter(name = "includeArchived", description = "Also look up the order in the archive")
     @GetMapping("/{id}")
-    public ResponseEntity<OrderDto> getOrderById(@PathVariable Long id) {
-        return ResponseEntity.ok(orderMapper.toDto(orderService.findById(id)));
+    public ResponseEntity<OrderDto> getOrderById(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            WebRequest request) {
+        if (includeArchived) {
+            Optional<ArchivedOrder> archived = archiveService.findArchivedOrderById(id);
+            if (archived.isPresent()) {
+                return ResponseEntity.ok(orderMapper.toDto(archived.get()));
+            }
+        }
+        // Answers 304 from the version alone; an inactive or unknown order falls through to the 404 below
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && orderService.findActiveVersion(id)
+                        .map(version -> request.checkNotModified(EntityTags.of(EntityTags.ORDER, id, version)))
+                        .orElse(false)) {
+            return null;
+        }
+        Order order = orderService.findById(id);
+        return ResponseEntity.ok()
+                .eTag(EntityTags.of(EntityTags.ORDER, id, order.getVersion()))
+                .body(orderMapper.toDto(order));
+    }
+
+    @Operation(summary = "Get processing time distribution",
+            description = "Percentiles of processing time and queue wait (savedAt - endProcessingAt) "
+                    + "over sliding windows and since startup")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Processing statistics")
+    })
+    @GetMapping("/stats/processing")
+    public ResponseEntity<ProcessingStatsDto> getProcessingStats() {
+        return ResponseEntity.ok(processingStatsService.getStats());
+    }
+
+    @Operation(summary = "Get processing scheduler state",
+            description = "Queue depth, running orders and queue wait per client class of the fair processing scheduler")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Scheduler statistics")
+    })
+    @GetMapping("/stats/scheduler")
+    public ResponseEntity<SchedulerStatsDto> getSchedulerStats() {
+        return ResponseEntity.ok(processingSchedulerService.getStats());
+    }
+
+    @Operation(summary = "Get order concurrency limit state",
+            description = "Current adaptive limit on orders created at once, orders in flight, the latencies "
+                    + "it follows and the orders shed with 503")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Concurrency limit statistics")
+    })
+    @GetMapping("/stats/concurrency")
+    public ResponseEntity<ConcurrencyLimitStatsDto> getConcurrencyStats() {
+        return ResponseEntity.ok(orderConcurrencyLimitService.getStats());
+    }
+
+    @Operation(summary = "Get request deadline statistics",
+            description = "Requests answered 504 because their X-Request-Timeout-Ms deadline, or the server default, "
+                    + "could not be met, by the stage that gave up")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Deadline statistics")
+    })
+    @GetMapping("/stats/deadlines")
+    public ResponseEntity<DeadlineStatsDto> getDeadlineStats() {
+        return ResponseEntity.ok(requestDeadlineService.getStats());
     }
 
     @Operation(summary = "Get orders by client ID",
@@ -79,12 +240,29 @@ public class OrderController {
         @ApiResponse(responseCode = "404", description = "Client not found", content = @Content(mediaType = "application/json"))
     })
     @Parameter(name = "clientId", description = "Client ID", required = true)
+    @Parameter(name = "includeArchived", description = "Append archived (soft-deleted) orders of the client")
+    @Parameter(name = "fields", description = "Comma separated order properties to return, all when omitted",
+            example = "orderId,title,price")
     @GetMapping("/client/{clientId}")
-    public ResponseEntity<List<OrderDto>> getOrderByClientId(@PathVariable Long clientId) {
-        List<OrderDto> orders = orderService.findAllByClientId(clientId).stream()
-                .map(orderMapper::toDto)
-                .toList();
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<List<OrderDto>> getOrderByClientId(
+            @PathVariable Long clientId,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            @RequestParam(required = false) String fields) {
+        Set<String> selected = SparseFields.parse(fields, SparseFields.ORDER);
+        if (selected != null) {
+            List<OrderDto> orders = new ArrayList<>(orderService.findAllByClientId(clientId, selected));
+            if (includeArchived) {
+                orders.addAll(archiveService.findArchivedOrdersByClientId(clientId, selected));
+            }
+            return ResponseEntity.ok(orders);
+        }
+        Stream<OrderDto> orders = orderService.findAllByClientId(clientId).stream()
+                .map(orderMapper::toDto);
+        if (includeArchived) {
+            orders = Stream.concat(orders, archiveService.findArchivedOrdersByClientId(clientId).stream()
+                    .map(orderMapper::toDto));
+        }
+        return ResponseEntity.ok(orders.toList());
     }
 
     @Operation(summary = "Get orders by supplier ID",
@@ -129,7 +307,7 @@ public class OrderController {
     @PatchMapping("/{id}/price")
     public ResponseEntity<OrderDto> updatePrice(
             @PathVariable Long id,
-            @RequestParam @Positive BigDecimal price) {
+            @RequestParam @Positive Money price) {
         OrderDto updatedOrder = orderMapper.toDto(orderService.updatePrice(id, price));
         return ResponseEntity.ok(updatedOrder);
     }
@@ -0,0 +1,123 @@
+package tech.task.dataox.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import tech.task.dataox.model.Order;
+import tech.task.dataox.model.dto.CreateOrderBatchDto;
+import tech.task.dataox.model.dto.CreateOrderDto;
+import tech.task.dataox.model.dto.IntakeStatsDto;
+import tech.task.dataox.model.dto.IntakeStatusBatchDto;
+import tech.task.dataox.model.dto.IntakeStatusDto;
+import tech.task.dataox.service.OrderAdmissionService;
+import tech.task.dataox.service.OrderIntakeService;
+import tech.task.dataox.service.OrderService;
+import tech.task.dataox.service.mapper.OrderMapper;
+
+import java.util.List;
+
+@RestController
+@ConditionalOnProperty(name = "intake.journal.enabled", havingValue = "true")
+@RequestMapping("/api/orders/intake")
+@Validated
+@RequiredArgsConstructor
+@Tag(name = "Order intake", description = "Journaled order creation, applied to the database asynchronously")
+public class OrderIntakeController {
+    private final OrderIntakeService orderIntakeService;
+    private final OrderAdmissionService orderAdmissionService;
+    private final OrderService orderService;
+    private final OrderMapper orderMapper;
+
+    @Operation(summary = "Accept an order",
+            description = "Writes the order to the intake journal and answers once it is on disk. The rules of "
+                    + "POST /api/orders are applied later, the outcome is available under the returned Location")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Order journaled, see Location for its status"),
+        @ApiResponse(responseCode = "400", description = "Invalid request data", content = @Content(mediaType = "application/json")),
+        @ApiResponse(responseCode = "429", description = "Order rate of the supplier or consumer exceeded, see Retry-After", content = @Content(mediaType = "application/json")),
+        @ApiResponse(responseCode = "503", description = "Too many journaled orders not applied yet", content = @Content(mediaType = "application/json"))
+    })
+    @PostMapping
+    public ResponseEntity<IntakeStatusDto> acceptOrder(@Valid @RequestBody CreateOrderDto dto) {
+        Order order = orderMapper.toEntity(dto);
+        orderService.validate(order);
+        orderAdmissionService.admit(dto.getSupplierId(), dto.getConsumerId());
+        IntakeStatusDto status;
+        try {
+            status = orderIntakeService.accept(order);
+        } catch (ResponseStatusException e) {
+            orderAdmissionService.releaseAll(List.of(order));
+            throw e;
+        }
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequest()
+                        .path("/{sequence}").buildAndExpand(status.getSequence()).toUri())
+                .body(status);
+    }
+
+    @Operation(summary = "Accept several orders",
+            description = "Journals the orders with a single fsync. Each is applied on its own like POST "
+                    + "/api/orders/intake, statuses are in the order of the request. Nothing is journaled "
+                    + "if any order is invalid or over its rate")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Orders journaled"),
+        @ApiResponse(responseCode = "400", description = "Invalid request data", content = @Content(mediaType = "application/json")),
+        @ApiResponse(responseCode = "429", description = "Order rate of a supplier or consumer exceeded, see Retry-After", content = @Content(mediaType = "application/json")),
+        @ApiResponse(responseCode = "503", description = "Too many journaled orders not applied yet", content = @Content(mediaType = "application/json"))
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<IntakeStatusBatchDto> acceptOrders(@Valid @RequestBody CreateOrderBatchDto dto) {
+        List<Order> orders = dto.getOrders().stream().map(orderMapper::toEntity).toList();
+        // An invalid batch is refused before it costs any tokens
+        orders.forEach(orderService::validate);
+        orderAdmissionService.admitAll(orders);
+        List<IntakeStatusDto> statuses;
+        try {
+            statuses = orderIntakeService.acceptAll(orders);
+        } catch (ResponseStatusException e) {
+            // Nothing was journaled, the orders give their tokens back
+            orderAdmissionService.releaseAll(orders);
+            throw e;
+        }
+        return ResponseEntity.accepted().body(IntakeStatusBatchDto.builder().statuses(statuses).build());
+    }
+
+    @Operation(summary = "Get the status of a journaled order",
+            description = "PENDING until applied, then APPLIED with the order id or REJECTED with the status "
+                    + "POST /api/orders would have answered. UNKNOWN once the outcome is no longer kept")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Intake status"),
+        @ApiResponse(responseCode = "404", description = "Sequence not issued by this journal", content = @Content(mediaType = "application/json"))
+    })
+    @Parameter(name = "sequence", description = "Journal sequence returned on accept", required = true)
+    @GetMapping("/{sequence}")
+    public ResponseEntity<IntakeStatusDto> getStatus(@PathVariable long sequence) {
+        return ResponseEntity.ok(orderIntakeService.getStatus(sequence));
+    }
+
+    @Operation(summary = "Get intake journal statistics",
+            description = "Journal lag behind the database, fsync and apply batch latencies")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Intake statistics")
+    })
+    @GetMapping("/stats")
+    public ResponseEntity<IntakeStatsDto> getStats() {
+        return ResponseEntity.ok(orderIntakeService.getStats());
+    }
+}
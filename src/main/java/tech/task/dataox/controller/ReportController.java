@@ -0,0 +1,49 @@
+package tech.task.dataox.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import tech.task.dataox.model.dto.RevenueBucketDto;
+import tech.task.dataox.model.report.ReportGranularity;
+import tech.task.dataox.model.report.RevenueRole;
+import tech.task.dataox.service.RevenueReportService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/reports")
+@RequiredArgsConstructor
+@Tag(name = "Reports", description = "Aggregated reporting endpoints")
+public class ReportController {
+    private final RevenueReportService revenueReportService;
+
+    @Operation(summary = "Revenue per client",
+            description = "Revenue of a client as supplier and/or consumer per hour or day over savedAt, "
+                    + "served from pre-aggregated rollups")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Revenue buckets in ascending order"),
+        @ApiResponse(responseCode = "400", description = "Invalid range", content = @Content(mediaType = "application/json"))
+    })
+    @GetMapping("/revenue")
+    public ResponseEntity<List<RevenueBucketDto>> getRevenue(
+            @Parameter(description = "Client id", example = "1") @RequestParam Long clientId,
+            @Parameter(description = "Role of the client, both when omitted") @RequestParam(required = false) RevenueRole role,
+            @Parameter(description = "Range start (inclusive)", example = "2025-08-18T00:00:00")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Range end (exclusive)", example = "2025-08-19T00:00:00")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "HOUR") ReportGranularity granularity) {
+        return ResponseEntity.ok(revenueReportService.findRevenue(clientId, role, from, to, granularity));
+    }
+}
@@ -0,0 +1,34 @@
+package tech.task.dataox.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import tech.task.dataox.model.dto.SqlEndpointStatsDto;
+import tech.task.dataox.service.SqlStatsService;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/stats")
+@RequiredArgsConstructor
+@Tag(name = "Stats", description = "Statistics spanning clients and orders")
+public class StatsController {
+    private final SqlStatsService sqlStatsService;
+
+    @Operation(summary = "Get SQL statistics per endpoint",
+            description = "Statements, rows read into entities and JDBC time per request for every endpoint "
+                    + "called since startup, the most statements per request first")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "SQL statistics")
+    })
+    @GetMapping("/sql")
+    public ResponseEntity<List<SqlEndpointStatsDto>> getSqlStats() {
+        return ResponseEntity.ok(sqlStatsService.getStats());
+    }
+}
@@ -3,6 +3,7 @@ package tech.task.dataox.controller;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -10,6 +11,7 @@ import org.springframework.web.bind.annotation.RestController;
 import tech.task.dataox.service.test.TestService;
 
 @RestController
+@ConditionalOnProperty(name = "app.test-fixtures.enabled", havingValue = "true", matchIfMissing = true)
 @RequiredArgsConstructor
 @RequestMapping("/api/test")
 @Tag(name = "Test Scenarios", description = "Controller for testing different order creation scenarios")
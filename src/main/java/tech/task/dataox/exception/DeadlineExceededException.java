@@ -0,0 +1,11 @@
+package tech.task.dataox.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public class DeadlineExceededException extends ResponseStatusException {
+
+    public DeadlineExceededException(String reason, Throwable cause) {
+        super(HttpStatus.GATEWAY_TIMEOUT, reason, cause);
+    }
+}
@@ -18,6 +18,6 @@ public class GlobalExceptionHandler {
         body.put("timestamp", LocalDateTime.now());
         body.put("status", ex.getStatusCode().value());
         body.put("error", ex.getReason());
-        return new ResponseEntity<>(body, ex.getStatusCode());
+        return new ResponseEntity<>(body, ex.getHeaders(), ex.getStatusCode());
     }
 }
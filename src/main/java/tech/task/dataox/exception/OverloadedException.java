@@ -0,0 +1,12 @@
+package tech.task.dataox.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+// Turned away because more work came in than is being processed, unlike a 503 for one busy client
+public class OverloadedException extends ResponseStatusException {
+
+    public OverloadedException(String reason) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, reason);
+    }
+}
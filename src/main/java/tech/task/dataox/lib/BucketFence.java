@@ -0,0 +1,99 @@
+package tech.task.dataox.lib;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the rebuild of a range of time buckets apart from the incremental deltas of the same buckets.
+ * A delta is in flight from just before the commit of the change behind it until it has been applied.
+ * A rebuild waits for the deltas in flight in its range and holds back new ones until it has committed,
+ * so each change is either read by the rebuild or applied on top of it, never both.
+ */
+public class BucketFence {
+    private final Map<LocalDateTime, Integer> inFlight = new HashMap<>();
+    private final List<Range> fenced = new ArrayList<>();
+
+    /**
+     * Registers a delta of {@code bucket}, waiting while a rebuild covers it.
+     */
+    public synchronized void enter(LocalDateTime bucket) {
+        boolean interrupted = false;
+        while (isFenced(bucket)) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                // The delta belongs to a change about to commit, it cannot be given up
+                interrupted = true;
+            }
+        }
+        inFlight.merge(bucket, 1, Integer::sum);
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public synchronized void exit(LocalDateTime bucket) {
+        inFlight.computeIfPresent(bucket, (b, count) -> count > 1 ? count - 1 : null);
+        notifyAll();
+    }
+
+    /**
+     * Runs {@code rebuild} for the buckets in {@code [from, to)} once no delta of them is in flight.
+     *
+     * @throws TimeoutException when deltas are still in flight after {@code maxWait}
+     */
+    public <T> T exclusive(LocalDateTime from, LocalDateTime to, Duration maxWait, Supplier<T> rebuild)
+            throws TimeoutException, InterruptedException {
+        Range range = new Range(from, to);
+        synchronized (this) {
+            fenced.add(range);
+            try {
+                long deadline = System.nanoTime() + maxWait.toNanos();
+                while (hasInFlight(range)) {
+                    long remainingMs = (deadline - System.nanoTime()) / 1_000_000;
+                    if (remainingMs <= 0) {
+                        throw new TimeoutException("Deltas still in flight between " + from + " and " + to);
+                    }
+                    wait(remainingMs);
+                }
+            } catch (TimeoutException | InterruptedException e) {
+                release(range);
+                throw e;
+            }
+        }
+        try {
+            return rebuild.get();
+        } finally {
+            release(range);
+        }
+    }
+
+    public synchronized int inFlight() {
+        return inFlight.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    private synchronized void release(Range range) {
+        fenced.remove(range);
+        notifyAll();
+    }
+
+    private boolean isFenced(LocalDateTime bucket) {
+        return fenced.stream().anyMatch(range -> range.contains(bucket));
+    }
+
+    private boolean hasInFlight(Range range) {
+        return inFlight.keySet().stream().anyMatch(range::contains);
+    }
+
+    private record Range(LocalDateTime from, LocalDateTime to) {
+        boolean contains(LocalDateTime bucket) {
+            return !bucket.isBefore(from) && bucket.isBefore(to);
+        }
+    }
+}
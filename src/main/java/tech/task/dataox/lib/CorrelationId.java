@@ -0,0 +1,15 @@
+package tech.task.dataox.lib;
+
+import java.util.UUID;
+
+public final class CorrelationId {
+    public static final String MDC_KEY = "correlationId";
+    public static final String HEADER = "X-Correlation-Id";
+
+    private CorrelationId() {
+    }
+
+    public static String generate() {
+        return UUID.randomUUID().toString();
+    }
+}
@@ -0,0 +1,169 @@
+package tech.task.dataox.lib;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs tasks on a fixed number of worker threads and picks the next task by deficit round robin
+ * over per-key queues. Each key with a backlog earns {@code quantum} units of credit per turn and
+ * spends it on the cost of its tasks, so a key with a thousand queued tasks gets the same share of
+ * the workers as a key with one. Queues of keys without a backlog are dropped, memory is bounded by
+ * {@code maxQueued}.
+ */
+public class DeficitRoundRobinScheduler<K> {
+    private final long quantum;
+    private final int maxQueued;
+    private final Map<K, Deque<Task>> queues = new HashMap<>();
+    private final Map<K, Long> deficits = new HashMap<>();
+    private final Deque<K> rotation = new ArrayDeque<>();
+    private final List<Thread> workers = new ArrayList<>();
+    // Whether the key at the head of the rotation already got its quantum for the current turn
+    private boolean headCharged;
+    private int queued;
+    private int running;
+    private boolean shutdown;
+
+    public DeficitRoundRobinScheduler(String name, int concurrency, int maxQueued, long quantum) {
+        this.quantum = quantum;
+        this.maxQueued = maxQueued;
+        for (int i = 0; i < concurrency; i++) {
+            Thread worker = new Thread(this::work, name + "-" + (i + 1));
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    /**
+     * @throws RejectedExecutionException when {@code maxQueued} tasks are already waiting
+     */
+    public synchronized CompletableFuture<Void> submit(K key, long cost, Runnable task) {
+        if (shutdown) {
+            throw new RejectedExecutionException("Scheduler is shut down");
+        }
+        if (queued >= maxQueued) {
+            throw new RejectedExecutionException("Queue is full: " + queued + " tasks waiting");
+        }
+        Deque<Task> queue = queues.get(key);
+        if (queue == null) {
+            queue = new ArrayDeque<>();
+            queues.put(key, queue);
+            rotation.addLast(key);
+        }
+        Task entry = new Task(Math.max(1, cost), task, new CompletableFuture<>());
+        queue.addLast(entry);
+        queued++;
+        notify();
+        return entry.future;
+    }
+
+    public synchronized int queued(K key) {
+        Deque<Task> queue = queues.get(key);
+        return queue == null ? 0 : queue.size();
+    }
+
+    public synchronized int queued() {
+        return queued;
+    }
+
+    public synchronized int running() {
+        return running;
+    }
+
+    public synchronized int backloggedKeys() {
+        return queues.size();
+    }
+
+    public int concurrency() {
+        return workers.size();
+    }
+
+    public int maxQueued() {
+        return maxQueued;
+    }
+
+    public void shutdown() {
+        synchronized (this) {
+            shutdown = true;
+            for (Deque<Task> queue : queues.values()) {
+                queue.forEach(t -> t.future.completeExceptionally(
+                        new RejectedExecutionException("Scheduler is shut down")));
+            }
+            queues.clear();
+            deficits.clear();
+            rotation.clear();
+            queued = 0;
+            notifyAll();
+        }
+        workers.forEach(Thread::interrupt);
+    }
+
+    private void work() {
+        while (true) {
+            Task task;
+            try {
+                task = take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (task == null) {
+                return;
+            }
+            try {
+                task.runnable.run();
+                task.future.complete(null);
+            } catch (Throwable e) {
+                task.future.completeExceptionally(e);
+            } finally {
+                synchronized (this) {
+                    running--;
+                }
+            }
+        }
+    }
+
+    private synchronized Task take() throws InterruptedException {
+        while (queued == 0) {
+            if (shutdown) {
+                return null;
+            }
+            wait();
+        }
+        while (true) {
+            K key = rotation.peekFirst();
+            if (!headCharged) {
+                deficits.merge(key, quantum, Long::sum);
+                headCharged = true;
+            }
+            long deficit = deficits.get(key);
+            Deque<Task> queue = queues.get(key);
+            Task head = queue.peekFirst();
+            if (head.cost <= deficit) {
+                queue.pollFirst();
+                queued--;
+                running++;
+                if (queue.isEmpty()) {
+                    // An idle key does not bank credit for later
+                    queues.remove(key);
+                    deficits.remove(key);
+                    rotation.pollFirst();
+                    headCharged = false;
+                } else {
+                    deficits.put(key, deficit - head.cost);
+                }
+                return head;
+            }
+            rotation.addLast(rotation.pollFirst());
+            headCharged = false;
+        }
+    }
+
+    private record Task(long cost, Runnable runnable, CompletableFuture<Void> future) {
+    }
+}
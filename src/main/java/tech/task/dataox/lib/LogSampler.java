@@ -0,0 +1,19 @@
+package tech.task.dataox.lib;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets through one call in every {@code rate}; a rate of 1 or less lets everything through.
+ */
+public class LogSampler {
+    private final long rate;
+    private final AtomicLong counter = new AtomicLong();
+
+    public LogSampler(long rate) {
+        this.rate = Math.max(1, rate);
+    }
+
+    public boolean sample() {
+        return rate == 1 || counter.getAndIncrement() % rate == 0;
+    }
+}
@@ -0,0 +1,291 @@
+package tech.task.dataox.lib;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of byte records in memory-mapped segment files of a fixed size.
+ * <p>
+ * A record is {@code [int length][int crc32c][long sequence][payload]}; sequences start at 1 and have no gaps.
+ * Segments are named after their first sequence and preallocated, so zero bytes mark the end of the data.
+ * On open every segment is scanned and the first record with a bad length, checksum or sequence ends the
+ * journal: a torn write at the tail is cut off, a damaged older segment refuses to open.
+ * <p>
+ * {@link #append} only copies into the mapping; {@link #sync} forces it to disk. Threads calling sync
+ * together share one force, the first of them syncs everything appended so far (group commit).
+ */
+public class MappedJournal implements Closeable {
+    private static final int HEADER_BYTES = 16;
+    private static final String SUFFIX = ".journal";
+    private static final String ID_FILE = "journal.id";
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final String id;
+    private final List<Segment> segments = new ArrayList<>();
+    private final Object syncLock = new Object();
+    private Segment current;
+    private long lastSeq;
+    private volatile long durableSeq;
+
+    private MappedJournal(Path dir, int segmentBytes, String id) {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.id = id;
+    }
+
+    public static MappedJournal open(Path dir, int segmentBytes) throws IOException {
+        Files.createDirectories(dir);
+        Path idFile = dir.resolve(ID_FILE);
+        if (!Files.exists(idFile)) {
+            Files.writeString(idFile, UUID.randomUUID().toString(), StandardCharsets.US_ASCII);
+        }
+        MappedJournal journal = new MappedJournal(dir, segmentBytes,
+                Files.readString(idFile, StandardCharsets.US_ASCII).trim());
+        journal.recover();
+        return journal;
+    }
+
+    /**
+     * Stable id of this journal directory, survives restarts.
+     */
+    public String id() {
+        return id;
+    }
+
+    /**
+     * @return the sequence of the record
+     * @throws IllegalArgumentException when the payload does not fit into an empty segment
+     */
+    public synchronized long append(byte[] payload) {
+        int recordBytes = HEADER_BYTES + payload.length;
+        if (recordBytes > segmentBytes) {
+            throw new IllegalArgumentException("Record of " + payload.length + " bytes exceeds the segment size");
+        }
+        if (current == null || current.position + recordBytes > segmentBytes) {
+            rotate();
+        }
+        long seq = lastSeq + 1;
+        CRC32C crc = new CRC32C();
+        crc.update(longBytes(seq));
+        crc.update(payload);
+        MappedByteBuffer buffer = current.buffer;
+        int at = current.position;
+        buffer.putInt(at + 4, (int) crc.getValue());
+        buffer.putLong(at + 8, seq);
+        buffer.put(at + HEADER_BYTES, payload);
+        // Length last: a reader that sees it also sees the rest of the record
+        buffer.putInt(at, payload.length);
+        current.position += recordBytes;
+        current.lastSeq = seq;
+        lastSeq = seq;
+        return seq;
+    }
+
+    /**
+     * Returns once the record with the given sequence, and every one before it, is on disk.
+     *
+     * @return nanoseconds this call spent forcing, 0 when a force of another thread covered the record
+     */
+    public long sync(long seq) {
+        if (durableSeq >= seq) {
+            return 0;
+        }
+        synchronized (syncLock) {
+            if (durableSeq >= seq) {
+                return 0;
+            }
+            Segment segment;
+            long target;
+            synchronized (this) {
+                segment = current;
+                target = lastSeq;
+            }
+            // Outside of the journal lock, appends go on while the page cache is written back
+            long start = System.nanoTime();
+            segment.buffer.force();
+            durableSeq = target;
+            return Math.max(1, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Records after {@code afterSeq}, in sequence order, read back from the mapped segments.
+     */
+    public synchronized List<Record> readAfter(long afterSeq) {
+        List<Record> records = new ArrayList<>();
+        for (Segment segment : segments) {
+            if (segment.lastSeq <= afterSeq) {
+                continue;
+            }
+            ByteBuffer buffer = segment.buffer.duplicate();
+            int at = 0;
+            while (at < segment.position) {
+                int length = buffer.getInt(at);
+                long seq = buffer.getLong(at + 8);
+                if (seq > afterSeq) {
+                    byte[] payload = new byte[length];
+                    buffer.get(at + HEADER_BYTES, payload);
+                    records.add(new Record(seq, payload));
+                }
+                at += HEADER_BYTES + length;
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Deletes the segments whose records all have a sequence up to {@code appliedSeq}; the current one stays.
+     */
+    public synchronized int release(long appliedSeq) {
+        int released = 0;
+        while (segments.size() > 1 && segments.get(0).lastSeq <= appliedSeq) {
+            Segment segment = segments.remove(0);
+            try {
+                Files.deleteIfExists(segment.path);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            released++;
+        }
+        return released;
+    }
+
+    public synchronized long lastSeq() {
+        return lastSeq;
+    }
+
+    public long durableSeq() {
+        return durableSeq;
+    }
+
+    public synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public void close() {
+        sync(lastSeq());
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> list = Files.list(dir)) {
+            files = list.filter(p -> p.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+        }
+        for (int i = 0; i < files.size(); i++) {
+            Path path = files.get(i);
+            long firstSeq = Long.parseLong(path.getFileName().toString().replace(SUFFIX, ""));
+            if (!segments.isEmpty() && firstSeq != lastSeq + 1) {
+                throw new IllegalStateException("Journal segment " + path + " does not continue at " + (lastSeq + 1));
+            }
+            Segment segment = map(path, firstSeq);
+            boolean complete = scan(segment);
+            segments.add(segment);
+            lastSeq = segment.lastSeq;
+            if (!complete) {
+                if (i < files.size() - 1) {
+                    throw new IllegalStateException("Journal segment " + path + " is damaged at offset " + segment.position);
+                }
+                // The torn record would otherwise show through behind the next append
+                zeroFrom(segment.buffer, segment.position);
+            }
+        }
+        current = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        durableSeq = lastSeq;
+    }
+
+    // Moves the segment position past every valid record, false when it stopped at a damaged one
+    private static boolean scan(Segment segment) {
+        MappedByteBuffer buffer = segment.buffer;
+        int capacity = buffer.capacity();
+        long expected = segment.firstSeq;
+        int at = 0;
+        while (at + HEADER_BYTES <= capacity) {
+            int length = buffer.getInt(at);
+            if (length == 0 && buffer.getLong(at + 8) == 0) {
+                return true;
+            }
+            if (length < 0 || at + HEADER_BYTES + length > capacity || buffer.getLong(at + 8) != expected) {
+                return false;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(at + HEADER_BYTES, payload);
+            CRC32C crc = new CRC32C();
+            crc.update(longBytes(expected));
+            crc.update(payload);
+            if ((int) crc.getValue() != buffer.getInt(at + 4)) {
+                return false;
+            }
+            segment.lastSeq = expected++;
+            at += HEADER_BYTES + length;
+            segment.position = at;
+        }
+        return true;
+    }
+
+    private static void zeroFrom(MappedByteBuffer buffer, int from) {
+        byte[] zeros = new byte[8192];
+        for (int at = from; at < buffer.capacity(); at += zeros.length) {
+            buffer.put(at, zeros, 0, Math.min(zeros.length, buffer.capacity() - at));
+        }
+        buffer.force();
+    }
+
+    private void rotate() {
+        if (current != null) {
+            // Records of the old segment are durable before any record of the new one
+            current.buffer.force();
+        }
+        try {
+            Path path = dir.resolve(String.format("%020d%s", lastSeq + 1, SUFFIX));
+            current = map(path, lastSeq + 1);
+            segments.add(current);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Segment map(Path path, long firstSeq) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping stays valid after the channel is closed; mapping past the end grows the file
+            return new Segment(path, firstSeq, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes));
+        }
+    }
+
+    private static byte[] longBytes(long value) {
+        return ByteBuffer.allocate(Long.BYTES).putLong(value).array();
+    }
+
+    public record Record(long seq, byte[] payload) {
+    }
+
+    private static final class Segment {
+        final Path path;
+        final long firstSeq;
+        final MappedByteBuffer buffer;
+        int position;
+        long lastSeq;
+
+        Segment(Path path, long firstSeq, MappedByteBuffer buffer) {
+            this.path = path;
+            this.firstSeq = firstSeq;
+            this.buffer = buffer;
+            this.lastSeq = firstSeq - 1;
+        }
+    }
+}
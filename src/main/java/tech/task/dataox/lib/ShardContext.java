@@ -0,0 +1,33 @@
+package tech.task.dataox.lib;
+
+/**
+ * Per-thread shard for {@link ShardRoutingDataSource}, set by {@code ShardRoutingService} around data access.
+ * Unset means the first shard.
+ */
+public final class ShardContext {
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * @return the shard set before, to be passed to {@link #restore}
+     */
+    public static Integer set(int shard) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        return previous;
+    }
+
+    public static void restore(Integer previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package tech.task.dataox.lib;
+
+import org.HdrHistogram.Histogram;
+import tech.task.dataox.model.dto.LatencyStatsDto;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fixed-memory latency histogram with one HDR slot per minute plus an all-time total.
+ * A window query merges the slots that are younger than the window, so memory does not
+ * grow with traffic and windows of any length up to the slot count are available.
+ */
+public class SlidingWindowHistogram {
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private final long highestTrackableValue;
+    private final Histogram[] slots;
+    private final long[] slotMinutes;
+    private final Histogram total;
+
+    public SlidingWindowHistogram(int minutes, long highestTrackableValue) {
+        this.highestTrackableValue = highestTrackableValue;
+        this.slots = new Histogram[minutes];
+        this.slotMinutes = new long[minutes];
+        for (int i = 0; i < minutes; i++) {
+            slots[i] = new Histogram(highestTrackableValue, SIGNIFICANT_DIGITS);
+            slotMinutes[i] = Long.MIN_VALUE;
+        }
+        this.total = new Histogram(highestTrackableValue, SIGNIFICANT_DIGITS);
+    }
+
+    public synchronized void record(long value, long epochMinute, long nowMinute) {
+        long clamped = Math.max(0, Math.min(value, highestTrackableValue));
+        total.recordValue(clamped);
+        if (epochMinute <= nowMinute - slots.length || epochMinute > nowMinute) {
+            return;
+        }
+        int index = (int) Math.floorMod(epochMinute, (long) slots.length);
+        if (slotMinutes[index] != epochMinute) {
+            // The slot still holds a minute that has fallen out of every window
+            slots[index].reset();
+            slotMinutes[index] = epochMinute;
+        }
+        slots[index].recordValue(clamped);
+    }
+
+    public synchronized Histogram window(int minutes, long nowMinute) {
+        Histogram merged = new Histogram(highestTrackableValue, SIGNIFICANT_DIGITS);
+        for (int i = 0; i < slots.length; i++) {
+            if (slotMinutes[i] > nowMinute - minutes && slotMinutes[i] <= nowMinute) {
+                merged.add(slots[i]);
+            }
+        }
+        return merged;
+    }
+
+    public synchronized Histogram total() {
+        return total.copy();
+    }
+
+    /**
+     * Latencies of each window, keyed like {@code "5m"} in the given order, then all-time under {@code "all"}.
+     */
+    public Map<String, LatencyStatsDto> summarize(List<Integer> windows, long nowMinute) {
+        Map<String, LatencyStatsDto> result = new LinkedHashMap<>();
+        for (int minutes : windows) {
+            result.put(minutes + "m", LatencyStatsDto.from(window(minutes, nowMinute)));
+        }
+        result.put("all", LatencyStatsDto.from(total()));
+        return result;
+    }
+}
@@ -0,0 +1,99 @@
+package tech.task.dataox.lib;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Statements, rows read into entities and JDBC time of one request, or of a narrower scope inside it.
+ * Started per request by {@link tech.task.dataox.web.SqlAccountingFilter} and carried to the processing
+ * workers like the deadline; a scope opened with {@link #measure} counts into the enclosing one as well.
+ * Fed by {@link SqlAccountingSessionListener} and {@link SqlAccountingInterceptor}.
+ */
+public final class SqlAccounting {
+    private static final ThreadLocal<SqlAccounting> CURRENT = new ThreadLocal<>();
+
+    private final SqlAccounting parent;
+    private final AtomicLong statements = new AtomicLong();
+    private final AtomicLong rows = new AtomicLong();
+    private final AtomicLong jdbcNanos = new AtomicLong();
+
+    private SqlAccounting(SqlAccounting parent) {
+        this.parent = parent;
+    }
+
+    public static SqlAccounting current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Opens a scope on the calling thread, nested into the current one. Returns the scope that was current
+     * before, to {@link #restore} when done.
+     */
+    public static SqlAccounting start() {
+        SqlAccounting previous = CURRENT.get();
+        CURRENT.set(new SqlAccounting(previous));
+        return previous;
+    }
+
+    /**
+     * Makes {@code accounting} current on the calling thread, for work handed to another thread.
+     */
+    public static SqlAccounting bind(SqlAccounting accounting) {
+        SqlAccounting previous = CURRENT.get();
+        CURRENT.set(accounting);
+        return previous;
+    }
+
+    public static void restore(SqlAccounting previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Runs the work in a scope of its own and returns what it used, for guarding query counts in tests.
+     */
+    public static Snapshot measure(Runnable work) {
+        return measure(() -> {
+            work.run();
+            return null;
+        }).usage();
+    }
+
+    public static <T> Measured<T> measure(Supplier<T> work) {
+        SqlAccounting previous = start();
+        SqlAccounting scope = CURRENT.get();
+        try {
+            T result = work.get();
+            return new Measured<>(result, scope.snapshot());
+        } finally {
+            restore(previous);
+        }
+    }
+
+    static void recordStatement(long nanos) {
+        for (SqlAccounting scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.statements.incrementAndGet();
+            scope.jdbcNanos.addAndGet(nanos);
+        }
+    }
+
+    static void recordRow() {
+        for (SqlAccounting scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.rows.incrementAndGet();
+        }
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(statements.get(), rows.get(), TimeUnit.NANOSECONDS.toMicros(jdbcNanos.get()));
+    }
+
+    public record Snapshot(long statements, long rows, long jdbcMicros) {
+    }
+
+    public record Measured<T>(T result, Snapshot usage) {
+    }
+}
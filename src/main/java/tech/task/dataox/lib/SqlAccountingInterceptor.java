@@ -0,0 +1,17 @@
+package tech.task.dataox.lib;
+
+import org.hibernate.Interceptor;
+import org.hibernate.type.Type;
+
+/**
+ * Counts every row read into an entity, so a lazy association loaded per element shows up next to the
+ * statement count. Rows of projections and native queries are not seen here.
+ */
+public class SqlAccountingInterceptor implements Interceptor {
+
+    @Override
+    public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+        SqlAccounting.recordRow();
+        return false;
+    }
+}
@@ -0,0 +1,31 @@
+package tech.task.dataox.lib;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Counts each statement execution, a JDBC batch as one, with its time into the {@link SqlAccounting} of the
+ * calling thread. Hibernate creates one per session, so the start time needs no synchronization.
+ */
+public class SqlAccountingSessionListener implements SessionEventListener {
+    private long startedAt;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        startedAt = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        SqlAccounting.recordStatement(System.nanoTime() - startedAt);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        startedAt = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        SqlAccounting.recordStatement(System.nanoTime() - startedAt);
+    }
+}
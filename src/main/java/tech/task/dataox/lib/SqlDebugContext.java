@@ -0,0 +1,23 @@
+package tech.task.dataox.lib;
+
+/**
+ * Per-thread switch for SQL logging, turned on for a single request by {@link tech.task.dataox.web.RequestLoggingFilter}.
+ */
+public final class SqlDebugContext {
+    private static final ThreadLocal<Boolean> ENABLED = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private SqlDebugContext() {
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED.get();
+    }
+
+    public static void enable() {
+        ENABLED.set(Boolean.TRUE);
+    }
+
+    public static void clear() {
+        ENABLED.remove();
+    }
+}
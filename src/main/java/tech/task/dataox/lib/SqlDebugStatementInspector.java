@@ -0,0 +1,19 @@
+package tech.task.dataox.lib;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Logs statements only for requests that asked for it, replacing the global spring.jpa.show-sql.
+ */
+@Slf4j
+public class SqlDebugStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        if (SqlDebugContext.isEnabled()) {
+            log.info("SQL: {}", sql);
+        }
+        return sql;
+    }
+}
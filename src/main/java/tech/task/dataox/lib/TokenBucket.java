@@ -0,0 +1,55 @@
+package tech.task.dataox.lib;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Classic token bucket: {@code capacity} tokens, refilled continuously at {@code refillPerSecond}.
+ */
+public class TokenBucket {
+    private final double capacity;
+    private final double refillPerNano;
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(double capacity, double refillPerSecond) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * @return 0 when a token was taken, otherwise the nanoseconds until one becomes available
+     */
+    public long tryAcquire() {
+        return tryAcquire(1);
+    }
+
+    /**
+     * Takes {@code permits} tokens or none.
+     *
+     * @return 0 when the tokens were taken, otherwise the nanoseconds until that many become available
+     */
+    public synchronized long tryAcquire(int permits) {
+        refill();
+        if (tokens >= permits) {
+            tokens -= permits;
+            return 0;
+        }
+        return (long) Math.ceil((permits - tokens) / refillPerNano);
+    }
+
+    public void release() {
+        release(1);
+    }
+
+    public synchronized void release(int permits) {
+        tokens = Math.min(capacity, tokens + permits);
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * refillPerNano);
+        lastRefillNanos = now;
+    }
+}
@@ -0,0 +1,131 @@
+package tech.task.dataox.lib;
+
+/**
+ * Concurrency limit that follows the latency of the work it admits, after TCP Vegas as adapted by Netflix'
+ * concurrency-limits. The queue behind the limit is estimated from the recent latency against the latency
+ * without load: {@code limit * (1 - noLoad / recent)}. Below {@code log10(limit)} queued requests the limit
+ * grows quickly, up to {@code 3 * log10(limit)} slowly, above {@code 6 * log10(limit)} it shrinks; a
+ * dropped request (timed out, or turned away further in) shrinks it as well. Samples taken while less than
+ * half the limit is in use leave it alone, idle capacity says nothing about the right concurrency.
+ * <p>
+ * The no-load latency is the lowest seen. As it would otherwise never go up again, and a queue that never
+ * drains never shows it, every {@code probeInterval} samples the limit drops to the minimum until as many
+ * requests as were in flight plus the minimum have come back, and the lowest of those becomes the new one.
+ */
+public class VegasConcurrencyLimit {
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final int probeInterval;
+    private final double shortFactor;
+
+    private double limit;
+    private int inFlight;
+    private double recentNanos;
+    private long noLoadNanos;
+    private int untilProbe;
+    private boolean probing;
+    private int probeSamplesLeft;
+    private long probeMinNanos;
+
+    public VegasConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double smoothing, int shortWindow,
+                                 int probeInterval) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Need 1 <= min <= initial <= max limit, got "
+                    + minLimit + " <= " + initialLimit + " <= " + maxLimit);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.probeInterval = probeInterval;
+        this.shortFactor = 2.0 / (shortWindow + 1);
+        this.limit = initialLimit;
+        this.untilProbe = probeInterval;
+    }
+
+    /**
+     * @return false when the limit is reached, the caller must not start the work
+     */
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (probing ? minLimit : (int) limit)) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Releases a slot with the latency the work took.
+     */
+    public synchronized void onSample(long rttNanos) {
+        int used = inFlight--;
+        long sample = Math.max(1, rttNanos);
+        recentNanos = recentNanos == 0 ? sample : recentNanos * (1 - shortFactor) + sample * shortFactor;
+        if (probing) {
+            probeMinNanos = Math.min(probeMinNanos, sample);
+            if (--probeSamplesLeft == 0) {
+                probing = false;
+                noLoadNanos = probeMinNanos;
+                untilProbe = probeInterval;
+            }
+            return;
+        }
+        if (noLoadNanos == 0 || sample < noLoadNanos) {
+            noLoadNanos = sample;
+        }
+        if (--untilProbe <= 0) {
+            probing = true;
+            probeSamplesLeft = inFlight + minLimit;
+            probeMinNanos = Long.MAX_VALUE;
+            return;
+        }
+        if (used * 2 < limit) {
+            return;
+        }
+        double log = Math.max(1, Math.log10(limit));
+        double queued = limit * (1 - noLoadNanos / recentNanos);
+        if (queued <= log) {
+            update(limit + 6 * log);
+        } else if (queued < 3 * log) {
+            update(limit + log);
+        } else if (queued > 6 * log) {
+            update(limit - log);
+        }
+    }
+
+    /**
+     * Releases a slot without a sample, for work that failed on its own and says nothing about the load.
+     */
+    public synchronized void onIgnore() {
+        inFlight--;
+    }
+
+    /**
+     * Releases a slot of work that was dropped because the system behind the limit was overloaded.
+     */
+    public synchronized void onDropped() {
+        inFlight--;
+        update(limit - Math.max(1, Math.log10(limit)));
+    }
+
+    public synchronized int getLimit() {
+        return probing ? minLimit : (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized long getRecentNanos() {
+        return (long) recentNanos;
+    }
+
+    public synchronized long getNoLoadNanos() {
+        return noLoadNanos;
+    }
+
+    private void update(double target) {
+        double next = limit * (1 - smoothing) + target * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+}
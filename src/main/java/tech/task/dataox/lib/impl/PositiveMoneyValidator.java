@@ -0,0 +1,18 @@
+package tech.task.dataox.lib.impl;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import jakarta.validation.constraints.Positive;
+import tech.task.dataox.lib.Money;
+
+// Lets @Positive be used on Money, registered in META-INF/services/jakarta.validation.ConstraintValidator
+public class PositiveMoneyValidator implements ConstraintValidator<Positive, Money> {
+
+    @Override
+    public boolean isValid(Money value, ConstraintValidatorContext context) {
+        if (value == null) {
+            return true;
+        }
+        return value.isPositive();
+    }
+}
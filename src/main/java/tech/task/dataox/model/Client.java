@@ -13,9 +13,8 @@ import lombok.Setter;
 import lombok.ToString;
 import lombok.experimental.FieldDefaults;
 import org.hibernate.annotations.CreationTimestamp;
+import tech.task.dataox.lib.Money;
 
-import java.math.BigDecimal;
-import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -58,7 +57,7 @@ public class Client {
     LocalDateTime inactiveAt;
 
     @Version
-    private Timestamp version;
+    private long version;
 
     @OneToMany(mappedBy = "supplier", fetch = FetchType.LAZY)
     @ToString.Exclude
@@ -72,7 +71,7 @@ public class Client {
 
     @Column(nullable = false)
     @Builder.Default
-    BigDecimal profit = BigDecimal.ZERO;
+    Money profit = Money.ZERO;
 
     @CreationTimestamp
     LocalDateTime createdAt;
@@ -12,9 +12,8 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.experimental.FieldDefaults;
 import org.hibernate.annotations.CreationTimestamp;
+import tech.task.dataox.lib.Money;
 
-import java.math.BigDecimal;
-import java.sql.Timestamp;
 import java.time.LocalDateTime;
 
 @Entity
@@ -51,10 +50,10 @@ public class Order {
     @NotNull
     @Positive
     @Column(nullable = false)
-    BigDecimal price;
+    Money price;
 
     @Version
-    private Timestamp version;
+    private long version;
 
     @Column(nullable = false)
     LocalDateTime startProcessingAt;
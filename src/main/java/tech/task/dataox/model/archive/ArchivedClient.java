@@ -0,0 +1,56 @@
+package tech.task.dataox.model.archive;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import tech.task.dataox.lib.Money;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cold copy of a long-inactive {@link tech.task.dataox.model.Client}.
+ * A client is archived only after all of its orders have left the hot {@code orders} table.
+ */
+@Entity
+@Table(name = "clients_archive")
+@Getter
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ArchivedClient {
+
+    @Id
+    Long id;
+
+    @Column(nullable = false)
+    String name;
+
+    @Column(nullable = false)
+    String lastName;
+
+    @Column(nullable = false)
+    String email;
+
+    String address;
+
+    String phone;
+
+    @Column(nullable = false)
+    boolean isActive;
+
+    LocalDateTime inactiveAt;
+
+    long version;
+
+    @Column(nullable = false)
+    Money profit;
+
+    LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    LocalDateTime archivedAt;
+}
@@ -0,0 +1,56 @@
+package tech.task.dataox.model.archive;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import tech.task.dataox.lib.Money;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cold copy of a soft-deleted {@link tech.task.dataox.model.Order}.
+ * Rows are written only by the archive job, so the entity is read-only for the application.
+ */
+@Entity
+@Table(name = "orders_archive")
+@Getter
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ArchivedOrder {
+
+    @Id
+    Long id;
+
+    @Column(nullable = false)
+    String title;
+
+    @Column(name = "supplier_id", nullable = false)
+    Long supplierId;
+
+    @Column(name = "consumer_id", nullable = false)
+    Long consumerId;
+
+    @Column(nullable = false)
+    Money price;
+
+    long version;
+
+    @Column(nullable = false)
+    LocalDateTime startProcessingAt;
+
+    @Column(nullable = false)
+    LocalDateTime endProcessingAt;
+
+    LocalDateTime savedAt;
+
+    @Column(nullable = false)
+    boolean isActive;
+
+    @Column(nullable = false)
+    LocalDateTime archivedAt;
+}
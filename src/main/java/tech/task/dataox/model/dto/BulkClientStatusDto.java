@@ -0,0 +1,21 @@
+package tech.task.dataox.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+@Builder
+public class BulkClientStatusDto {
+
+    @Schema(description = "Client ids, either these or a keyword", example = "[1, 2, 3]")
+    List<@NotNull Long> ids;
+
+    @Size(min = 3)
+    @Schema(description = "Search keyword with the semantics of GET /api/clients, either this or ids", example = "partner.com")
+    String q;
+}
@@ -0,0 +1,16 @@
+package tech.task.dataox.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class BulkClientStatusResultDto {
+
+    @Schema(description = "Distinct ids given, or clients found by the keyword", example = "3")
+    int matched;
+
+    @Schema(description = "Clients whose status changed, the others already had it or do not exist", example = "2")
+    int affected;
+}
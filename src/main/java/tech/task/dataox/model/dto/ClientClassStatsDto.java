@@ -0,0 +1,21 @@
+package tech.task.dataox.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.Map;
+
+@Value
+@Builder
+public class ClientClassStatsDto {
+
+    @Schema(example = "30")
+    long queued;
+
+    @Schema(description = "Orders rejected because the queue was full", example = "0")
+    long rejected;
+
+    @Schema(description = "Time from submit to start of processing per window (1m, 5m, ..., all)")
+    Map<String, LatencyStatsDto> wait;
+}
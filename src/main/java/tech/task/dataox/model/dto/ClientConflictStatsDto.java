@@ -0,0 +1,22 @@
+package tech.task.dataox.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class ClientConflictStatsDto {
+
+    @Schema(example = "2")
+    Long clientId;
+
+    @Schema(example = "340")
+    long attempts;
+
+    @Schema(example = "12")
+    long conflicts;
+
+    @Schema(description = "conflicts / attempts", example = "0.035")
+    double conflictRate;
+}
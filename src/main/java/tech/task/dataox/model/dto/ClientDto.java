@@ -1,10 +1,12 @@
 package tech.task.dataox.model.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Builder;
 import lombok.Value;
-import java.math.BigDecimal;
+import tech.task.dataox.lib.Money;
 import java.time.LocalDateTime;
+import java.util.Set;
 
 @Value
 @Builder
@@ -31,8 +33,13 @@ public class ClientDto {
     boolean isActive;
 
     @Schema(example = "100.00")
-    BigDecimal profit;
+    Money profit;
 
     @Schema(example = "2025-08-18T14:37:32.206")
     LocalDateTime createdAt;
+
+    // Properties to write for a fields= request, all of them when null
+    @JsonIgnore
+    @Schema(hidden = true)
+    Set<String> fields;
 }
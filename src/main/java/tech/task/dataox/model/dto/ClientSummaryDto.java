@@ -0,0 +1,34 @@
+package tech.task.dataox.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+import tech.task.dataox.lib.Money;
+
+import java.time.LocalDateTime;
+
+@Value
+@Builder
+public class ClientSummaryDto {
+
+    @Schema(example = "1")
+    Long clientId;
+
+    @Schema(description = "Active orders where the client is the supplier", example = "12")
+    long suppliedOrders;
+
+    @Schema(example = "1520.40")
+    Money suppliedTotal;
+
+    @Schema(description = "Active orders where the client is the consumer", example = "3")
+    long consumedOrders;
+
+    @Schema(example = "310.00")
+    Money consumedTotal;
+
+    @Schema(description = "savedAt of the latest active order, null without orders", example = "2025-08-10T12:30:00")
+    LocalDateTime lastOrderAt;
+
+    @Schema(example = "1210.40")
+    Money profit;
+}
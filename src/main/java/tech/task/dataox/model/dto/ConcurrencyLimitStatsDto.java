@@ -0,0 +1,37 @@
+package tech.task.dataox.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class ConcurrencyLimitStatsDto {
+
+    @Schema(example = "true")
+    boolean enabled;
+
+    @Schema(description = "Orders admitted at once right now", example = "24")
+    int limit;
+
+    @Schema(example = "16")
+    int minLimit;
+
+    @Schema(example = "200")
+    int maxLimit;
+
+    @Schema(description = "Orders being created", example = "21")
+    int inFlight;
+
+    @Schema(description = "Recent average time an order spent on top of its processing delay", example = "38.2")
+    double recentLatencyMs;
+
+    @Schema(description = "Lowest time an order spent on top of its processing delay, the latency without a queue", example = "4.1")
+    double noLoadLatencyMs;
+
+    @Schema(description = "Orders answered 503 because the limit was reached", example = "118")
+    long shed;
+
+    @Schema(description = "Admitted orders that timed out or found the processing queue full", example = "3")
+    long dropped;
+}
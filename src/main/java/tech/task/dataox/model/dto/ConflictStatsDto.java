@@ -0,0 +1,24 @@
+package tech.task.dataox.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+@Builder
+public class ConflictStatsDto {
+
+    @Schema(description = "Transactions attempted, retries included", example = "1200")
+    long attempts;
+
+    @Schema(description = "Attempts that failed with an optimistic lock conflict", example = "14")
+    long conflicts;
+
+    @Schema(description = "Operations that still conflicted after the last retry", example = "0")
+    long exhausted;
+
+    @Schema(description = "Clients with the most conflicts first")
+    List<ClientConflictStatsDto> clients;
+}
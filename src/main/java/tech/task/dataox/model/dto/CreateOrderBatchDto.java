@@ -0,0 +1,21 @@
+package tech.task.dataox.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+@Builder
+public class CreateOrderBatchDto {
+
+    @NotEmpty
+    @Size(max = 1000)
+    @Schema(description = "Orders of the batch, at most 1000")
+    List<@Valid @NotNull CreateOrderDto> orders;
+}
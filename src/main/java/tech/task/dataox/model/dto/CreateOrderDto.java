@@ -7,8 +7,8 @@ import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
 import lombok.Builder;
 import lombok.Value;
+import tech.task.dataox.lib.Money;
 
-import java.math.BigDecimal;
 
 @Value
 @Builder
@@ -29,5 +29,5 @@ public class CreateOrderDto {
 
     @Positive(message = "Price below 0 or equal 0")
     @Schema(example = "199.99")
-    BigDecimal price;
+    Money price;
 }
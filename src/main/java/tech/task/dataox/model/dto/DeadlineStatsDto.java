@@ -0,0 +1,25 @@
+package tech.task.dataox.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.Map;
+
+@Value
+@Builder
+public class DeadlineStatsDto {
+
+    @Schema(description = "Deadline of requests without the X-Request-Timeout-Ms header", example = "15000")
+    long defaultMs;
+
+    @Schema(description = "Time kept back for the commit when deciding whether work still fits", example = "250")
+    long commitReserveMs;
+
+    @Schema(description = "Requests answered 504 because their deadline could not be met", example = "12")
+    long exceeded;
+
+    @Schema(description = "Exceeded deadlines by the stage that gave up: admission (before queueing), "
+            + "queue (after waiting for a worker) or commit")
+    Map<String, Long> exceededByStage;
+}
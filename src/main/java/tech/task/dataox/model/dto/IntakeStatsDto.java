@@ -0,0 +1,48 @@
+package tech.task.dataox.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.Map;
+
+@Value
+@Builder
+public class IntakeStatsDto {
+
+    @Schema(example = "0c6b6c3e-8f0e-4a47-9a5e-4f7f0b2f1f7a")
+    String journalId;
+
+    @Schema(description = "Last sequence appended to the journal", example = "1042")
+    long appendedSeq;
+
+    @Schema(description = "Last sequence forced to disk", example = "1042")
+    long durableSeq;
+
+    @Schema(description = "Last sequence applied to the database", example = "1000")
+    long appliedSeq;
+
+    @Schema(description = "Accepted orders not applied yet", example = "42")
+    long lag;
+
+    @Schema(description = "Time since the oldest pending order was accepted, 0 without pending orders", example = "35")
+    long oldestPendingMs;
+
+    @Schema(example = "2")
+    int segments;
+
+    @Schema(example = "980")
+    long applied;
+
+    @Schema(example = "20")
+    long rejected;
+
+    @Schema(description = "Transactions that applied at least one order", example = "57")
+    long batches;
+
+    @Schema(description = "Duration of one journal force to disk, shared by every order synced with it")
+    Map<String, LatencyStatsDto> fsync;
+
+    @Schema(description = "Duration of one apply transaction")
+    Map<String, LatencyStatsDto> batch;
+}
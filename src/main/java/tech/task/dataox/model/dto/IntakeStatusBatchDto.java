@@ -0,0 +1,15 @@
+package tech.task.dataox.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+@Builder
+public class IntakeStatusBatchDto {
+
+    @Schema(description = "Status of every order, in the order of the request")
+    List<IntakeStatusDto> statuses;
+}
@@ -0,0 +1,26 @@
+package tech.task.dataox.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+import tech.task.dataox.model.intake.IntakeStatus;
+
+@Value
+@Builder
+public class IntakeStatusDto {
+
+    @Schema(description = "Journal sequence of the accepted order", example = "1042")
+    long sequence;
+
+    @Schema(example = "APPLIED")
+    IntakeStatus status;
+
+    @Schema(description = "Id of the saved order once applied", example = "17")
+    Long orderId;
+
+    @Schema(description = "HTTP status create would have answered for a rejected order", example = "422")
+    Integer rejectedWith;
+
+    @Schema(example = "Consumer profit would drop below -1000")
+    String reason;
+}
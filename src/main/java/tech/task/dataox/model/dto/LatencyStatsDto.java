@@ -0,0 +1,44 @@
+package tech.task.dataox.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+import org.HdrHistogram.Histogram;
+
+@Value
+@Builder
+public class LatencyStatsDto {
+
+    @Schema(example = "120")
+    long count;
+
+    @Schema(example = "5480.5")
+    double meanMs;
+
+    @Schema(example = "5500")
+    long p50Ms;
+
+    @Schema(example = "9100")
+    long p90Ms;
+
+    @Schema(example = "9900")
+    long p99Ms;
+
+    @Schema(example = "10000")
+    long p999Ms;
+
+    @Schema(example = "10010")
+    long maxMs;
+
+    public static LatencyStatsDto from(Histogram h) {
+        return LatencyStatsDto.builder()
+                .count(h.getTotalCount())
+                .meanMs(h.getTotalCount() == 0 ? 0 : h.getMean())
+                .p50Ms(h.getValueAtPercentile(50))
+                .p90Ms(h.getValueAtPercentile(90))
+                .p99Ms(h.getValueAtPercentile(99))
+                .p999Ms(h.getValueAtPercentile(99.9))
+                .maxMs(h.getMaxValue())
+                .build();
+    }
+}
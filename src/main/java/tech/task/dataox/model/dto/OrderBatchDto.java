@@ -0,0 +1,18 @@
+package tech.task.dataox.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+@Builder
+public class OrderBatchDto {
+
+    @Schema(description = "Outcome of every order, in the order of the request")
+    List<OrderBatchItemDto> items;
+
+    @Schema(description = "Whether all orders were created", example = "true")
+    boolean allCreated;
+}
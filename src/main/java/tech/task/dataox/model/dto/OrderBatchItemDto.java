@@ -0,0 +1,22 @@
+package tech.task.dataox.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class OrderBatchItemDto {
+
+    @Schema(description = "Whether the order was created", example = "true")
+    boolean created;
+
+    @Schema(description = "The created order; absent when it was rejected")
+    OrderDto order;
+
+    @Schema(description = "HTTP status POST /api/orders would have answered for a rejected order", example = "422")
+    Integer rejectedWith;
+
+    @Schema(example = "Consumer profit would drop below -1000")
+    String reason;
+}
@@ -1,11 +1,13 @@
 package tech.task.dataox.model.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Builder;
 import lombok.Value;
+import tech.task.dataox.lib.Money;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Set;
 
 @Value
 @Builder
@@ -23,7 +25,7 @@ public class OrderDto {
     Long consumerId;
 
     @Schema(example = "100.00")
-    BigDecimal price;
+    Money price;
 
     @Schema(example = "2025-08-18T14:32:45.183")
     LocalDateTime startProcessingAt;
@@ -33,4 +35,9 @@ public class OrderDto {
 
     @Schema(example = "2025-08-18T14:33:02.296")
     LocalDateTime savedAt;
+
+    // Properties to write for a fields= request, all of them when null
+    @JsonIgnore
+    @Schema(hidden = true)
+    Set<String> fields;
 }
@@ -0,0 +1,18 @@
+package tech.task.dataox.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+@Builder
+public class OrderQuoteBatchDto {
+
+    @Schema(description = "Quote of every order, in the order of the request")
+    List<OrderQuoteDto> quotes;
+
+    @Schema(description = "Whether create would accept all of them, one after another", example = "true")
+    boolean allAccepted;
+}
@@ -0,0 +1,36 @@
+package tech.task.dataox.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+import tech.task.dataox.lib.Money;
+
+@Value
+@Builder
+public class OrderQuoteDto {
+
+    @Schema(example = "Book about the cat")
+    String title;
+
+    @Schema(example = "1")
+    Long supplierId;
+
+    @Schema(example = "2")
+    Long consumerId;
+
+    @Schema(example = "199.99")
+    Money price;
+
+    @Schema(description = "Whether create would accept the order now", example = "false")
+    boolean accepted;
+
+    @Schema(description = "HTTP status create would answer for a rejected order", example = "422")
+    Integer rejectedWith;
+
+    @Schema(example = "Consumer profit would drop below -1000")
+    String reason;
+
+    @Schema(description = "Consumer profit after the order, and the orders before it in the batch, with the "
+            + "supplier credits not applied yet; absent when the consumer was not found", example = "-350.00")
+    Money projectedConsumerProfit;
+}
@@ -0,0 +1,18 @@
+package tech.task.dataox.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.Map;
+
+@Value
+@Builder
+public class ProcessingStatsDto {
+
+    @Schema(description = "endProcessingAt - startProcessingAt per window (1m, 5m, ..., all)")
+    Map<String, LatencyStatsDto> processing;
+
+    @Schema(description = "savedAt - endProcessingAt per window (1m, 5m, ..., all)")
+    Map<String, LatencyStatsDto> queueWait;
+}
@@ -0,0 +1,36 @@
+package tech.task.dataox.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.Map;
+
+@Value
+@Builder
+public class ProfitFlushStatsDto {
+
+    @Schema(description = "Clients with credits waiting for the next flush on this instance", example = "12")
+    int pendingClients;
+
+    @Schema(description = "Credits waiting for the next flush on this instance", example = "340")
+    long pendingCredits;
+
+    @Schema(description = "Client profit updates issued, one per client and flush", example = "5200")
+    long flushedClients;
+
+    @Schema(description = "Credits applied by those updates", example = "48000")
+    long flushedCredits;
+
+    @Schema(description = "Credits applied by the sweep of the delta log, left by a stopped instance", example = "0")
+    long sweptCredits;
+
+    @Schema(description = "Credits logged on another shard than their client, added to it on its own shard", example = "0")
+    long transferredCredits;
+
+    @Schema(description = "Client flushes that failed and were retried with the next flush", example = "0")
+    long failedFlushes;
+
+    @Schema(description = "Duration of one client flush transaction")
+    Map<String, LatencyStatsDto> flush;
+}
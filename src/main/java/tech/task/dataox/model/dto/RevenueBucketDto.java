@@ -0,0 +1,29 @@
+package tech.task.dataox.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+import tech.task.dataox.lib.Money;
+import tech.task.dataox.model.report.RevenueRole;
+
+import java.time.LocalDateTime;
+
+@Value
+@Builder
+public class RevenueBucketDto {
+
+    @Schema(example = "1")
+    Long clientId;
+
+    @Schema(example = "SUPPLIER")
+    RevenueRole role;
+
+    @Schema(example = "2025-08-18T14:00:00")
+    LocalDateTime bucket;
+
+    @Schema(example = "1250.00")
+    Money revenue;
+
+    @Schema(example = "12")
+    long orderCount;
+}
@@ -0,0 +1,30 @@
+package tech.task.dataox.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.Map;
+
+@Value
+@Builder
+public class SchedulerStatsDto {
+
+    @Schema(example = "16")
+    int concurrency;
+
+    @Schema(example = "150")
+    int maxQueueDepth;
+
+    @Schema(example = "16")
+    int running;
+
+    @Schema(example = "42")
+    int queued;
+
+    @Schema(description = "Consumers with at least one queued order", example = "7")
+    int backloggedClients;
+
+    @Schema(description = "Per client class: light clients had a short backlog when they submitted, heavy ones a long one")
+    Map<String, ClientClassStatsDto> classes;
+}
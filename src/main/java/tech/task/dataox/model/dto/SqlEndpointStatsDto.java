@@ -0,0 +1,37 @@
+package tech.task.dataox.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class SqlEndpointStatsDto {
+
+    @Schema(description = "HTTP method and mapped path", example = "POST /api/orders")
+    String endpoint;
+
+    @Schema(example = "1200")
+    long requests;
+
+    @Schema(description = "Statements executed per request on average, a JDBC batch counted once", example = "6.0")
+    double meanStatements;
+
+    @Schema(example = "9")
+    long maxStatements;
+
+    @Schema(description = "Rows read into entities per request on average", example = "3.5")
+    double meanRows;
+
+    @Schema(example = "40")
+    long maxRows;
+
+    @Schema(description = "Time spent executing statements per request on average", example = "1.8")
+    double meanJdbcMs;
+
+    @Schema(example = "35.2")
+    double maxJdbcMs;
+
+    @Schema(description = "Requests with more statements than sql.accounting.warn-statements", example = "0")
+    long overBudget;
+}
@@ -0,0 +1,12 @@
+package tech.task.dataox.model.event;
+
+import lombok.Value;
+
+/**
+ * State of a client changed outside of its orders (activity, profit reset, flushed supplier credits). {@code clientId} is null when
+ * the change applies to all clients.
+ */
+@Value
+public class ClientChangedEvent {
+    Long clientId;
+}
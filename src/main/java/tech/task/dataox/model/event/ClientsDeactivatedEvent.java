@@ -0,0 +1,13 @@
+package tech.task.dataox.model.event;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Clients were deactivated, their active orders are deactivated after the commit.
+ */
+@Value
+public class ClientsDeactivatedEvent {
+    List<Long> clientIds;
+}
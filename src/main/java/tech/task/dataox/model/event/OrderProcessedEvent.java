@@ -0,0 +1,15 @@
+package tech.task.dataox.model.event;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Timing of an order that was processed and saved.
+ */
+@Value
+public class OrderProcessedEvent {
+    LocalDateTime startProcessingAt;
+    LocalDateTime endProcessingAt;
+    LocalDateTime savedAt;
+}
@@ -0,0 +1,18 @@
+package tech.task.dataox.model.event;
+
+import lombok.Value;
+import tech.task.dataox.lib.Money;
+
+import java.time.LocalDateTime;
+
+/**
+ * Change of revenue caused by one order, applied to both the supplier and the consumer rollups.
+ */
+@Value
+public class RevenueDeltaEvent {
+    Long supplierId;
+    Long consumerId;
+    LocalDateTime savedAt;
+    Money revenueDelta;
+    long orderCountDelta;
+}
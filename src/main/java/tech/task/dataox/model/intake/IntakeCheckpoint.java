@@ -0,0 +1,28 @@
+package tech.task.dataox.model.intake;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Journal sequence up to which the order intake of one instance is applied.
+ * Written only through the native statements of {@link tech.task.dataox.repository.IntakeCheckpointRepository}.
+ */
+@Entity
+@Table(name = "intake_checkpoints")
+@Getter
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class IntakeCheckpoint {
+
+    @Id
+    String journalId;
+
+    @Column(nullable = false)
+    long appliedSeq;
+}
@@ -0,0 +1,10 @@
+package tech.task.dataox.model.intake;
+
+public enum IntakeStatus {
+    /** In the journal, not applied yet */
+    PENDING,
+    APPLIED,
+    REJECTED,
+    /** Applied or rejected before the outcome cache was last emptied (restart or eviction) */
+    UNKNOWN
+}
@@ -0,0 +1,44 @@
+package tech.task.dataox.model.ledger;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import tech.task.dataox.lib.Money;
+
+import java.time.LocalDateTime;
+
+/**
+ * Profit credit of a committed order that is not yet added to its client, see
+ * {@link tech.task.dataox.service.ProfitWriteBehindService}.
+ */
+@Entity
+@Table(name = "profit_deltas")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ProfitDelta {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    Long id;
+
+    @Column(nullable = false)
+    Long clientId;
+
+    @Column(nullable = false)
+    Money amount;
+
+    @Column(nullable = false)
+    LocalDateTime createdAt;
+}
@@ -0,0 +1,36 @@
+package tech.task.dataox.model.lock;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lease on a client held by one application instance until {@code expiresAt}.
+ * Written only through the native statements of {@link tech.task.dataox.repository.ClientLockRepository}.
+ */
+@Entity
+@Table(name = "client_locks")
+@Getter
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ClientLock {
+
+    @Id
+    Long clientId;
+
+    @Column(nullable = false)
+    String owner;
+
+    @Column(nullable = false)
+    LocalDateTime expiresAt;
+
+    @Column(nullable = false)
+    long fencingToken;
+}
@@ -0,0 +1,6 @@
+package tech.task.dataox.model.report;
+
+public enum RevenueRole {
+    SUPPLIER,
+    CONSUMER
+}
@@ -0,0 +1,33 @@
+package tech.task.dataox.model.report;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import tech.task.dataox.lib.Money;
+
+
+/**
+ * Hourly revenue of a client in one role, aggregated from active orders by {@code savedAt}.
+ * Maintained by delta upserts after each order change and periodically rebuilt from {@code orders}.
+ */
+@Entity
+@Table(name = "revenue_rollups")
+@Getter
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class RevenueRollup {
+
+    @EmbeddedId
+    RevenueRollupId id;
+
+    @Column(nullable = false)
+    Money revenue;
+
+    @Column(nullable = false)
+    long orderCount;
+}
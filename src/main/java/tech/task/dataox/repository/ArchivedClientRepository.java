@@ -0,0 +1,24 @@
+package tech.task.dataox.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import tech.task.dataox.model.archive.ArchivedClient;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ArchivedClientRepository extends JpaRepository<ArchivedClient, Long> {
+
+    @Modifying
+    @Query(value = """
+        insert into clients_archive (id, name, last_name, email, address, phone, is_active,
+                                     inactive_at, version, profit, created_at, archived_at)
+        select c.id, c.name, c.last_name, c.email, c.address, c.phone, c.is_active,
+               c.inactive_at, c.version, c.profit, c.created_at, :archivedAt
+        from clients c
+        where c.id in (:ids) and c.is_active = false
+        """, nativeQuery = true)
+    int copyFromClients(@Param("ids") List<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+}
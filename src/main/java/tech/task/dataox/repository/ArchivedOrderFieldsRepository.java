@@ -0,0 +1,14 @@
+package tech.task.dataox.repository;
+
+import tech.task.dataox.model.dto.OrderDto;
+
+import java.util.List;
+import java.util.Set;
+
+public interface ArchivedOrderFieldsRepository {
+
+    /**
+     * {@link ArchivedOrderRepository#findAllByClientId} reading only the columns of {@code fields}.
+     */
+    List<OrderDto> findAllByClientId(Long clientId, Set<String> fields);
+}
@@ -0,0 +1,38 @@
+package tech.task.dataox.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import tech.task.dataox.model.dto.OrderDto;
+import tech.task.dataox.web.SparseFields;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+class ArchivedOrderFieldsRepositoryImpl implements ArchivedOrderFieldsRepository {
+    private static final Map<String, String> PATHS = Map.of(
+            "orderId", "id",
+            "title", "title",
+            "supplierId", "supplierId",
+            "consumerId", "consumerId",
+            "price", "price",
+            "startProcessingAt", "startProcessingAt",
+            "endProcessingAt", "endProcessingAt",
+            "savedAt", "savedAt");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<OrderDto> findAllByClientId(Long clientId, Set<String> fields) {
+        List<String> columns = FieldSelect.columns(SparseFields.ORDER, fields, Set.of());
+        return entityManager.createQuery("select " + FieldSelect.of("o", PATHS, columns)
+                        + " from ArchivedOrder o where o.supplierId = :clientId or o.consumerId = :clientId",
+                        Tuple.class)
+                .setParameter("clientId", clientId)
+                .getResultList().stream()
+                .map(row -> OrderFieldsRepositoryImpl.toDto(row, columns, fields))
+                .toList();
+    }
+}
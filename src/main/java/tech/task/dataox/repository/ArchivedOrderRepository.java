@@ -0,0 +1,39 @@
+package tech.task.dataox.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import tech.task.dataox.model.archive.ArchivedOrder;
+import tech.task.dataox.repository.projection.OrderKeyView;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long>, ArchivedOrderFieldsRepository {
+
+    boolean existsByTitleAndSupplierIdAndConsumerId(String title, Long supplierId, Long consumerId);
+
+    // See OrderRepository.findKeys
+    @Query("""
+        SELECT o.title AS title, o.supplierId AS supplierId, o.consumerId AS consumerId FROM ArchivedOrder o
+        WHERE o.consumerId IN :consumerIds AND o.title IN :titles
+        """)
+    List<OrderKeyView> findKeys(@Param("consumerIds") Collection<Long> consumerIds,
+                                @Param("titles") Collection<String> titles);
+
+    @Query("SELECT o FROM ArchivedOrder o WHERE o.supplierId = :clientId OR o.consumerId = :clientId")
+    List<ArchivedOrder> findAllByClientId(@Param("clientId") Long clientId);
+
+    @Modifying
+    @Query(value = """
+        insert into orders_archive (id, title, supplier_id, consumer_id, price, version,
+                                    start_processing_at, end_processing_at, saved_at, is_active, archived_at)
+        select o.id, o.title, o.supplier_id, o.consumer_id, o.price, o.version,
+               o.start_processing_at, o.end_processing_at, o.saved_at, o.is_active, :archivedAt
+        from orders o
+        where o.id in (:ids) and o.is_active = false
+        """, nativeQuery = true)
+    int copyFromOrders(@Param("ids") List<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+}
@@ -0,0 +1,16 @@
+package tech.task.dataox.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import tech.task.dataox.model.dto.ClientDto;
+
+import java.util.Set;
+
+public interface ClientFieldsRepository {
+
+    /**
+     * {@link ClientRepository#searchActive} reading only the columns of {@code fields}, plus the id and the
+     * sort properties needed to merge the pages of several shards.
+     */
+    Page<ClientDto> searchActive(String q, Set<String> fields, Pageable pageable);
+}
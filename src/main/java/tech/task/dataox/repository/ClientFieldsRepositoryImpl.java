@@ -0,0 +1,82 @@
+package tech.task.dataox.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import tech.task.dataox.lib.Money;
+import tech.task.dataox.model.dto.ClientDto;
+import tech.task.dataox.web.SparseFields;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+class ClientFieldsRepositoryImpl implements ClientFieldsRepository {
+    private static final Map<String, String> PATHS = Map.of(
+            "id", "id",
+            "name", "name",
+            "lastName", "lastName",
+            "email", "email",
+            "address", "address",
+            "phone", "phone",
+            "profit", "profit",
+            "createdAt", "createdAt",
+            "active", "isActive");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<ClientDto> searchActive(String q, Set<String> fields, Pageable pageable) {
+        Set<String> required = new HashSet<>(Set.of("id"));
+        for (Sort.Order order : pageable.getSort()) {
+            PATHS.forEach((property, path) -> {
+                if (path.equals(order.getProperty())) {
+                    required.add(property);
+                }
+            });
+        }
+        List<String> columns = FieldSelect.columns(SparseFields.CLIENT, fields, required);
+        String jpql = QueryUtils.applySorting("select " + FieldSelect.of("c", PATHS, columns)
+                + " from Client c " + ClientRepository.SEARCH_ACTIVE_WHERE, pageable.getSort(), "c");
+        TypedQuery<Tuple> query = entityManager.createQuery(jpql, Tuple.class).setParameter("q", q);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize());
+        }
+        List<ClientDto> content = query.getResultList().stream()
+                .map(row -> toDto(row, columns, fields))
+                .toList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> entityManager
+                .createQuery("select count(c) from Client c " + ClientRepository.SEARCH_ACTIVE_WHERE, Long.class)
+                .setParameter("q", q)
+                .getSingleResult());
+    }
+
+    private static ClientDto toDto(Tuple row, List<String> columns, Set<String> fields) {
+        ClientDto.ClientDtoBuilder dto = ClientDto.builder().fields(fields);
+        for (int i = 0; i < columns.size(); i++) {
+            Object value = row.get(i);
+            switch (columns.get(i)) {
+                case "id" -> dto.id((Long) value);
+                case "name" -> dto.name((String) value);
+                case "lastName" -> dto.lastName((String) value);
+                case "email" -> dto.email((String) value);
+                case "address" -> dto.address((String) value);
+                case "phone" -> dto.phone((String) value);
+                case "profit" -> dto.profit((Money) value);
+                case "createdAt" -> dto.createdAt((LocalDateTime) value);
+                case "active" -> dto.isActive((Boolean) value);
+                default -> throw new IllegalStateException("No column for " + columns.get(i));
+            }
+        }
+        return dto.build();
+    }
+}
@@ -0,0 +1,56 @@
+package tech.task.dataox.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import tech.task.dataox.model.lock.ClientLock;
+import tech.task.dataox.repository.projection.ClientTokenView;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ClientLockRepository extends JpaRepository<ClientLock, Long> {
+
+    // Takes over an expired lease or extends our own, every acquisition gets a new fencing token
+    @Modifying
+    @Query(value = """
+        update client_locks
+        set owner = :owner, expires_at = :expiresAt, fencing_token = fencing_token + 1
+        where client_id = :clientId and (owner = :owner or expires_at < :now)
+        """, nativeQuery = true)
+    int takeOver(@Param("clientId") Long clientId, @Param("owner") String owner,
+                 @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+
+    // First lease on the client, inserts nothing when the client already has a row, held or not
+    @Modifying
+    @Query(value = """
+        insert into client_locks (client_id, owner, expires_at, fencing_token)
+        values (:clientId, :owner, :expiresAt, 1)
+        on conflict do nothing
+        """, nativeQuery = true)
+    int insertFirst(@Param("clientId") Long clientId, @Param("owner") String owner,
+                    @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Query(value = "select fencing_token from client_locks where client_id = :clientId and owner = :owner",
+            nativeQuery = true)
+    Long findToken(@Param("clientId") Long clientId, @Param("owner") String owner);
+
+    // Row locks until the caller commits, a takeover has to wait for them; taken in id order like the leases
+    @Query(value = """
+        select client_id as clientId, fencing_token as fencingToken from client_locks
+        where client_id in (:clientIds) and owner = :owner
+        order by client_id
+        for update
+        """, nativeQuery = true)
+    List<ClientTokenView> lockTokens(@Param("clientIds") Collection<Long> clientIds, @Param("owner") String owner);
+
+    @Modifying
+    @Query(value = """
+        update client_locks set expires_at = :expiresAt
+        where client_id = :clientId and owner = :owner and fencing_token = :token
+        """, nativeQuery = true)
+    int updateExpiry(@Param("clientId") Long clientId, @Param("owner") String owner,
+                     @Param("token") long token, @Param("expiresAt") LocalDateTime expiresAt);
+}
@@ -1,28 +1,54 @@
 package tech.task.dataox.repository;
 
+import jakarta.persistence.LockModeType;
 import jakarta.transaction.Transactional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import tech.task.dataox.lib.Money;
 import tech.task.dataox.model.Client;
+import tech.task.dataox.repository.projection.ClientSummaryView;
 
-import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
-public interface ClientRepository extends JpaRepository<Client, Long> {
+public interface ClientRepository extends JpaRepository<Client, Long>, ClientFieldsRepository {
 
-    boolean existsByEmailAndIdNot(String email, Long id);
+    // Email and phone of an archived client stay taken, as the business key of an archived order does.
+    // email_upper is generated from upper(email) and indexed; a derived upper(email) = upper(?) scans on H2
+    @Query(value = """
+        select exists (select 1 from clients where email_upper = upper(:email))
+            or exists (select 1 from clients_archive where email_upper = upper(:email))
+        """, nativeQuery = true)
+    boolean isEmailInUse(@Param("email") String email);
 
-    boolean existsByPhoneAndIdNot(String phone, Long id);
+    @Query(value = """
+        select exists (select 1 from clients where phone = :phone)
+            or exists (select 1 from clients_archive where phone = :phone)
+        """, nativeQuery = true)
+    boolean isPhoneInUse(@Param("phone") String phone);
 
-    boolean existsByEmailIgnoreCase(String email);
+    // An archived client is never the one being updated, it is no longer in clients
+    @Query(value = """
+        select exists (select 1 from clients where email = :email and id <> :id)
+            or exists (select 1 from clients_archive where email_upper = upper(:email))
+        """, nativeQuery = true)
+    boolean isEmailInUseByOther(@Param("email") String email, @Param("id") Long id);
 
-    boolean existsByPhone(String phone);
+    @Query(value = """
+        select exists (select 1 from clients where phone = :phone and id <> :id)
+            or exists (select 1 from clients_archive where phone = :phone)
+        """, nativeQuery = true)
+    boolean isPhoneInUseByOther(@Param("phone") String phone, @Param("id") Long id);
 
-    @Query("""
-        select c from Client c
+    // Shared with the sparse fieldset query of ClientFieldsRepository
+    String SEARCH_ACTIVE_WHERE = """
         where c.isActive = true
           and (
                lower(c.name)     like lower(concat('%', :q, '%'))
@@ -31,17 +57,106 @@ public interface ClientRepository extends JpaRepository<Client, Long> {
             or lower(c.address)  like lower(concat('%', :q, '%'))
             or c.phone           like concat('%', :q, '%')
           )
-        """)
+        """;
+
+    @Query("select c from Client c " + SEARCH_ACTIVE_WHERE)
     Page<Client> searchActive(@Param("q") String q,
                               Pageable pageable);
 
     @Query("select c from Client c where c.profit between :minProfit and :maxProfit and c.isActive = true")
     Page<Client> findClientsByProfitBetween(Pageable pageable,
-                                            @Param("minProfit") BigDecimal minProfit,
-                                            @Param("maxProfit") BigDecimal maxProfit);
+                                            @Param("minProfit") Money minProfit,
+                                            @Param("maxProfit") Money maxProfit);
+
+    // Only the version, for answering conditional GETs without loading the client
+    @Query("select c.version from Client c where c.id = :id and c.isActive = true")
+    Optional<Long> findActiveVersionById(@Param("id") Long id);
+
+    // Orders read their supplier under a shared lock: they no longer write it, but a deactivation must wait for them
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("select c from Client c where c.id = :id")
+    Optional<Client> findByIdForShare(@Param("id") Long id);
 
+    // Relative, so it needs no fresh read of the client; the increment fails entity writes that read it before
+    @Modifying
+    @Query(value = "update clients set profit = profit + :amount, version = version + 1 where id = :id",
+            nativeQuery = true)
+    int addProfit(@Param("id") Long id, @Param("amount") long amountMinorUnits);
+
+    // Bulk updates skip @Version, the increment keeps ETags and optimistic locking in step with the reset
     @Modifying
     @Transactional
-    @Query("update Client c set c.profit = 0")
+    @Query("update Client c set c.profit = 0, c.version = c.version + 1")
     void resetAllProfit();
+
+    // Keyset page of the ids behind a bulk status change, same matching as searchActive
+    @Query("""
+        select c.id from Client c
+        where c.isActive = :active
+          and c.id > :afterId
+          and (
+               lower(c.name)     like lower(concat('%', :q, '%'))
+            or lower(c.lastName) like lower(concat('%', :q, '%'))
+            or lower(c.email)    like lower(concat('%', :q, '%'))
+            or lower(c.address)  like lower(concat('%', :q, '%'))
+            or c.phone           like concat('%', :q, '%')
+          )
+        order by c.id
+        """)
+    List<Long> findIdsByKeyword(@Param("q") String q,
+                                @Param("active") boolean active,
+                                @Param("afterId") Long afterId,
+                                Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("""
+        update Client c set c.isActive = false, c.inactiveAt = :now, c.version = c.version + 1
+        where c.id in :ids and c.isActive = true
+        """)
+    int deactivateByIdIn(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("""
+        update Client c set c.isActive = true, c.inactiveAt = null, c.version = c.version + 1
+        where c.id in :ids and c.isActive = false
+        """)
+    int recoverByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+        select c.id from Client c
+        where c.isActive = false
+          and c.inactiveAt < :inactiveBefore
+          and not exists (select 1 from Order o where o.supplier = c or o.consumer = c)
+        order by c.id
+        """)
+    List<Long> findArchivableIds(@Param("inactiveBefore") LocalDateTime inactiveBefore,
+                                 Pageable pageable);
+
+    @Modifying
+    @Query("delete from Client c where c.id in :ids and c.isActive = false")
+    int deleteInactiveByIdIn(@Param("ids") List<Long> ids);
+
+    // One pass over the active orders of the clients: each order contributes a supplier row and a consumer row,
+    // conditional aggregation folds them into one row per client
+    @Query(value = """
+        select c.id as clientId, c.is_active as active, c.profit as profit,
+               count(case when t.role = 'S' then 1 end) as suppliedCount,
+               coalesce(sum(case when t.role = 'S' then t.price end), 0) as suppliedTotal,
+               count(case when t.role = 'C' then 1 end) as consumedCount,
+               coalesce(sum(case when t.role = 'C' then t.price end), 0) as consumedTotal,
+               max(t.saved_at) as lastOrderAt
+        from clients c
+        left join (
+            select o.supplier_id as client_id, 'S' as role, o.price, o.saved_at
+            from orders o where o.supplier_id in (:ids) and o.is_active = true
+            union all
+            select o.consumer_id as client_id, 'C' as role, o.price, o.saved_at
+            from orders o where o.consumer_id in (:ids) and o.is_active = true
+        ) t on t.client_id = c.id
+        where c.id in (:ids)
+        group by c.id, c.is_active, c.profit
+        """, nativeQuery = true)
+    List<ClientSummaryView> findSummaries(@Param("ids") Collection<Long> ids);
 }
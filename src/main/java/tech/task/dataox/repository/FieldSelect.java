@@ -0,0 +1,28 @@
+package tech.task.dataox.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Select list for a sparse fieldset: the requested DTO properties plus those the caller needs itself,
+ * each mapped to its JPQL path. Names come from the fixed property lists, never from the request.
+ */
+final class FieldSelect {
+
+    private FieldSelect() {
+    }
+
+    static List<String> columns(List<String> properties, Set<String> fields, Set<String> required) {
+        return properties.stream()
+                .filter(property -> fields.contains(property) || required.contains(property))
+                .toList();
+    }
+
+    static String of(String alias, Map<String, String> paths, List<String> columns) {
+        return columns.stream()
+                .map(column -> alias + "." + paths.get(column))
+                .collect(Collectors.joining(", "));
+    }
+}
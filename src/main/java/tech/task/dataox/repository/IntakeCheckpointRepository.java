@@ -0,0 +1,27 @@
+package tech.task.dataox.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import tech.task.dataox.model.intake.IntakeCheckpoint;
+
+import java.util.Optional;
+
+public interface IntakeCheckpointRepository extends JpaRepository<IntakeCheckpoint, String> {
+
+    @Query(value = "select applied_seq from intake_checkpoints where journal_id = :journalId", nativeQuery = true)
+    Optional<Long> findAppliedSeq(@Param("journalId") String journalId);
+
+    @Modifying
+    @Query(value = "insert into intake_checkpoints (journal_id, applied_seq) values (:journalId, 0)", nativeQuery = true)
+    int insertFirst(@Param("journalId") String journalId);
+
+    // Runs in the transaction that saves the orders of the batch, so a batch is applied exactly once
+    @Modifying
+    @Query(value = """
+        update intake_checkpoints set applied_seq = :appliedSeq
+        where journal_id = :journalId and applied_seq < :appliedSeq
+        """, nativeQuery = true)
+    int advance(@Param("journalId") String journalId, @Param("appliedSeq") long appliedSeq);
+}
@@ -0,0 +1,14 @@
+package tech.task.dataox.repository;
+
+import tech.task.dataox.model.dto.OrderDto;
+
+import java.util.List;
+import java.util.Set;
+
+public interface OrderFieldsRepository {
+
+    /**
+     * {@link OrderRepository#findActiveByUserId} reading only the columns of {@code fields}.
+     */
+    List<OrderDto> findActiveByUserId(Long userId, Set<String> fields);
+}
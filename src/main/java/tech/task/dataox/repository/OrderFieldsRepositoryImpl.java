@@ -0,0 +1,60 @@
+package tech.task.dataox.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import tech.task.dataox.lib.Money;
+import tech.task.dataox.model.dto.OrderDto;
+import tech.task.dataox.web.SparseFields;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+class OrderFieldsRepositoryImpl implements OrderFieldsRepository {
+    // The client ids are the foreign key columns, selecting them joins nothing
+    private static final Map<String, String> PATHS = Map.of(
+            "orderId", "id",
+            "title", "title",
+            "supplierId", "supplier.id",
+            "consumerId", "consumer.id",
+            "price", "price",
+            "startProcessingAt", "startProcessingAt",
+            "endProcessingAt", "endProcessingAt",
+            "savedAt", "savedAt");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<OrderDto> findActiveByUserId(Long userId, Set<String> fields) {
+        List<String> columns = FieldSelect.columns(SparseFields.ORDER, fields, Set.of());
+        String select = "select " + FieldSelect.of("o", PATHS, columns) + " from Order o";
+        return entityManager.createQuery(select + " where o.supplier.id = :userId and o.isActive = true"
+                        + " union all " + select + " where o.consumer.id = :userId and o.isActive = true", Tuple.class)
+                .setParameter("userId", userId)
+                .getResultList().stream()
+                .map(row -> toDto(row, columns, fields))
+                .toList();
+    }
+
+    static OrderDto toDto(Tuple row, List<String> columns, Set<String> fields) {
+        OrderDto.OrderDtoBuilder dto = OrderDto.builder().fields(fields);
+        for (int i = 0; i < columns.size(); i++) {
+            Object value = row.get(i);
+            switch (columns.get(i)) {
+                case "orderId" -> dto.orderId((Long) value);
+                case "title" -> dto.title((String) value);
+                case "supplierId" -> dto.supplierId((Long) value);
+                case "consumerId" -> dto.consumerId((Long) value);
+                case "price" -> dto.price((Money) value);
+                case "startProcessingAt" -> dto.startProcessingAt((LocalDateTime) value);
+                case "endProcessingAt" -> dto.endProcessingAt((LocalDateTime) value);
+                case "savedAt" -> dto.savedAt((LocalDateTime) value);
+                default -> throw new IllegalStateException("No column for " + columns.get(i));
+            }
+        }
+        return dto.build();
+    }
+}
@@ -1,19 +1,103 @@
 package tech.task.dataox.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import tech.task.dataox.model.Order;
+import tech.task.dataox.repository.projection.OrderKeyView;
+import tech.task.dataox.repository.projection.OrderRevenueView;
+import tech.task.dataox.repository.projection.ProcessingTimesView;
+import tech.task.dataox.repository.projection.SupplierTotalsView;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderFieldsRepository {
 
-    boolean existsByTitleAndSupplierIdAndConsumerId(String title, Long supplierId, Long consumerId);
+    // The business key is taken by an order or an archived one; one round trip for both, which the derived
+    // queries could not do without joining the supplier row, on another shard for some orders
+    @Query(value = """
+        SELECT EXISTS (SELECT 1 FROM orders
+                       WHERE title = :title AND supplier_id = :supplierId AND consumer_id = :consumerId)
+            OR EXISTS (SELECT 1 FROM orders_archive
+                       WHERE title = :title AND supplier_id = :supplierId AND consumer_id = :consumerId)
+        """, nativeQuery = true)
+    boolean existsByBusinessKey(@Param("title") String title, @Param("supplierId") Long supplierId,
+                                @Param("consumerId") Long consumerId);
 
-    List<Order> findBySupplierId(Long supplierId);
+    // Business keys of the orders of these consumers with any of these titles, for checking many orders at once;
+    // the caller matches the exact combinations
+    @Query("""
+        SELECT o.title AS title, o.supplier.id AS supplierId, o.consumer.id AS consumerId FROM Order o
+        WHERE o.consumer.id IN :consumerIds AND o.title IN :titles
+        """)
+    List<OrderKeyView> findKeys(@Param("consumerIds") Collection<Long> consumerIds,
+                                @Param("titles") Collection<String> titles);
 
-    List<Order> findByConsumerId(Long consumerId);
+    @Query("SELECT o FROM Order o WHERE o.supplier.id = :supplierId AND o.isActive = true")
+    List<Order> findBySupplierIdAndIsActiveTrue(@Param("supplierId") Long supplierId);
 
-    @Query("SELECT o FROM Order o WHERE o.supplier.id = :userId OR o.consumer.id = :userId")
-    List<Order> findAllByUserId(Long userId);
+    List<Order> findByConsumerIdAndIsActiveTrue(Long consumerId);
+
+    // Only the version, for answering conditional GETs without loading the order
+    @Query("SELECT o.version FROM Order o WHERE o.id = :id AND o.isActive = true")
+    Optional<Long> findActiveVersionById(@Param("id") Long id);
+
+    // Two index lookups instead of an OR across columns; a client is never both sides of one order,
+    // so UNION ALL returns no duplicates
+    @Query("""
+        SELECT o FROM Order o WHERE o.supplier.id = :userId AND o.isActive = true
+        UNION ALL
+        SELECT o FROM Order o WHERE o.consumer.id = :userId AND o.isActive = true
+        """)
+    List<Order> findActiveByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT o.id FROM Order o WHERE o.isActive = false ORDER BY o.id")
+    List<Long> findInactiveIds(Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM Order o WHERE o.id IN :ids AND o.isActive = false")
+    int deleteInactiveByIdIn(@Param("ids") List<Long> ids);
+
+    // Locked, so a concurrent price change or deactivation cannot slip between reading the price and the update
+    @Query(value = """
+        SELECT o.id AS id, o.supplier_id AS supplierId, o.consumer_id AS consumerId,
+               o.saved_at AS savedAt, o.price AS price
+        FROM orders o
+        WHERE o.is_active = true AND (o.supplier_id IN (:clientIds) OR o.consumer_id IN (:clientIds))
+        ORDER BY o.id
+        LIMIT :limit
+        FOR UPDATE
+        """, nativeQuery = true)
+    List<OrderRevenueView> lockActiveByClientIdIn(@Param("clientIds") Collection<Long> clientIds,
+                                                  @Param("limit") int limit);
+
+    // Bulk updates skip @Version, the increment keeps ETags and optimistic locking in step
+    @Modifying
+    @Query("UPDATE Order o SET o.isActive = false, o.version = o.version + 1 WHERE o.id IN :ids AND o.isActive = true")
+    int deactivateByIdIn(@Param("ids") List<Long> ids);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+        SELECT o.startProcessingAt AS startProcessingAt, o.endProcessingAt AS endProcessingAt, o.savedAt AS savedAt
+        FROM Order o
+        """)
+    Stream<ProcessingTimesView> streamProcessingTimes();
+
+    // Supplied side of ClientRepository.findSummaries, for the orders on the shards of other consumers
+    @Query(value = """
+        SELECT o.supplier_id AS clientId, count(*) AS suppliedCount, coalesce(sum(o.price), 0) AS suppliedTotal,
+               max(o.saved_at) AS lastOrderAt
+        FROM orders o
+        WHERE o.supplier_id IN (:ids) AND o.is_active = true
+        GROUP BY o.supplier_id
+        """, nativeQuery = true)
+    List<SupplierTotalsView> findSupplierTotals(@Param("ids") Collection<Long> ids);
 }
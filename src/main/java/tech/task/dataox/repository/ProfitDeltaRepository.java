@@ -0,0 +1,76 @@
+package tech.task.dataox.repository;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import tech.task.dataox.model.ledger.ProfitDelta;
+import tech.task.dataox.repository.projection.ClientCreditView;
+import tech.task.dataox.repository.projection.ProfitTransferView;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ProfitDeltaRepository extends JpaRepository<ProfitDelta, Long> {
+
+    @Query(value = "select coalesce(sum(amount), 0) from profit_deltas where client_id = :clientId", nativeQuery = true)
+    long sumByClientId(@Param("clientId") Long clientId);
+
+    @Query(value = """
+        select client_id as clientId, sum(amount) as amount from profit_deltas
+        where client_id in (:clientIds)
+        group by client_id
+        """, nativeQuery = true)
+    List<ClientCreditView> sumByClientIdIn(@Param("clientIds") Collection<Long> clientIds);
+
+    List<ProfitDelta> findByClientIdIn(Collection<Long> clientIds);
+
+    // Locked, so a flush and a sweep racing for the same rows apply each of them once
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select d from ProfitDelta d where d.id in :ids")
+    List<ProfitDelta> findByIdInForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Query("select d from ProfitDelta d where d.createdAt < :before order by d.id")
+    List<ProfitDelta> findOlderThan(@Param("before") LocalDateTime before, Pageable pageable);
+
+    @Modifying
+    @Query("delete from ProfitDelta d where d.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from ProfitDelta d")
+    int deleteAllDeltas();
+
+    @Query("select d.id from ProfitDelta d where d.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // profit_delta_transfers only exists on the databases of a sharded deployment, see db/migration/sharding
+
+    @Query(value = "select delta_id from profit_delta_transfers where source_shard = :sourceShard and delta_id in (:ids)",
+            nativeQuery = true)
+    List<Long> findTransferredIds(@Param("sourceShard") int sourceShard, @Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = """
+        insert into profit_delta_transfers (source_shard, delta_id, applied_at)
+        values (:sourceShard, :deltaId, :appliedAt)
+        """, nativeQuery = true)
+    int insertTransfer(@Param("sourceShard") int sourceShard, @Param("deltaId") Long deltaId,
+                       @Param("appliedAt") LocalDateTime appliedAt);
+
+    @Query(value = """
+        select source_shard as sourceShard, delta_id as deltaId from profit_delta_transfers
+        where applied_at < :before
+        order by applied_at
+        """, nativeQuery = true)
+    List<ProfitTransferView> findTransfersOlderThan(@Param("before") LocalDateTime before, Pageable pageable);
+
+    @Modifying
+    @Query(value = "delete from profit_delta_transfers where source_shard = :sourceShard and delta_id in (:ids)",
+            nativeQuery = true)
+    int deleteTransfers(@Param("sourceShard") int sourceShard, @Param("ids") Collection<Long> ids);
+}
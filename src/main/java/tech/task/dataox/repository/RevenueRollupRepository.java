@@ -0,0 +1,71 @@
+package tech.task.dataox.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import tech.task.dataox.model.report.RevenueRole;
+import tech.task.dataox.model.report.RevenueRollup;
+import tech.task.dataox.model.report.RevenueRollupId;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface RevenueRollupRepository extends JpaRepository<RevenueRollup, RevenueRollupId> {
+
+    @Query("""
+        select r from RevenueRollup r
+        where r.id.clientId = :clientId
+          and r.id.role in :roles
+          and r.id.bucket >= :from and r.id.bucket < :to
+        order by r.id.bucket, r.id.role
+        """)
+    List<RevenueRollup> findRange(@Param("clientId") Long clientId,
+                                  @Param("roles") Collection<RevenueRole> roles,
+                                  @Param("from") LocalDateTime from,
+                                  @Param("to") LocalDateTime to);
+
+    @Modifying
+    @Query(value = """
+        update revenue_rollups
+        set revenue = revenue + :delta, order_count = order_count + :countDelta
+        where client_id = :clientId and role = :role and bucket = :bucket
+        """, nativeQuery = true)
+    int addDelta(@Param("clientId") Long clientId, @Param("role") String role,
+                 @Param("bucket") LocalDateTime bucket,
+                 @Param("delta") long delta, @Param("countDelta") long countDelta);
+
+    @Modifying
+    @Query(value = """
+        insert into revenue_rollups (client_id, role, bucket, revenue, order_count)
+        values (:clientId, :role, :bucket, :delta, :countDelta)
+        """, nativeQuery = true)
+    int insertBucket(@Param("clientId") Long clientId, @Param("role") String role,
+                     @Param("bucket") LocalDateTime bucket,
+                     @Param("delta") long delta, @Param("countDelta") long countDelta);
+
+    @Modifying
+    @Query(value = "delete from revenue_rollups where bucket >= :from and bucket < :to", nativeQuery = true)
+    int deleteRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Modifying
+    @Query(value = """
+        insert into revenue_rollups (client_id, role, bucket, revenue, order_count)
+        select o.supplier_id, 'SUPPLIER', date_trunc('hour', o.saved_at), sum(o.price), count(*)
+        from orders o
+        where o.is_active = true and o.saved_at >= :from and o.saved_at < :to
+        group by o.supplier_id, date_trunc('hour', o.saved_at)
+        """, nativeQuery = true)
+    int rebuildSupplierRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Modifying
+    @Query(value = """
+        insert into revenue_rollups (client_id, role, bucket, revenue, order_count)
+        select o.consumer_id, 'CONSUMER', date_trunc('hour', o.saved_at), sum(o.price), count(*)
+        from orders o
+        where o.is_active = true and o.saved_at >= :from and o.saved_at < :to
+        group by o.consumer_id, date_trunc('hour', o.saved_at)
+        """, nativeQuery = true)
+    int rebuildConsumerRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
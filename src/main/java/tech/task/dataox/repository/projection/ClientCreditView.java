@@ -0,0 +1,8 @@
+package tech.task.dataox.repository.projection;
+
+public interface ClientCreditView {
+
+    Long getClientId();
+
+    Long getAmount();
+}
@@ -0,0 +1,22 @@
+package tech.task.dataox.repository.projection;
+
+import java.time.LocalDateTime;
+
+public interface ClientSummaryView {
+
+    Long getClientId();
+
+    Boolean getActive();
+
+    Long getProfit();
+
+    Long getSuppliedCount();
+
+    Long getSuppliedTotal();
+
+    Long getConsumedCount();
+
+    Long getConsumedTotal();
+
+    LocalDateTime getLastOrderAt();
+}
@@ -0,0 +1,8 @@
+package tech.task.dataox.repository.projection;
+
+public interface ClientTokenView {
+
+    Long getClientId();
+
+    Long getFencingToken();
+}
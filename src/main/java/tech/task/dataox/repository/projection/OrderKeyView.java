@@ -0,0 +1,10 @@
+package tech.task.dataox.repository.projection;
+
+public interface OrderKeyView {
+
+    String getTitle();
+
+    Long getSupplierId();
+
+    Long getConsumerId();
+}
@@ -0,0 +1,16 @@
+package tech.task.dataox.repository.projection;
+
+import java.time.LocalDateTime;
+
+public interface OrderRevenueView {
+
+    Long getId();
+
+    Long getSupplierId();
+
+    Long getConsumerId();
+
+    LocalDateTime getSavedAt();
+
+    Long getPrice();
+}
@@ -0,0 +1,12 @@
+package tech.task.dataox.repository.projection;
+
+import java.time.LocalDateTime;
+
+public interface ProcessingTimesView {
+
+    LocalDateTime getStartProcessingAt();
+
+    LocalDateTime getEndProcessingAt();
+
+    LocalDateTime getSavedAt();
+}
@@ -0,0 +1,14 @@
+package tech.task.dataox.repository.projection;
+
+import java.time.LocalDateTime;
+
+public interface SupplierTotalsView {
+
+    Long getClientId();
+
+    Long getSuppliedCount();
+
+    Long getSuppliedTotal();
+
+    LocalDateTime getLastOrderAt();
+}
@@ -0,0 +1,26 @@
+package tech.task.dataox.service;
+
+import tech.task.dataox.model.archive.ArchivedClient;
+import tech.task.dataox.model.archive.ArchivedOrder;
+import tech.task.dataox.model.dto.OrderDto;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+public interface ArchiveService {
+
+    int archiveOrderBatch(int batchSize);
+
+    int archiveClientBatch(int batchSize);
+
+    boolean isOrderArchived(String title, Long supplierId, Long consumerId);
+
+    Optional<ArchivedOrder> findArchivedOrderById(Long id);
+
+    List<ArchivedOrder> findArchivedOrdersByClientId(Long clientId);
+
+    List<OrderDto> findArchivedOrdersByClientId(Long clientId, Set<String> fields);
+
+    Optional<ArchivedClient> findArchivedClientById(Long id);
+}
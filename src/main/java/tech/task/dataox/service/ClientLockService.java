@@ -0,0 +1,26 @@
+package tech.task.dataox.service;
+
+import java.util.Collection;
+
+public interface ClientLockService {
+
+    /**
+     * Takes leases on all clients in ascending id order, so two instances locking the same pair cannot deadlock.
+     * Waits up to the configured timeout and fails with 503 when another instance keeps a client locked.
+     */
+    ClientLease acquire(Collection<Long> clientIds);
+
+    interface ClientLease extends AutoCloseable {
+
+        /**
+         * Fencing check for the current transaction: fails when any lease expired and was taken over,
+         * otherwise keeps the lock rows locked until commit so a takeover has to wait for it.
+         */
+        void verify();
+
+        long fencingToken(Long clientId);
+
+        @Override
+        void close();
+    }
+}
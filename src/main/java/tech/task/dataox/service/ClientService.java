@@ -2,10 +2,16 @@ package tech.task.dataox.service;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import tech.task.dataox.lib.Money;
 import tech.task.dataox.model.Client;
+import tech.task.dataox.model.dto.BulkClientStatusDto;
+import tech.task.dataox.model.dto.BulkClientStatusResultDto;
+import tech.task.dataox.model.dto.ClientDto;
 import tech.task.dataox.model.dto.UpdateClientDto;
 
-import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.Set;
+
 
 public interface ClientService {
 
@@ -13,17 +19,28 @@ public interface ClientService {
 
     Client findClientById(Long id);
 
+    Optional<Long> findActiveClientVersion(Long id);
+
     Page<Client> findClientsByKeyword(String keyword, Pageable pageable);
 
+    /**
+     * Keyword search reading and returning only the given DTO properties.
+     */
+    Page<ClientDto> findClientsByKeyword(String keyword, Set<String> fields, Pageable pageable);
+
     Client update(Long id, UpdateClientDto dto);
 
-    BigDecimal findClientProfitById(Long id);
+    Money findClientProfitById(Long id);
 
-    Page<Client> findClientsByProfitBetween(Pageable pageable, BigDecimal min, BigDecimal max);
+    Page<Client> findClientsByProfitBetween(Pageable pageable, Money min, Money max);
 
     void deactivateById(Long id);
 
     void recoverClientById(Long id);
 
+    BulkClientStatusResultDto deactivateAll(BulkClientStatusDto dto);
+
+    BulkClientStatusResultDto recoverAll(BulkClientStatusDto dto);
+
     void resetAllProfit();
 }
\ No newline at end of file
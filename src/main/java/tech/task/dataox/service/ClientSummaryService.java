@@ -0,0 +1,18 @@
+package tech.task.dataox.service;
+
+import tech.task.dataox.model.dto.ClientSummaryDto;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ClientSummaryService {
+
+    ClientSummaryDto getSummary(Long clientId);
+
+    // Active clients only, unknown and inactive ids are left out
+    List<ClientSummaryDto> getSummaries(Collection<Long> clientIds);
+
+    void evict(Long clientId);
+
+    void evictAll();
+}
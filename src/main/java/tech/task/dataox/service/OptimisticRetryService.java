@@ -0,0 +1,18 @@
+package tech.task.dataox.service;
+
+import org.springframework.transaction.support.TransactionCallback;
+import tech.task.dataox.model.dto.ConflictStatsDto;
+
+import java.util.Set;
+
+public interface OptimisticRetryService {
+
+    /**
+     * Runs {@code work} in a new transaction and runs it again in a fresh one when the commit fails
+     * with an optimistic lock conflict. {@code work} must re-read what it checks, it may add the ids of
+     * the clients it touches to {@code clientIds} once it knows them.
+     */
+    <T> T inTransaction(String operation, Set<Long> clientIds, TransactionCallback<T> work);
+
+    ConflictStatsDto getStats(int limit);
+}
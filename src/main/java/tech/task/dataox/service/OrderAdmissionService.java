@@ -0,0 +1,21 @@
+package tech.task.dataox.service;
+
+import tech.task.dataox.model.Order;
+
+import java.util.List;
+
+public interface OrderAdmissionService {
+
+    void admit(Long supplierId, Long consumerId);
+
+    /**
+     * Admits the orders of a batch together: either every supplier and consumer has the tokens for all of its
+     * orders and they are taken, or none is taken and the batch is refused.
+     */
+    void admitAll(List<Order> orders);
+
+    /**
+     * Gives back the tokens of orders admitted by {@link #admitAll} that were refused afterwards as a whole.
+     */
+    void releaseAll(List<Order> orders);
+}
@@ -0,0 +1,35 @@
+package tech.task.dataox.service;
+
+import tech.task.dataox.model.dto.ConcurrencyLimitStatsDto;
+
+import java.time.Duration;
+
+/**
+ * Adaptive cap on the orders being created at once, in front of the processing queue. The limit follows
+ * the time orders spend on top of their processing delay, see {@link tech.task.dataox.lib.VegasConcurrencyLimit}.
+ * Every successful {@link #acquire} must be followed by exactly one of the release methods.
+ */
+public interface OrderConcurrencyLimitService {
+
+    /**
+     * Takes a slot for an order, or answers 503 at once when the limit is reached.
+     */
+    void acquire();
+
+    /**
+     * Releases the slot of an order that was created, {@code latency} is its time beyond the processing delay.
+     */
+    void onSuccess(Duration latency);
+
+    /**
+     * Releases the slot of an order rejected by its own rules, which says nothing about the load.
+     */
+    void onIgnore();
+
+    /**
+     * Releases the slot of an order that ran out of time or found the processing queue full.
+     */
+    void onDropped();
+
+    ConcurrencyLimitStatsDto getStats();
+}
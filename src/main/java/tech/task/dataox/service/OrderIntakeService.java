@@ -0,0 +1,25 @@
+package tech.task.dataox.service;
+
+import tech.task.dataox.model.Order;
+import tech.task.dataox.model.dto.IntakeStatsDto;
+import tech.task.dataox.model.dto.IntakeStatusDto;
+
+import java.util.List;
+
+public interface OrderIntakeService {
+
+    /**
+     * Appends the order to the local journal and returns once it is on disk; the rules of order creation
+     * are applied later, by the journal writer.
+     */
+    IntakeStatusDto accept(Order order);
+
+    /**
+     * {@link #accept} for several orders with a single fsync. Statuses are in the order of {@code orders}.
+     */
+    List<IntakeStatusDto> acceptAll(List<Order> orders);
+
+    IntakeStatusDto getStatus(long sequence);
+
+    IntakeStatsDto getStats();
+}
@@ -0,0 +1,22 @@
+package tech.task.dataox.service;
+
+import tech.task.dataox.model.Order;
+import tech.task.dataox.model.dto.OrderQuoteDto;
+
+import java.util.List;
+
+/**
+ * Dry run of {@link OrderService#create}: the same rules, without the processing delay and without writing
+ * anything. A quote holds for the moment it was read, a later create may still be rejected.
+ */
+public interface OrderQuoteService {
+
+    OrderQuoteDto quote(Order order);
+
+    /**
+     * Quotes the orders as if created one after another, like the items of a cart: an order counts against
+     * the profit of its consumer for the orders after it, and repeats an earlier order's business key.
+     * Quotes are in the order of {@code orders}.
+     */
+    List<OrderQuoteDto> quoteAll(List<Order> orders);
+}
@@ -1,25 +1,59 @@
 package tech.task.dataox.service;
 
+import org.springframework.web.server.ResponseStatusException;
+import tech.task.dataox.lib.Money;
 import tech.task.dataox.model.Order;
+import tech.task.dataox.model.dto.OrderDto;
 
-import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 public interface OrderService {
 
     Order create(Order order);
 
+    /**
+     * Creates the orders side by side, each one like {@link #create} on its own. Outcomes are in the order of
+     * {@code orders}.
+     */
+    List<CreateOutcome> createAll(List<Order> orders);
+
+    void validate(Order order);
+
+    /**
+     * Checks the rules of {@link #create} for an order whose processing is done and saves it together with
+     * the profit updates, in the transaction of the caller.
+     */
+    Order saveProcessed(Order order);
+
     Order findById(Long id);
 
+    Optional<Long> findActiveVersion(Long id);
+
     List<Order> findAllByClientId(Long userId);
 
+    /**
+     * Active orders of the client reading and returning only the given DTO properties.
+     */
+    List<OrderDto> findAllByClientId(Long userId, Set<String> fields);
+
     List<Order> findBySupplierId(Long supplierId);
 
     List<Order> findByConsumerId(Long consumerId);
 
-    Order updatePrice(Long id, BigDecimal newPrice);
+    Order updatePrice(Long id, Money newPrice);
 
     void deactivateById(Long id);
 
+    int deactivateOrderBatchOfClients(Collection<Long> clientIds, int batchSize);
+
     void deleteById(Long id);
+
+    /**
+     * The created order, or the answer {@link #create} gave instead.
+     */
+    record CreateOutcome(Order order, ResponseStatusException rejection) {
+    }
 }
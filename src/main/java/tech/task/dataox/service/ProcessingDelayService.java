@@ -0,0 +1,9 @@
+package tech.task.dataox.service;
+
+import java.time.Duration;
+
+// How long the processing of one order is simulated to take; tests plug in a zero delay
+public interface ProcessingDelayService {
+
+    Duration nextDelay();
+}
@@ -0,0 +1,14 @@
+package tech.task.dataox.service;
+
+import tech.task.dataox.model.dto.SchedulerStatsDto;
+
+public interface ProcessingSchedulerService {
+
+    /**
+     * Runs {@code task} on the processing workers, fairly shared between consumers, and waits for it.
+     * {@code cost} is the expected processing time in any unit that is consistent across calls.
+     */
+    void process(Long consumerId, long cost, Runnable task);
+
+    SchedulerStatsDto getStats();
+}
@@ -0,0 +1,14 @@
+package tech.task.dataox.service;
+
+import tech.task.dataox.model.dto.ProcessingStatsDto;
+
+import java.time.LocalDateTime;
+
+public interface ProcessingStatsService {
+
+    void record(LocalDateTime startProcessingAt, LocalDateTime endProcessingAt, LocalDateTime savedAt);
+
+    long seedFromOrders();
+
+    ProcessingStatsDto getStats();
+}
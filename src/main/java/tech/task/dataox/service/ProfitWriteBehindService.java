@@ -0,0 +1,37 @@
+package tech.task.dataox.service;
+
+import tech.task.dataox.lib.Money;
+import tech.task.dataox.model.dto.ProfitFlushStatsDto;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface ProfitWriteBehindService {
+
+    /**
+     * Logs a credit to the profit of the client in the transaction of the caller. It is added to the client
+     * with the other credits of that client some milliseconds after the commit.
+     */
+    void credit(Long clientId, Money amount);
+
+    /**
+     * Sum of the committed credits of the client that are not in its profit yet, called on the shard of the
+     * client. With sharding this includes the credits still logged on the shards of its orders; those already
+     * added to the profit by a transfer whose log rows are not deleted yet are left out.
+     */
+    Money pendingCredit(Long clientId);
+
+    /**
+     * {@link #pendingCredit} of several clients of the current shard, clients without pending credits are left out.
+     */
+    Map<Long, Money> pendingCredits(Collection<Long> clientIds);
+
+    /**
+     * Drops every credit logged on the current shard in the transaction of the caller, for a profit reset.
+     */
+    void discardAll();
+
+    void flush();
+
+    ProfitFlushStatsDto getStats();
+}
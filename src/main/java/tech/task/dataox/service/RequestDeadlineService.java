@@ -0,0 +1,35 @@
+package tech.task.dataox.service;
+
+import tech.task.dataox.exception.DeadlineExceededException;
+import tech.task.dataox.model.dto.DeadlineStatsDto;
+
+import java.time.Duration;
+
+public interface RequestDeadlineService {
+    String ADMISSION = "admission";
+    String QUEUE = "queue";
+    String COMMIT = "commit";
+
+    /**
+     * Fails with 504 when the deadline of the current request leaves less than {@code work} plus the commit
+     * reserve. Without a deadline nothing is checked.
+     */
+    void ensureRemaining(String stage, Duration work);
+
+    /**
+     * Whether the current request has a deadline and it has passed.
+     */
+    boolean isExpired();
+
+    /**
+     * Transaction timeout in whole seconds for the remaining budget, -1 (no timeout) without a deadline.
+     */
+    int transactionTimeoutSeconds();
+
+    /**
+     * Counts a deadline that ran out during {@code stage} and returns the 504 to throw.
+     */
+    DeadlineExceededException exceeded(String stage, Throwable cause);
+
+    DeadlineStatsDto getStats();
+}
@@ -0,0 +1,23 @@
+package tech.task.dataox.service;
+
+import tech.task.dataox.lib.Money;
+import tech.task.dataox.model.dto.RevenueBucketDto;
+import tech.task.dataox.model.report.ReportGranularity;
+import tech.task.dataox.model.report.RevenueRole;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface RevenueReportService {
+
+    List<RevenueBucketDto> findRevenue(Long clientId, RevenueRole role,
+                                       LocalDateTime from, LocalDateTime to,
+                                       ReportGranularity granularity);
+
+    void applyDelta(Long clientId, RevenueRole role, LocalDateTime savedAt,
+                    Money revenueDelta, long orderCountDelta);
+
+    int rebuild(LocalDateTime from, LocalDateTime to);
+
+    boolean isEmpty();
+}
@@ -0,0 +1,68 @@
+package tech.task.dataox.service;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Placement of clients and orders on the shards of {@code sharding.urls}. Without sharding there is one shard
+ * and every method runs its work directly.
+ * <p>
+ * A new client goes to the shard picked by the hash of its email, an order to the shard of its consumer.
+ * Each shard hands out ids from its own residue class, so the id alone tells the shard of a client or order.
+ * A transaction stays on the shard that was current at its first statement; work on another shard needs
+ * a transaction of its own.
+ */
+public interface ShardRoutingService {
+
+    int shardCount();
+
+    /**
+     * Shard of a client, or of an order, by its id.
+     */
+    int shardOf(Long id);
+
+    /**
+     * Shard a new client with this email is created on.
+     */
+    int shardForNewClient(String email);
+
+    /**
+     * Whether the client or order with this id lives on the shard of the calling thread.
+     */
+    boolean isOnCurrentShard(Long id);
+
+    int currentShard();
+
+    <T> T onShard(int shard, Supplier<T> work);
+
+    <T> T onShardOf(Long id, Supplier<T> work);
+
+    void runOnShardOf(Long id, Runnable work);
+
+    /**
+     * Runs the work once per shard, one shard after another on the calling thread; not inside a transaction.
+     */
+    void forEachShard(IntConsumer work);
+
+    /**
+     * Runs the query on every shard in parallel, results in shard order. Each shard reads in its own
+     * transaction, a transaction of the caller does not cover them.
+     */
+    <T> List<T> scatter(Supplier<T> query);
+
+    <T> List<T> gather(Supplier<List<T>> query);
+
+    boolean anyMatch(BooleanSupplier query);
+
+    /**
+     * Page of the union of all shards, in the order of the pageable sorted by it plus the id. Every shard
+     * reads up to the end of the requested page, so deep pages cost more than on a single database.
+     */
+    <T> Page<T> gatherPage(Function<Pageable, Page<T>> query, Pageable pageable);
+}
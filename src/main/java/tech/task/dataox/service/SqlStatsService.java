@@ -0,0 +1,20 @@
+package tech.task.dataox.service;
+
+import tech.task.dataox.lib.SqlAccounting;
+import tech.task.dataox.model.dto.SqlEndpointStatsDto;
+
+import java.util.List;
+
+public interface SqlStatsService {
+
+    /**
+     * Adds the statements of one finished request to its endpoint, warning when there are more than the
+     * configured budget (usually a lazy association loaded once per element).
+     */
+    void record(String endpoint, SqlAccounting.Snapshot usage);
+
+    /**
+     * Endpoints by statements per request, the most expensive first.
+     */
+    List<SqlEndpointStatsDto> getStats();
+}
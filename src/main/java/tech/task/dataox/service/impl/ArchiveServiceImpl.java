@@ -0,0 +1,94 @@
+package tech.task.dataox.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tech.task.dataox.model.archive.ArchivedClient;
+import tech.task.dataox.model.archive.ArchivedOrder;
+import tech.task.dataox.model.dto.OrderDto;
+import tech.task.dataox.repository.ArchivedClientRepository;
+import tech.task.dataox.repository.ArchivedOrderRepository;
+import tech.task.dataox.repository.ClientRepository;
+import tech.task.dataox.repository.OrderRepository;
+import tech.task.dataox.service.ArchiveService;
+import tech.task.dataox.service.ShardRoutingService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ArchiveServiceImpl implements ArchiveService {
+    private final OrderRepository orderRepository;
+    private final ClientRepository clientRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final ArchivedClientRepository archivedClientRepository;
+    private final ShardRoutingService shardRoutingService;
+
+    @Value("${archive.client-retention-days:30}")
+    private long clientRetentionDays;
+
+    // Copy + delete run in one short transaction, so an interrupted run never loses or duplicates rows
+    // and the next run simply picks up whatever is still left in the hot table.
+    @Override
+    @Transactional
+    public int archiveOrderBatch(int batchSize) {
+        List<Long> ids = orderRepository.findInactiveIds(PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int copied = archivedOrderRepository.copyFromOrders(ids, LocalDateTime.now());
+        int deleted = orderRepository.deleteInactiveByIdIn(ids);
+        log.debug("Archived order batch: copied={}, deleted={}", copied, deleted);
+        return deleted;
+    }
+
+    @Override
+    @Transactional
+    public int archiveClientBatch(int batchSize) {
+        LocalDateTime inactiveBefore = LocalDateTime.now().minusDays(clientRetentionDays);
+        List<Long> ids = clientRepository.findArchivableIds(inactiveBefore, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int copied = archivedClientRepository.copyFromClients(ids, LocalDateTime.now());
+        int deleted = clientRepository.deleteInactiveByIdIn(ids);
+        log.debug("Archived client batch: copied={}, deleted={}", copied, deleted);
+        return deleted;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean isOrderArchived(String title, Long supplierId, Long consumerId) {
+        return shardRoutingService.onShardOf(consumerId,
+                () -> archivedOrderRepository.existsByTitleAndSupplierIdAndConsumerId(title, supplierId, consumerId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<ArchivedOrder> findArchivedOrderById(Long id) {
+        return shardRoutingService.onShardOf(id, () -> archivedOrderRepository.findById(id));
+    }
+
+    @Override
+    public List<ArchivedOrder> findArchivedOrdersByClientId(Long clientId) {
+        return shardRoutingService.gather(() -> archivedOrderRepository.findAllByClientId(clientId));
+    }
+
+    @Override
+    public List<OrderDto> findArchivedOrdersByClientId(Long clientId, Set<String> fields) {
+        return shardRoutingService.gather(() -> archivedOrderRepository.findAllByClientId(clientId, fields));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<ArchivedClient> findArchivedClientById(Long id) {
+        return shardRoutingService.onShardOf(id, () -> archivedClientRepository.findById(id));
+    }
+}
@@ -0,0 +1,369 @@
+package tech.task.dataox.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import tech.task.dataox.repository.ClientLockRepository;
+import tech.task.dataox.service.ClientLockService;
+import tech.task.dataox.service.ShardRoutingService;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-client lease locks in the {@code client_locks} table, shared by all instances on the same database.
+ * <p>
+ * Threads of one instance queue on a local lock first, so only one of them talks to the database per client.
+ * A released lease stays cached for {@code linger-ms} and is handed to the next local thread without a
+ * round trip. A heartbeat thread extends held leases; a lease that could not be extended is lost and
+ * {@link ClientLease#verify()} fails. Expiry uses the application clock in UTC, so instances in
+ * different time zones agree on it; they are expected to run NTP.
+ * With sharding the lock row of a client is on the client's shard.
+ */
+@Service
+@Slf4j
+public class ClientLockServiceImpl implements ClientLockService {
+    private static final ClientLease NO_LEASE = new ClientLease() {
+        @Override
+        public void verify() {
+        }
+
+        @Override
+        public long fencingToken(Long clientId) {
+            return 0;
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    private final ClientLockRepository clientLockRepository;
+    private final ShardRoutingService shardRoutingService;
+    private final TransactionTemplate requiresNew;
+    private final boolean enabled;
+    private final long leaseTtlMs;
+    private final long heartbeatIntervalMs;
+    private final long waitTimeoutMs;
+    private final long lingerMs;
+    private final String owner;
+    private final Map<Long, LocalLease> leases = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService heartbeat;
+
+    public ClientLockServiceImpl(ClientLockRepository clientLockRepository,
+                                 ShardRoutingService shardRoutingService,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${lock.client.enabled:true}") boolean enabled,
+                                 @Value("${lock.client.lease-ttl-ms:10000}") long leaseTtlMs,
+                                 @Value("${lock.client.heartbeat-interval-ms:3000}") long heartbeatIntervalMs,
+                                 @Value("${lock.client.wait-timeout-ms:5000}") long waitTimeoutMs,
+                                 @Value("${lock.client.linger-ms:200}") long lingerMs) {
+        this.clientLockRepository = clientLockRepository;
+        this.shardRoutingService = shardRoutingService;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.leaseTtlMs = leaseTtlMs;
+        this.heartbeatIntervalMs = heartbeatIntervalMs;
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.lingerMs = lingerMs;
+        this.owner = hostName() + "/" + UUID.randomUUID();
+        // Own thread: the shared scheduler also runs long batch jobs that would delay renewals past the ttl
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "client-lock-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Ticks often enough to both renew held leases and release cached ones after the linger time
+        long tick = lingerMs > 0 ? Math.min(heartbeatIntervalMs, lingerMs) : heartbeatIntervalMs;
+        heartbeat.scheduleWithFixedDelay(this::heartbeat, tick, tick, TimeUnit.MILLISECONDS);
+        log.info("Client lease locks {} for owner={}", enabled ? "enabled" : "disabled", owner);
+    }
+
+    @Override
+    public ClientLease acquire(Collection<Long> clientIds) {
+        if (!enabled) {
+            return NO_LEASE;
+        }
+        List<Long> ids = clientIds.stream().distinct().sorted().toList();
+        long deadline = System.currentTimeMillis() + waitTimeoutMs;
+        Map<Long, LocalLease> held = new HashMap<>();
+        List<Long> order = new ArrayList<>();
+        try {
+            for (Long id : ids) {
+                held.put(id, acquireOne(id, deadline));
+                order.add(id);
+            }
+        } catch (RuntimeException e) {
+            release(order, held);
+            throw e;
+        }
+        return new HeldLease(order, held);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        // Let other instances take over right away instead of waiting for the ttl
+        leases.forEach((id, lease) -> {
+            synchronized (lease) {
+                if (lease.token != 0) {
+                    releaseInDb(id, lease.token);
+                    lease.token = 0;
+                }
+            }
+        });
+    }
+
+    private LocalLease acquireOne(Long clientId, long deadline) {
+        LocalLease lease = leases.compute(clientId, (id, existing) -> {
+            LocalLease l = existing != null ? existing : new LocalLease();
+            l.users++;
+            return l;
+        });
+        try {
+            if (!lease.lock.tryLock(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS)) {
+                throw busy(clientId);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            leave(clientId);
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Interrupted while locking client");
+        } catch (RuntimeException e) {
+            leave(clientId);
+            throw e;
+        }
+        try {
+            synchronized (lease) {
+                // Cached lease with enough time left, no database round trip
+                if (lease.token != 0 && !lease.lost
+                        && lease.expiresAtMs - System.currentTimeMillis() > heartbeatIntervalMs) {
+                    lease.idleSinceMs = 0;
+                    return lease;
+                }
+            }
+            long backoff = 5;
+            while (true) {
+                long now = System.currentTimeMillis();
+                Long token = tryAcquireInDb(clientId, now);
+                if (token != null) {
+                    synchronized (lease) {
+                        lease.token = token;
+                        lease.expiresAtMs = now + leaseTtlMs;
+                        lease.lost = false;
+                        lease.idleSinceMs = 0;
+                    }
+                    log.debug("Client lease acquired: clientId={}, token={}", clientId, token);
+                    return lease;
+                }
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    throw busy(clientId);
+                }
+                TimeUnit.MILLISECONDS.sleep(Math.min(remaining, ThreadLocalRandom.current().nextLong(backoff + 1)));
+                backoff = Math.min(backoff * 2, 200);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            unlockAndLeave(clientId, lease);
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Interrupted while locking client");
+        } catch (RuntimeException e) {
+            unlockAndLeave(clientId, lease);
+            throw e;
+        }
+    }
+
+    private Long tryAcquireInDb(Long clientId, long nowMs) {
+        LocalDateTime now = toDateTime(nowMs);
+        LocalDateTime expiresAt = toDateTime(nowMs + leaseTtlMs);
+        return shardRoutingService.onShardOf(clientId, () -> requiresNew.execute(status -> {
+            if (clientLockRepository.takeOver(clientId, owner, now, expiresAt) == 1) {
+                return clientLockRepository.findToken(clientId, owner);
+            }
+            // No row yet: the first lease starts the fencing token sequence at 1. A row that is there is held
+            // by another owner, or was inserted by one concurrently
+            return clientLockRepository.insertFirst(clientId, owner, expiresAt) == 1 ? 1L : null;
+        }));
+    }
+
+    private void release(List<Long> order, Map<Long, LocalLease> held) {
+        for (int i = order.size() - 1; i >= 0; i--) {
+            Long clientId = order.get(i);
+            LocalLease lease = held.get(clientId);
+            synchronized (lease) {
+                lease.idleSinceMs = System.currentTimeMillis();
+                // Nobody local is waiting and caching is off: hand the client to other instances now
+                if (lingerMs == 0 && !lease.lock.hasQueuedThreads() && lease.token != 0) {
+                    releaseInDb(clientId, lease.token);
+                    lease.token = 0;
+                }
+            }
+            unlockAndLeave(clientId, lease);
+        }
+    }
+
+    private void unlockAndLeave(Long clientId, LocalLease lease) {
+        lease.lock.unlock();
+        leave(clientId);
+    }
+
+    private void leave(Long clientId) {
+        leases.computeIfPresent(clientId, (id, l) -> {
+            l.users--;
+            return l.users == 0 && l.token == 0 ? null : l;
+        });
+    }
+
+    private void heartbeat() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Long, LocalLease> entry : leases.entrySet()) {
+            Long clientId = entry.getKey();
+            LocalLease lease = entry.getValue();
+            try {
+                synchronized (lease) {
+                    if (lease.token == 0) {
+                        continue;
+                    }
+                    if (lease.idleSinceMs != 0 && (lease.lost || now - lease.idleSinceMs >= lingerMs)) {
+                        if (!lease.lost) {
+                            releaseInDb(clientId, lease.token);
+                        }
+                        lease.token = 0;
+                    } else if (!lease.lost && lease.expiresAtMs - now <= leaseTtlMs - heartbeatIntervalMs) {
+                        renew(clientId, lease, now);
+                    }
+                }
+                leases.computeIfPresent(clientId, (id, l) -> l.users == 0 && l.token == 0 ? null : l);
+            } catch (RuntimeException e) {
+                log.error("Client lease heartbeat failed for clientId={}: {}", clientId, e.getMessage());
+            }
+        }
+    }
+
+    private void renew(Long clientId, LocalLease lease, long now) {
+        long token = lease.token;
+        Integer renewed = shardRoutingService.onShardOf(clientId, () -> requiresNew.execute(status ->
+                clientLockRepository.updateExpiry(clientId, owner, token, toDateTime(now + leaseTtlMs))));
+        if (renewed != null && renewed == 1) {
+            lease.expiresAtMs = now + leaseTtlMs;
+        } else {
+            lease.lost = true;
+            log.warn("Client lease lost: clientId={}, token={}", clientId, token);
+        }
+    }
+
+    private void releaseInDb(Long clientId, long token) {
+        // The row stays, the next lease continues its fencing token sequence
+        shardRoutingService.runOnShardOf(clientId, () -> requiresNew.executeWithoutResult(status ->
+                clientLockRepository.updateExpiry(clientId, owner, token, toDateTime(System.currentTimeMillis() - 1))));
+        log.debug("Client lease released: clientId={}, token={}", clientId, token);
+    }
+
+    private ResponseStatusException busy(Long clientId) {
+        log.warn("Client id={} is locked by another operation", clientId);
+        return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                "Client " + clientId + " is locked by another operation");
+    }
+
+    private static LocalDateTime toDateTime(long epochMs) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMs), ZoneOffset.UTC);
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+
+    private final class HeldLease implements ClientLease {
+        private final List<Long> order;
+        private final Map<Long, LocalLease> held;
+        private boolean closed;
+
+        HeldLease(List<Long> order, Map<Long, LocalLease> held) {
+            this.order = order;
+            this.held = held;
+        }
+
+        @Override
+        public void verify() {
+            // The lock rows on the transaction's shard are locked with one statement
+            List<Long> local = order.stream().filter(shardRoutingService::isOnCurrentShard).toList();
+            Map<Long, Long> locked = new HashMap<>();
+            if (!local.isEmpty()) {
+                clientLockRepository.lockTokens(local, owner)
+                        .forEach(row -> locked.put(row.getClientId(), row.getFencingToken()));
+            }
+            for (Long clientId : order) {
+                LocalLease lease = held.get(clientId);
+                long token;
+                boolean lost;
+                synchronized (lease) {
+                    token = lease.token;
+                    lost = lease.lost;
+                }
+                // The lock row of a client on another shard cannot be locked by this transaction, it is only read
+                Long current = shardRoutingService.isOnCurrentShard(clientId)
+                        ? locked.get(clientId)
+                        : shardRoutingService.onShardOf(clientId, () -> requiresNew.execute(status ->
+                                clientLockRepository.findToken(clientId, owner)));
+                if (lost || current == null || current != token) {
+                    log.error("Client lease lost before commit: clientId={}, token={}, current={}",
+                            clientId, token, current);
+                    throw new ResponseStatusException(HttpStatus.CONFLICT,
+                            "Lock on client " + clientId + " was lost, please retry");
+                }
+            }
+        }
+
+        @Override
+        public long fencingToken(Long clientId) {
+            LocalLease lease = held.get(clientId);
+            synchronized (lease) {
+                return lease.token;
+            }
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                release(order, held);
+            }
+        }
+    }
+
+    private static final class LocalLease {
+        final ReentrantLock lock = new ReentrantLock(true);
+        // Threads holding or waiting for the local lock, guarded by the leases map
+        int users;
+        // Fields below are guarded by the LocalLease monitor, token 0 means no lease in the database
+        long token;
+        long expiresAtMs;
+        long idleSinceMs;
+        boolean lost;
+    }
+}
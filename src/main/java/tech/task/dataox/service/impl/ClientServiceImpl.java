@@ -2,20 +2,42 @@ package tech.task.dataox.service.impl;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
+import tech.task.dataox.lib.Money;
 import tech.task.dataox.model.Client;
+import tech.task.dataox.model.dto.BulkClientStatusDto;
+import tech.task.dataox.model.dto.BulkClientStatusResultDto;
+import tech.task.dataox.model.dto.ClientDto;
 import tech.task.dataox.model.dto.UpdateClientDto;
+import tech.task.dataox.model.event.ClientChangedEvent;
+import tech.task.dataox.model.event.ClientsDeactivatedEvent;
 import tech.task.dataox.repository.ClientRepository;
+import tech.task.dataox.service.ClientLockService;
+import tech.task.dataox.service.ClientLockService.ClientLease;
 import tech.task.dataox.service.ClientService;
+import tech.task.dataox.service.OptimisticRetryService;
+import tech.task.dataox.service.ProfitWriteBehindService;
+import tech.task.dataox.service.ShardRoutingService;
 import tech.task.dataox.service.mapper.ClientMapper;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.ToIntFunction;
 
 @Service
 @Slf4j
@@ -23,6 +45,17 @@ import java.time.LocalDateTime;
 public class ClientServiceImpl implements ClientService {
     private final ClientRepository clientRepository;
     private final ClientMapper clientMapper;
+    private final OptimisticRetryService optimisticRetryService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ClientLockService clientLockService;
+    private final ProfitWriteBehindService profitWriteBehindService;
+    private final ShardRoutingService shardRoutingService;
+
+    @Value("${client.bulk.chunk-size:500}")
+    private int bulkChunkSize;
+
+    @Value("${client.bulk.max-ids:10000}")
+    private int bulkMaxIds;
 
     @Override
     public Client createClient(Client client) {
@@ -35,15 +68,16 @@ public class ClientServiceImpl implements ClientService {
         client.setEmail(email);
         client.setPhone(phone);
 
-        //Check existing
-        if (email != null && clientRepository.existsByEmailIgnoreCase(email)) {
+        //Check existing, archived clients included, on every shard: the unique constraints only cover one table
+        if (email != null && shardRoutingService.anyMatch(() -> clientRepository.isEmailInUse(email))) {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Email already in use");
         }
-        if (phone != null && clientRepository.existsByPhone(phone)) {
+        if (phone != null && shardRoutingService.anyMatch(() -> clientRepository.isPhoneInUse(phone))) {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Phone already in use");
         }
 
-        Client saved = clientRepository.save(client);
+        Client saved = shardRoutingService.onShard(shardRoutingService.shardForNewClient(email),
+                () -> clientRepository.save(client));
         log.info("Client created: id={}", saved.getId());
         return saved;
     }
@@ -52,7 +86,7 @@ public class ClientServiceImpl implements ClientService {
     @Transactional(readOnly = true)
     public Client findClientById(Long id) {
         log.debug("Attempting to find client by id: id={}", id);
-        return clientRepository.findById(id)
+        return shardRoutingService.onShardOf(id, () -> clientRepository.findById(id))
                 .filter(Client::isActive)
                 .orElseThrow((() -> {
                     log.warn("Client with id={} not found or deleted", id);
@@ -62,67 +96,90 @@ public class ClientServiceImpl implements ClientService {
     }
 
     @Override
-    @Transactional(readOnly = true)
+    public Optional<Long> findActiveClientVersion(Long id) {
+        return shardRoutingService.onShardOf(id, () -> clientRepository.findActiveVersionById(id));
+    }
+
+    @Override
     public Page<Client> findClientsByKeyword(String keyword, Pageable pageable) {
         log.debug("Attempting to search clients: keyword='{}', page={}, size={}", keyword, pageable.getPageNumber(), pageable.getPageSize());
-        return clientRepository.searchActive(keyword.trim(), pageable);
+        String q = keyword.trim();
+        return shardRoutingService.gatherPage(shardPage -> clientRepository.searchActive(q, shardPage), pageable);
+    }
+
+    @Override
+    public Page<ClientDto> findClientsByKeyword(String keyword, Set<String> fields, Pageable pageable) {
+        log.debug("Attempting to search clients: keyword='{}', fields={}, page={}, size={}",
+                keyword, fields, pageable.getPageNumber(), pageable.getPageSize());
+        String q = keyword.trim();
+        return shardRoutingService.gatherPage(shardPage -> clientRepository.searchActive(q, fields, shardPage), pageable);
     }
 
     @Override
-    @Transactional
     public Client update(Long id, UpdateClientDto dto) {
         log.debug("Attempting to update client: id={}", id);
-        Client existing = findClientById(id);
+        // Orders change the profit of the client concurrently, a lost race is retried on fresh state
+        return shardRoutingService.onShardOf(id, () -> optimisticRetryService.inTransaction("Client update", Set.of(id), status -> {
+            Client existing = findClientById(id);
 
-        if (dto.getEmail() != null && !dto.getEmail().equals(existing.getEmail())) {
-            if (clientRepository.existsByEmailAndIdNot(dto.getEmail(), id)) {
-                log.warn("Email conflict for id={}, email={} already in use", id, dto.getEmail());
-                throw new ResponseStatusException(HttpStatus.CONFLICT, "Email already in use");
+            if (dto.getEmail() != null && !dto.getEmail().equals(existing.getEmail())) {
+                if (shardRoutingService.anyMatch(() -> clientRepository.isEmailInUseByOther(dto.getEmail(), id))) {
+                    log.warn("Email conflict for id={}, email={} already in use", id, dto.getEmail());
+                    throw new ResponseStatusException(HttpStatus.CONFLICT, "Email already in use");
+                }
+                existing.setEmail(dto.getEmail());
             }
-            existing.setEmail(dto.getEmail());
-        }
-        if (dto.getPhone() != null && !dto.getPhone().equals(existing.getPhone())) {
-            if (clientRepository.existsByPhoneAndIdNot(dto.getPhone(), id)) {
-                log.warn("Phone conflict for id={}, phone={} already in use", id, dto.getPhone());
-                throw new ResponseStatusException(HttpStatus.CONFLICT, "Phone already in use");
+            if (dto.getPhone() != null && !dto.getPhone().equals(existing.getPhone())) {
+                if (shardRoutingService.anyMatch(() -> clientRepository.isPhoneInUseByOther(dto.getPhone(), id))) {
+                    log.warn("Phone conflict for id={}, phone={} already in use", id, dto.getPhone());
+                    throw new ResponseStatusException(HttpStatus.CONFLICT, "Phone already in use");
+                }
+                existing.setPhone(dto.getPhone());
             }
-            existing.setPhone(dto.getPhone());
-        }
 
-        clientMapper.updateClientFromDto(dto, existing);
-        log.info("Client updated id={} (email={}, phone={})",
-                existing.getId(), existing.getEmail(), existing.getPhone());
+            clientMapper.updateClientFromDto(dto, existing);
+            log.info("Client updated id={} (email={}, phone={})",
+                    existing.getId(), existing.getEmail(), existing.getPhone());
 
-        return existing;
+            return existing;
+        }));
     }
 
     @Override
     @Transactional(readOnly = true)
-    public BigDecimal findClientProfitById(Long id) {
+    public Money findClientProfitById(Long id) {
         return findClientById(id).getProfit();
     }
 
     @Override
     public Page<Client> findClientsByProfitBetween(Pageable pageable,
-                                                   BigDecimal min, BigDecimal max) {
-        return clientRepository.findClientsByProfitBetween(pageable, min, max);
+                                                   Money min, Money max) {
+        return shardRoutingService.gatherPage(
+                shardPage -> clientRepository.findClientsByProfitBetween(shardPage, min, max), pageable);
     }
 
     @Override
-    @Transactional
     public void deactivateById(Long id) {
         log.debug("Attempting to deactivate client: id={}", id);
-        Client client = findClientById(id);
-        client.setActive(Boolean.FALSE);
-        client.setInactiveAt(LocalDateTime.now());
-        log.info("Client deactivated id={} at {}", id, client.getInactiveAt());
+        // Serialized with order commits of this client on every instance
+        try (ClientLease lease = clientLockService.acquire(List.of(id))) {
+            shardRoutingService.onShardOf(id, () -> optimisticRetryService.inTransaction("Client deactivate", Set.of(id), status -> {
+                lease.verify();
+                Client client = findClientById(id);
+                client.setActive(Boolean.FALSE);
+                client.setInactiveAt(LocalDateTime.now());
+                eventPublisher.publishEvent(new ClientChangedEvent(id));
+                log.info("Client deactivated id={} at {}", id, client.getInactiveAt());
+                return client;
+            }));
+        }
     }
 
     @Override
     @Transactional
     public void recoverClientById(Long id) {
         log.debug("Attempting to recover client: id={}", id);
-        Client client = clientRepository.findById(id)
+        Client client = shardRoutingService.onShardOf(id, () -> clientRepository.findById(id))
                 .filter(c -> !c.isActive())
                 .orElseThrow((() -> {
                     log.warn("Client with id={} is active.", id);
@@ -132,11 +189,104 @@ public class ClientServiceImpl implements ClientService {
 
         client.setActive(Boolean.TRUE);
         client.setInactiveAt(null);
+        eventPublisher.publishEvent(new ClientChangedEvent(id));
         log.info("Client recovered id={}", id);
     }
 
+    // Leases per chunk like deactivateById: the version increment only fails order commits that read the client,
+    // a supplier on another shard is checked before the order transaction under its lease
+    @Override
+    public BulkClientStatusResultDto deactivateAll(BulkClientStatusDto dto) {
+        LocalDateTime now = LocalDateTime.now();
+        BulkClientStatusResultDto result = forEachChunk("deactivate", dto, true, chunk -> {
+            int affected;
+            try (ClientLease lease = clientLockService.acquire(chunk)) {
+                affected = optimisticRetryService.inTransaction("Client bulk deactivate", new HashSet<>(chunk), status -> {
+                    lease.verify();
+                    return clientRepository.deactivateByIdIn(chunk, now);
+                });
+            }
+            // All ids of the chunk, so repeating the request finishes a cascade cut short by a restart
+            eventPublisher.publishEvent(new ClientsDeactivatedEvent(chunk));
+            return affected;
+        });
+        log.info("Clients deactivated in bulk: matched={}, affected={}", result.getMatched(), result.getAffected());
+        return result;
+    }
+
+    // Orders stay inactive, the cascade does not record which of them it deactivated
+    @Override
+    public BulkClientStatusResultDto recoverAll(BulkClientStatusDto dto) {
+        BulkClientStatusResultDto result = forEachChunk("recover", dto, false, clientRepository::recoverByIdIn);
+        log.info("Clients recovered in bulk: matched={}, affected={}", result.getMatched(), result.getAffected());
+        return result;
+    }
+
+    // Every chunk is one set-based update in its own transaction, row locks are held for one chunk only
+    private BulkClientStatusResultDto forEachChunk(String action, BulkClientStatusDto dto, boolean active,
+                                                   ToIntFunction<List<Long>> update) {
+        if ((dto.getIds() == null) == (dto.getQ() == null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Either ids or q is required, not both");
+        }
+        log.debug("Attempting to {} clients in bulk: ids={}, q='{}'", action,
+                dto.getIds() == null ? null : dto.getIds().size(), dto.getQ());
+        int matched = 0;
+        int affected = 0;
+        if (dto.getIds() != null) {
+            List<Long> ids = List.copyOf(new LinkedHashSet<>(dto.getIds()));
+            if (ids.size() > bulkMaxIds) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "At most " + bulkMaxIds + " client ids per request");
+            }
+            Map<Integer, List<Long>> byShard = new TreeMap<>();
+            for (Long id : ids) {
+                byShard.computeIfAbsent(shardRoutingService.shardOf(id), shard -> new ArrayList<>()).add(id);
+            }
+            for (Map.Entry<Integer, List<Long>> shard : byShard.entrySet()) {
+                List<Long> shardIds = shard.getValue();
+                for (int from = 0; from < shardIds.size(); from += bulkChunkSize) {
+                    List<Long> chunk = shardIds.subList(from, Math.min(from + bulkChunkSize, shardIds.size()));
+                    affected += shardRoutingService.onShard(shard.getKey(), () -> update.applyAsInt(chunk));
+                }
+            }
+            matched = ids.size();
+        } else {
+            // Keyset over the ids: the updated clients drop out of the match, the cursor moves past them anyway
+            String q = dto.getQ().trim();
+            int[] counts = new int[2];
+            shardRoutingService.forEachShard(shard -> {
+                long afterId = 0;
+                List<Long> chunk;
+                do {
+                    chunk = clientRepository.findIdsByKeyword(q, active, afterId, PageRequest.of(0, bulkChunkSize));
+                    if (!chunk.isEmpty()) {
+                        counts[0] += update.applyAsInt(chunk);
+                        counts[1] += chunk.size();
+                        afterId = chunk.get(chunk.size() - 1);
+                    }
+                } while (chunk.size() == bulkChunkSize);
+            });
+            affected = counts[0];
+            matched = counts[1];
+        }
+        if (affected > 0) {
+            eventPublisher.publishEvent(new ClientChangedEvent(null));
+        }
+        return BulkClientStatusResultDto.builder()
+                .matched(matched)
+                .affected(affected)
+                .build();
+    }
+
+    // Credits of earlier orders that are not flushed yet would otherwise show up after the reset.
+    // One transaction per shard, a shard that failed is reset by repeating the request
     @Override
     public void resetAllProfit() {
-        clientRepository.resetAllProfit();
+        shardRoutingService.forEachShard(shard -> optimisticRetryService.inTransaction("Profit reset", Set.of(), status -> {
+            profitWriteBehindService.discardAll();
+            clientRepository.resetAllProfit();
+            eventPublisher.publishEvent(new ClientChangedEvent(null));
+            return null;
+        }));
     }
 }
@@ -0,0 +1,171 @@
+package tech.task.dataox.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import tech.task.dataox.lib.Money;
+import tech.task.dataox.model.dto.ClientSummaryDto;
+import tech.task.dataox.repository.ClientRepository;
+import tech.task.dataox.repository.OrderRepository;
+import tech.task.dataox.repository.projection.ClientSummaryView;
+import tech.task.dataox.repository.projection.SupplierTotalsView;
+import tech.task.dataox.service.ClientSummaryService;
+import tech.task.dataox.service.ShardRoutingService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Client summaries from one grouped query, cached per client until an order of the client changes.
+ * See ClientSummaryListener for the invalidation. A load that overlaps an eviction of one of its clients may
+ * have read the state before the change, so that summary is answered but not kept in the cache. With sharding the query runs on every shard: the client's
+ * own shard has its row and the orders it consumed, the supplied orders are spread over the shards of its consumers.
+ */
+@Service
+@Slf4j
+public class ClientSummaryServiceImpl implements ClientSummaryService {
+    // Power of two; clients sharing a stripe only cost each other a cached load
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final ClientRepository clientRepository;
+    private final OrderRepository orderRepository;
+    private final ShardRoutingService shardRoutingService;
+    private final int maxBatchSize;
+    private final Cache<Long, ClientSummaryDto> cache;
+    // Bumped before every eviction of a client of the stripe
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    public ClientSummaryServiceImpl(ClientRepository clientRepository,
+                                    OrderRepository orderRepository,
+                                    ShardRoutingService shardRoutingService,
+                                    @Value("${summary.max-batch-size:500}") int maxBatchSize,
+                                    @Value("${summary.cache.max-size:10000}") long maxSize,
+                                    @Value("${summary.cache.ttl:10m}") Duration ttl) {
+        this.clientRepository = clientRepository;
+        this.orderRepository = orderRepository;
+        this.shardRoutingService = shardRoutingService;
+        this.maxBatchSize = maxBatchSize;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                // Safety net only, every change that affects a summary evicts it
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    @Override
+    public ClientSummaryDto getSummary(Long clientId) {
+        List<ClientSummaryDto> summaries = getSummaries(List.of(clientId));
+        if (summaries.isEmpty()) {
+            log.warn("Client with id={} not found or deleted", clientId);
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "client with id " + clientId + " not found.");
+        }
+        return summaries.get(0);
+    }
+
+    @Override
+    public List<ClientSummaryDto> getSummaries(Collection<Long> clientIds) {
+        Set<Long> ids = new LinkedHashSet<>(clientIds);
+        if (ids.size() > maxBatchSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + maxBatchSize + " client ids per request");
+        }
+        Map<Long, ClientSummaryDto> found = new HashMap<>(cache.getAllPresent(ids));
+        Map<Long, Long> missing = new HashMap<>();
+        ids.stream()
+                .filter(id -> !found.containsKey(id))
+                .forEach(id -> missing.put(id, generations.get(stripe(id))));
+        if (!missing.isEmpty()) {
+            // Misses of the whole batch are loaded with a single query
+            Map<Long, ClientSummaryDto> loaded = load(missing.keySet());
+            cache.putAll(loaded);
+            // Checked after the put: an eviction racing with it either shows here or comes after the put
+            loaded.keySet().stream()
+                    .filter(id -> generations.get(stripe(id)) != missing.get(id))
+                    .forEach(cache::invalidate);
+            found.putAll(loaded);
+        }
+        return ids.stream()
+                .map(found::get)
+                .filter(summary -> summary != null)
+                .toList();
+    }
+
+    @Override
+    public void evict(Long clientId) {
+        generations.incrementAndGet(stripe(clientId));
+        cache.invalidate(clientId);
+    }
+
+    @Override
+    public void evictAll() {
+        for (int i = 0; i < GENERATION_STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+        cache.invalidateAll();
+    }
+
+    private static int stripe(Long clientId) {
+        return Long.hashCode(clientId) & (GENERATION_STRIPES - 1);
+    }
+
+    private Map<Long, ClientSummaryDto> load(Set<Long> ids) {
+        log.debug("Loading client summaries: ids={}", ids);
+        List<Long> idList = List.copyOf(ids);
+        Map<Long, ClientSummaryView> views = new HashMap<>();
+        for (ClientSummaryView view : shardRoutingService.gather(() -> clientRepository.findSummaries(idList))) {
+            if (Boolean.TRUE.equals(view.getActive())) {
+                views.put(view.getClientId(), view);
+            }
+        }
+        List<Map<Long, SupplierTotalsView>> perShard = shardRoutingService.shardCount() == 1 || views.isEmpty()
+                ? List.of()
+                : shardRoutingService.scatter(() -> supplierTotals(List.copyOf(views.keySet())));
+        Map<Long, ClientSummaryDto> result = new HashMap<>();
+        views.forEach((clientId, view) -> {
+            long suppliedCount = view.getSuppliedCount();
+            long suppliedTotal = view.getSuppliedTotal();
+            LocalDateTime lastOrderAt = view.getLastOrderAt();
+            for (int shard = 0; shard < perShard.size(); shard++) {
+                SupplierTotalsView totals = perShard.get(shard).get(clientId);
+                // The client's own shard is already in its view
+                if (totals == null || shard == shardRoutingService.shardOf(clientId)) {
+                    continue;
+                }
+                suppliedCount += totals.getSuppliedCount();
+                suppliedTotal += totals.getSuppliedTotal();
+                if (lastOrderAt == null || totals.getLastOrderAt().isAfter(lastOrderAt)) {
+                    lastOrderAt = totals.getLastOrderAt();
+                }
+            }
+            result.put(clientId, ClientSummaryDto.builder()
+                    .clientId(clientId)
+                    .suppliedOrders(suppliedCount)
+                    .suppliedTotal(Money.ofMinor(suppliedTotal))
+                    .consumedOrders(view.getConsumedCount())
+                    .consumedTotal(Money.ofMinor(view.getConsumedTotal()))
+                    .lastOrderAt(lastOrderAt)
+                    .profit(Money.ofMinor(view.getProfit()))
+                    .build());
+        });
+        return result;
+    }
+
+    private Map<Long, SupplierTotalsView> supplierTotals(List<Long> clientIds) {
+        Map<Long, SupplierTotalsView> totals = new HashMap<>();
+        for (SupplierTotalsView view : orderRepository.findSupplierTotals(clientIds)) {
+            totals.put(view.getClientId(), view);
+        }
+        return totals;
+    }
+}
@@ -0,0 +1,162 @@
+package tech.task.dataox.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import tech.task.dataox.model.dto.ClientConflictStatsDto;
+import tech.task.dataox.model.dto.ConflictStatsDto;
+import tech.task.dataox.service.OptimisticRetryService;
+import tech.task.dataox.service.RequestDeadlineService;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded retries with full-jitter exponential backoff for transactions that lose an optimistic lock race
+ * (or a row lock race, see {@code ClientRepository.findByIdForShare}).
+ * Only the transaction is repeated, callers keep their expensive work (order processing) outside of it.
+ */
+@Service
+@Slf4j
+public class OptimisticRetryServiceImpl implements OptimisticRetryService {
+    private final PlatformTransactionManager transactionManager;
+    private final TransactionTemplate transactionTemplate;
+    private final RequestDeadlineService requestDeadlineService;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final AtomicLong attempts = new AtomicLong();
+    private final AtomicLong conflicts = new AtomicLong();
+    private final AtomicLong exhausted = new AtomicLong();
+    private final Cache<Long, ClientCounters> clients;
+
+    public OptimisticRetryServiceImpl(PlatformTransactionManager transactionManager,
+                                      @Value("${retry.optimistic.max-attempts:5}") int maxAttempts,
+                                      @Value("${retry.optimistic.initial-backoff-ms:10}") long initialBackoffMs,
+                                      @Value("${retry.optimistic.max-backoff-ms:500}") long maxBackoffMs,
+                                      @Value("${retry.optimistic.max-tracked-clients:10000}") long maxTrackedClients,
+                                      RequestDeadlineService requestDeadlineService) {
+        this.transactionManager = transactionManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.requestDeadlineService = requestDeadlineService;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.clients = Caffeine.newBuilder().maximumSize(maxTrackedClients).build();
+    }
+
+    @Override
+    public <T> T inTransaction(String operation, Set<Long> clientIds, TransactionCallback<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            // Every attempt, the backoff of the previous one may have used up the rest of the budget
+            requestDeadlineService.ensureRemaining(RequestDeadlineService.COMMIT, Duration.ZERO);
+            attempts.incrementAndGet();
+            try {
+                T result = transactionTemplate(requestDeadlineService.transactionTimeoutSeconds()).execute(work);
+                count(clientIds, false);
+                return result;
+            } catch (ResponseStatusException e) {
+                throw e;
+            } catch (ConcurrencyFailureException e) {
+                // Version conflicts, and lock timeouts or deadlocks around the shared lock on order suppliers
+                conflicts.incrementAndGet();
+                count(clientIds, true);
+                if (attempt >= maxAttempts) {
+                    exhausted.incrementAndGet();
+                    log.error("{} still conflicts after {} attempts: clients={}", operation, attempt, clientIds);
+                    throw new ResponseStatusException(HttpStatus.CONFLICT,
+                            "Concurrent update, please retry", e);
+                }
+                long backoff = backoffMs(attempt);
+                log.warn("{} lost a lock race (attempt {}/{}), retrying in {} ms: {}",
+                        operation, attempt, maxAttempts, backoff, e.getMessage());
+                sleep(backoff);
+            } catch (RuntimeException e) {
+                // Statements cut short by the transaction timeout surface as various data access exceptions
+                if (requestDeadlineService.isExpired()) {
+                    throw requestDeadlineService.exceeded(RequestDeadlineService.COMMIT, e);
+                }
+                throw e;
+            }
+        }
+    }
+
+    private TransactionTemplate transactionTemplate(int timeoutSeconds) {
+        if (timeoutSeconds == TransactionDefinition.TIMEOUT_DEFAULT) {
+            return transactionTemplate;
+        }
+        // Hibernate applies what is left of the transaction timeout to every statement as its query timeout
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setTimeout(timeoutSeconds);
+        return template;
+    }
+
+    @Override
+    public ConflictStatsDto getStats(int limit) {
+        List<ClientConflictStatsDto> top = clients.asMap().entrySet().stream()
+                .map(e -> {
+                    long clientAttempts = e.getValue().attempts.get();
+                    long clientConflicts = e.getValue().conflicts.get();
+                    return ClientConflictStatsDto.builder()
+                            .clientId(e.getKey())
+                            .attempts(clientAttempts)
+                            .conflicts(clientConflicts)
+                            .conflictRate(clientAttempts == 0 ? 0 : (double) clientConflicts / clientAttempts)
+                            .build();
+                })
+                .sorted(Comparator.comparingLong(ClientConflictStatsDto::getConflicts).reversed()
+                        .thenComparing(Comparator.comparingDouble(ClientConflictStatsDto::getConflictRate).reversed()))
+                .limit(limit)
+                .toList();
+        return ConflictStatsDto.builder()
+                .attempts(attempts.get())
+                .conflicts(conflicts.get())
+                .exhausted(exhausted.get())
+                .clients(top)
+                .build();
+    }
+
+    // Full jitter: uniformly random up to the exponential bound, so colliding callers spread out
+    private long backoffMs(int attempt) {
+        long bound = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(bound + 1);
+    }
+
+    private void count(Set<Long> clientIds, boolean conflict) {
+        for (Long clientId : clientIds) {
+            ClientCounters counters = clients.get(clientId, id -> new ClientCounters());
+            counters.attempts.incrementAndGet();
+            if (conflict) {
+                counters.conflicts.incrementAndGet();
+            }
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Interrupted while retrying");
+        }
+    }
+
+    private static final class ClientCounters {
+        final AtomicLong attempts = new AtomicLong();
+        final AtomicLong conflicts = new AtomicLong();
+    }
+}
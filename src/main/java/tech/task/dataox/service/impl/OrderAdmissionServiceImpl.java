@@ -0,0 +1,157 @@
+package tech.task.dataox.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import tech.task.dataox.exception.TooManyRequestsException;
+import tech.task.dataox.lib.TokenBucket;
+import tech.task.dataox.model.Client;
+import tech.task.dataox.model.Order;
+import tech.task.dataox.service.OrderAdmissionService;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Per-client token buckets checked before an order reaches the database.
+ * Buckets of idle clients are evicted, so memory is bounded by the number of recently active clients.
+ */
+@Service
+@Slf4j
+public class OrderAdmissionServiceImpl implements OrderAdmissionService {
+    private final boolean enabled;
+    private final Cache<Long, TokenBucket> supplierBuckets;
+    private final Cache<Long, TokenBucket> consumerBuckets;
+    private final double supplierCapacity;
+    private final double supplierRefillPerSecond;
+    private final double consumerCapacity;
+    private final double consumerRefillPerSecond;
+
+    public OrderAdmissionServiceImpl(
+            @Value("${rate-limit.orders.enabled:true}") boolean enabled,
+            @Value("${rate-limit.orders.supplier.capacity:20}") double supplierCapacity,
+            @Value("${rate-limit.orders.supplier.refill-per-second:5}") double supplierRefillPerSecond,
+            @Value("${rate-limit.orders.consumer.capacity:10}") double consumerCapacity,
+            @Value("${rate-limit.orders.consumer.refill-per-second:2}") double consumerRefillPerSecond,
+            @Value("${rate-limit.orders.max-clients:100000}") long maxClients,
+            @Value("${rate-limit.orders.idle-expiry:10m}") Duration idleExpiry) {
+        this.enabled = enabled;
+        this.supplierCapacity = supplierCapacity;
+        this.supplierRefillPerSecond = supplierRefillPerSecond;
+        this.consumerCapacity = consumerCapacity;
+        this.consumerRefillPerSecond = consumerRefillPerSecond;
+        this.supplierBuckets = newBucketCache(maxClients, idleExpiry);
+        this.consumerBuckets = newBucketCache(maxClients, idleExpiry);
+    }
+
+    @Override
+    public void admit(Long supplierId, Long consumerId) {
+        if (!enabled || supplierId == null || consumerId == null) {
+            return;
+        }
+        TokenBucket consumer = consumerBuckets.get(consumerId,
+                id -> new TokenBucket(consumerCapacity, consumerRefillPerSecond));
+        long consumerWait = consumer.tryAcquire();
+        if (consumerWait > 0) {
+            reject("consumer", consumerId, consumerWait);
+        }
+        TokenBucket supplier = supplierBuckets.get(supplierId,
+                id -> new TokenBucket(supplierCapacity, supplierRefillPerSecond));
+        long supplierWait = supplier.tryAcquire();
+        if (supplierWait > 0) {
+            // The order is not admitted, so the consumer keeps its token
+            consumer.release();
+            reject("supplier", supplierId, supplierWait);
+        }
+    }
+
+    @Override
+    public void admitAll(List<Order> orders) {
+        if (!enabled) {
+            return;
+        }
+        Map<Long, Integer> consumerCounts = count(orders, Order::getConsumer);
+        Map<Long, Integer> supplierCounts = count(orders, Order::getSupplier);
+        List<Taken> taken = new ArrayList<>();
+        try {
+            take("consumer", consumerCounts, consumerBuckets, consumerCapacity, consumerRefillPerSecond, taken);
+            take("supplier", supplierCounts, supplierBuckets, supplierCapacity, supplierRefillPerSecond, taken);
+        } catch (RuntimeException e) {
+            // The batch is not admitted, so every client keeps the tokens taken so far
+            taken.forEach(t -> t.bucket().release(t.permits()));
+            throw e;
+        }
+    }
+
+    @Override
+    public void releaseAll(List<Order> orders) {
+        if (!enabled) {
+            return;
+        }
+        count(orders, Order::getConsumer).forEach((id, permits) -> release(consumerBuckets, id, permits));
+        count(orders, Order::getSupplier).forEach((id, permits) -> release(supplierBuckets, id, permits));
+    }
+
+    private void take(String role, Map<Long, Integer> counts, Cache<Long, TokenBucket> buckets,
+                      double capacity, double refillPerSecond, List<Taken> taken) {
+        for (Map.Entry<Long, Integer> count : counts.entrySet()) {
+            Long clientId = count.getKey();
+            int permits = count.getValue();
+            if (permits > capacity) {
+                // Waiting does not help, the bucket never holds that many tokens
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Batch has " + permits + " orders for "
+                        + role + " " + clientId + ", more than its rate allows at once");
+            }
+            TokenBucket bucket = buckets.get(clientId, id -> new TokenBucket(capacity, refillPerSecond));
+            long waitNanos = bucket.tryAcquire(permits);
+            if (waitNanos > 0) {
+                reject(role, clientId, waitNanos);
+            }
+            taken.add(new Taken(bucket, permits));
+        }
+    }
+
+    private static void release(Cache<Long, TokenBucket> buckets, Long clientId, int permits) {
+        TokenBucket bucket = buckets.getIfPresent(clientId);
+        if (bucket != null) {
+            bucket.release(permits);
+        }
+    }
+
+    // Orders per client id, in id order; orders without the client are left to validation
+    private static Map<Long, Integer> count(List<Order> orders, Function<Order, Client> client) {
+        Map<Long, Integer> counts = new TreeMap<>();
+        for (Order order : orders) {
+            Client party = client.apply(order);
+            if (party != null && party.getId() != null) {
+                counts.merge(party.getId(), 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    private void reject(String role, Long clientId, long waitNanos) {
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        log.warn("Order rate limit exceeded for {} id={}, retry after {}s", role, clientId, retryAfter);
+        throw new TooManyRequestsException("Too many orders for " + role + " " + clientId, retryAfter);
+    }
+
+    private static Cache<Long, TokenBucket> newBucketCache(long maxClients, Duration idleExpiry) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(idleExpiry)
+                .build();
+    }
+
+    private record Taken(TokenBucket bucket, int permits) {
+    }
+}
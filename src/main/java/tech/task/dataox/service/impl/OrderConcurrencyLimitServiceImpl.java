@@ -0,0 +1,88 @@
+package tech.task.dataox.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import tech.task.dataox.exception.OverloadedException;
+import tech.task.dataox.lib.VegasConcurrencyLimit;
+import tech.task.dataox.model.dto.ConcurrencyLimitStatsDto;
+import tech.task.dataox.service.OrderConcurrencyLimitService;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+@Slf4j
+public class OrderConcurrencyLimitServiceImpl implements OrderConcurrencyLimitService {
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final VegasConcurrencyLimit limit;
+    private final AtomicLong shed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    public OrderConcurrencyLimitServiceImpl(
+            @Value("${concurrency-limit.orders.enabled:true}") boolean enabled,
+            @Value("${concurrency-limit.orders.initial-limit:40}") int initialLimit,
+            @Value("${concurrency-limit.orders.min-limit:16}") int minLimit,
+            @Value("${concurrency-limit.orders.max-limit:200}") int maxLimit,
+            @Value("${concurrency-limit.orders.smoothing:0.5}") double smoothing,
+            @Value("${concurrency-limit.orders.short-window:10}") int shortWindow,
+            @Value("${concurrency-limit.orders.probe-interval:1000}") int probeInterval) {
+        this.enabled = enabled;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = new VegasConcurrencyLimit(initialLimit, minLimit, maxLimit, smoothing, shortWindow, probeInterval);
+    }
+
+    @Override
+    public void acquire() {
+        if (enabled && !limit.tryAcquire()) {
+            long total = shed.incrementAndGet();
+            // One line per hundred, a sustained overload would flood the log otherwise
+            if (total % 100 == 1) {
+                log.warn("Order concurrency limit {} reached, {} orders shed so far", limit.getLimit(), total);
+            }
+            throw new OverloadedException("Too many orders in progress, please retry");
+        }
+    }
+
+    @Override
+    public void onSuccess(Duration latency) {
+        if (enabled) {
+            limit.onSample(latency.toNanos());
+        }
+    }
+
+    @Override
+    public void onIgnore() {
+        if (enabled) {
+            limit.onIgnore();
+        }
+    }
+
+    @Override
+    public void onDropped() {
+        if (enabled) {
+            dropped.incrementAndGet();
+            limit.onDropped();
+        }
+    }
+
+    @Override
+    public ConcurrencyLimitStatsDto getStats() {
+        return ConcurrencyLimitStatsDto.builder()
+                .enabled(enabled)
+                .limit(limit.getLimit())
+                .minLimit(minLimit)
+                .maxLimit(maxLimit)
+                .inFlight(limit.getInFlight())
+                .recentLatencyMs(limit.getRecentNanos() / NANOS_PER_MILLI)
+                .noLoadLatencyMs(limit.getNoLoadNanos() / NANOS_PER_MILLI)
+                .shed(shed.get())
+                .dropped(dropped.get())
+                .build();
+    }
+}
@@ -0,0 +1,418 @@
+package tech.task.dataox.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import tech.task.dataox.exception.OverloadedException;
+import tech.task.dataox.lib.MappedJournal;
+import tech.task.dataox.lib.Money;
+import tech.task.dataox.lib.SlidingWindowHistogram;
+import tech.task.dataox.model.Client;
+import tech.task.dataox.model.Order;
+import tech.task.dataox.model.dto.IntakeStatsDto;
+import tech.task.dataox.model.dto.IntakeStatusDto;
+import tech.task.dataox.model.intake.IntakeStatus;
+import tech.task.dataox.repository.IntakeCheckpointRepository;
+import tech.task.dataox.service.OptimisticRetryService;
+import tech.task.dataox.service.OrderIntakeService;
+import tech.task.dataox.service.OrderService;
+import tech.task.dataox.service.ShardRoutingService;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Order intake through a local {@link MappedJournal}: a request only appends the order and waits for the
+ * journal force, one writer thread applies the journal to the database in batches with the rules of
+ * order creation. The applied sequence is stored in {@code intake_checkpoints} in the transaction of
+ * each batch, so after a crash the entries past it are replayed and every accepted order is applied once.
+ * Not available with sharding: a batch and its checkpoint are one transaction, the orders of a batch are not on one shard.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "intake.journal.enabled", havingValue = "true")
+public class OrderIntakeServiceImpl implements OrderIntakeService {
+    private static final long HIGHEST_TRACKABLE_MS = TimeUnit.HOURS.toMillis(1);
+    private static final int FORMAT = 1;
+    private static final long RETRY_PAUSE_MS = 1000;
+
+    private final OrderService orderService;
+    private final OptimisticRetryService optimisticRetryService;
+    private final IntakeCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MappedJournal journal;
+    private final int batchSize;
+    private final long lingerMs;
+    private final long maxLag;
+    private final List<Integer> windows;
+    // Filled under the journal append lock, so entries are queued in sequence order
+    private final BlockingQueue<Entry> pending = new LinkedBlockingQueue<>();
+    private final Cache<Long, IntakeStatusDto> outcomes;
+    private final SlidingWindowHistogram fsync;
+    private final SlidingWindowHistogram batch;
+    private final AtomicLong applied = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final Thread writer;
+    private volatile long appliedSeq;
+    private volatile List<Entry> inFlight = List.of();
+    private volatile boolean running = true;
+
+    public OrderIntakeServiceImpl(OrderService orderService,
+                                  OptimisticRetryService optimisticRetryService,
+                                  IntakeCheckpointRepository checkpointRepository,
+                                  ShardRoutingService shardRoutingService,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${intake.journal.dir:./data/intake-journal}") String dir,
+                                  @Value("${intake.journal.segment-bytes:67108864}") int segmentBytes,
+                                  @Value("${intake.journal.batch-size:200}") int batchSize,
+                                  @Value("${intake.journal.linger-ms:2}") long lingerMs,
+                                  @Value("${intake.journal.max-lag:100000}") long maxLag,
+                                  @Value("${intake.journal.status-cache-size:100000}") long statusCacheSize,
+                                  @Value("${stats.processing.windows-minutes:1,5,15,60}") List<Integer> windows)
+            throws IOException {
+        if (shardRoutingService.shardCount() > 1) {
+            throw new IllegalStateException("intake.journal.enabled is not supported with sharding.enabled");
+        }
+        this.orderService = orderService;
+        this.optimisticRetryService = optimisticRetryService;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.journal = MappedJournal.open(Path.of(dir), segmentBytes);
+        this.batchSize = batchSize;
+        this.lingerMs = lingerMs;
+        this.maxLag = maxLag;
+        this.windows = windows;
+        this.outcomes = Caffeine.newBuilder().maximumSize(statusCacheSize).build();
+        int slots = windows.stream().mapToInt(Integer::intValue).max().orElse(60);
+        this.fsync = new SlidingWindowHistogram(slots, HIGHEST_TRACKABLE_MS);
+        this.batch = new SlidingWindowHistogram(slots, HIGHEST_TRACKABLE_MS);
+        this.writer = new Thread(this::write, "intake-writer");
+        this.writer.setDaemon(true);
+        replay();
+    }
+
+    private void replay() {
+        String journalId = journal.id();
+        appliedSeq = transactionTemplate.execute(status -> checkpointRepository.findAppliedSeq(journalId)
+                .orElseGet(() -> {
+                    checkpointRepository.insertFirst(journalId);
+                    return 0L;
+                }));
+        if (journal.lastSeq() < appliedSeq) {
+            // Applied entries are missing from disk, new ones would reuse their sequences
+            throw new IllegalStateException("Intake journal " + journalId + " ends at " + journal.lastSeq()
+                    + " but is applied up to " + appliedSeq);
+        }
+        for (MappedJournal.Record record : journal.readAfter(appliedSeq)) {
+            pending.add(decode(record));
+        }
+        journal.release(appliedSeq);
+        log.info("Intake journal {} opened at sequence {}, applied up to {}, {} orders to replay",
+                journalId, journal.lastSeq(), appliedSeq, pending.size());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startWriter() {
+        writer.start();
+    }
+
+    @Override
+    public IntakeStatusDto accept(Order order) {
+        orderService.validate(order);
+        if (journal.lastSeq() - appliedSeq >= maxLag) {
+            log.warn("Intake journal is {} orders behind, rejecting order", maxLag);
+            throw new OverloadedException("Order intake is behind, please retry");
+        }
+        Entry entry = new Entry(0, order.getTitle(), order.getSupplier().getId(), order.getConsumer().getId(),
+                order.getPrice().getMinorUnits(), LocalDateTime.now());
+        byte[] payload = encode(entry);
+        long seq;
+        synchronized (pending) {
+            seq = journal.append(payload);
+            pending.add(entry.withSeq(seq));
+        }
+        recordFsync(journal.sync(seq));
+        return IntakeStatusDto.builder().sequence(seq).status(IntakeStatus.PENDING).build();
+    }
+
+    // All orders are checked before the first is journaled, so a batch is accepted or refused as a whole
+    @Override
+    public List<IntakeStatusDto> acceptAll(List<Order> orders) {
+        orders.forEach(orderService::validate);
+        if (journal.lastSeq() - appliedSeq + orders.size() > maxLag) {
+            log.warn("Intake journal is {} orders behind, rejecting batch of {}", maxLag, orders.size());
+            throw new OverloadedException("Order intake is behind, please retry");
+        }
+        LocalDateTime acceptedAt = LocalDateTime.now();
+        List<IntakeStatusDto> statuses = new ArrayList<>(orders.size());
+        long lastSeq = 0;
+        synchronized (pending) {
+            for (Order order : orders) {
+                Entry entry = new Entry(0, order.getTitle(), order.getSupplier().getId(), order.getConsumer().getId(),
+                        order.getPrice().getMinorUnits(), acceptedAt);
+                lastSeq = journal.append(encode(entry));
+                pending.add(entry.withSeq(lastSeq));
+                statuses.add(IntakeStatusDto.builder().sequence(lastSeq).status(IntakeStatus.PENDING).build());
+            }
+        }
+        // One fsync covers the whole batch
+        recordFsync(journal.sync(lastSeq));
+        return statuses;
+    }
+
+    @Override
+    public IntakeStatusDto getStatus(long sequence) {
+        if (sequence <= 0 || sequence > journal.lastSeq()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No intake entry with sequence " + sequence);
+        }
+        IntakeStatusDto outcome = outcomes.getIfPresent(sequence);
+        if (outcome != null) {
+            return outcome;
+        }
+        return IntakeStatusDto.builder()
+                .sequence(sequence)
+                .status(sequence > appliedSeq ? IntakeStatus.PENDING : IntakeStatus.UNKNOWN)
+                .build();
+    }
+
+    @Override
+    public IntakeStatsDto getStats() {
+        long nowMinute = epochMinute();
+        long lastSeq = journal.lastSeq();
+        List<Entry> current = inFlight;
+        Entry oldest = !current.isEmpty() ? current.get(0) : pending.peek();
+        return IntakeStatsDto.builder()
+                .journalId(journal.id())
+                .appendedSeq(lastSeq)
+                .durableSeq(journal.durableSeq())
+                .appliedSeq(appliedSeq)
+                .lag(Math.max(0, lastSeq - appliedSeq))
+                .oldestPendingMs(oldest == null ? 0
+                        : Math.max(0, Duration.between(oldest.acceptedAt(), LocalDateTime.now()).toMillis()))
+                .segments(journal.segmentCount())
+                .applied(applied.get())
+                .rejected(rejected.get())
+                .batches(batches.get())
+                .fsync(fsync.summarize(windows, nowMinute))
+                .batch(batch.summarize(windows, nowMinute))
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        // Not interrupted: a batch in its transaction finishes, the rest is replayed on the next start
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        journal.close();
+    }
+
+    private void write() {
+        List<Entry> entries = new ArrayList<>();
+        while (running) {
+            try {
+                if (entries.isEmpty()) {
+                    Entry first = pending.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    entries.add(first);
+                    // Orders arriving together share one transaction
+                    if (lingerMs > 0 && pending.size() < batchSize - 1) {
+                        Thread.sleep(lingerMs);
+                    }
+                    pending.drainTo(entries, batchSize - 1);
+                    inFlight = List.copyOf(entries);
+                }
+                apply(entries);
+                entries.clear();
+                inFlight = List.of();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // The entries stay, nothing after them may be applied first
+                log.error("Applying {} intake orders from sequence {} failed, retrying in {} ms",
+                        entries.size(), entries.get(0).seq(), RETRY_PAUSE_MS, e);
+                try {
+                    Thread.sleep(RETRY_PAUSE_MS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void apply(List<Entry> entries) {
+        // An entry applied before it is on disk could be lost from the journal but not from the database
+        long lastSeq = entries.get(entries.size() - 1).seq();
+        recordFsync(journal.sync(lastSeq));
+        try {
+            applyBatch(entries);
+        } catch (DataIntegrityViolationException e) {
+            if (entries.size() == 1) {
+                // The unique index caught a duplicate created through POST /api/orders after the check
+                applyRejected(entries.get(0), HttpStatus.CONFLICT,
+                        "Order already exists for given title/supplier/consumer");
+                return;
+            }
+            log.warn("Intake batch from sequence {} violates a constraint, applying its orders one by one",
+                    entries.get(0).seq());
+            for (Entry entry : entries) {
+                apply(List.of(entry));
+            }
+        }
+    }
+
+    private void applyBatch(List<Entry> entries) {
+        long start = System.nanoTime();
+        long lastSeq = entries.get(entries.size() - 1).seq();
+        Set<Long> clientIds = new HashSet<>();
+        entries.forEach(entry -> {
+            clientIds.add(entry.supplierId());
+            clientIds.add(entry.consumerId());
+        });
+        List<IntakeStatusDto> results = optimisticRetryService.inTransaction("Intake batch", clientIds, status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<IntakeStatusDto> batchResults = new ArrayList<>();
+            for (Entry entry : entries) {
+                batchResults.add(applyOne(entry, now));
+            }
+            advanceCheckpoint(lastSeq);
+            return batchResults;
+        });
+        long nowMinute = epochMinute();
+        batch.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), nowMinute, nowMinute);
+        batches.incrementAndGet();
+        completed(results, lastSeq);
+    }
+
+    private IntakeStatusDto applyOne(Entry entry, LocalDateTime now) {
+        Order order = Order.builder()
+                .title(entry.title())
+                .supplier(Client.builder().id(entry.supplierId()).build())
+                .consumer(Client.builder().id(entry.consumerId()).build())
+                .price(Money.ofMinor(entry.priceMinor()))
+                .startProcessingAt(entry.acceptedAt())
+                .endProcessingAt(now)
+                .build();
+        try {
+            Order saved = orderService.saveProcessed(order);
+            return IntakeStatusDto.builder()
+                    .sequence(entry.seq())
+                    .status(IntakeStatus.APPLIED)
+                    .orderId(saved.getId())
+                    .build();
+        } catch (ResponseStatusException e) {
+            return rejection(entry, e.getStatusCode().value(), e.getReason());
+        }
+    }
+
+    private void applyRejected(Entry entry, HttpStatus status, String reason) {
+        transactionTemplate.executeWithoutResult(tx -> advanceCheckpoint(entry.seq()));
+        completed(List.of(rejection(entry, status.value(), reason)), entry.seq());
+    }
+
+    private void advanceCheckpoint(long seq) {
+        if (checkpointRepository.advance(journal.id(), seq) != 1) {
+            throw new IllegalStateException("Intake checkpoint of journal " + journal.id()
+                    + " is already past " + seq + ", is the journal directory shared?");
+        }
+    }
+
+    private void completed(List<IntakeStatusDto> results, long lastSeq) {
+        for (IntakeStatusDto result : results) {
+            outcomes.put(result.getSequence(), result);
+            (result.getStatus() == IntakeStatus.APPLIED ? applied : rejected).incrementAndGet();
+        }
+        // After the outcomes, a reader seeing the new sequence finds them
+        appliedSeq = lastSeq;
+        journal.release(lastSeq);
+    }
+
+    private static IntakeStatusDto rejection(Entry entry, int status, String reason) {
+        log.warn("Intake order {} rejected with {}: {}", entry.seq(), status, reason);
+        return IntakeStatusDto.builder()
+                .sequence(entry.seq())
+                .status(IntakeStatus.REJECTED)
+                .rejectedWith(status)
+                .reason(reason)
+                .build();
+    }
+
+    private void recordFsync(long nanos) {
+        if (nanos > 0) {
+            long nowMinute = epochMinute();
+            fsync.record(TimeUnit.NANOSECONDS.toMillis(nanos), nowMinute, nowMinute);
+        }
+    }
+
+    private static long epochMinute() {
+        return TimeUnit.MILLISECONDS.toMinutes(Instant.now().toEpochMilli());
+    }
+
+    private static byte[] encode(Entry entry) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + entry.title().length() * 3);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT);
+            out.writeUTF(entry.title());
+            out.writeLong(entry.supplierId());
+            out.writeLong(entry.consumerId());
+            out.writeLong(entry.priceMinor());
+            out.writeLong(entry.acceptedAt().toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(entry.acceptedAt().getNano());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Entry decode(MappedJournal.Record record) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record.payload()))) {
+            int format = in.readByte();
+            if (format != FORMAT) {
+                throw new IllegalStateException("Unknown intake record format " + format + " at " + record.seq());
+            }
+            return new Entry(record.seq(), in.readUTF(), in.readLong(), in.readLong(), in.readLong(),
+                    LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Entry(long seq, String title, long supplierId, long consumerId, long priceMinor,
+                         LocalDateTime acceptedAt) {
+        Entry withSeq(long seq) {
+            return new Entry(seq, title, supplierId, consumerId, priceMinor, acceptedAt);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package tech.task.dataox.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import tech.task.dataox.config.Constant;
+import tech.task.dataox.lib.Money;
+import tech.task.dataox.model.Client;
+import tech.task.dataox.model.Order;
+import tech.task.dataox.model.dto.OrderQuoteDto;
+import tech.task.dataox.repository.ArchivedOrderRepository;
+import tech.task.dataox.repository.ClientRepository;
+import tech.task.dataox.repository.OrderRepository;
+import tech.task.dataox.repository.projection.OrderKeyView;
+import tech.task.dataox.service.OrderQuoteService;
+import tech.task.dataox.service.OrderService;
+import tech.task.dataox.service.ProfitWriteBehindService;
+import tech.task.dataox.service.ShardRoutingService;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Reads everything the rules of create need for a whole batch at once: per shard one read-only transaction
+ * with a query each for the clients, the business keys in orders and in the archive and the pending credits.
+ * The rules and their answers are those of {@link OrderServiceImpl#create}.
+ */
+@Service
+@Slf4j
+public class OrderQuoteServiceImpl implements OrderQuoteService {
+    private final OrderService orderService;
+    private final ClientRepository clientRepository;
+    private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final ProfitWriteBehindService profitWriteBehindService;
+    private final ShardRoutingService shardRoutingService;
+    private final TransactionTemplate readOnly;
+
+    public OrderQuoteServiceImpl(OrderService orderService,
+                                 ClientRepository clientRepository,
+                                 OrderRepository orderRepository,
+                                 ArchivedOrderRepository archivedOrderRepository,
+                                 ProfitWriteBehindService profitWriteBehindService,
+                                 ShardRoutingService shardRoutingService,
+                                 PlatformTransactionManager transactionManager) {
+        this.orderService = orderService;
+        this.clientRepository = clientRepository;
+        this.orderRepository = orderRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.profitWriteBehindService = profitWriteBehindService;
+        this.shardRoutingService = shardRoutingService;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    @Override
+    public OrderQuoteDto quote(Order order) {
+        return quoteAll(List.of(order)).get(0);
+    }
+
+    @Override
+    public List<OrderQuoteDto> quoteAll(List<Order> orders) {
+        List<Order> valid = new ArrayList<>();
+        List<ResponseStatusException> invalid = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            try {
+                orderService.validate(order);
+                valid.add(order);
+                invalid.add(null);
+            } catch (ResponseStatusException e) {
+                invalid.add(e);
+            }
+        }
+        Lookups lookups = lookUp(valid);
+
+        // Profit of each client as the orders before in the batch would leave it
+        Map<Long, Money> projected = new HashMap<>();
+        // Taken keys, joined by the orders of the batch that would be created
+        Set<OrderKey> keys = lookups.existingKeys();
+        List<OrderQuoteDto> quotes = new ArrayList<>(orders.size());
+        for (int n = 0; n < orders.size(); n++) {
+            Order order = orders.get(n);
+            ResponseStatusException rejection = invalid.get(n);
+            if (rejection != null) {
+                quotes.add(rejected(order, rejection.getStatusCode().value(), rejection.getReason(), null));
+                continue;
+            }
+            Long supplierId = order.getSupplier().getId();
+            Long consumerId = order.getConsumer().getId();
+            Client supplier = lookups.clients().get(supplierId);
+            Client consumer = lookups.clients().get(consumerId);
+            if (supplier == null || !supplier.isActive()) {
+                quotes.add(rejected(order, HttpStatus.UNPROCESSABLE_ENTITY.value(), "Supplier not found or inactive", null));
+                continue;
+            }
+            if (consumer == null || !consumer.isActive()) {
+                quotes.add(rejected(order, HttpStatus.UNPROCESSABLE_ENTITY.value(), "Consumer not found or inactive", null));
+                continue;
+            }
+            Money after = projectedProfit(projected, consumer, lookups).minus(order.getPrice());
+            if (after.compareTo(Constant.MIN_CONSUMER_PROFIT) <= 0) {
+                quotes.add(rejected(order, HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                        "Consumer profit would drop below -1000", after));
+                continue;
+            }
+            if (!keys.add(new OrderKey(order.getTitle(), supplierId, consumerId))) {
+                quotes.add(rejected(order, HttpStatus.CONFLICT.value(),
+                        "Order already exists for given title/supplier/consumer", after));
+                continue;
+            }
+            projected.put(consumerId, after);
+            // Credited to the supplier, a later order of the batch with it as consumer can spend it
+            projected.put(supplierId, projectedProfit(projected, supplier, lookups).plus(order.getPrice()));
+            quotes.add(quoteOf(order).accepted(true).projectedConsumerProfit(after).build());
+        }
+        return quotes;
+    }
+
+    private static Money projectedProfit(Map<Long, Money> projected, Client client, Lookups lookups) {
+        return projected.computeIfAbsent(client.getId(), id ->
+                client.getProfit().plus(lookups.pendingCredits().getOrDefault(id, Money.ZERO)));
+    }
+
+    // Clients are read on their own shard; keys and pending credits on the consumer's, where create checks them
+    private Lookups lookUp(List<Order> orders) {
+        Map<Integer, Set<Long>> clientsByShard = new TreeMap<>();
+        Map<Integer, List<Order>> ordersByShard = new TreeMap<>();
+        for (Order order : orders) {
+            Long supplierId = order.getSupplier().getId();
+            Long consumerId = order.getConsumer().getId();
+            clientsByShard.computeIfAbsent(shardRoutingService.shardOf(supplierId), s -> new HashSet<>()).add(supplierId);
+            clientsByShard.computeIfAbsent(shardRoutingService.shardOf(consumerId), s -> new HashSet<>()).add(consumerId);
+            ordersByShard.computeIfAbsent(shardRoutingService.shardOf(consumerId), s -> new ArrayList<>()).add(order);
+        }
+        Lookups lookups = new Lookups(new HashMap<>(), new HashSet<>(), new HashMap<>());
+        clientsByShard.forEach((shard, clientIds) -> shardRoutingService.onShard(shard, () -> readOnly.execute(status -> {
+            clientRepository.findAllById(clientIds).forEach(client -> lookups.clients().put(client.getId(), client));
+            List<Order> shardOrders = ordersByShard.getOrDefault(shard, List.of());
+            if (!shardOrders.isEmpty()) {
+                readShardOrders(shardOrders, lookups);
+            }
+            return null;
+        })));
+        return lookups;
+    }
+
+    private void readShardOrders(List<Order> orders, Lookups lookups) {
+        Set<Long> consumerIds = new HashSet<>();
+        Set<String> titles = new HashSet<>();
+        for (Order order : orders) {
+            consumerIds.add(order.getConsumer().getId());
+            titles.add(order.getTitle());
+        }
+        // Any title with any of the consumers, the exact combinations are matched in the quote
+        for (OrderKeyView key : orderRepository.findKeys(consumerIds, titles)) {
+            lookups.existingKeys().add(new OrderKey(key.getTitle(), key.getSupplierId(), key.getConsumerId()));
+        }
+        for (OrderKeyView key : archivedOrderRepository.findKeys(consumerIds, titles)) {
+            lookups.existingKeys().add(new OrderKey(key.getTitle(), key.getSupplierId(), key.getConsumerId()));
+        }
+        lookups.pendingCredits().putAll(profitWriteBehindService.pendingCredits(consumerIds));
+    }
+
+    private static OrderQuoteDto rejected(Order order, int status, String reason, Money projected) {
+        log.debug("Order quote rejected with {}: {}", status, reason);
+        return quoteOf(order)
+                .accepted(false)
+                .rejectedWith(status)
+                .reason(reason)
+                .projectedConsumerProfit(projected)
+                .build();
+    }
+
+    private static OrderQuoteDto.OrderQuoteDtoBuilder quoteOf(Order order) {
+        return OrderQuoteDto.builder()
+                .title(order.getTitle())
+                .supplierId(order.getSupplier() != null ? order.getSupplier().getId() : null)
+                .consumerId(order.getConsumer() != null ? order.getConsumer().getId() : null)
+                .price(order.getPrice());
+    }
+
+    private record OrderKey(String title, Long supplierId, Long consumerId) {
+    }
+
+    private record Lookups(Map<Long, Client> clients, Set<OrderKey> existingKeys, Map<Long, Money> pendingCredits) {
+    }
+}
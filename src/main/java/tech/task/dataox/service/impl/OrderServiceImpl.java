@@ -2,21 +2,47 @@ package tech.task.dataox.service.impl;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 import tech.task.dataox.config.Constant;
+import tech.task.dataox.exception.DeadlineExceededException;
+import tech.task.dataox.exception.OverloadedException;
+import tech.task.dataox.lib.LogSampler;
+import tech.task.dataox.lib.Money;
 import tech.task.dataox.model.Client;
 import tech.task.dataox.model.Order;
+import tech.task.dataox.model.dto.OrderDto;
+import tech.task.dataox.model.event.OrderProcessedEvent;
+import tech.task.dataox.model.event.RevenueDeltaEvent;
 import tech.task.dataox.repository.ClientRepository;
 import tech.task.dataox.repository.OrderRepository;
+import tech.task.dataox.repository.projection.OrderRevenueView;
+import tech.task.dataox.service.ClientLockService;
+import tech.task.dataox.service.ClientLockService.ClientLease;
+import tech.task.dataox.service.OptimisticRetryService;
+import tech.task.dataox.service.OrderConcurrencyLimitService;
 import tech.task.dataox.service.OrderService;
+import tech.task.dataox.service.ProcessingDelayService;
+import tech.task.dataox.service.ProcessingSchedulerService;
+import tech.task.dataox.service.ProfitWriteBehindService;
+import tech.task.dataox.service.RequestDeadlineService;
+import tech.task.dataox.service.ShardRoutingService;
 
-import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 @Service
@@ -25,11 +51,130 @@ import java.util.concurrent.TimeUnit;
 public class OrderServiceImpl implements OrderService {
     private final OrderRepository orderRepository;
     private final ClientRepository clientRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LogSampler orderFlowLogSampler;
+    private final ProcessingSchedulerService processingSchedulerService;
+    private final OptimisticRetryService optimisticRetryService;
+    private final ClientLockService clientLockService;
+    private final ProcessingDelayService processingDelayService;
+    private final RequestDeadlineService requestDeadlineService;
+    private final ProfitWriteBehindService profitWriteBehindService;
+    private final ShardRoutingService shardRoutingService;
+    private final OrderConcurrencyLimitService orderConcurrencyLimitService;
+    private final ThreadPoolTaskExecutor orderBatchExecutor;
 
+    // Not one transaction: an order waiting for a processing slot must not hold a connection
     @Override
-    @Transactional
     public Order create(Order order) {
+        orderConcurrencyLimitService.acquire();
+        long started = System.nanoTime();
+        Order created;
+        try {
+            // The success path of a sampled order is logged in full, the others only log failures
+            created = doCreate(order, orderFlowLogSampler.sample());
+        } catch (RuntimeException e) {
+            releaseFailed(e);
+            throw e;
+        }
+        orderConcurrencyLimitService.onSuccess(latencyBeyondProcessing(created, started));
+        return created;
+    }
+
+    @Override
+    public List<CreateOutcome> createAll(List<Order> orders) {
+        List<CompletableFuture<CreateOutcome>> outcomes = orders.stream()
+                .map(order -> CompletableFuture.supplyAsync(() -> createOutcome(order), orderBatchExecutor))
+                .toList();
+        return outcomes.stream().map(CompletableFuture::join).toList();
+    }
+
+    private CreateOutcome createOutcome(Order order) {
+        try {
+            return new CreateOutcome(create(order), null);
+        } catch (ResponseStatusException e) {
+            return new CreateOutcome(null, e);
+        } catch (RuntimeException e) {
+            log.error("Order of a batch failed", e);
+            return new CreateOutcome(null,
+                    new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Order creation failed", e));
+        }
+    }
+
+    // Timeouts and a full queue mean the limit let in more than the processing keeps up with; rejections
+    // by the order rules, conflicts and a client whose lease another operation holds have nothing to do
+    // with the load
+    private void releaseFailed(RuntimeException e) {
+        if (e instanceof DeadlineExceededException || e instanceof OverloadedException) {
+            orderConcurrencyLimitService.onDropped();
+        } else {
+            orderConcurrencyLimitService.onIgnore();
+        }
+    }
+
+    // The simulated delay is between 1 and 10 seconds at random, the limit follows what the load adds
+    // to it: queue wait, locks and the database
+    private static Duration latencyBeyondProcessing(Order order, long startedNanos) {
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - startedNanos);
+        if (order.getStartProcessingAt() == null || order.getEndProcessingAt() == null) {
+            return elapsed;
+        }
+        return elapsed.minus(Duration.between(order.getStartProcessingAt(), order.getEndProcessingAt()));
+    }
+
+    private Order doCreate(Order order, boolean traced) {
         log.debug("Attempting to create order...");
+        validate(order);
+        Long supplierId = order.getSupplier().getId();
+        Long consumerId = order.getConsumer().getId();
+
+        // Fail fast before queueing, the checks are repeated when the order is saved
+        shardRoutingService.onShardOf(supplierId, () -> findActiveClient(supplierId, "Supplier"));
+        shardRoutingService.runOnShardOf(consumerId, () -> {
+            checkProfitThreshold(findActiveClient(consumerId, "Consumer"), order.getPrice(), traced);
+            checkNotDuplicate(order.getTitle(), supplierId, consumerId);
+        });
+
+        // Simulate processing delay, fairly shared between consumers; the scheduler cost is in seconds
+        Duration delay = processingDelayService.nextDelay();
+        // Work that cannot finish before the caller gives up is never started, neither now nor after queueing
+        requestDeadlineService.ensureRemaining(RequestDeadlineService.ADMISSION, delay);
+        processingSchedulerService.process(consumerId, delay.toSeconds(), () -> {
+            requestDeadlineService.ensureRemaining(RequestDeadlineService.QUEUE, delay);
+            if (traced) {
+                log.info("Start processing order for supplierId={}, consumerId={}", supplierId, consumerId);
+            }
+            order.setStartProcessingAt(LocalDateTime.now());
+            try {
+                TimeUnit.MILLISECONDS.sleep(delay.toMillis());
+                log.debug("Order processing simulated delay {} ms completed", delay.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Interrupted while processing");
+            }
+            order.setEndProcessingAt(LocalDateTime.now());
+        });
+
+        // Both clients stay locked across instances until the order and the profits are committed
+        try (ClientLease lease = clientLockService.acquire(List.of(supplierId, consumerId))) {
+            if (shardRoutingService.shardOf(supplierId) != shardRoutingService.shardOf(consumerId)) {
+                // The order transaction runs on the consumer's shard and cannot read this supplier, it is checked
+                // last thing before; the lease keeps a deactivation from slipping in between
+                shardRoutingService.onShardOf(supplierId, () -> findActiveClient(supplierId, "Supplier"));
+            }
+            // Only this transaction is retried on a version conflict, the order is not processed again
+            return shardRoutingService.onShardOf(consumerId, () -> optimisticRetryService.inTransaction(
+                    "Order create", Set.of(supplierId, consumerId), status -> {
+                        // A rolled back attempt leaves the generated id behind
+                        order.setId(null);
+                        order.setVersion(0);
+                        lease.verify();
+                        return saveProcessed(order, supplierId, consumerId, traced);
+                    }));
+        }
+    }
+
+    @Override
+    public void validate(Order order) {
         // Basic null checks for required relations
         Long supplierId = (order.getSupplier() != null) ? order.getSupplier().getId() : null;
         Long consumerId = (order.getConsumer() != null) ? order.getConsumer().getId() : null;
@@ -45,81 +190,100 @@ public class OrderServiceImpl implements OrderService {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Supplier and consumer are the same");
         }
         //extra check price of order
-        if (order.getPrice() == null || order.getPrice().compareTo(BigDecimal.ZERO) <= 0) {
+        if (order.getPrice() == null || !order.getPrice().isPositive()) {
             log.warn("Invalid order creation price was negative or zero: price={}", order.getPrice());
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Order price must be positive");
         }
+    }
 
-        // Load managed Clients and validate active status
-        Client supplier = clientRepository.findById(supplierId)
-                .filter(Client::isActive)
-                .orElseThrow(() -> {
-                    log.warn("Supplier not found or inactive: id={}", supplierId);
-                    return new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
-                            "Supplier not found or inactive");
-                });
-        Client consumer = clientRepository.findById(consumerId)
+    // Not @Transactional: a rejected order must not mark the caller's transaction, which may hold a whole batch,
+    // as rollback-only
+    @Override
+    public Order saveProcessed(Order order) {
+        return saveProcessed(order, order.getSupplier().getId(), order.getConsumer().getId(), false);
+    }
+
+    private Order saveProcessed(Order order, Long supplierId, Long consumerId, boolean traced) {
+        // Load managed Clients, they may have changed while the order was processed. A supplier on another
+        // shard is only referenced by its id, create checked it on its own shard
+        Client supplier = shardRoutingService.isOnCurrentShard(supplierId)
+                ? activeOrThrow(clientRepository.findByIdForShare(supplierId), supplierId, "Supplier")
+                : clientRepository.getReferenceById(supplierId);
+        Client consumer = findActiveClient(consumerId, "Consumer");
+        Money projected = checkProfitThreshold(consumer, order.getPrice(), traced);
+        checkNotDuplicate(order.getTitle(), supplierId, consumerId);
+
+        // Attach managed clients
+        order.setSupplier(supplier);
+        order.setConsumer(consumer);
+
+        // Persist order
+        Order saved = orderRepository.save(order);
+        if (traced) {
+            log.info("Finished processing order: id={}", saved.getId());
+        }
+
+        // The consumer is written now, its profit was checked; the supplier credit is added write-behind
+        profitWriteBehindService.credit(supplierId, order.getPrice());
+        consumer.setProfit(projected);
+        if (traced) {
+            log.info("Updated profits: supplierId={}, credit={} pending; consumerId={}, newProfit={}",
+                    supplierId, order.getPrice(), consumerId, consumer.getProfit());
+        }
+
+        publishRevenueDelta(saved, saved.getPrice(), 1);
+        eventPublisher.publishEvent(new OrderProcessedEvent(saved.getStartProcessingAt(),
+                saved.getEndProcessingAt(), saved.getSavedAt()));
+        return saved;
+    }
+
+    private Client findActiveClient(Long id, String role) {
+        return activeOrThrow(clientRepository.findById(id), id, role);
+    }
+
+    private Client activeOrThrow(Optional<Client> client, Long id, String role) {
+        return client
                 .filter(Client::isActive)
                 .orElseThrow(() -> {
-                    log.warn("Consumer not found or inactive: id={}", consumerId);
+                    log.warn("{} not found or inactive: id={}", role, id);
                     return new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
-                            "Consumer not found or inactive");
+                            role + " not found or inactive");
                 });
+    }
 
-        // Profit threshold check for consumer: projected must be >= -1000
-        log.info("Checking profit threshold for consumer id={}, currentProfit={}, orderPrice={}",
-                consumerId, consumer.getProfit(), order.getPrice());
-        BigDecimal projected = consumer.getProfit().subtract(order.getPrice());
+    // Profit threshold check for consumer: projected must stay above -1000, reaching -1000 is rejected. Returns the
+    // profit to store, which leaves out the credits of the consumer that are not flushed yet
+    private Money checkProfitThreshold(Client consumer, Money price, boolean traced) {
+        // Read after the client: a flush in between is missing from both, so the check errs on the safe side
+        Money pending = profitWriteBehindService.pendingCredit(consumer.getId());
+        if (traced) {
+            log.info("Checking profit threshold for consumer id={}, currentProfit={}, pendingCredit={}, orderPrice={}",
+                    consumer.getId(), consumer.getProfit(), pending, price);
+        }
+        Money projected = consumer.getProfit().minus(price);
 
-        if (projected.compareTo(Constant.MIN_CONSUMER_PROFIT) <= 0) {//todo
+        if (projected.plus(pending).compareTo(Constant.MIN_CONSUMER_PROFIT) <= 0) {
             log.error("Consumer id={} profit would drop below allowed threshold: projected={}",
-                    consumerId, projected);
+                    consumer.getId(), projected.plus(pending));
             throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
                     "Consumer profit would drop below -1000");
         }
+        return projected;
+    }
 
-        // Business key uniqueness: title + supplier + consumer
-        if (orderRepository.existsByTitleAndSupplierIdAndConsumerId(order.getTitle(), supplierId, consumerId)) {
-            log.error("Order already exists for title={}, supplierId={}, consumerId={}", order.getTitle(), supplierId, consumerId);
+    // Business key uniqueness: title + supplier + consumer (archived orders still count)
+    private void checkNotDuplicate(String title, Long supplierId, Long consumerId) {
+        if (orderRepository.existsByBusinessKey(title, supplierId, consumerId)) {
+            log.error("Order already exists for title={}, supplierId={}, consumerId={}", title, supplierId, consumerId);
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Order already exists for given title/supplier/consumer");
         }
-
-        log.info("Start processing order for supplierId={}, consumerId={}", supplierId, consumerId);
-        order.setStartProcessingAt(LocalDateTime.now());
-
-        // Simulate processing delay between 1 and 10 seconds
-        int delaySec = ThreadLocalRandom.current().nextInt(1, 11);
-        try {
-            TimeUnit.SECONDS.sleep(delaySec);
-            log.debug("Order processing simulated delay {} seconds completed", delaySec);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Interrupted while processing");
-        }
-        order.setEndProcessingAt(LocalDateTime.now());
-
-        // Attach managed clients
-        order.setSupplier(supplier);
-        order.setConsumer(consumer);
-
-        // Persist order
-        Order saved = orderRepository.save(order);
-        log.info("Finished processing order: id={}", saved.getId());
-
-        // Update cached profits, with @Transactional we do not need save method from client repository
-        supplier.setProfit(supplier.getProfit().add(order.getPrice()));
-        consumer.setProfit(projected);
-        log.info("Updated profits: supplierId={}, newProfit={}; consumerId={}, newProfit={}",
-                supplierId, supplier.getProfit(), consumerId, consumer.getProfit());
-
-        return saved;
     }
 
     @Override
     @Transactional(readOnly = true)
     public Order findById(Long id) {
         log.debug("Attempting to get order by id: id={}", id);
-        return orderRepository.findById(id)
+        return shardRoutingService.onShardOf(id, () -> orderRepository.findById(id))
                 .filter(Order::isActive)
                 .orElseThrow((() -> {
                     log.warn("Order with id={} not found or deleted", id);
@@ -129,72 +293,125 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
-    @Transactional(readOnly = true)
+    public Optional<Long> findActiveVersion(Long id) {
+        return shardRoutingService.onShardOf(id, () -> orderRepository.findActiveVersionById(id));
+    }
+
+    // Orders of a supplier are on the shards of its consumers, so every shard is asked
+    @Override
     public List<Order> findAllByClientId(Long clientId) {
         log.debug("Attempting to get all orders by userId id: id={}", clientId);
-        return orderRepository.findAllByUserId(clientId).stream()
-                .filter(Order::isActive)
-                .toList();
+        return shardRoutingService.gather(() -> orderRepository.findActiveByUserId(clientId));
+    }
+
+    @Override
+    public List<OrderDto> findAllByClientId(Long clientId, Set<String> fields) {
+        log.debug("Attempting to get all orders by userId id: id={}, fields={}", clientId, fields);
+        return shardRoutingService.gather(() -> orderRepository.findActiveByUserId(clientId, fields));
     }
 
     @Override
-    @Transactional(readOnly = true)
     public List<Order> findBySupplierId(Long supplierId) {
         log.debug("Attempting to get orders by supplier id: id={}", supplierId);
-        return orderRepository.findBySupplierId(supplierId).stream()
-                .filter(Order::isActive)
-                .toList();
+        return shardRoutingService.gather(() -> orderRepository.findBySupplierIdAndIsActiveTrue(supplierId));
     }
 
     @Override
     public List<Order> findByConsumerId(Long consumerId) {
         log.debug("Attempting to get orders by consumer id: id={}", consumerId);
-        return orderRepository.findByConsumerId(consumerId).stream()
-                .filter(Order::isActive)
-                .toList();
+        return shardRoutingService.onShardOf(consumerId, () -> orderRepository.findByConsumerIdAndIsActiveTrue(consumerId));
     }
 
     @Override
-    @Transactional
-    public Order updatePrice(Long id, BigDecimal newPrice) {
+    public Order updatePrice(Long id, Money newPrice) {
         log.debug("Attempting to update order id={} with new price={}", id, newPrice);
 
-        if (newPrice == null || newPrice.compareTo(BigDecimal.ZERO) <= 0) {
+        if (newPrice == null || !newPrice.isPositive()) {
             log.warn("Price is below or equal to 0 : price={}", newPrice);
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Price must be positive");
         }
 
-        Order order = findById(id);
-        BigDecimal oldPrice = order.getPrice();
-        order.setPrice(newPrice);
+        Set<Long> clientIds = new HashSet<>();
+        return shardRoutingService.onShardOf(id, () -> optimisticRetryService.inTransaction("Order price update", clientIds, status -> {
+            Order order = findById(id);
+            clientIds.add(order.getSupplier().getId());
+            clientIds.add(order.getConsumer().getId());
+            Money oldPrice = order.getPrice();
+            order.setPrice(newPrice);
 
-        Order updated = orderRepository.save(order);
-        log.info("Updated order id={} with new price={}, old price={}", id, newPrice, oldPrice);
-        return updated;
+            Order updated = orderRepository.save(order);
+            log.info("Updated order id={} with new price={}, old price={}", id, newPrice, oldPrice);
+            publishRevenueDelta(updated, newPrice.minus(oldPrice), 0);
+            return updated;
+        }));
     }
 
     @Override
     @Transactional
     public void deactivateById(Long id) {
         log.debug("Attempting to deactivate order id={}", id);
-        orderRepository.findById(id)
+        Order order = shardRoutingService.onShardOf(id, () -> orderRepository.findById(id))
                 .orElseThrow(() -> {
                     log.warn("Order with id={} not found for soft-delete", id);
                     return new ResponseStatusException(
                             HttpStatus.NOT_FOUND, "Order with id " + id + " not found");
-                })
-                .setActive(Boolean.FALSE);
+                });
+        if (order.isActive()) {
+            order.setActive(Boolean.FALSE);
+            publishRevenueDelta(order, order.getPrice().negate(), -1);
+        }
         log.info("Order was soft-deleted: id={}", id);
     }
 
+    // One locked batch of the active orders of the clients on the current shard, the rollup deltas are summed
+    // per supplier, consumer and hour
+    @Override
+    @Transactional
+    public int deactivateOrderBatchOfClients(Collection<Long> clientIds, int batchSize) {
+        List<OrderRevenueView> orders = orderRepository.lockActiveByClientIdIn(clientIds, batchSize);
+        if (orders.isEmpty()) {
+            return 0;
+        }
+        int deactivated = orderRepository.deactivateByIdIn(orders.stream().map(OrderRevenueView::getId).toList());
+
+        Map<RevenueKey, long[]> deltas = new HashMap<>();
+        for (OrderRevenueView order : orders) {
+            long[] delta = deltas.computeIfAbsent(new RevenueKey(order.getSupplierId(), order.getConsumerId(),
+                    order.getSavedAt().truncatedTo(ChronoUnit.HOURS)), key -> new long[2]);
+            delta[0] += order.getPrice();
+            delta[1]++;
+        }
+        deltas.forEach((key, delta) -> eventPublisher.publishEvent(new RevenueDeltaEvent(key.supplierId(),
+                key.consumerId(), key.hour(), Money.ofMinor(delta[0]).negate(), -delta[1])));
+        log.debug("Deactivated order batch of clients: orders={}, rollupDeltas={}", deactivated, deltas.size());
+        return deactivated;
+    }
+
     @Override
+    @Transactional
     public void deleteById(Long id) {
         log.debug("Attempting to delete order id={}", id);
-        if (!clientRepository.existsById(id)) {
-            log.warn("Order with id={} not found", id);
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Order with id " + id + " not found.");
-        }
-        orderRepository.deleteById(id);
+        shardRoutingService.runOnShardOf(id, () -> {
+            Order order = orderRepository.findById(id).orElseThrow(() -> {
+                log.warn("Order with id={} not found", id);
+                return new ResponseStatusException(HttpStatus.NOT_FOUND, "Order with id " + id + " not found.");
+            });
+            // A soft-deleted order has left the rollups already
+            if (order.isActive()) {
+                publishRevenueDelta(order, order.getPrice().negate(), -1);
+            }
+            orderRepository.delete(order);
+        });
         log.info("Order was deleted: id={}", id);
     }
+
+    // Rollups are updated after commit, see RevenueRollupListener
+    private void publishRevenueDelta(Order order, Money revenueDelta, long orderCountDelta) {
+        LocalDateTime savedAt = order.getSavedAt() != null ? order.getSavedAt() : LocalDateTime.now();
+        eventPublisher.publishEvent(new RevenueDeltaEvent(order.getSupplier().getId(), order.getConsumer().getId(),
+                savedAt, revenueDelta, orderCountDelta));
+    }
+
+    private record RevenueKey(Long supplierId, Long consumerId, LocalDateTime hour) {
+    }
 }
@@ -0,0 +1,17 @@
+package tech.task.dataox.service.impl;
+
+import org.springframework.stereotype.Service;
+import tech.task.dataox.service.ProcessingDelayService;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Service
+public class ProcessingDelayServiceImpl implements ProcessingDelayService {
+
+    // Between 1 and 10 seconds
+    @Override
+    public Duration nextDelay() {
+        return Duration.ofSeconds(ThreadLocalRandom.current().nextInt(1, 11));
+    }
+}
@@ -0,0 +1,160 @@
+package tech.task.dataox.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import tech.task.dataox.exception.OverloadedException;
+import tech.task.dataox.lib.DeficitRoundRobinScheduler;
+import tech.task.dataox.lib.RequestDeadline;
+import tech.task.dataox.lib.SqlAccounting;
+import tech.task.dataox.lib.SlidingWindowHistogram;
+import tech.task.dataox.model.dto.ClientClassStatsDto;
+import tech.task.dataox.model.dto.SchedulerStatsDto;
+import tech.task.dataox.service.ProcessingSchedulerService;
+import tech.task.dataox.service.RequestDeadlineService;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Order processing runs on a fixed pool shared by deficit round robin between consumers, so one consumer
+ * submitting a large batch does not delay the orders of everyone else.
+ */
+@Service
+@Slf4j
+public class ProcessingSchedulerServiceImpl implements ProcessingSchedulerService {
+    private static final long HIGHEST_TRACKABLE_MS = TimeUnit.HOURS.toMillis(1);
+    private static final String LIGHT = "light";
+    private static final String HEAVY = "heavy";
+
+    private final DeficitRoundRobinScheduler<Long> scheduler;
+    private final int heavyClientDepth;
+    private final List<Integer> windows;
+    private final Map<String, ClassMetrics> classes = new LinkedHashMap<>();
+    private final RequestDeadlineService requestDeadlineService;
+
+    public ProcessingSchedulerServiceImpl(
+            @Value("${scheduler.processing.concurrency:16}") int concurrency,
+            @Value("${scheduler.processing.max-queue-depth:150}") int maxQueueDepth,
+            @Value("${scheduler.processing.quantum:10}") long quantum,
+            @Value("${scheduler.processing.heavy-client-depth:5}") int heavyClientDepth,
+            @Value("${stats.processing.windows-minutes:1,5,15,60}") List<Integer> windows,
+            RequestDeadlineService requestDeadlineService) {
+        this.scheduler = new DeficitRoundRobinScheduler<>("order-processing", concurrency, maxQueueDepth, quantum);
+        this.heavyClientDepth = heavyClientDepth;
+        this.windows = windows;
+        this.requestDeadlineService = requestDeadlineService;
+        int slots = windows.stream().mapToInt(Integer::intValue).max().orElse(60);
+        classes.put(LIGHT, new ClassMetrics(slots));
+        classes.put(HEAVY, new ClassMetrics(slots));
+    }
+
+    @Override
+    public void process(Long consumerId, long cost, Runnable task) {
+        // A consumer is heavy for this order when it already has a backlog at submit time
+        ClassMetrics metrics = classes.get(scheduler.queued(consumerId) >= heavyClientDepth ? HEAVY : LIGHT);
+        long submittedAt = System.nanoTime();
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        Optional<RequestDeadline> deadline = RequestDeadline.current();
+        SqlAccounting accounting = SqlAccounting.current();
+        metrics.queued.incrementAndGet();
+        CompletableFuture<Void> done;
+        try {
+            done = scheduler.submit(consumerId, cost, () -> {
+                metrics.queued.decrementAndGet();
+                metrics.recordWait(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - submittedAt));
+                if (context != null) {
+                    MDC.setContextMap(context);
+                }
+                deadline.ifPresent(RequestDeadline::set);
+                SqlAccounting.bind(accounting);
+                try {
+                    task.run();
+                } finally {
+                    MDC.clear();
+                    RequestDeadline.clear();
+                    SqlAccounting.restore(null);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            metrics.queued.decrementAndGet();
+            metrics.rejected.incrementAndGet();
+            log.warn("Order processing queue is full, rejecting order of consumer id={}", consumerId);
+            throw new OverloadedException("Order processing queue is full");
+        }
+        try {
+            // A caller past its deadline stops waiting, the task sees the same deadline and skips itself
+            if (deadline.isPresent()) {
+                done.get(Math.max(0, deadline.get().remainingMillis()), TimeUnit.MILLISECONDS);
+            } else {
+                done.get();
+            }
+        } catch (TimeoutException e) {
+            throw requestDeadlineService.exceeded(RequestDeadlineService.QUEUE, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Interrupted while processing");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Order processing failed", e.getCause());
+        }
+    }
+
+    @Override
+    public SchedulerStatsDto getStats() {
+        long nowMinute = epochMinute();
+        Map<String, ClientClassStatsDto> classStats = new LinkedHashMap<>();
+        classes.forEach((name, metrics) -> classStats.put(name, ClientClassStatsDto.builder()
+                .queued(metrics.queued.get())
+                .rejected(metrics.rejected.get())
+                .wait(metrics.wait.summarize(windows, nowMinute))
+                .build()));
+        return SchedulerStatsDto.builder()
+                .concurrency(scheduler.concurrency())
+                .maxQueueDepth(scheduler.maxQueued())
+                .running(scheduler.running())
+                .queued(scheduler.queued())
+                .backloggedClients(scheduler.backloggedKeys())
+                .classes(classStats)
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+
+    private static long epochMinute() {
+        return TimeUnit.MILLISECONDS.toMinutes(Instant.now().toEpochMilli());
+    }
+
+    private static final class ClassMetrics {
+        final AtomicLong queued = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+        final SlidingWindowHistogram wait;
+
+        ClassMetrics(int slots) {
+            this.wait = new SlidingWindowHistogram(slots, HIGHEST_TRACKABLE_MS);
+        }
+
+        void recordWait(long millis) {
+            long nowMinute = epochMinute();
+            wait.record(millis, nowMinute, nowMinute);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package tech.task.dataox.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tech.task.dataox.lib.SlidingWindowHistogram;
+import tech.task.dataox.model.dto.ProcessingStatsDto;
+import tech.task.dataox.repository.OrderRepository;
+import tech.task.dataox.repository.projection.ProcessingTimesView;
+import tech.task.dataox.service.ProcessingStatsService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+@Service
+@Slf4j
+public class ProcessingStatsServiceImpl implements ProcessingStatsService {
+    private static final long HIGHEST_TRACKABLE_MS = TimeUnit.HOURS.toMillis(1);
+
+    private final OrderRepository orderRepository;
+    private final List<Integer> windows;
+    private final SlidingWindowHistogram processing;
+    private final SlidingWindowHistogram queueWait;
+
+    public ProcessingStatsServiceImpl(OrderRepository orderRepository,
+                                      @Value("${stats.processing.windows-minutes:1,5,15,60}") List<Integer> windows) {
+        this.orderRepository = orderRepository;
+        this.windows = windows;
+        int slots = windows.stream().mapToInt(Integer::intValue).max().orElse(60);
+        this.processing = new SlidingWindowHistogram(slots, HIGHEST_TRACKABLE_MS);
+        this.queueWait = new SlidingWindowHistogram(slots, HIGHEST_TRACKABLE_MS);
+    }
+
+    @Override
+    public void record(LocalDateTime startProcessingAt, LocalDateTime endProcessingAt, LocalDateTime savedAt) {
+        if (startProcessingAt == null || endProcessingAt == null) {
+            return;
+        }
+        long nowMinute = epochMinute(LocalDateTime.now());
+        LocalDateTime recordedAt = savedAt != null ? savedAt : endProcessingAt;
+        long minute = epochMinute(recordedAt);
+        processing.record(Duration.between(startProcessingAt, endProcessingAt).toMillis(), minute, nowMinute);
+        if (savedAt != null) {
+            queueWait.record(Duration.between(endProcessingAt, savedAt).toMillis(), minute, nowMinute);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long seedFromOrders() {
+        AtomicLong seeded = new AtomicLong();
+        try (Stream<ProcessingTimesView> times = orderRepository.streamProcessingTimes()) {
+            times.forEach(t -> {
+                record(t.getStartProcessingAt(), t.getEndProcessingAt(), t.getSavedAt());
+                seeded.incrementAndGet();
+            });
+        }
+        log.info("Processing time histograms seeded from {} orders", seeded.get());
+        return seeded.get();
+    }
+
+    @Override
+    public ProcessingStatsDto getStats() {
+        long nowMinute = epochMinute(LocalDateTime.now());
+        return ProcessingStatsDto.builder()
+                .processing(processing.summarize(windows, nowMinute))
+                .queueWait(queueWait.summarize(windows, nowMinute))
+                .build();
+    }
+
+    private static long epochMinute(LocalDateTime time) {
+        return TimeUnit.SECONDS.toMinutes(time.atZone(ZoneId.systemDefault()).toEpochSecond());
+    }
+}
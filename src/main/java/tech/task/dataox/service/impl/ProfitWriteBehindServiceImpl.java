@@ -0,0 +1,383 @@
+package tech.task.dataox.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.task.dataox.lib.Money;
+import tech.task.dataox.lib.SlidingWindowHistogram;
+import tech.task.dataox.model.dto.ProfitFlushStatsDto;
+import tech.task.dataox.model.event.ClientChangedEvent;
+import tech.task.dataox.model.ledger.ProfitDelta;
+import tech.task.dataox.repository.ClientRepository;
+import tech.task.dataox.repository.ProfitDeltaRepository;
+import tech.task.dataox.repository.projection.ClientCreditView;
+import tech.task.dataox.repository.projection.ProfitTransferView;
+import tech.task.dataox.service.ProfitWriteBehindService;
+import tech.task.dataox.service.ShardRoutingService;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Supplier credits are not written to the client by each order: popular suppliers would serialize all of
+ * their orders on one row. An order logs its credit to {@code profit_deltas} in its own transaction, after
+ * the commit the id of the log row goes to a striped in-memory accumulator of the client, and a flush adds
+ * everything accumulated for a client with one update. The flush deletes the log rows it applies in the
+ * same transaction, so a credit is applied once; rows an instance never flushed (it stopped) are applied
+ * by the periodic sweep of rows older than {@code profit.write-behind.orphan-after-ms}. The cached summary of
+ * a client is evicted once the transaction adding its credits has committed.
+ * <p>
+ * With sharding the log row is on the shard of the order, which may not be the one of the supplier. Such rows
+ * are transferred: they stay locked on their shard while a transaction on the supplier's shard adds them and
+ * records their ids in {@code profit_delta_transfers}, then they are deleted. A transfer repeated after a
+ * failure before the delete skips the recorded ids; the records are dropped by the sweep once the rows are gone.
+ */
+@Service
+@Slf4j
+public class ProfitWriteBehindServiceImpl implements ProfitWriteBehindService {
+    private static final long HIGHEST_TRACKABLE_MS = TimeUnit.HOURS.toMillis(1);
+    private static final int CHUNK_SIZE = 1000;
+
+    private final ProfitDeltaRepository profitDeltaRepository;
+    private final ClientRepository clientRepository;
+    private final ShardRoutingService shardRoutingService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate requiresNew;
+    private final Stripe[] stripes;
+    private final long maxPending;
+    private final long orphanAfterMs;
+    private final List<Integer> windows;
+    private final ScheduledExecutorService flusher;
+    private final Object flushLock = new Object();
+    private final AtomicLong pendingCredits = new AtomicLong();
+    private final AtomicLong flushedClients = new AtomicLong();
+    private final AtomicLong flushedCredits = new AtomicLong();
+    private final AtomicLong sweptCredits = new AtomicLong();
+    private final AtomicLong transferredCredits = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private final SlidingWindowHistogram flushLatency;
+
+    public ProfitWriteBehindServiceImpl(ProfitDeltaRepository profitDeltaRepository,
+                                        ClientRepository clientRepository,
+                                        ShardRoutingService shardRoutingService,
+                                        ApplicationEventPublisher eventPublisher,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${profit.write-behind.stripes:16}") int stripes,
+                                        @Value("${profit.write-behind.flush-interval-ms:20}") long flushIntervalMs,
+                                        @Value("${profit.write-behind.max-pending:10000}") long maxPending,
+                                        @Value("${profit.write-behind.orphan-after-ms:60000}") long orphanAfterMs,
+                                        @Value("${profit.write-behind.sweep-interval-ms:10000}") long sweepIntervalMs,
+                                        @Value("${stats.processing.windows-minutes:1,5,15,60}") List<Integer> windows) {
+        this.profitDeltaRepository = profitDeltaRepository;
+        this.clientRepository = clientRepository;
+        this.shardRoutingService = shardRoutingService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe();
+        }
+        this.maxPending = maxPending;
+        this.orphanAfterMs = orphanAfterMs;
+        this.windows = windows;
+        this.flushLatency = new SlidingWindowHistogram(
+                windows.stream().mapToInt(Integer::intValue).max().orElse(60), HIGHEST_TRACKABLE_MS);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "profit-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::scheduledFlush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        flusher.scheduleWithFixedDelay(this::scheduledSweep, sweepIntervalMs, sweepIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void credit(Long clientId, Money amount) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Profit credits are logged in the transaction of their order");
+        }
+        int shard = shardRoutingService.currentShard();
+        Long deltaId = profitDeltaRepository.save(ProfitDelta.builder()
+                .clientId(clientId)
+                .amount(amount)
+                .createdAt(LocalDateTime.now())
+                .build()).getId();
+        // A rolled back attempt leaves nothing to flush, its log row is gone with it
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accumulate(new Credits(shard, clientId), deltaId);
+            }
+        });
+    }
+
+    @Override
+    public Money pendingCredit(Long clientId) {
+        if (shardRoutingService.shardCount() == 1) {
+            return Money.ofMinor(profitDeltaRepository.sumByClientId(clientId));
+        }
+        return pendingCredits(List.of(clientId)).getOrDefault(clientId, Money.ZERO);
+    }
+
+    @Override
+    public Map<Long, Money> pendingCredits(Collection<Long> clientIds) {
+        Map<Long, Long> minorUnits = new HashMap<>();
+        for (ClientCreditView view : profitDeltaRepository.sumByClientIdIn(clientIds)) {
+            minorUnits.put(view.getClientId(), view.getAmount());
+        }
+        if (shardRoutingService.shardCount() > 1) {
+            addRemoteCredits(clientIds, minorUnits);
+        }
+        Map<Long, Money> credits = new HashMap<>();
+        minorUnits.forEach((clientId, amount) -> credits.put(clientId, Money.ofMinor(amount)));
+        return credits;
+    }
+
+    // Rows on the other shards not transferred yet. The transfer records are read after the rows: a transfer
+    // committing in between is then missing from both the profit read before and the pending sum, never in both
+    private void addRemoteCredits(Collection<Long> clientIds, Map<Long, Long> minorUnits) {
+        int current = shardRoutingService.currentShard();
+        List<List<ProfitDelta>> perShard = shardRoutingService.scatter(() -> profitDeltaRepository.findByClientIdIn(clientIds));
+        for (int source = 0; source < perShard.size(); source++) {
+            List<ProfitDelta> deltas = perShard.get(source);
+            if (source == current || deltas.isEmpty()) {
+                continue;
+            }
+            Set<Long> transferred = new HashSet<>();
+            for (List<Long> chunk : chunks(deltas.stream().map(ProfitDelta::getId).toList())) {
+                transferred.addAll(profitDeltaRepository.findTransferredIds(source, chunk));
+            }
+            for (ProfitDelta delta : deltas) {
+                if (!transferred.contains(delta.getId())) {
+                    minorUnits.merge(delta.getClientId(), delta.getAmount().getMinorUnits(), Long::sum);
+                }
+            }
+        }
+    }
+
+    // Accumulated ids of deleted rows are skipped by the flush, see applyCredits
+    @Override
+    public void discardAll() {
+        int discarded = profitDeltaRepository.deleteAllDeltas();
+        log.info("Discarded {} pending profit credits", discarded);
+    }
+
+    @Override
+    public void flush() {
+        synchronized (flushLock) {
+            for (Stripe stripe : stripes) {
+                Map<Credits, List<Long>> drained = stripe.drain();
+                drained.forEach((credits, deltaIds) -> {
+                    pendingCredits.addAndGet(-deltaIds.size());
+                    try {
+                        flushedCredits.addAndGet(applyCredits(credits, deltaIds));
+                        flushedClients.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        failedFlushes.incrementAndGet();
+                        log.warn("Flushing {} profit credits of client id={} failed, retrying with the next flush: {}",
+                                deltaIds.size(), credits.clientId(), e.getMessage());
+                        deltaIds.forEach(deltaId -> accumulate(credits, deltaId));
+                    }
+                });
+            }
+        }
+    }
+
+    @Override
+    public ProfitFlushStatsDto getStats() {
+        int pendingClients = 0;
+        for (Stripe stripe : stripes) {
+            pendingClients += stripe.size();
+        }
+        return ProfitFlushStatsDto.builder()
+                .pendingClients(pendingClients)
+                .pendingCredits(pendingCredits.get())
+                .flushedClients(flushedClients.get())
+                .flushedCredits(flushedCredits.get())
+                .sweptCredits(sweptCredits.get())
+                .transferredCredits(transferredCredits.get())
+                .failedFlushes(failedFlushes.get())
+                .flush(flushLatency.summarize(windows, epochMinute()))
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(5, TimeUnit.SECONDS);
+        flush();
+    }
+
+    private void accumulate(Credits credits, Long deltaId) {
+        stripes[Math.floorMod(Long.hashCode(credits.clientId()), stripes.length)].add(credits, deltaId);
+        // Under size pressure the flush runs now instead of at the next interval
+        if (pendingCredits.incrementAndGet() == maxPending) {
+            flusher.execute(this::scheduledFlush);
+        }
+    }
+
+    // Only the log rows still there are applied: a sweep or a profit reset may have removed some of them
+    private int applyCredits(Credits credits, List<Long> deltaIds) {
+        long start = System.nanoTime();
+        Long clientId = credits.clientId();
+        boolean transfer = shardRoutingService.shardOf(clientId) != credits.shard();
+        Integer applied = shardRoutingService.onShard(credits.shard(), () -> transactionTemplate.execute(status -> {
+            List<ProfitDelta> found = new ArrayList<>();
+            for (List<Long> chunk : chunks(deltaIds)) {
+                found.addAll(profitDeltaRepository.findByIdInForUpdate(chunk));
+            }
+            if (found.isEmpty()) {
+                return 0;
+            }
+            if (transfer) {
+                shardRoutingService.onShardOf(clientId, () -> requiresNew.execute(inner ->
+                        addTransferred(credits.shard(), clientId, found)));
+            } else {
+                clientRepository.addProfit(clientId, found.stream().mapToLong(d -> d.getAmount().getMinorUnits()).sum());
+                eventPublisher.publishEvent(new ClientChangedEvent(clientId));
+            }
+            for (List<Long> chunk : chunks(found.stream().map(ProfitDelta::getId).toList())) {
+                profitDeltaRepository.deleteByIdIn(chunk);
+            }
+            return found.size();
+        }));
+        long nowMinute = epochMinute();
+        flushLatency.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), nowMinute, nowMinute);
+        if (transfer && applied != null) {
+            transferredCredits.addAndGet(applied);
+        }
+        return applied == null ? 0 : applied;
+    }
+
+    // On the client's shard, in a transaction of its own while the rows stay locked on their shard
+    private int addTransferred(int sourceShard, Long clientId, List<ProfitDelta> deltas) {
+        Set<Long> done = new HashSet<>();
+        for (List<Long> chunk : chunks(deltas.stream().map(ProfitDelta::getId).toList())) {
+            done.addAll(profitDeltaRepository.findTransferredIds(sourceShard, chunk));
+        }
+        LocalDateTime now = LocalDateTime.now();
+        long amount = 0;
+        int added = 0;
+        for (ProfitDelta delta : deltas) {
+            if (!done.contains(delta.getId())) {
+                profitDeltaRepository.insertTransfer(sourceShard, delta.getId(), now);
+                amount += delta.getAmount().getMinorUnits();
+                added++;
+            }
+        }
+        if (added > 0) {
+            clientRepository.addProfit(clientId, amount);
+            eventPublisher.publishEvent(new ClientChangedEvent(clientId));
+        }
+        return added;
+    }
+
+    private void sweep() {
+        LocalDateTime before = LocalDateTime.now().minusNanos(TimeUnit.MILLISECONDS.toNanos(orphanAfterMs));
+        shardRoutingService.forEachShard(shard -> {
+            Map<Long, List<Long>> byClient = new HashMap<>();
+            for (ProfitDelta delta : profitDeltaRepository.findOlderThan(before, PageRequest.of(0, CHUNK_SIZE))) {
+                byClient.computeIfAbsent(delta.getClientId(), id -> new ArrayList<>()).add(delta.getId());
+            }
+            int swept = 0;
+            for (Map.Entry<Long, List<Long>> client : byClient.entrySet()) {
+                swept += applyCredits(new Credits(shard, client.getKey()), client.getValue());
+            }
+            if (swept > 0) {
+                sweptCredits.addAndGet(swept);
+                log.warn("Applied {} profit credits older than {} ms, left by a stopped instance", swept, orphanAfterMs);
+            }
+            if (shardRoutingService.shardCount() > 1) {
+                sweepTransfers(before);
+            }
+        });
+    }
+
+    // A transfer record is needed until its row is deleted on the source shard, ids are never reused there
+    private void sweepTransfers(LocalDateTime before) {
+        Map<Integer, List<Long>> bySource = new HashMap<>();
+        for (ProfitTransferView transfer : profitDeltaRepository.findTransfersOlderThan(before, PageRequest.of(0, CHUNK_SIZE))) {
+            bySource.computeIfAbsent(transfer.getSourceShard(), shard -> new ArrayList<>()).add(transfer.getDeltaId());
+        }
+        bySource.forEach((source, deltaIds) -> {
+            Set<Long> remaining = new HashSet<>(shardRoutingService.onShard(source,
+                    () -> profitDeltaRepository.findExistingIds(deltaIds)));
+            List<Long> gone = deltaIds.stream().filter(id -> !remaining.contains(id)).toList();
+            if (!gone.isEmpty()) {
+                transactionTemplate.executeWithoutResult(status -> profitDeltaRepository.deleteTransfers(source, gone));
+            }
+        });
+    }
+
+    private void scheduledFlush() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Profit flush failed", e);
+        }
+    }
+
+    private void scheduledSweep() {
+        try {
+            sweep();
+        } catch (RuntimeException e) {
+            log.error("Profit credit sweep failed", e);
+        }
+    }
+
+    private static List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            chunks.add(ids.subList(from, Math.min(ids.size(), from + CHUNK_SIZE)));
+        }
+        return chunks;
+    }
+
+    private static long epochMinute() {
+        return TimeUnit.MILLISECONDS.toMinutes(Instant.now().toEpochMilli());
+    }
+
+    // Credits of one client logged on one shard
+    private record Credits(int shard, Long clientId) {
+    }
+
+    private static final class Stripe {
+        private Map<Credits, List<Long>> pending = new HashMap<>();
+
+        synchronized void add(Credits credits, Long deltaId) {
+            pending.computeIfAbsent(credits, key -> new ArrayList<>()).add(deltaId);
+        }
+
+        synchronized Map<Credits, List<Long>> drain() {
+            Map<Credits, List<Long>> drained = pending;
+            pending = new HashMap<>();
+            return drained;
+        }
+
+        synchronized int size() {
+            return pending.size();
+        }
+    }
+}
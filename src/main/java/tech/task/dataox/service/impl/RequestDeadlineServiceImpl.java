@@ -0,0 +1,75 @@
+package tech.task.dataox.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import tech.task.dataox.exception.DeadlineExceededException;
+import tech.task.dataox.lib.RequestDeadline;
+import tech.task.dataox.model.dto.DeadlineStatsDto;
+import tech.task.dataox.service.RequestDeadlineService;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+@Slf4j
+public class RequestDeadlineServiceImpl implements RequestDeadlineService {
+    private final long defaultMs;
+    private final long commitReserveMs;
+    private final Map<String, AtomicLong> exceeded = new ConcurrentHashMap<>();
+
+    public RequestDeadlineServiceImpl(@Value("${request.deadline.default-ms:15000}") long defaultMs,
+                                      @Value("${request.deadline.commit-reserve-ms:250}") long commitReserveMs) {
+        this.defaultMs = defaultMs;
+        this.commitReserveMs = commitReserveMs;
+    }
+
+    @Override
+    public void ensureRemaining(String stage, Duration work) {
+        Optional<RequestDeadline> deadline = RequestDeadline.current();
+        if (deadline.isPresent() && deadline.get().remainingMillis() < work.toMillis() + commitReserveMs) {
+            throw exceeded(stage, null);
+        }
+    }
+
+    @Override
+    public boolean isExpired() {
+        return RequestDeadline.current().map(RequestDeadline::isExpired).orElse(false);
+    }
+
+    // JDBC query timeouts are whole seconds, rounding up leaves the deadline checks in charge below that
+    @Override
+    public int transactionTimeoutSeconds() {
+        return RequestDeadline.current()
+                .map(deadline -> (int) Math.max(1, (deadline.remainingMillis() + 999) / 1000))
+                .orElse(TransactionDefinition.TIMEOUT_DEFAULT);
+    }
+
+    @Override
+    public DeadlineExceededException exceeded(String stage, Throwable cause) {
+        exceeded.computeIfAbsent(stage, s -> new AtomicLong()).incrementAndGet();
+        log.warn("Request deadline exceeded at stage={}, remaining={} ms", stage,
+                RequestDeadline.current().map(RequestDeadline::remainingMillis).orElse(null));
+        return new DeadlineExceededException("Request deadline exceeded at " + stage, cause);
+    }
+
+    @Override
+    public DeadlineStatsDto getStats() {
+        Map<String, Long> byStage = new LinkedHashMap<>();
+        for (String stage : new String[]{ADMISSION, QUEUE, COMMIT}) {
+            byStage.put(stage, 0L);
+        }
+        exceeded.forEach((stage, count) -> byStage.put(stage, count.get()));
+        return DeadlineStatsDto.builder()
+                .defaultMs(defaultMs)
+                .commitReserveMs(commitReserveMs)
+                .exceeded(byStage.values().stream().mapToLong(Long::longValue).sum())
+                .exceededByStage(byStage)
+                .build();
+    }
+}
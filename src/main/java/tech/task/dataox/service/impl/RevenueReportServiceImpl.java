@@ -0,0 +1,145 @@
+package tech.task.dataox.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import tech.task.dataox.lib.BucketFence;
+import tech.task.dataox.lib.Money;
+import tech.task.dataox.model.dto.RevenueBucketDto;
+import tech.task.dataox.model.report.ReportGranularity;
+import tech.task.dataox.model.report.RevenueRole;
+import tech.task.dataox.model.report.RevenueRollup;
+import tech.task.dataox.repository.RevenueRollupRepository;
+import tech.task.dataox.service.RevenueReportService;
+import tech.task.dataox.service.ShardRoutingService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+
+@Service
+@Slf4j
+public class RevenueReportServiceImpl implements RevenueReportService {
+    private final RevenueRollupRepository rollupRepository;
+    private final ShardRoutingService shardRoutingService;
+    private final BucketFence rollupFence;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration fenceTimeout;
+
+    public RevenueReportServiceImpl(RevenueRollupRepository rollupRepository,
+                                    ShardRoutingService shardRoutingService,
+                                    BucketFence rollupFence,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${report.rollup.fence-timeout-ms:30000}") long fenceTimeoutMs) {
+        this.rollupRepository = rollupRepository;
+        this.shardRoutingService = shardRoutingService;
+        this.rollupFence = rollupFence;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.fenceTimeout = Duration.ofMillis(fenceTimeoutMs);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<RevenueBucketDto> findRevenue(Long clientId, RevenueRole role,
+                                              LocalDateTime from, LocalDateTime to,
+                                              ReportGranularity granularity) {
+        if (!from.isBefore(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'from' must be before 'to'");
+        }
+        Set<RevenueRole> roles = role != null ? EnumSet.of(role) : EnumSet.allOf(RevenueRole.class);
+        ChronoUnit unit = granularity == ReportGranularity.DAY ? ChronoUnit.DAYS : ChronoUnit.HOURS;
+
+        // A supplier has rows on the shard of each of its consumers, the same bucket may come from several
+        List<RevenueRollup> rows = shardRoutingService.gather(() -> rollupRepository.findRange(clientId, roles,
+                from.truncatedTo(unit), to));
+        if (shardRoutingService.shardCount() > 1) {
+            rows = rows.stream().sorted(Comparator.comparing(row -> row.getId().getBucket())).toList();
+        }
+
+        // Rows are ordered by bucket and role, so day totals can be folded in a single pass
+        List<RevenueBucketDto> result = new ArrayList<>();
+        for (RevenueRole r : roles) {
+            LocalDateTime currentBucket = null;
+            Money revenue = Money.ZERO;
+            long count = 0;
+            for (RevenueRollup row : rows) {
+                if (row.getId().getRole() != r) {
+                    continue;
+                }
+                LocalDateTime bucket = row.getId().getBucket().truncatedTo(unit);
+                if (currentBucket != null && !currentBucket.equals(bucket)) {
+                    result.add(toDto(clientId, r, currentBucket, revenue, count));
+                    revenue = Money.ZERO;
+                    count = 0;
+                }
+                currentBucket = bucket;
+                revenue = revenue.plus(row.getRevenue());
+                count += row.getOrderCount();
+            }
+            if (currentBucket != null) {
+                result.add(toDto(clientId, r, currentBucket, revenue, count));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    @Transactional
+    public void applyDelta(Long clientId, RevenueRole role, LocalDateTime savedAt,
+                           Money revenueDelta, long orderCountDelta) {
+        LocalDateTime bucket = savedAt.truncatedTo(ChronoUnit.HOURS);
+        if (rollupRepository.addDelta(clientId, role.name(), bucket, revenueDelta.getMinorUnits(), orderCountDelta) == 0) {
+            // First order of the client in this hour; a concurrent insert surfaces as a constraint violation
+            rollupRepository.insertBucket(clientId, role.name(), bucket, revenueDelta.getMinorUnits(), orderCountDelta);
+        }
+    }
+
+    // Committed inside the fence: deltas of the range wait until the rebuilt rows are visible
+    @Override
+    public int rebuild(LocalDateTime from, LocalDateTime to) {
+        log.debug("Rebuilding revenue rollups from={} to={}", from, to);
+        int rows;
+        try {
+            rows = rollupFence.exclusive(from, to, fenceTimeout, () -> transactionTemplate.execute(status -> {
+                rollupRepository.deleteRange(from, to);
+                return rollupRepository.rebuildSupplierRange(from, to)
+                        + rollupRepository.rebuildConsumerRange(from, to);
+            }));
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Revenue rollup rebuild skipped: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Revenue rollup rebuild interrupted", e);
+        }
+        log.info("Revenue rollups rebuilt from={} to={}: rows={}", from, to, rows);
+        return rows;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean isEmpty() {
+        return rollupRepository.count() == 0;
+    }
+
+    private RevenueBucketDto toDto(Long clientId, RevenueRole role, LocalDateTime bucket,
+                                   Money revenue, long count) {
+        return RevenueBucketDto.builder()
+                .clientId(clientId)
+                .role(role)
+                .bucket(bucket)
+                .revenue(revenue)
+                .orderCount(count)
+                .build();
+    }
+}
@@ -0,0 +1,204 @@
+package tech.task.dataox.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.support.PropertyComparator;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import tech.task.dataox.lib.ShardContext;
+import tech.task.dataox.lib.SqlAccounting;
+import tech.task.dataox.service.ShardRoutingService;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+@Service
+@Slf4j
+public class ShardRoutingServiceImpl implements ShardRoutingService {
+    private final int shardCount;
+    private final ExecutorService scatterExecutor;
+
+    public ShardRoutingServiceImpl(@Value("${sharding.enabled:false}") boolean enabled,
+                                   @Value("${sharding.urls:}") List<String> urls,
+                                   @Value("${sharding.scatter-threads:8}") int scatterThreads) {
+        if (enabled && urls.isEmpty()) {
+            throw new IllegalStateException("sharding.urls is required with sharding.enabled=true");
+        }
+        this.shardCount = enabled ? urls.size() : 1;
+        if (shardCount > 1) {
+            AtomicInteger threads = new AtomicInteger();
+            this.scatterExecutor = Executors.newFixedThreadPool(scatterThreads, r -> {
+                Thread thread = new Thread(r, "shard-scatter-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.scatterExecutor = null;
+        }
+    }
+
+    @Override
+    public int shardCount() {
+        return shardCount;
+    }
+
+    // Shard k hands out the ids k + 1, k + 1 + n, k + 1 + 2n..., see db/migration/sharding
+    @Override
+    public int shardOf(Long id) {
+        return (int) Math.floorMod(id - 1, (long) shardCount);
+    }
+
+    @Override
+    public int shardForNewClient(String email) {
+        return email == null ? 0 : Math.floorMod(email.hashCode(), shardCount);
+    }
+
+    @Override
+    public boolean isOnCurrentShard(Long id) {
+        return shardOf(id) == currentShard();
+    }
+
+    @Override
+    public int currentShard() {
+        Integer current = ShardContext.current();
+        return current == null ? 0 : current;
+    }
+
+    @Override
+    public <T> T onShard(int shard, Supplier<T> work) {
+        Integer previous = ShardContext.set(shard);
+        try {
+            return work.get();
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+
+    @Override
+    public <T> T onShardOf(Long id, Supplier<T> work) {
+        return onShard(shardOf(id), work);
+    }
+
+    @Override
+    public void runOnShardOf(Long id, Runnable work) {
+        onShardOf(id, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    @Override
+    public void forEachShard(IntConsumer work) {
+        for (int shard = 0; shard < shardCount; shard++) {
+            int current = shard;
+            onShard(shard, () -> {
+                work.accept(current);
+                return null;
+            });
+        }
+    }
+
+    @Override
+    public <T> List<T> scatter(Supplier<T> query) {
+        if (shardCount == 1) {
+            return List.of(onShard(0, query));
+        }
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        SqlAccounting accounting = SqlAccounting.current();
+        List<CompletableFuture<T>> futures = new ArrayList<>();
+        for (int shard = 0; shard < shardCount; shard++) {
+            int current = shard;
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                if (mdc != null) {
+                    MDC.setContextMap(mdc);
+                }
+                SqlAccounting.bind(accounting);
+                try {
+                    return onShard(current, query);
+                } finally {
+                    MDC.clear();
+                    SqlAccounting.restore(null);
+                }
+            }, scatterExecutor));
+        }
+        List<T> results = new ArrayList<>();
+        try {
+            for (CompletableFuture<T> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    @Override
+    public <T> List<T> gather(Supplier<List<T>> query) {
+        List<List<T>> perShard = scatter(query);
+        if (perShard.size() == 1) {
+            return perShard.get(0);
+        }
+        return perShard.stream().flatMap(List::stream).toList();
+    }
+
+    @Override
+    public boolean anyMatch(BooleanSupplier query) {
+        return scatter(query::getAsBoolean).contains(Boolean.TRUE);
+    }
+
+    @Override
+    public <T> Page<T> gatherPage(Function<Pageable, Page<T>> query, Pageable pageable) {
+        if (shardCount == 1) {
+            return onShard(0, () -> query.apply(pageable));
+        }
+        // The id breaks ties the same way on every shard and in the merge
+        Sort sort = pageable.getSort().getOrderFor("id") == null
+                ? pageable.getSort().and(Sort.by("id"))
+                : pageable.getSort();
+        Pageable perShard = pageable.isPaged()
+                ? PageRequest.of(0, (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize()), sort)
+                : Pageable.unpaged(sort);
+        List<Page<T>> pages = scatter(() -> query.apply(perShard));
+
+        Comparator<T> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            comparator = comparator.thenComparing(
+                    new PropertyComparator<>(order.getProperty(), order.isIgnoreCase(), order.isAscending()));
+        }
+        long total = pages.stream().mapToLong(Page::getTotalElements).sum();
+        List<T> content = pages.stream()
+                .flatMap(page -> page.getContent().stream())
+                .sorted(comparator)
+                .skip(pageable.isPaged() ? pageable.getOffset() : 0)
+                .limit(pageable.isPaged() ? pageable.getPageSize() : Long.MAX_VALUE)
+                .toList();
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scatterExecutor != null) {
+            scatterExecutor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package tech.task.dataox.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import tech.task.dataox.lib.SqlAccounting;
+import tech.task.dataox.model.dto.SqlEndpointStatsDto;
+import tech.task.dataox.service.SqlStatsService;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+@Service
+@Slf4j
+public class SqlStatsServiceImpl implements SqlStatsService {
+    private final long warnStatements;
+    // Keyed by the mapped path pattern, so the number of entries is bounded by the controllers
+    private final Map<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+
+    public SqlStatsServiceImpl(@Value("${sql.accounting.warn-statements:50}") long warnStatements) {
+        this.warnStatements = warnStatements;
+    }
+
+    @Override
+    public void record(String endpoint, SqlAccounting.Snapshot usage) {
+        EndpointMetrics metrics = endpoints.computeIfAbsent(endpoint, e -> new EndpointMetrics());
+        metrics.requests.increment();
+        metrics.statements.add(usage.statements());
+        metrics.maxStatements.accumulateAndGet(usage.statements(), Math::max);
+        metrics.rows.add(usage.rows());
+        metrics.maxRows.accumulateAndGet(usage.rows(), Math::max);
+        metrics.jdbcMicros.add(usage.jdbcMicros());
+        metrics.maxJdbcMicros.accumulateAndGet(usage.jdbcMicros(), Math::max);
+        if (usage.statements() > warnStatements) {
+            metrics.overBudget.increment();
+            log.warn("{} executed {} statements reading {} entity rows in {} us, over the budget of {}",
+                    endpoint, usage.statements(), usage.rows(), usage.jdbcMicros(), warnStatements);
+        }
+    }
+
+    @Override
+    public List<SqlEndpointStatsDto> getStats() {
+        return endpoints.entrySet().stream()
+                .map(entry -> entry.getValue().toDto(entry.getKey()))
+                .sorted(Comparator.comparingDouble(SqlEndpointStatsDto::getMeanStatements).reversed()
+                        .thenComparing(SqlEndpointStatsDto::getEndpoint))
+                .toList();
+    }
+
+    private static class EndpointMetrics {
+        final LongAdder requests = new LongAdder();
+        final LongAdder statements = new LongAdder();
+        final AtomicLong maxStatements = new AtomicLong();
+        final LongAdder rows = new LongAdder();
+        final AtomicLong maxRows = new AtomicLong();
+        final LongAdder jdbcMicros = new LongAdder();
+        final AtomicLong maxJdbcMicros = new AtomicLong();
+        final LongAdder overBudget = new LongAdder();
+
+        SqlEndpointStatsDto toDto(String endpoint) {
+            long count = Math.max(1, requests.sum());
+            return SqlEndpointStatsDto.builder()
+                    .endpoint(endpoint)
+                    .requests(requests.sum())
+                    .meanStatements((double) statements.sum() / count)
+                    .maxStatements(maxStatements.get())
+                    .meanRows((double) rows.sum() / count)
+                    .maxRows(maxRows.get())
+                    .meanJdbcMs(jdbcMicros.sum() / 1000.0 / count)
+                    .maxJdbcMs(maxJdbcMicros.get() / 1000.0)
+                    .overBudget(overBudget.sum())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package tech.task.dataox.service.job;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tech.task.dataox.service.ArchiveService;
+import tech.task.dataox.service.ShardRoutingService;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Moves soft-deleted orders and long-inactive clients out of the hot tables.
+ * Work is split into small batches with a pause between them, so row locks are short-lived
+ * and order creation never waits behind the archiver.
+ * <p>
+ * With sharding only orders are archived: a client's shard cannot tell whether the orders on the other
+ * shards still reference it as their supplier.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "archive.enabled", havingValue = "true", matchIfMissing = true)
+public class ArchiveJob {
+    private final ArchiveService archiveService;
+    private final ShardRoutingService shardRoutingService;
+
+    @Value("${archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${archive.max-batches-per-run:100}")
+    private int maxBatchesPerRun;
+
+    @Value("${archive.batch-pause-ms:200}")
+    private long batchPauseMs;
+
+    @Scheduled(fixedDelayString = "${archive.interval-ms:60000}",
+            initialDelayString = "${archive.initial-delay-ms:60000}")
+    public void run() {
+        int[] moved = new int[2];
+        shardRoutingService.forEachShard(shard -> {
+            moved[0] += drain(archiveService::archiveOrderBatch);
+            // Clients go second: their orders must be out of the hot table before the FK allows the move
+            if (shardRoutingService.shardCount() == 1) {
+                moved[1] += drain(archiveService::archiveClientBatch);
+            }
+        });
+        int orders = moved[0];
+        int clients = moved[1];
+        if (orders > 0 || clients > 0) {
+            log.info("Archive run finished: orders={}, clients={}", orders, clients);
+        }
+    }
+
+    private int drain(IntUnaryOperator batch) {
+        int total = 0;
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            int moved = batch.applyAsInt(batchSize);
+            total += moved;
+            if (moved < batchSize) {
+                break;
+            }
+            try {
+                TimeUnit.MILLISECONDS.sleep(batchPauseMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,50 @@
+package tech.task.dataox.service.job;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tech.task.dataox.service.RevenueReportService;
+import tech.task.dataox.service.ShardRoutingService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Catch-up for the revenue rollups: seeds an empty table from {@code orders} on startup and
+ * periodically rebuilds recent closed hours to repair deltas lost on a crash. Each shard holds the rollups of
+ * its own orders and is rebuilt on its own.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class RevenueRollupJob {
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    private final RevenueReportService revenueReportService;
+    private final ShardRoutingService shardRoutingService;
+
+    @Value("${report.rollup.catch-up-hours:24}")
+    private long catchUpHours;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        LocalDateTime nextHour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).plusHours(1);
+        shardRoutingService.forEachShard(shard -> {
+            if (revenueReportService.isEmpty()) {
+                revenueReportService.rebuild(BEGINNING, nextHour);
+            }
+        });
+    }
+
+    // The open hour is left to the incremental deltas, only closed hours are rebuilt
+    @Scheduled(cron = "${report.rollup.catch-up-cron:0 5 * * * *}")
+    public void catchUp() {
+        LocalDateTime currentHour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        shardRoutingService.forEachShard(shard ->
+                revenueReportService.rebuild(currentHour.minusHours(catchUpHours), currentHour));
+    }
+}
@@ -0,0 +1,35 @@
+package tech.task.dataox.service.listener;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import tech.task.dataox.model.event.ClientChangedEvent;
+import tech.task.dataox.model.event.RevenueDeltaEvent;
+import tech.task.dataox.service.ClientSummaryService;
+
+/**
+ * Evicts cached client summaries after a change to the client or one of its orders has committed, so the next
+ * read loads the new state. A read that loaded before the commit and caches after the eviction would bring the
+ * old state back; ClientSummaryServiceImpl drops such loads instead of caching them.
+ */
+@Component
+@RequiredArgsConstructor
+public class ClientSummaryListener {
+    private final ClientSummaryService clientSummaryService;
+
+    @TransactionalEventListener
+    public void onOrderChanged(RevenueDeltaEvent event) {
+        clientSummaryService.evict(event.getSupplierId());
+        clientSummaryService.evict(event.getConsumerId());
+    }
+
+    // Profit reset runs outside of a service transaction
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onClientChanged(ClientChangedEvent event) {
+        if (event.getClientId() == null) {
+            clientSummaryService.evictAll();
+        } else {
+            clientSummaryService.evict(event.getClientId());
+        }
+    }
+}
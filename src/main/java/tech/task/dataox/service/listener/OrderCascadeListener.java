@@ -0,0 +1,60 @@
+package tech.task.dataox.service.listener;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import tech.task.dataox.model.event.ClientsDeactivatedEvent;
+import tech.task.dataox.service.OrderService;
+import tech.task.dataox.service.ShardRoutingService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deactivates the active orders of deactivated clients once the clients have committed, in short
+ * locked batches with a pause between them, so order reads and price updates never wait long.
+ * Orders of a client that is already inactive cannot be created anymore, so the batches always drain;
+ * a cascade cut short by a restart is finished by deactivating the same clients again.
+ * Orders live on the shards of their consumers, so every shard is drained.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class OrderCascadeListener {
+    private final OrderService orderService;
+    private final ShardRoutingService shardRoutingService;
+
+    @Value("${client.cascade.batch-size:500}")
+    private int batchSize;
+
+    @Value("${client.cascade.batch-pause-ms:50}")
+    private long batchPauseMs;
+
+    // Bulk deactivation commits chunk by chunk outside of a service transaction
+    @Async("cascadeExecutor")
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onClientsDeactivated(ClientsDeactivatedEvent event) {
+        int[] total = new int[1];
+        shardRoutingService.forEachShard(shard -> {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    int deactivated = orderService.deactivateOrderBatchOfClients(event.getClientIds(), batchSize);
+                    total[0] += deactivated;
+                    if (deactivated < batchSize) {
+                        break;
+                    }
+                    TimeUnit.MILLISECONDS.sleep(batchPauseMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.error("Failed to deactivate orders of clients={}: {}", event.getClientIds(), e.getMessage());
+            }
+        });
+        if (total[0] > 0) {
+            log.info("Deactivated {} orders of {} deactivated clients", total[0], event.getClientIds().size());
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package tech.task.dataox.service.listener;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import tech.task.dataox.model.event.OrderProcessedEvent;
+import tech.task.dataox.service.ProcessingStatsService;
+import tech.task.dataox.service.ShardRoutingService;
+
+@Component
+@RequiredArgsConstructor
+public class ProcessingStatsListener {
+    private final ProcessingStatsService processingStatsService;
+    private final ShardRoutingService shardRoutingService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        shardRoutingService.forEachShard(shard -> processingStatsService.seedFromOrders());
+    }
+
+    // Only committed orders count, a rolled back create is not a successful one
+    @TransactionalEventListener
+    public void onOrderProcessed(OrderProcessedEvent event) {
+        processingStatsService.record(event.getStartProcessingAt(), event.getEndProcessingAt(), event.getSavedAt());
+    }
+}
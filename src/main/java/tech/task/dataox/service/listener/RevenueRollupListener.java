@@ -0,0 +1,82 @@
+package tech.task.dataox.service.listener;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tech.task.dataox.lib.BucketFence;
+import tech.task.dataox.model.event.RevenueDeltaEvent;
+import tech.task.dataox.model.report.RevenueRole;
+import tech.task.dataox.service.RevenueReportService;
+import tech.task.dataox.service.ShardRoutingService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Applies order revenue deltas to the rollups once the order change has committed.
+ * Running after commit keeps the rollup rows out of the order transaction's lock set;
+ * anything lost on a crash is restored by {@link tech.task.dataox.service.job.RevenueRollupJob}.
+ * Both rows go to the shard of the order, the one of its consumer, where a rebuild would put them.
+ * <p>
+ * The delta enters the rollup {@link BucketFence} before the order commits and leaves it once applied, so a rebuild
+ * of its hour either runs before the commit or after the delta, never in between where it would count it twice.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class RevenueRollupListener {
+    private final RevenueReportService revenueReportService;
+    private final ShardRoutingService shardRoutingService;
+    private final BucketFence rollupFence;
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onRevenueDeltaCommitting(RevenueDeltaEvent event) {
+        LocalDateTime bucket = bucketOf(event);
+        rollupFence.enter(bucket);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                // A committed delta leaves the fence once applied
+                if (status != STATUS_COMMITTED) {
+                    rollupFence.exit(bucket);
+                }
+            }
+        });
+    }
+
+    @Async("rollupExecutor")
+    @TransactionalEventListener
+    public void onRevenueDelta(RevenueDeltaEvent event) {
+        try {
+            shardRoutingService.runOnShardOf(event.getConsumerId(), () -> {
+                apply(event.getSupplierId(), RevenueRole.SUPPLIER, event);
+                apply(event.getConsumerId(), RevenueRole.CONSUMER, event);
+            });
+        } finally {
+            rollupFence.exit(bucketOf(event));
+        }
+    }
+
+    private void apply(Long clientId, RevenueRole role, RevenueDeltaEvent event) {
+        try {
+            revenueReportService.applyDelta(clientId, role, event.getSavedAt(),
+                    event.getRevenueDelta(), event.getOrderCountDelta());
+        } catch (DataIntegrityViolationException e) {
+            // Lost the race to create the bucket row, it exists now
+            revenueReportService.applyDelta(clientId, role, event.getSavedAt(),
+                    event.getRevenueDelta(), event.getOrderCountDelta());
+        } catch (RuntimeException e) {
+            log.error("Failed to apply revenue delta for clientId={}, role={}: {}", clientId, role, e.getMessage());
+        }
+    }
+
+    private static LocalDateTime bucketOf(RevenueDeltaEvent event) {
+        return event.getSavedAt().truncatedTo(ChronoUnit.HOURS);
+    }
+}
@@ -2,9 +2,11 @@ package tech.task.dataox.service.mapper;
 
 import org.mapstruct.BeanMapping;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
 import org.mapstruct.NullValuePropertyMappingStrategy;
 import tech.task.dataox.model.Client;
+import tech.task.dataox.model.archive.ArchivedClient;
 import tech.task.dataox.model.dto.ClientDto;
 import tech.task.dataox.model.dto.CreateClientDto;
 import tech.task.dataox.model.dto.UpdateClientDto;
@@ -12,8 +14,14 @@ import tech.task.dataox.model.dto.UpdateClientDto;
 @Mapper(componentModel = "spring")
 public interface ClientMapper {
 
+    @Mapping(target = "fields", ignore = true)
     ClientDto toDto(Client client);
 
+    // Only inactive clients are archived
+    @Mapping(target = "fields", ignore = true)
+    @Mapping(target = "isActive", constant = "false")
+    ClientDto toDto(ArchivedClient client);
+
     Client fromCreateDto(CreateClientDto dto);
 
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
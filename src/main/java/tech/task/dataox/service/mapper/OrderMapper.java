@@ -5,6 +5,7 @@ import org.mapstruct.Mapping;
 import org.mapstruct.Named;
 import tech.task.dataox.model.Client;
 import tech.task.dataox.model.Order;
+import tech.task.dataox.model.archive.ArchivedOrder;
 import tech.task.dataox.model.dto.CreateOrderDto;
 import tech.task.dataox.model.dto.OrderDto;
 
@@ -22,8 +23,13 @@ public interface OrderMapper {
     @Mapping(target = "orderId", source = "id")
     @Mapping(target = "supplierId", source = "supplier.id")
     @Mapping(target = "consumerId", source = "consumer.id")
+    @Mapping(target = "fields", ignore = true)
     OrderDto toDto(Order order);
 
+    @Mapping(target = "orderId", source = "id")
+    @Mapping(target = "fields", ignore = true)
+    OrderDto toDto(ArchivedOrder order);
+
     @Named("mapClient")
     default Client mapClient(Long id) {
         if (id == null) return null;
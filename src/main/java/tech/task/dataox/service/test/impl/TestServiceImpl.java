@@ -2,7 +2,9 @@ package tech.task.dataox.service.test.impl;
 
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
+import tech.task.dataox.lib.Money;
 import tech.task.dataox.model.Client;
 import tech.task.dataox.model.Order;
 import tech.task.dataox.service.ClientService;
@@ -12,6 +14,7 @@ import tech.task.dataox.service.test.TestService;
 import java.math.BigDecimal;
 
 @Service
+@ConditionalOnProperty(name = "app.test-fixtures.enabled", havingValue = "true", matchIfMissing = true)
 @RequiredArgsConstructor
 public class TestServiceImpl implements TestService {
     private final ClientService clientService;
@@ -32,7 +35,7 @@ public class TestServiceImpl implements TestService {
                 .title("Book")
                 .supplier(supplier)
                 .consumer(consumer)
-                .price(BigDecimal.TEN)
+                .price(Money.of(BigDecimal.TEN))
                 .build();
 
         for (int i = 0; i < 5; i++) {
@@ -47,7 +50,7 @@ public class TestServiceImpl implements TestService {
                 .lastName("TestCase2")
                 .email("testCase2@example.com")
                 .phone("1312436475")
-                .profit(BigDecimal.valueOf(-970))
+                .profit(Money.of(BigDecimal.valueOf(-970)))
                 .build();
 
         Client consumeCaseTwoSaved = clientService.createClient(consumerCaseTwo);
@@ -57,7 +60,7 @@ public class TestServiceImpl implements TestService {
                     .title("Phone")
                     .supplier(supplier)
                     .consumer(consumeCaseTwoSaved)
-                    .price(BigDecimal.valueOf(price))
+                    .price(Money.of(BigDecimal.valueOf(price)))
                     .build();
 
             orderService.create(order);
@@ -85,7 +88,7 @@ public class TestServiceImpl implements TestService {
                     .title("Laptop" + i)
                     .supplier(supplier)
                     .consumer(consumer)
-                    .price(BigDecimal.valueOf(100 + i))
+                    .price(Money.of(BigDecimal.valueOf(100 + i)))
                     .build();
 
             orderService.create(order);
@@ -0,0 +1,184 @@
+package tech.task.dataox.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import tech.task.dataox.lib.Money;
+import tech.task.dataox.model.dto.ClientDto;
+import tech.task.dataox.model.dto.OrderDto;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Set;
+
+/**
+ * Hand-written serializers for the DTOs returned in bulk by the list endpoints. They write the same
+ * JSON as the reflective bean serializers (names, order, ISO dates, plain decimal amounts) but skip
+ * property introspection, and format {@link Money} and {@link LocalDateTime} straight into a char
+ * buffer instead of going through {@link java.math.BigDecimal} and {@link DateTimeFormatter}.
+ * A DTO carrying {@code fields} writes only those properties, see {@link SparseFields}.
+ */
+public class DtoJsonModule extends SimpleModule {
+
+    public DtoJsonModule() {
+        super("DtoJsonModule");
+        addSerializer(OrderDto.class, new OrderDtoSerializer());
+        addSerializer(ClientDto.class, new ClientDtoSerializer());
+    }
+
+    static class OrderDtoSerializer extends StdSerializer<OrderDto> {
+        OrderDtoSerializer() {
+            super(OrderDto.class);
+        }
+
+        @Override
+        public void serialize(OrderDto order, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            Set<String> fields = order.getFields();
+            gen.writeStartObject(order);
+            writeLong(gen, fields, "orderId", order.getOrderId());
+            writeString(gen, fields, "title", order.getTitle());
+            writeLong(gen, fields, "supplierId", order.getSupplierId());
+            writeLong(gen, fields, "consumerId", order.getConsumerId());
+            writeMoney(gen, fields, "price", order.getPrice());
+            writeDateTime(gen, fields, "startProcessingAt", order.getStartProcessingAt());
+            writeDateTime(gen, fields, "endProcessingAt", order.getEndProcessingAt());
+            writeDateTime(gen, fields, "savedAt", order.getSavedAt());
+            gen.writeEndObject();
+        }
+    }
+
+    static class ClientDtoSerializer extends StdSerializer<ClientDto> {
+        ClientDtoSerializer() {
+            super(ClientDto.class);
+        }
+
+        @Override
+        public void serialize(ClientDto client, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            Set<String> fields = client.getFields();
+            gen.writeStartObject(client);
+            writeLong(gen, fields, "id", client.getId());
+            writeString(gen, fields, "name", client.getName());
+            writeString(gen, fields, "lastName", client.getLastName());
+            writeString(gen, fields, "email", client.getEmail());
+            writeString(gen, fields, "address", client.getAddress());
+            writeString(gen, fields, "phone", client.getPhone());
+            writeMoney(gen, fields, "profit", client.getProfit());
+            writeDateTime(gen, fields, "createdAt", client.getCreatedAt());
+            // Lombok names the getter isActive(), so the bean property has always been "active", and
+            // as it matches no field it came after the field-backed ones
+            if (SparseFields.includes(fields, "active")) {
+                gen.writeBooleanField("active", client.isActive());
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    private static void writeLong(JsonGenerator gen, Set<String> fields, String name, Long value) throws IOException {
+        if (!SparseFields.includes(fields, name)) {
+            return;
+        }
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+
+    private static void writeString(JsonGenerator gen, Set<String> fields, String name, String value) throws IOException {
+        if (!SparseFields.includes(fields, name)) {
+            return;
+        }
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeString(value);
+        }
+    }
+
+    // Same text as BigDecimal.valueOf(minorUnits, 2).toString(), e.g. 100.00 or -0.05
+    static void writeMoney(JsonGenerator gen, Set<String> fields, String name, Money value) throws IOException {
+        if (!SparseFields.includes(fields, name)) {
+            return;
+        }
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+            return;
+        }
+        long minor = value.getMinorUnits();
+        if (minor == Long.MIN_VALUE) {
+            gen.writeNumber(value.toBigDecimal());
+            return;
+        }
+        char[] buf = new char[21];
+        int pos = buf.length;
+        long abs = Math.abs(minor);
+        buf[--pos] = (char) ('0' + abs % 10);
+        abs /= 10;
+        buf[--pos] = (char) ('0' + abs % 10);
+        abs /= 10;
+        buf[--pos] = '.';
+        do {
+            buf[--pos] = (char) ('0' + abs % 10);
+            abs /= 10;
+        } while (abs != 0);
+        if (minor < 0) {
+            buf[--pos] = '-';
+        }
+        gen.writeNumber(buf, pos, buf.length - pos);
+    }
+
+    // Same text as DateTimeFormatter.ISO_LOCAL_DATE_TIME, which Jackson uses for LocalDateTime:
+    // seconds always, the fraction only when non-zero and without trailing zeros
+    static void writeDateTime(JsonGenerator gen, Set<String> fields, String name, LocalDateTime value) throws IOException {
+        if (!SparseFields.includes(fields, name)) {
+            return;
+        }
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+            return;
+        }
+        int year = value.getYear();
+        if (year < 0 || year > 9999) {
+            gen.writeString(value.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            return;
+        }
+        char[] buf = new char[29];
+        put(buf, 0, year, 4);
+        buf[4] = '-';
+        put(buf, 5, value.getMonthValue(), 2);
+        buf[7] = '-';
+        put(buf, 8, value.getDayOfMonth(), 2);
+        buf[10] = 'T';
+        put(buf, 11, value.getHour(), 2);
+        buf[13] = ':';
+        put(buf, 14, value.getMinute(), 2);
+        buf[16] = ':';
+        put(buf, 17, value.getSecond(), 2);
+        int len = 19;
+        int nano = value.getNano();
+        if (nano != 0) {
+            int digits = 9;
+            while (nano % 10 == 0) {
+                nano /= 10;
+                digits--;
+            }
+            buf[19] = '.';
+            put(buf, 20, nano, digits);
+            len = 20 + digits;
+        }
+        gen.writeString(buf, 0, len);
+    }
+
+    private static void put(char[] buf, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            buf[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package tech.task.dataox.web;
+
+/**
+ * Strong ETags of single-entity responses, built from the id and the {@code @Version} of the entity.
+ * Every write goes through the version (bulk updates increment it explicitly), so an unchanged version
+ * means an unchanged representation. The kind keeps different representations of one entity apart.
+ */
+public final class EntityTags {
+    public static final String CLIENT = "client";
+    public static final String CLIENT_PROFIT = "client-profit";
+    public static final String ORDER = "order";
+
+    private EntityTags() {
+    }
+
+    public static String of(String kind, Long id, long version) {
+        return "\"" + kind + "-" + id + "-" + version + "\"";
+    }
+}
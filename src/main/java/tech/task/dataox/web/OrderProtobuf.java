@@ -0,0 +1,265 @@
+package tech.task.dataox.web;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import tech.task.dataox.lib.Money;
+import tech.task.dataox.model.dto.CreateOrderBatchDto;
+import tech.task.dataox.model.dto.CreateOrderDto;
+import tech.task.dataox.model.dto.IntakeStatusBatchDto;
+import tech.task.dataox.model.dto.IntakeStatusDto;
+import tech.task.dataox.model.dto.OrderBatchDto;
+import tech.task.dataox.model.dto.OrderBatchItemDto;
+import tech.task.dataox.model.dto.OrderDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Protobuf wire form of the order DTOs, as described by {@code proto/orders.proto}. Written against the
+ * codec of protobuf-java without generated classes, the DTOs are read and written directly. Fields left
+ * out of a message stay null, unknown fields and fields of an unexpected wire type are skipped.
+ * Amounts are minor units, date-times are written as UTC timestamps like the JSON writes them without offset.
+ */
+public final class OrderProtobuf {
+    private static final int LENGTH_DELIMITED = WireFormat.WIRETYPE_LENGTH_DELIMITED;
+    private static final int VARINT = WireFormat.WIRETYPE_VARINT;
+
+    private OrderProtobuf() {
+    }
+
+    public static CreateOrderDto readCreateOrder(InputStream body) throws IOException {
+        return readCreateOrder(CodedInputStream.newInstance(body));
+    }
+
+    public static CreateOrderBatchDto readCreateOrderBatch(InputStream body) throws IOException {
+        CodedInputStream in = CodedInputStream.newInstance(body);
+        List<CreateOrderDto> orders = new ArrayList<>();
+        for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+            if (tag == ((1 << 3) | LENGTH_DELIMITED)) {
+                int limit = in.pushLimit(in.readRawVarint32());
+                orders.add(readCreateOrder(in));
+                in.popLimit(limit);
+            } else {
+                in.skipField(tag);
+            }
+        }
+        return CreateOrderBatchDto.builder().orders(orders).build();
+    }
+
+    private static CreateOrderDto readCreateOrder(CodedInputStream in) throws IOException {
+        CreateOrderDto.CreateOrderDtoBuilder order = CreateOrderDto.builder();
+        for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+            switch (tag) {
+                case (1 << 3) | LENGTH_DELIMITED -> order.title(in.readStringRequireUtf8());
+                case (2 << 3) | VARINT -> order.supplierId(in.readInt64());
+                case (3 << 3) | VARINT -> order.consumerId(in.readInt64());
+                case (4 << 3) | VARINT -> order.price(Money.ofMinor(in.readInt64()));
+                default -> in.skipField(tag);
+            }
+        }
+        return order.build();
+    }
+
+    public static byte[] write(OrderDto order) throws IOException {
+        byte[] bytes = new byte[orderSize(order)];
+        CodedOutputStream out = CodedOutputStream.newInstance(bytes);
+        writeOrder(out, order);
+        out.checkNoSpaceLeft();
+        return bytes;
+    }
+
+    public static byte[] write(IntakeStatusDto status) throws IOException {
+        byte[] bytes = new byte[statusSize(status)];
+        CodedOutputStream out = CodedOutputStream.newInstance(bytes);
+        writeStatus(out, status);
+        out.checkNoSpaceLeft();
+        return bytes;
+    }
+
+    public static byte[] write(IntakeStatusBatchDto batch) throws IOException {
+        int size = 0;
+        for (IntakeStatusDto status : batch.getStatuses()) {
+            size += nestedSize(1, statusSize(status));
+        }
+        byte[] bytes = new byte[size];
+        CodedOutputStream out = CodedOutputStream.newInstance(bytes);
+        for (IntakeStatusDto status : batch.getStatuses()) {
+            out.writeTag(1, LENGTH_DELIMITED);
+            out.writeUInt32NoTag(statusSize(status));
+            writeStatus(out, status);
+        }
+        out.checkNoSpaceLeft();
+        return bytes;
+    }
+
+    public static byte[] write(OrderBatchDto batch) throws IOException {
+        int size = batch.isAllCreated() ? CodedOutputStream.computeBoolSize(2, true) : 0;
+        for (OrderBatchItemDto item : batch.getItems()) {
+            size += nestedSize(1, itemSize(item));
+        }
+        byte[] bytes = new byte[size];
+        CodedOutputStream out = CodedOutputStream.newInstance(bytes);
+        for (OrderBatchItemDto item : batch.getItems()) {
+            out.writeTag(1, LENGTH_DELIMITED);
+            out.writeUInt32NoTag(itemSize(item));
+            writeItem(out, item);
+        }
+        if (batch.isAllCreated()) {
+            out.writeBool(2, true);
+        }
+        out.checkNoSpaceLeft();
+        return bytes;
+    }
+
+    private static void writeItem(CodedOutputStream out, OrderBatchItemDto item) throws IOException {
+        if (item.isCreated()) {
+            out.writeBool(1, true);
+        }
+        if (item.getOrder() != null) {
+            out.writeTag(2, LENGTH_DELIMITED);
+            out.writeUInt32NoTag(orderSize(item.getOrder()));
+            writeOrder(out, item.getOrder());
+        }
+        if (item.getRejectedWith() != null) {
+            out.writeInt32(3, item.getRejectedWith());
+        }
+        if (item.getReason() != null) {
+            out.writeString(4, item.getReason());
+        }
+    }
+
+    private static int itemSize(OrderBatchItemDto item) {
+        int size = item.isCreated() ? CodedOutputStream.computeBoolSize(1, true) : 0;
+        if (item.getOrder() != null) {
+            size += nestedSize(2, orderSize(item.getOrder()));
+        }
+        if (item.getRejectedWith() != null) {
+            size += CodedOutputStream.computeInt32Size(3, item.getRejectedWith());
+        }
+        if (item.getReason() != null) {
+            size += CodedOutputStream.computeStringSize(4, item.getReason());
+        }
+        return size;
+    }
+
+    private static void writeOrder(CodedOutputStream out, OrderDto order) throws IOException {
+        if (order.getOrderId() != null) {
+            out.writeInt64(1, order.getOrderId());
+        }
+        if (order.getTitle() != null) {
+            out.writeString(2, order.getTitle());
+        }
+        if (order.getSupplierId() != null) {
+            out.writeInt64(3, order.getSupplierId());
+        }
+        if (order.getConsumerId() != null) {
+            out.writeInt64(4, order.getConsumerId());
+        }
+        if (order.getPrice() != null) {
+            out.writeInt64(5, order.getPrice().getMinorUnits());
+        }
+        writeTimestamp(out, 6, order.getStartProcessingAt());
+        writeTimestamp(out, 7, order.getEndProcessingAt());
+        writeTimestamp(out, 8, order.getSavedAt());
+    }
+
+    private static int orderSize(OrderDto order) {
+        int size = 0;
+        if (order.getOrderId() != null) {
+            size += CodedOutputStream.computeInt64Size(1, order.getOrderId());
+        }
+        if (order.getTitle() != null) {
+            size += CodedOutputStream.computeStringSize(2, order.getTitle());
+        }
+        if (order.getSupplierId() != null) {
+            size += CodedOutputStream.computeInt64Size(3, order.getSupplierId());
+        }
+        if (order.getConsumerId() != null) {
+            size += CodedOutputStream.computeInt64Size(4, order.getConsumerId());
+        }
+        if (order.getPrice() != null) {
+            size += CodedOutputStream.computeInt64Size(5, order.getPrice().getMinorUnits());
+        }
+        return size + timestampFieldSize(6, order.getStartProcessingAt())
+                + timestampFieldSize(7, order.getEndProcessingAt())
+                + timestampFieldSize(8, order.getSavedAt());
+    }
+
+    private static void writeStatus(CodedOutputStream out, IntakeStatusDto status) throws IOException {
+        out.writeInt64(1, status.getSequence());
+        if (status.getStatus() != null) {
+            out.writeEnum(2, statusNumber(status));
+        }
+        if (status.getOrderId() != null) {
+            out.writeInt64(3, status.getOrderId());
+        }
+        if (status.getRejectedWith() != null) {
+            out.writeInt32(4, status.getRejectedWith());
+        }
+        if (status.getReason() != null) {
+            out.writeString(5, status.getReason());
+        }
+    }
+
+    private static int statusSize(IntakeStatusDto status) {
+        int size = CodedOutputStream.computeInt64Size(1, status.getSequence());
+        if (status.getStatus() != null) {
+            size += CodedOutputStream.computeEnumSize(2, statusNumber(status));
+        }
+        if (status.getOrderId() != null) {
+            size += CodedOutputStream.computeInt64Size(3, status.getOrderId());
+        }
+        if (status.getRejectedWith() != null) {
+            size += CodedOutputStream.computeInt32Size(4, status.getRejectedWith());
+        }
+        if (status.getReason() != null) {
+            size += CodedOutputStream.computeStringSize(5, status.getReason());
+        }
+        return size;
+    }
+
+    // Numbers of the proto enum, 0 is left for an unset status
+    private static int statusNumber(IntakeStatusDto status) {
+        return switch (status.getStatus()) {
+            case PENDING -> 1;
+            case APPLIED -> 2;
+            case REJECTED -> 3;
+            case UNKNOWN -> 4;
+        };
+    }
+
+    // google.protobuf.Timestamp: seconds = 1, nanos = 2
+    private static void writeTimestamp(CodedOutputStream out, int field, LocalDateTime value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        out.writeTag(field, LENGTH_DELIMITED);
+        out.writeUInt32NoTag(timestampSize(value));
+        long seconds = value.toEpochSecond(ZoneOffset.UTC);
+        if (seconds != 0) {
+            out.writeInt64(1, seconds);
+        }
+        if (value.getNano() != 0) {
+            out.writeInt32(2, value.getNano());
+        }
+    }
+
+    private static int timestampFieldSize(int field, LocalDateTime value) {
+        return value == null ? 0 : nestedSize(field, timestampSize(value));
+    }
+
+    private static int timestampSize(LocalDateTime value) {
+        long seconds = value.toEpochSecond(ZoneOffset.UTC);
+        return (seconds == 0 ? 0 : CodedOutputStream.computeInt64Size(1, seconds))
+                + (value.getNano() == 0 ? 0 : CodedOutputStream.computeInt32Size(2, value.getNano()));
+    }
+
+    private static int nestedSize(int field, int size) {
+        return CodedOutputStream.computeTagSize(field) + CodedOutputStream.computeUInt32SizeNoTag(size) + size;
+    }
+}
@@ -0,0 +1,77 @@
+package tech.task.dataox.web;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import tech.task.dataox.model.dto.CreateOrderBatchDto;
+import tech.task.dataox.model.dto.CreateOrderDto;
+import tech.task.dataox.model.dto.IntakeStatusBatchDto;
+import tech.task.dataox.model.dto.IntakeStatusDto;
+import tech.task.dataox.model.dto.OrderBatchDto;
+import tech.task.dataox.model.dto.OrderDto;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * {@code application/x-protobuf} for the order create, batch create, get and intake endpoints, see {@link OrderProtobuf}.
+ * Registered after the JSON converter, so JSON stays the answer to a request without an Accept header.
+ */
+public class OrderProtobufHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+    public static final MediaType PROTOBUF = MediaType.parseMediaType("application/x-protobuf");
+
+    private static final Set<Class<?>> READABLE = Set.of(CreateOrderDto.class, CreateOrderBatchDto.class);
+    private static final Set<Class<?>> WRITABLE = Set.of(OrderDto.class, OrderBatchDto.class, IntakeStatusDto.class,
+            IntakeStatusBatchDto.class);
+
+    public OrderProtobufHttpMessageConverter() {
+        super(PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return READABLE.contains(clazz) || WRITABLE.contains(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return READABLE.contains(clazz) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return WRITABLE.contains(clazz) && canWrite(mediaType);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        try {
+            return clazz == CreateOrderBatchDto.class
+                    ? OrderProtobuf.readCreateOrderBatch(inputMessage.getBody())
+                    : OrderProtobuf.readCreateOrder(inputMessage.getBody());
+        } catch (IOException e) {
+            throw new HttpMessageNotReadableException("Malformed protobuf message: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object body, HttpOutputMessage outputMessage) throws IOException {
+        byte[] bytes;
+        if (body instanceof OrderDto order) {
+            bytes = OrderProtobuf.write(order);
+        } else if (body instanceof OrderBatchDto batch) {
+            bytes = OrderProtobuf.write(batch);
+        } else if (body instanceof IntakeStatusDto status) {
+            bytes = OrderProtobuf.write(status);
+        } else if (body instanceof IntakeStatusBatchDto batch) {
+            bytes = OrderProtobuf.write(batch);
+        } else {
+            throw new HttpMessageNotWritableException("No protobuf form for " + body.getClass().getName());
+        }
+        outputMessage.getHeaders().setContentLength(bytes.length);
+        outputMessage.getBody().write(bytes);
+    }
+}
@@ -0,0 +1,61 @@
+package tech.task.dataox.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tech.task.dataox.lib.RequestDeadline;
+
+import java.io.IOException;
+
+/**
+ * Starts the deadline of the request from the caller's timeout header, or the server default without one.
+ * A relative timeout instead of an absolute time keeps clock skew between caller and server out of it.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class RequestDeadlineFilter extends OncePerRequestFilter {
+
+    @Value("${request.deadline.default-ms:15000}")
+    private long defaultMs;
+
+    @Value("${request.deadline.max-ms:60000}")
+    private long maxMs;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RequestDeadline.set(RequestDeadline.inMillis(Math.min(timeoutMs(request), maxMs)));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestDeadline.clear();
+        }
+    }
+
+    // The test scenarios create several orders in one request, each of them may take the whole default
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/api/test/");
+    }
+
+    private long timeoutMs(HttpServletRequest request) {
+        String header = request.getHeader(RequestDeadline.HEADER);
+        if (header != null) {
+            try {
+                long timeoutMs = Long.parseLong(header.trim());
+                if (timeoutMs > 0) {
+                    return timeoutMs;
+                }
+            } catch (NumberFormatException e) {
+                // Falls back to the default like a missing header
+            }
+        }
+        return defaultMs;
+    }
+}
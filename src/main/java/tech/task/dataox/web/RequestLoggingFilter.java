@@ -0,0 +1,49 @@
+package tech.task.dataox.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tech.task.dataox.lib.CorrelationId;
+import tech.task.dataox.lib.SqlDebugContext;
+
+import java.io.IOException;
+
+/**
+ * Carries the caller's correlation id, or a new one when it sends none, into the MDC and the response,
+ * and turns on SQL logging for requests that send the debug header.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestLoggingFilter extends OncePerRequestFilter {
+    public static final String DEBUG_SQL_HEADER = "X-Debug-Sql";
+
+    @Value("${logging.sql-debug-header.enabled:true}")
+    private boolean sqlDebugHeaderEnabled;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String correlationId = request.getHeader(CorrelationId.HEADER);
+        if (correlationId == null || correlationId.isBlank()) {
+            correlationId = CorrelationId.generate();
+        }
+        MDC.put(CorrelationId.MDC_KEY, correlationId);
+        response.setHeader(CorrelationId.HEADER, correlationId);
+        if (sqlDebugHeaderEnabled && "true".equalsIgnoreCase(request.getHeader(DEBUG_SQL_HEADER))) {
+            SqlDebugContext.enable();
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(CorrelationId.MDC_KEY);
+            SqlDebugContext.clear();
+        }
+    }
+}
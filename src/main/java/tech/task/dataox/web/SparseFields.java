@@ -0,0 +1,46 @@
+package tech.task.dataox.web;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The {@code fields=} parameter of the list endpoints: the JSON properties to select and write, checked
+ * against the properties of the DTO. Without the parameter the full DTO is returned as before.
+ */
+public final class SparseFields {
+    // In the order DtoJsonModule writes them
+    public static final List<String> CLIENT = List.of(
+            "id", "name", "lastName", "email", "address", "phone", "profit", "createdAt", "active");
+    public static final List<String> ORDER = List.of(
+            "orderId", "title", "supplierId", "consumerId", "price", "startProcessingAt", "endProcessingAt", "savedAt");
+
+    private SparseFields() {
+    }
+
+    /**
+     * Requested properties, null when the parameter is absent. Unknown or empty names answer 400.
+     */
+    public static Set<String> parse(String fields, List<String> properties) {
+        if (fields == null) {
+            return null;
+        }
+        Set<String> requested = new LinkedHashSet<>();
+        for (String field : fields.split(",", -1)) {
+            String name = field.trim();
+            if (!properties.contains(name)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Unknown field '" + name + "', expected some of " + String.join(",", properties));
+            }
+            requested.add(name);
+        }
+        return Set.copyOf(requested);
+    }
+
+    public static boolean includes(Set<String> fields, String name) {
+        return fields == null || fields.contains(name);
+    }
+}
@@ -0,0 +1,64 @@
+package tech.task.dataox.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import tech.task.dataox.lib.SqlAccounting;
+import tech.task.dataox.service.SqlStatsService;
+
+import java.io.IOException;
+
+/**
+ * Counts the statements of each request into the stats of its endpoint. Requests sending the SQL debug
+ * header also get their own numbers back as response headers; only those responses are buffered, so the
+ * headers can follow the body.
+ */
+@Component
+@ConditionalOnProperty(name = "sql.accounting.enabled", havingValue = "true", matchIfMissing = true)
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+@RequiredArgsConstructor
+public class SqlAccountingFilter extends OncePerRequestFilter {
+    public static final String STATEMENTS_HEADER = "X-Sql-Statements";
+    public static final String ROWS_HEADER = "X-Sql-Rows";
+    public static final String JDBC_TIME_HEADER = "X-Sql-Time-Us";
+
+    private final SqlStatsService sqlStatsService;
+
+    @Value("${logging.sql-debug-header.enabled:true}")
+    private boolean sqlDebugHeaderEnabled;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        boolean debug = sqlDebugHeaderEnabled
+                && "true".equalsIgnoreCase(request.getHeader(RequestLoggingFilter.DEBUG_SQL_HEADER));
+        ContentCachingResponseWrapper buffered = debug ? new ContentCachingResponseWrapper(response) : null;
+        SqlAccounting previous = SqlAccounting.start();
+        SqlAccounting accounting = SqlAccounting.current();
+        try {
+            filterChain.doFilter(request, debug ? buffered : response);
+        } finally {
+            SqlAccounting.restore(previous);
+            SqlAccounting.Snapshot usage = accounting.snapshot();
+            if (request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE) instanceof String pattern) {
+                sqlStatsService.record(request.getMethod() + " " + pattern, usage);
+            }
+            if (debug) {
+                buffered.setHeader(STATEMENTS_HEADER, Long.toString(usage.statements()));
+                buffered.setHeader(ROWS_HEADER, Long.toString(usage.rows()));
+                buffered.setHeader(JDBC_TIME_HEADER, Long.toString(usage.jdbcMicros()));
+                buffered.copyBodyToResponse();
+            }
+        }
+    }
+}
@@ -0,0 +1,5 @@
+-- Lease expiries are written in UTC from now on, see ClientLockServiceImpl. Earlier rows hold the local time of
+-- the instance that wrote them, ahead of UTC they would keep clients locked for the zone offset. All leases are
+-- expired instead; the rows stay so fencing tokens keep growing. A lease still held by an older instance is taken
+-- over and fails its verify with 409.
+update client_locks set expires_at = timestamp '1970-01-01 00:00:00';
@@ -0,0 +1,72 @@
+-- Baseline of the schema previously produced by hibernate ddl-auto=update.
+-- "if not exists" lets databases created by ddl-auto be adopted without manual steps.
+
+create table if not exists clients (
+    id          bigint generated by default as identity primary key,
+    name        varchar(255)   not null,
+    last_name   varchar(255)   not null,
+    email       varchar(255)   not null,
+    address     varchar(255),
+    phone       varchar(255),
+    is_active   boolean        not null,
+    inactive_at timestamp(6),
+    version     timestamp(6),
+    profit      numeric(38, 2) not null,
+    created_at  timestamp(6),
+    constraint uk_clients_email unique (email),
+    constraint uk_clients_phone unique (phone)
+);
+
+create table if not exists orders (
+    id                  bigint generated by default as identity primary key,
+    title               varchar(255)   not null,
+    supplier_id         bigint         not null,
+    consumer_id         bigint         not null,
+    price               numeric(38, 2) not null,
+    version             timestamp(6),
+    start_processing_at timestamp(6)   not null,
+    end_processing_at   timestamp(6)   not null,
+    saved_at            timestamp(6),
+    is_active           boolean        not null,
+    constraint uk_orders_business_key unique (title, supplier_id, consumer_id),
+    constraint fk_orders_supplier foreign key (supplier_id) references clients (id),
+    constraint fk_orders_consumer foreign key (consumer_id) references clients (id)
+);
+
+create table if not exists orders_archive (
+    id                  bigint         not null primary key,
+    title               varchar(255)   not null,
+    supplier_id         bigint         not null,
+    consumer_id         bigint         not null,
+    price               numeric(38, 2) not null,
+    version             timestamp(6),
+    start_processing_at timestamp(6)   not null,
+    end_processing_at   timestamp(6)   not null,
+    saved_at            timestamp(6),
+    is_active           boolean        not null,
+    archived_at         timestamp(6)   not null
+);
+
+create table if not exists clients_archive (
+    id          bigint         not null primary key,
+    name        varchar(255)   not null,
+    last_name   varchar(255)   not null,
+    email       varchar(255)   not null,
+    address     varchar(255),
+    phone       varchar(255),
+    is_active   boolean        not null,
+    inactive_at timestamp(6),
+    version     timestamp(6),
+    profit      numeric(38, 2) not null,
+    created_at  timestamp(6),
+    archived_at timestamp(6)   not null
+);
+
+create table if not exists revenue_rollups (
+    client_id   bigint         not null,
+    role        varchar(16)    not null,
+    bucket      timestamp(6)   not null,
+    revenue     numeric(38, 2) not null,
+    order_count bigint         not null,
+    primary key (client_id, role, bucket)
+);
@@ -0,0 +1,16 @@
+-- Indexes shared by every database. Each one is named after the repository query it serves.
+
+-- OrderRepository.findBySupplierIdAndIsActiveTrue / findActiveByClientId (supplier branch of the OR)
+-- and the FK check when clients are archived
+create index if not exists idx_orders_supplier_active on orders (supplier_id, is_active);
+
+-- OrderRepository.findByConsumerIdAndIsActiveTrue / findActiveByClientId (consumer branch of the OR)
+create index if not exists idx_orders_consumer_active on orders (consumer_id, is_active);
+
+-- RevenueRollupRepository.rebuild*Range
+create index if not exists idx_orders_saved_at on orders (saved_at);
+
+-- ArchivedOrderRepository.findAllByClientId / existsByTitleAndSupplierIdAndConsumerId
+create index if not exists idx_orders_archive_supplier on orders_archive (supplier_id);
+create index if not exists idx_orders_archive_consumer on orders_archive (consumer_id);
+create index if not exists idx_orders_archive_business_key on orders_archive (title, supplier_id, consumer_id);
@@ -0,0 +1,17 @@
+-- Money is stored as bigint minor units (cents), see tech.task.dataox.lib.Money.
+-- numeric(38, 2) * 100 is always a whole number, so the type change does not round.
+
+update clients set profit = profit * 100;
+alter table clients alter column profit set data type bigint;
+
+update orders set price = price * 100;
+alter table orders alter column price set data type bigint;
+
+update clients_archive set profit = profit * 100;
+alter table clients_archive alter column profit set data type bigint;
+
+update orders_archive set price = price * 100;
+alter table orders_archive alter column price set data type bigint;
+
+update revenue_rollups set revenue = revenue * 100;
+alter table revenue_rollups alter column revenue set data type bigint;
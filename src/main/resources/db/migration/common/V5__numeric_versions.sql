@@ -0,0 +1,14 @@
+-- Optimistic lock versions become counters: timestamps of two updates within the same tick compare equal.
+-- Existing rows start at 0, no version value has to survive the switch.
+
+alter table clients drop column version;
+alter table clients add column version bigint default 0 not null;
+
+alter table orders drop column version;
+alter table orders add column version bigint default 0 not null;
+
+alter table clients_archive drop column version;
+alter table clients_archive add column version bigint default 0 not null;
+
+alter table orders_archive drop column version;
+alter table orders_archive add column version bigint default 0 not null;
@@ -0,0 +1,10 @@
+-- Lease locks on clients shared by all application instances, see ClientLockServiceImpl.
+-- Rows are never deleted, so fencing_token only grows for a client.
+create table if not exists client_locks
+(
+    client_id     bigint       not null,
+    owner         varchar(100) not null,
+    expires_at    timestamp(6) not null,
+    fencing_token bigint       not null,
+    constraint pk_client_locks primary key (client_id)
+);
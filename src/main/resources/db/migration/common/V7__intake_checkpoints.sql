@@ -0,0 +1,8 @@
+-- Last sequence of each local order intake journal that is applied to orders and clients, advanced in the
+-- same transaction as the orders, see OrderIntakeServiceImpl.
+create table if not exists intake_checkpoints
+(
+    journal_id  varchar(36) not null,
+    applied_seq bigint      not null,
+    constraint pk_intake_checkpoints primary key (journal_id)
+);
@@ -0,0 +1,15 @@
+-- Supplier credits of committed orders not yet added to clients.profit, see ProfitWriteBehindServiceImpl.
+-- A row is deleted in the transaction that adds its amount to the client, so every credit is applied once.
+create table if not exists profit_deltas
+(
+    id         bigint generated by default as identity primary key,
+    client_id  bigint       not null,
+    amount     bigint       not null,
+    created_at timestamp(6) not null
+);
+
+-- ProfitDeltaRepository.sumByClientId, read by every profit threshold check
+create index if not exists idx_profit_deltas_client on profit_deltas (client_id);
+
+-- ProfitDeltaRepository.findOlderThan
+create index if not exists idx_profit_deltas_created_at on profit_deltas (created_at);
@@ -0,0 +1,10 @@
+-- H2 has neither partial nor expression indexes, composite indexes lead with the filter column instead.
+
+-- ClientRepository.findClientsByProfitBetween
+create index if not exists idx_clients_profit_active on clients (is_active, profit);
+
+-- ClientRepository.findArchivableIds
+create index if not exists idx_clients_inactive_at on clients (is_active, inactive_at);
+
+-- OrderRepository.findInactiveIds
+create index if not exists idx_orders_inactive on orders (is_active, id);
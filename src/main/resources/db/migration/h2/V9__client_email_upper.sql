@@ -0,0 +1,4 @@
+-- ClientRepository.existsByEmailIgnoreCase: H2 cannot index upper(email), it indexes a column computed from it.
+alter table clients add column if not exists email_upper varchar(255) generated always as (upper(email));
+
+create index if not exists idx_clients_email_upper on clients (email_upper);
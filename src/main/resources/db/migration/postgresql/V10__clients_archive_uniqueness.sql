@@ -0,0 +1,6 @@
+-- ClientRepository.isEmailInUse and isPhoneInUse also look at archived clients, whose email and phone stay taken.
+alter table clients_archive add column if not exists email_upper varchar(255) generated always as (upper(email)) stored;
+
+create index if not exists idx_clients_archive_email_upper on clients_archive (email_upper);
+
+create index if not exists idx_clients_archive_phone on clients_archive (phone);
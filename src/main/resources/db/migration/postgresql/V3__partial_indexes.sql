@@ -0,0 +1,13 @@
+-- Partial indexes only cover the rows a query can match, so they stay small as history grows.
+
+-- ClientRepository.findClientsByProfitBetween (active clients only)
+create index if not exists idx_clients_profit_active on clients (profit) where is_active;
+
+-- ClientRepository.findArchivableIds (inactive clients by inactive_at)
+create index if not exists idx_clients_inactive_at on clients (inactive_at) where not is_active;
+
+-- OrderRepository.findInactiveIds (archive job scans soft-deleted orders by id)
+create index if not exists idx_orders_inactive on orders (id) where not is_active;
+
+-- ClientRepository.existsByEmailIgnoreCase compares upper(email)
+create index if not exists idx_clients_email_upper on clients (upper(email));
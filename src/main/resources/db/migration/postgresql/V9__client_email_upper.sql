@@ -0,0 +1,7 @@
+-- ClientRepository.existsByEmailIgnoreCase reads a stored column, so the same query runs on H2,
+-- which has no expression indexes. It replaces the index on upper(email) from V3.
+drop index if exists idx_clients_email_upper;
+
+alter table clients add column if not exists email_upper varchar(255) generated always as (upper(email)) stored;
+
+create index if not exists idx_clients_email_upper on clients (email_upper);
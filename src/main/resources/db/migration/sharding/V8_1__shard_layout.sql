@@ -0,0 +1,24 @@
+-- Only on the databases of a sharded deployment, see ShardingConfig. Shards are created empty.
+
+-- Ids of clients and orders encode their shard: the first shard hands out 1, 1 + n, 1 + 2n, the second 2, 2 + n...
+alter table clients alter column id restart with ${shard_first_id};
+alter table clients alter column id set increment by ${shard_count};
+alter table orders alter column id restart with ${shard_first_id};
+alter table orders alter column id set increment by ${shard_count};
+
+-- Orders live on the shard of their consumer, the supplier may be on another one
+alter table orders drop constraint fk_orders_supplier;
+
+-- Credits from the profit_deltas log of another shard that were added to a client of this one.
+-- The source deletes its rows only after this commit; a transfer repeated after a failure in between
+-- skips the rows found here, see ProfitWriteBehindServiceImpl
+create table if not exists profit_delta_transfers
+(
+    source_shard integer      not null,
+    delta_id     bigint       not null,
+    applied_at   timestamp(6) not null,
+    primary key (source_shard, delta_id)
+);
+
+-- ProfitDeltaRepository.findTransfersOlderThan
+create index if not exists idx_profit_delta_transfers_applied_at on profit_delta_transfers (applied_at);
@@ -0,0 +1,156 @@
+package tech.testtaskdataox;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import tech.task.dataox.lib.Money;
+import tech.task.dataox.model.Client;
+import tech.task.dataox.model.Order;
+import tech.task.dataox.model.archive.ArchivedOrder;
+import tech.task.dataox.model.dto.UpdateClientDto;
+import tech.task.dataox.repository.OrderRepository;
+import tech.task.dataox.service.ArchiveService;
+import tech.task.dataox.service.ClientService;
+import tech.task.dataox.service.OrderService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArchiveTest extends IntegrationTest {
+
+    @Autowired
+    private ArchiveService archiveService;
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Test
+    void onlyInactiveOrdersMoveToTheArchive() {
+        Client supplier = newClient();
+        Client consumer = newClient();
+        Order archived = orderService.create(newOrder("Lamp", supplier, consumer, "42.00"));
+        Order active = orderService.create(newOrder("Rug", supplier, consumer, "7.00"));
+        orderService.deactivateById(archived.getId());
+
+        archiveAllOrders();
+
+        assertFalse(orderRepository.existsById(archived.getId()));
+        assertTrue(orderRepository.existsById(active.getId()));
+        ArchivedOrder copy = archiveService.findArchivedOrderById(archived.getId()).orElseThrow();
+        assertEquals("Lamp", copy.getTitle());
+        assertEquals(supplier.getId(), copy.getSupplierId());
+        assertEquals(consumer.getId(), copy.getConsumerId());
+        assertEquals(Money.valueOf("42.00"), copy.getPrice());
+        assertTrue(archiveService.findArchivedOrderById(active.getId()).isEmpty());
+    }
+
+    @Test
+    void archivedOrdersAreFoundByEitherClient() {
+        Client supplier = newClient();
+        Client consumer = newClient();
+        Order order = orderService.create(newOrder("Shelf", supplier, consumer, "15.00"));
+        orderService.deactivateById(order.getId());
+        archiveAllOrders();
+
+        assertEquals(List.of(order.getId()), ids(archiveService.findArchivedOrdersByClientId(supplier.getId())));
+        assertEquals(List.of(order.getId()), ids(archiveService.findArchivedOrdersByClientId(consumer.getId())));
+        assertTrue(archiveService.isOrderArchived("Shelf", supplier.getId(), consumer.getId()));
+        assertFalse(archiveService.isOrderArchived("Shelf", consumer.getId(), supplier.getId()));
+    }
+
+    @Test
+    void businessKeyOfAnArchivedOrderStaysTaken() {
+        Client supplier = newClient();
+        Client consumer = newClient();
+        Order order = orderService.create(newOrder("Clock", supplier, consumer, "9.00"));
+        orderService.deactivateById(order.getId());
+        archiveAllOrders();
+
+        assertConflict("Order already exists for given title/supplier/consumer",
+                () -> orderService.create(newOrder("Clock", supplier, consumer, "9.00")));
+    }
+
+    @Test
+    void clientIsArchivedOnlyOnceItsOrdersAre() {
+        Client supplier = newClient();
+        Client consumer = newClient();
+        Order order = orderService.create(newOrder("Chair", supplier, consumer, "3.00"));
+        orderService.deactivateById(order.getId());
+        retire(supplier);
+
+        archiveService.archiveClientBatch(1000);
+        assertTrue(clientRepository.existsById(supplier.getId()));
+
+        archiveAllOrders();
+        archiveService.archiveClientBatch(1000);
+        assertFalse(clientRepository.existsById(supplier.getId()));
+        assertEquals(supplier.getEmail(), archiveService.findArchivedClientById(supplier.getId())
+                .orElseThrow().getEmail());
+    }
+
+    @Test
+    void emailAndPhoneOfAnArchivedClientStayTaken() {
+        Client archived = archivedClient();
+        Client other = clientService.createClient(client(Money.ZERO));
+
+        Client sameEmail = client(Money.ZERO);
+        sameEmail.setEmail(archived.getEmail().toUpperCase());
+        assertConflict("Email already in use", () -> clientService.createClient(sameEmail));
+        Client samePhone = client(Money.ZERO);
+        samePhone.setPhone(archived.getPhone());
+        assertConflict("Phone already in use", () -> clientService.createClient(samePhone));
+
+        assertConflict("Email already in use", () -> clientService.update(other.getId(),
+                UpdateClientDto.builder().email(archived.getEmail()).build()));
+        assertConflict("Phone already in use", () -> clientService.update(other.getId(),
+                UpdateClientDto.builder().phone(archived.getPhone()).build()));
+    }
+
+    private Client archivedClient() {
+        Client client = clientService.createClient(client(Money.ZERO));
+        retire(client);
+        archiveService.archiveClientBatch(1000);
+
+        assertFalse(clientRepository.existsById(client.getId()));
+        assertTrue(archiveService.findArchivedClientById(client.getId()).isPresent());
+        return client;
+    }
+
+    // Inactive for longer than the retention, so the next client batch may move it to the archive
+    private void retire(Client client) {
+        clientService.deactivateById(client.getId());
+        jdbcTemplate.update("update clients set inactive_at = ? where id = ?",
+                LocalDateTime.now().minusDays(31), client.getId());
+    }
+
+    // Inactive orders of other tests go along
+    private void archiveAllOrders() {
+        int archived;
+        do {
+            archived = archiveService.archiveOrderBatch(1000);
+        } while (archived > 0);
+    }
+
+    private static List<Long> ids(List<ArchivedOrder> orders) {
+        return orders.stream().map(ArchivedOrder::getId).toList();
+    }
+
+    private static void assertConflict(String reason, Executable call) {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, call);
+        assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+        assertEquals(reason, e.getReason());
+    }
+}
@@ -0,0 +1,153 @@
+package tech.testtaskdataox;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import tech.task.dataox.lib.Money;
+import tech.task.dataox.model.Client;
+import tech.task.dataox.model.dto.BulkClientStatusDto;
+import tech.task.dataox.service.ClientLockService;
+import tech.task.dataox.service.ClientLockService.ClientLease;
+import tech.task.dataox.service.ClientService;
+import tech.task.dataox.service.OrderService;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class BulkClientStatusTest extends IntegrationTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private ClientLockService clientLockService;
+
+    @Test
+    void deactivatesClientsAndThenTheirOrders() throws Exception {
+        Client supplier = newClient();
+        Client consumer = newClient();
+        Client other = newClient();
+        Client inactive = newClient();
+        inactive.setActive(false);
+        clientRepository.save(inactive);
+        for (int n = 0; n < 7; n++) {
+            orderService.create(newOrder("Order " + n, supplier, consumer, "10.00"));
+            orderService.create(newOrder("Other " + n, other, consumer, "10.00"));
+        }
+        long version = clientRepository.findById(supplier.getId()).orElseThrow().getVersion();
+        awaitEquals(14, () -> count("select coalesce(sum(order_count), 0) from revenue_rollups where client_id = ?",
+                consumer.getId()));
+
+        // Duplicates count once, unknown and already inactive ids are matched but not affected
+        mvc.perform(post("/api/clients/deactivate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[%d,%d,%d,-1,%d]}".formatted(
+                                supplier.getId(), supplier.getId(), inactive.getId(), other.getId())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.matched").value(4))
+                .andExpect(jsonPath("$.affected").value(2));
+
+        Client deactivated = clientRepository.findById(supplier.getId()).orElseThrow();
+        assertFalse(deactivated.isActive());
+        assertTrue(deactivated.getVersion() > version);
+        assertTrue(clientRepository.findById(consumer.getId()).orElseThrow().isActive());
+
+        // Every order of the consumer has a deactivated supplier, so all 14 go in batches of 3
+        awaitEquals(0, () -> count("select count(*) from orders where consumer_id = ? and is_active = true",
+                consumer.getId()));
+        awaitEquals(0, () -> count("select coalesce(sum(order_count), 0) from revenue_rollups where client_id = ?",
+                consumer.getId()));
+        assertEquals(0, count("select coalesce(sum(revenue), 0) from revenue_rollups where client_id = ?",
+                supplier.getId()));
+    }
+
+    @Test
+    void waitsForTheLeaseOfAClientBeingOrderedFrom() throws Exception {
+        Client supplier = newClient();
+        CompletableFuture<Void> deactivation;
+        // An order commit of the supplier in progress
+        try (ClientLease lease = clientLockService.acquire(List.of(supplier.getId()))) {
+            deactivation = CompletableFuture.runAsync(() -> clientService.deactivateAll(
+                    BulkClientStatusDto.builder().ids(List.of(supplier.getId())).build()));
+            Thread.sleep(300);
+            assertTrue(clientRepository.findById(supplier.getId()).orElseThrow().isActive());
+        }
+
+        deactivation.get(5, TimeUnit.SECONDS);
+        assertFalse(clientRepository.findById(supplier.getId()).orElseThrow().isActive());
+    }
+
+    @Test
+    void keywordSelectsClientsAndRecoveryKeepsOrdersInactive() throws Exception {
+        String domain = UUID.randomUUID().toString().substring(0, 8) + ".partner";
+        List<Client> partners = List.of(newClient("a@" + domain), newClient("b@" + domain), newClient("c@" + domain));
+        Client consumer = newClient();
+        orderService.create(newOrder("Partner order", partners.get(0), consumer, "10.00"));
+
+        mvc.perform(post("/api/clients/deactivate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"q\":\"" + domain + "\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.matched").value(3))
+                .andExpect(jsonPath("$.affected").value(3));
+        awaitEquals(0, () -> count("select count(*) from orders where supplier_id = ? and is_active = true",
+                partners.get(0).getId()));
+
+        mvc.perform(post("/api/clients/recover")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"q\":\"" + domain + "\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.matched").value(3))
+                .andExpect(jsonPath("$.affected").value(3));
+
+        for (Client partner : partners) {
+            Client recovered = clientRepository.findById(partner.getId()).orElseThrow();
+            assertTrue(recovered.isActive());
+            assertEquals(null, recovered.getInactiveAt());
+        }
+        assertEquals(0, count("select count(*) from orders where supplier_id = ? and is_active = true",
+                partners.get(0).getId()));
+    }
+
+    @Test
+    void rejectsAmbiguousSelection() throws Exception {
+        for (String body : List.of("{}", "{\"ids\":[1],\"q\":\"john\"}")) {
+            mvc.perform(post("/api/clients/deactivate").contentType(MediaType.APPLICATION_JSON).content(body))
+                    .andExpect(status().isBadRequest());
+        }
+        mvc.perform(post("/api/clients/recover").contentType(MediaType.APPLICATION_JSON).content("{\"q\":\"jo\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private long count(String sql, Long clientId) {
+        return jdbcTemplate.queryForObject(sql, Long.class, clientId);
+    }
+
+    private static void awaitEquals(long expected, Supplier<Long> actual) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (actual.get() != expected && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(expected, actual.get());
+    }
+
+    private Client newClient(String email) {
+        Client client = client(Money.ZERO);
+        client.setEmail(email);
+        return clientRepository.save(client);
+    }
+}
@@ -0,0 +1,147 @@
+package tech.testtaskdataox;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import tech.task.dataox.TestTaskDataOxApplication;
+import tech.task.dataox.service.ClientLockService;
+import tech.task.dataox.service.ClientLockService.ClientLease;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two application contexts on one H2 database stand in for two instances behind a load balancer.
+ * The first one never renews its short leases, the second one renews every 200 ms.
+ */
+class ClientLockMultiInstanceTest {
+    private static final String DB_URL = "jdbc:h2:mem:client-locks;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;"
+            + "DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1";
+
+    private static ConfigurableApplicationContext first;
+    private static ConfigurableApplicationContext second;
+
+    @BeforeAll
+    static void startInstances() {
+        first = startInstance("--lock.client.lease-ttl-ms=500", "--lock.client.heartbeat-interval-ms=60000");
+        second = startInstance("--lock.client.lease-ttl-ms=1000", "--lock.client.heartbeat-interval-ms=200");
+    }
+
+    @AfterAll
+    static void stopInstances() {
+        second.close();
+        first.close();
+    }
+
+    @Test
+    void leaseHeldByOneInstanceBlocksTheOther() {
+        ClientLease held = locks(second).acquire(List.of(2L, 1L));
+        ResponseStatusException busy = assertThrows(ResponseStatusException.class,
+                () -> locks(first).acquire(List.of(1L)));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, busy.getStatusCode());
+        long heldToken = held.fencingToken(1L);
+        held.close();
+
+        try (ClientLease taken = locks(first).acquire(List.of(1L))) {
+            assertTrue(taken.fencingToken(1L) > heldToken);
+        }
+    }
+
+    @Test
+    void heartbeatKeepsLeasePastItsTtl() throws InterruptedException {
+        try (ClientLease held = locks(second).acquire(List.of(10L))) {
+            TimeUnit.MILLISECONDS.sleep(1500);
+            assertThrows(ResponseStatusException.class, () -> locks(first).acquire(List.of(10L)));
+            assertDoesNotThrow(() -> inTransaction(second, held::verify));
+        }
+    }
+
+    @Test
+    void expiredLeaseIsTakenOverAndFencedOff() throws InterruptedException {
+        ClientLease stale = locks(first).acquire(List.of(20L));
+        TimeUnit.MILLISECONDS.sleep(700);
+
+        try (ClientLease taken = locks(second).acquire(List.of(20L))) {
+            assertTrue(taken.fencingToken(20L) > stale.fencingToken(20L));
+            ResponseStatusException lost = assertThrows(ResponseStatusException.class,
+                    () -> inTransaction(first, stale::verify));
+            assertEquals(HttpStatus.CONFLICT, lost.getStatusCode());
+        } finally {
+            stale.close();
+        }
+    }
+
+    @Test
+    void instancesNeverHoldTheSameClientAtOnce() throws Exception {
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        AtomicInteger completed = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                ClientLockService locks = locks(t % 2 == 0 ? first : second);
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 20; i++) {
+                        try (ClientLease ignored = locks.acquire(List.of(31L, 30L))) {
+                            if (inside.incrementAndGet() > 1) {
+                                overlaps.incrementAndGet();
+                            }
+                            TimeUnit.MILLISECONDS.sleep(2);
+                            inside.decrementAndGet();
+                            completed.incrementAndGet();
+                        } catch (ResponseStatusException busy) {
+                            // Waited too long, the other instance kept the clients
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(0, overlaps.get());
+        assertTrue(completed.get() > 0);
+    }
+
+    private static ConfigurableApplicationContext startInstance(String... args) {
+        List<String> all = new ArrayList<>(List.of(
+                "--spring.datasource.url=" + DB_URL,
+                "--app.test-fixtures.enabled=false",
+                "--lock.client.wait-timeout-ms=300",
+                "--lock.client.linger-ms=0"));
+        all.addAll(List.of(args));
+        return new SpringApplicationBuilder(TestTaskDataOxApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(all.toArray(String[]::new));
+    }
+
+    private static ClientLockService locks(ConfigurableApplicationContext context) {
+        return context.getBean(ClientLockService.class);
+    }
+
+    private static void inTransaction(ConfigurableApplicationContext context, Runnable work) {
+        new TransactionTemplate(context.getBean(PlatformTransactionManager.class))
+                .executeWithoutResult(status -> work.run());
+    }
+}
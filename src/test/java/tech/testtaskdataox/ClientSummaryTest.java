@@ -0,0 +1,100 @@
+package tech.testtaskdataox;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import tech.task.dataox.lib.Money;
+import tech.task.dataox.model.Client;
+import tech.task.dataox.model.Order;
+import tech.task.dataox.model.dto.ClientSummaryDto;
+import tech.task.dataox.service.ClientService;
+import tech.task.dataox.service.ClientSummaryService;
+import tech.task.dataox.service.OrderService;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Every test reads the summaries first, so the assertions after a change are about what the cache answers
+class ClientSummaryTest extends IntegrationTest {
+
+    @Autowired
+    private ClientSummaryService clientSummaryService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ClientService clientService;
+
+    @Test
+    void createdAndDeletedOrdersShowInTheNextSummary() {
+        Client supplier = newClient();
+        Client consumer = newClient(Money.valueOf("100.00"));
+        assertEquals(0, clientSummaryService.getSummary(supplier.getId()).getSuppliedOrders());
+        assertEquals(0, clientSummaryService.getSummary(consumer.getId()).getConsumedOrders());
+
+        Order order = orderService.create(newOrder("Lamp", supplier, consumer, "10.00"));
+
+        ClientSummaryDto supplied = clientSummaryService.getSummary(supplier.getId());
+        assertEquals(1, supplied.getSuppliedOrders());
+        assertEquals(Money.valueOf("10.00"), supplied.getSuppliedTotal());
+        ClientSummaryDto consumed = clientSummaryService.getSummary(consumer.getId());
+        assertEquals(1, consumed.getConsumedOrders());
+        assertEquals(Money.valueOf("10.00"), consumed.getConsumedTotal());
+        assertEquals(Money.valueOf("90.00"), consumed.getProfit());
+
+        orderService.deleteById(order.getId());
+
+        assertEquals(0, clientSummaryService.getSummary(supplier.getId()).getSuppliedOrders());
+        assertEquals(0, clientSummaryService.getSummary(consumer.getId()).getConsumedOrders());
+    }
+
+    @Test
+    void batchMixesCachedAndChangedClients() {
+        Client supplier = newClient();
+        Client consumer = newClient();
+        Client bystander = newClient();
+        List<Long> ids = List.of(supplier.getId(), consumer.getId(), bystander.getId());
+        assertEquals(3, clientSummaryService.getSummaries(ids).size());
+
+        orderService.create(newOrder("Chair", supplier, consumer, "5.00"));
+
+        List<ClientSummaryDto> summaries = clientSummaryService.getSummaries(ids);
+        assertEquals(ids, summaries.stream().map(ClientSummaryDto::getClientId).toList());
+        assertEquals(1, summaries.get(0).getSuppliedOrders());
+        assertEquals(1, summaries.get(1).getConsumedOrders());
+        assertEquals(0, summaries.get(2).getSuppliedOrders() + summaries.get(2).getConsumedOrders());
+    }
+
+    @Test
+    void deactivatedClientLeavesTheSummaries() {
+        Client client = newClient();
+        Client other = newClient();
+        assertEquals(2, clientSummaryService.getSummaries(List.of(client.getId(), other.getId())).size());
+
+        clientService.deactivateById(client.getId());
+
+        assertEquals(List.of(other.getId()), clientSummaryService.getSummaries(List.of(client.getId(), other.getId()))
+                .stream().map(ClientSummaryDto::getClientId).toList());
+        ResponseStatusException missing = assertThrows(ResponseStatusException.class,
+                () -> clientSummaryService.getSummary(client.getId()));
+        assertEquals(HttpStatus.NOT_FOUND, missing.getStatusCode());
+
+        clientService.recoverClientById(client.getId());
+
+        assertEquals(client.getId(), clientSummaryService.getSummary(client.getId()).getClientId());
+    }
+
+    @Test
+    void profitResetShowsInTheNextSummary() {
+        Client client = newClient(Money.valueOf("42.00"));
+        assertEquals(Money.valueOf("42.00"), clientSummaryService.getSummary(client.getId()).getProfit());
+
+        clientService.resetAllProfit();
+
+        assertEquals(Money.ZERO, clientSummaryService.getSummary(client.getId()).getProfit());
+    }
+}
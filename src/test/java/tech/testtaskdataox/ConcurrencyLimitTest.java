@@ -0,0 +1,131 @@
+package tech.testtaskdataox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import tech.task.dataox.lib.VegasConcurrencyLimit;
+import tech.task.dataox.model.dto.ConcurrencyLimitStatsDto;
+import tech.task.dataox.service.impl.OrderConcurrencyLimitServiceImpl;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Against a simulated backend of 4 slots and 5 ms per request, loaded by 32 callers
+@Slf4j
+class ConcurrencyLimitTest {
+    private static final int BACKEND_SLOTS = 4;
+    private static final int CALLERS = 32;
+    private static final long SERVICE_MILLIS = 5;
+    private static final Duration RUN = Duration.ofSeconds(3);
+    // The limit finding its level, latencies only count after it
+    private static final Duration WARM_UP = Duration.ofSeconds(1);
+
+    @Test
+    void keepsTheTailLatencyOfAdmittedRequestsUnderOverload() throws InterruptedException {
+        Result unlimited = overload(null);
+        VegasConcurrencyLimit limit = new VegasConcurrencyLimit(8, BACKEND_SLOTS, 64, 0.5, 10, 500);
+        Result limited = overload(limit);
+
+        log.info("Unlimited: p50 {} ms, p99 {} ms; limited: p50 {} ms, p99 {} ms, {} shed, limit {}",
+                unlimited.percentileMillis(50), unlimited.percentileMillis(99),
+                limited.percentileMillis(50), limited.percentileMillis(99), limited.shed(), limit.getLimit());
+        assertTrue(limited.shed() > 0, "overload sheds requests");
+        assertTrue(limit.getLimit() < CALLERS, "limit below the offered concurrency, was " + limit.getLimit());
+        assertTrue(limited.percentileMillis(99) * 2 < unlimited.percentileMillis(99),
+                "p99 " + limited.percentileMillis(99) + " ms limited vs " + unlimited.percentileMillis(99) + " ms");
+        assertEquals(0, limit.getInFlight());
+    }
+
+    @Test
+    void shedsWith503OnceTheLimitIsReached() {
+        OrderConcurrencyLimitServiceImpl service = new OrderConcurrencyLimitServiceImpl(true, 2, 2, 4, 0.5, 10, 1000);
+
+        service.acquire();
+        service.acquire();
+        ResponseStatusException shed = assertThrows(ResponseStatusException.class, service::acquire);
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, shed.getStatusCode());
+
+        ConcurrencyLimitStatsDto stats = service.getStats();
+        assertEquals(2, stats.getLimit());
+        assertEquals(2, stats.getInFlight());
+        assertEquals(1, stats.getShed());
+
+        service.onSuccess(Duration.ofMillis(3));
+        service.onDropped();
+        service.acquire();
+        assertEquals(1, service.getStats().getInFlight());
+        assertEquals(1, service.getStats().getDropped());
+    }
+
+    @Test
+    void admitsEverythingWhenDisabled() {
+        OrderConcurrencyLimitServiceImpl service = new OrderConcurrencyLimitServiceImpl(false, 2, 2, 4, 0.5, 10, 1000);
+
+        for (int n = 0; n < 10; n++) {
+            service.acquire();
+        }
+        assertEquals(0, service.getStats().getShed());
+    }
+
+    // Each caller sends its next request as soon as the previous one is answered, a shed one after 1 ms
+    private static Result overload(VegasConcurrencyLimit limit) throws InterruptedException {
+        Semaphore backend = new Semaphore(BACKEND_SLOTS, true);
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        AtomicLong shed = new AtomicLong();
+        long warm = System.nanoTime() + WARM_UP.toNanos();
+        long end = System.nanoTime() + RUN.toNanos();
+        List<Thread> callers = new ArrayList<>();
+        for (int n = 0; n < CALLERS; n++) {
+            Thread caller = new Thread(() -> {
+                try {
+                    while (System.nanoTime() < end) {
+                        if (limit != null && !limit.tryAcquire()) {
+                            shed.incrementAndGet();
+                            TimeUnit.MILLISECONDS.sleep(1);
+                            continue;
+                        }
+                        long started = System.nanoTime();
+                        backend.acquire();
+                        try {
+                            TimeUnit.MILLISECONDS.sleep(SERVICE_MILLIS);
+                        } finally {
+                            backend.release();
+                        }
+                        long took = System.nanoTime() - started;
+                        if (started > warm) {
+                            latencies.add(took);
+                        }
+                        if (limit != null) {
+                            limit.onSample(took);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            caller.start();
+            callers.add(caller);
+        }
+        for (Thread caller : callers) {
+            caller.join();
+        }
+        return new Result(latencies.stream().sorted().toList(), shed.get());
+    }
+
+    private record Result(List<Long> sortedNanos, long shed) {
+        long percentileMillis(int percentile) {
+            int index = Math.min(sortedNanos.size() - 1, sortedNanos.size() * percentile / 100);
+            return TimeUnit.NANOSECONDS.toMillis(sortedNanos.get(index));
+        }
+    }
+}
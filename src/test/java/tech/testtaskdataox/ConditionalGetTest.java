@@ -0,0 +1,115 @@
+package tech.testtaskdataox;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import tech.task.dataox.lib.Money;
+import tech.task.dataox.model.Client;
+import tech.task.dataox.model.Order;
+import tech.task.dataox.repository.OrderRepository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ConditionalGetTest extends IntegrationTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private Client supplier;
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        supplier = newClient();
+        Client consumer = newClient();
+        LocalDateTime now = LocalDateTime.now();
+        order = orderRepository.save(Order.builder()
+                .title("Book " + UUID.randomUUID())
+                .supplier(supplier)
+                .consumer(consumer)
+                .price(Money.valueOf("10.00"))
+                .startProcessingAt(now)
+                .endProcessingAt(now)
+                .build());
+    }
+
+    @Test
+    void clientAnswersNotModifiedUntilItChanges() throws Exception {
+        String etag = etagOf("/api/clients/" + supplier.getId());
+
+        mvc.perform(get("/api/clients/" + supplier.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+
+        mvc.perform(put("/api/clients/" + supplier.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Jane\"}"))
+                .andExpect(status().isOk());
+
+        String changed = mvc.perform(get("/api/clients/" + supplier.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, changed);
+    }
+
+    @Test
+    void profitResetChangesTheEtag() throws Exception {
+        String etag = etagOf("/api/clients/profit/" + supplier.getId());
+        assertNotEquals(etag, etagOf("/api/clients/" + supplier.getId()));
+
+        mvc.perform(post("/api/clients/reset-profit")).andExpect(status().isNoContent());
+
+        mvc.perform(get("/api/clients/profit/" + supplier.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void orderAnswersNotModifiedUntilItChanges() throws Exception {
+        String uri = "/api/orders/" + order.getId();
+        String etag = etagOf(uri);
+
+        mvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        mvc.perform(patch(uri + "/price").param("price", "20.00")).andExpect(status().isOk());
+        mvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+
+        mvc.perform(patch("/api/orders/deactivate/" + order.getId())).andExpect(status().isNoContent());
+        mvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void listsGetWeakEtags() throws Exception {
+        String uri = "/api/orders/supplier/" + supplier.getId();
+        String etag = etagOf(uri);
+        assertTrue(etag.startsWith("W/"), etag);
+
+        mvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    private String etagOf(String uri) throws Exception {
+        String etag = mvc.perform(get(uri))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag, uri);
+        return etag;
+    }
+}
@@ -0,0 +1,116 @@
+package tech.testtaskdataox;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import tech.task.dataox.lib.DeficitRoundRobinScheduler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// One worker held by a gate task while the backlog is queued, so the order of execution is the scheduler's choice
+class DeficitRoundRobinSchedulerTest {
+    private final List<String> ran = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch gateStarted = new CountDownLatch(1);
+    private final CountDownLatch gateReleased = new CountDownLatch(1);
+    private DeficitRoundRobinScheduler<String> scheduler;
+
+    @AfterEach
+    void shutdown() {
+        gateReleased.countDown();
+        scheduler.shutdown();
+    }
+
+    @Test
+    void keyWithALongBacklogDoesNotStarveTheOthers() throws Exception {
+        scheduler = new DeficitRoundRobinScheduler<>("fair", 1, 100, 1);
+        holdWorker();
+        for (int i = 1; i <= 6; i++) {
+            submit("A" + i, 1);
+        }
+        submit("B1", 1);
+        submit("B2", 1);
+
+        gateReleased.countDown();
+        awaitRan(8);
+
+        assertEquals(List.of("A1", "B1", "A2", "B2", "A3", "A4", "A5", "A6"), ran);
+    }
+
+    @Test
+    void costlyTasksGetTheirKeyFewerTurns() throws Exception {
+        scheduler = new DeficitRoundRobinScheduler<>("fair", 1, 100, 2);
+        holdWorker();
+        for (int i = 1; i <= 3; i++) {
+            submit("A" + i, 2);
+        }
+        for (int i = 1; i <= 4; i++) {
+            submit("B" + i, 1);
+        }
+
+        gateReleased.countDown();
+        awaitRan(7);
+
+        assertEquals(List.of("A1", "B1", "B2", "A2", "B3", "B4", "A3"), ran);
+    }
+
+    @Test
+    void refusesTasksOverMaxQueued() throws Exception {
+        scheduler = new DeficitRoundRobinScheduler<>("fair", 1, 2, 1);
+        holdWorker();
+        submit("A1", 1);
+        submit("B1", 1);
+
+        assertThrows(RejectedExecutionException.class, () -> submit("C1", 1));
+        assertEquals(2, scheduler.queued());
+        assertEquals(2, scheduler.backloggedKeys());
+        assertEquals(1, scheduler.running());
+    }
+
+    @Test
+    void shutdownFailsTheQueuedTasks() throws Exception {
+        scheduler = new DeficitRoundRobinScheduler<>("fair", 1, 10, 1);
+        holdWorker();
+        CompletableFuture<Void> queued = submit("A1", 1);
+
+        scheduler.shutdown();
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+        assertThrows(RejectedExecutionException.class, () -> submit("A2", 1));
+        assertTrue(ran.isEmpty());
+    }
+
+    private void holdWorker() throws InterruptedException {
+        scheduler.submit("gate", 1, () -> {
+            gateStarted.countDown();
+            try {
+                gateReleased.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(gateStarted.await(5, TimeUnit.SECONDS));
+    }
+
+    private CompletableFuture<Void> submit(String name, long cost) {
+        return scheduler.submit(name.substring(0, 1), cost, () -> ran.add(name));
+    }
+
+    private void awaitRan(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (ran.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package tech.testtaskdataox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.junit.jupiter.api.Test;
+import tech.task.dataox.lib.Money;
+import tech.task.dataox.model.dto.ClientDto;
+import tech.task.dataox.model.dto.OrderDto;
+import tech.task.dataox.web.DtoJsonModule;
+import tech.task.dataox.web.SparseFields;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The hand-written serializers must produce byte for byte what the reflective bean serializers did.
+ */
+class DtoJsonModuleTest {
+    private final ObjectMapper reflective = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final ObjectMapper tuned = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .addModule(new BlackbirdModule())
+            .addModule(new DtoJsonModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    @Test
+    void ordersMatchReflectiveOutput() throws Exception {
+        List<OrderDto> orders = List.of(
+                OrderDto.builder().orderId(1L).title("Book \"about\" the cat").supplierId(1L).consumerId(2L)
+                        .price(Money.valueOf("100.00"))
+                        .startProcessingAt(LocalDateTime.of(2025, 8, 18, 14, 32, 45, 183_000_000))
+                        .endProcessingAt(LocalDateTime.of(2025, 8, 18, 14, 32, 48))
+                        .savedAt(LocalDateTime.of(2025, 8, 18, 14, 33, 2, 296_400_010))
+                        .build(),
+                OrderDto.builder().title("Unsaved").price(Money.valueOf("-0.05")).build(),
+                OrderDto.builder().price(Money.ofMinor(Long.MIN_VALUE))
+                        .savedAt(LocalDateTime.of(12025, 1, 1, 0, 0, 0, 1)).build(),
+                OrderDto.builder().price(Money.ofMinor(Long.MAX_VALUE))
+                        .savedAt(LocalDateTime.of(5, 1, 2, 3, 4, 5, 600_000)).build());
+
+        assertEquals(reflective.writeValueAsString(orders), tuned.writeValueAsString(orders));
+    }
+
+    @Test
+    void clientsMatchReflectiveOutput() throws Exception {
+        List<ClientDto> clients = List.of(
+                ClientDto.builder().id(7L).name("John").lastName("Doe").email("john.doe@example.com")
+                        .address("123 Main St, NY").phone("+380501234567").isActive(true)
+                        .profit(Money.valueOf("12345.6")).createdAt(LocalDateTime.of(2025, 8, 18, 14, 37, 32, 206_000_000))
+                        .build(),
+                ClientDto.builder().name("Ünïcode ✓").profit(Money.ZERO).build());
+
+        assertEquals(reflective.writeValueAsString(clients), tuned.writeValueAsString(clients));
+    }
+
+    @Test
+    void fieldListsNameEverySerializedProperty() throws Exception {
+        List<String> clientProperties = new ArrayList<>();
+        tuned.readTree(tuned.writeValueAsString(ClientDto.builder().build())).fieldNames()
+                .forEachRemaining(clientProperties::add);
+        List<String> orderProperties = new ArrayList<>();
+        tuned.readTree(tuned.writeValueAsString(OrderDto.builder().build())).fieldNames()
+                .forEachRemaining(orderProperties::add);
+
+        assertEquals(SparseFields.CLIENT, clientProperties);
+        assertEquals(SparseFields.ORDER, orderProperties);
+    }
+
+    @Test
+    void sparseDtosWriteOnlyTheirFields() throws Exception {
+        OrderDto order = OrderDto.builder().orderId(1L).title("Book").price(Money.valueOf("100.00"))
+                .fields(Set.of("price", "orderId")).build();
+        ClientDto client = ClientDto.builder().id(7L).name("John").isActive(true)
+                .fields(Set.of("active", "name")).build();
+
+        assertEquals("{\"orderId\":1,\"price\":100.00}", tuned.writeValueAsString(order));
+        assertEquals("{\"name\":\"John\",\"active\":true}", tuned.writeValueAsString(client));
+    }
+}
@@ -0,0 +1,124 @@
+package tech.testtaskdataox;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import tech.task.dataox.TestTaskDataOxApplication;
+import tech.task.dataox.lib.Money;
+import tech.task.dataox.model.Client;
+import tech.task.dataox.model.Order;
+import tech.task.dataox.repository.ClientRepository;
+import tech.task.dataox.service.ProcessingDelayService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The one application context of the integration tests, on its own H2 database without the fixture clients:
+ * zero processing delay, no rate limits, the intake journal in a temporary directory, small bulk chunks and
+ * cascade batches, and supplier credits flushed only when a test asks for one (the sweep takes rows older than
+ * a second). Every test makes its own clients with unique emails and phones and only looks at those.
+ */
+@SpringBootTest(classes = TestTaskDataOxApplication.class, properties = {
+        "spring.datasource.url=jdbc:h2:mem:integration;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "app.test-fixtures.enabled=false",
+        "rate-limit.orders.enabled=false",
+        "intake.journal.enabled=true",
+        "profit.write-behind.flush-interval-ms=3600000",
+        "profit.write-behind.orphan-after-ms=1000",
+        "profit.write-behind.sweep-interval-ms=200",
+        "client.bulk.chunk-size=2",
+        "client.cascade.batch-size=3",
+        "client.cascade.batch-pause-ms=0",
+        "logging.sample.order-flow=1000"})
+@AutoConfigureMockMvc
+@Import(IntegrationTest.ZeroDelay.class)
+abstract class IntegrationTest {
+    private static final String JOURNAL_DIR = temporaryDirectory("intake-journal");
+
+    @Autowired
+    protected MockMvc mvc;
+
+    @Autowired
+    protected ClientRepository clientRepository;
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @TestConfiguration
+    static class ZeroDelay {
+        @Bean
+        @Primary
+        ProcessingDelayService zeroProcessingDelay() {
+            return () -> Duration.ZERO;
+        }
+    }
+
+    @DynamicPropertySource
+    static void intakeJournal(DynamicPropertyRegistry registry) {
+        registry.add("intake.journal.dir", () -> JOURNAL_DIR);
+    }
+
+    protected Client newClient() {
+        return newClient(Money.ZERO);
+    }
+
+    protected Client newClient(Money profit) {
+        return clientRepository.save(client(profit));
+    }
+
+    protected List<Client> newClients(int count) {
+        List<Client> clients = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            clients.add(newClient());
+        }
+        return clients;
+    }
+
+    // Profit as stored, in minor units
+    protected long profit(Client client) {
+        return jdbcTemplate.queryForObject("select profit from clients where id = ?", Long.class, client.getId());
+    }
+
+    // Not saved yet, with an email and phone no other client has
+    static Client client(Money profit) {
+        String unique = UUID.randomUUID().toString();
+        return Client.builder()
+                .name("John")
+                .lastName("Doe")
+                .email(unique + "@example.com")
+                .phone(unique)
+                .profit(profit)
+                .build();
+    }
+
+    static Order newOrder(String title, Client supplier, Client consumer, String price) {
+        return Order.builder()
+                .title(title)
+                .supplier(Client.builder().id(supplier.getId()).build())
+                .consumer(Client.builder().id(consumer.getId()).build())
+                .price(Money.valueOf(price))
+                .build();
+    }
+
+    private static String temporaryDirectory(String prefix) {
+        try {
+            return Files.createTempDirectory(prefix).toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package tech.testtaskdataox;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import tech.task.dataox.lib.CorrelationId;
+import tech.task.dataox.lib.LogSampler;
+import tech.task.dataox.model.Client;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class LoggingTest extends IntegrationTest {
+
+    @Autowired
+    @Qualifier("rollupExecutor")
+    private ThreadPoolTaskExecutor rollupExecutor;
+
+    @Test
+    void samplerLetsThroughOneCallInEveryRateStartingWithTheFirst() {
+        LogSampler sampler = new LogSampler(3);
+
+        boolean[] sampled = new boolean[7];
+        IntStream.range(0, sampled.length).forEach(i -> sampled[i] = sampler.sample());
+
+        assertEquals("[true, false, false, true, false, false, true]", Arrays.toString(sampled));
+    }
+
+    @Test
+    void samplerWithRateOneOrLessLetsEverythingThrough() {
+        LogSampler everyCall = new LogSampler(1);
+        LogSampler misconfigured = new LogSampler(0);
+
+        assertEquals(5, IntStream.range(0, 5).filter(i -> everyCall.sample()).count());
+        assertEquals(5, IntStream.range(0, 5).filter(i -> misconfigured.sample()).count());
+    }
+
+    @Test
+    void callerCorrelationIdIsEchoedAndClearedAfterTheRequest() throws Exception {
+        Client client = newClient();
+
+        mvc.perform(get("/api/clients/{id}", client.getId()).header(CorrelationId.HEADER, "trace-42"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CorrelationId.HEADER, "trace-42"));
+
+        assertNull(MDC.get(CorrelationId.MDC_KEY));
+    }
+
+    @Test
+    void requestWithoutOrWithBlankCorrelationIdGetsAGeneratedOne() throws Exception {
+        Client client = newClient();
+
+        String generated = mvc.perform(get("/api/clients/{id}", client.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(CorrelationId.HEADER);
+        String replacingBlank = mvc.perform(get("/api/clients/{id}", client.getId()).header(CorrelationId.HEADER, " "))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(CorrelationId.HEADER);
+
+        assertFalse(generated == null || generated.isBlank());
+        assertFalse(replacingBlank == null || replacingBlank.isBlank());
+        assertNotEquals(generated, replacingBlank);
+        assertNull(MDC.get(CorrelationId.MDC_KEY));
+    }
+
+    @Test
+    void poolThreadsLogWithTheCorrelationIdOfTheCaller() throws Exception {
+        MDC.put(CorrelationId.MDC_KEY, "trace-43");
+        CompletableFuture<String> seen;
+        try {
+            seen = CompletableFuture.supplyAsync(() -> MDC.get(CorrelationId.MDC_KEY), rollupExecutor);
+        } finally {
+            MDC.remove(CorrelationId.MDC_KEY);
+        }
+
+        assertEquals("trace-43", seen.get(5, TimeUnit.SECONDS));
+        // The pool thread does not keep it for the next task
+        assertNull(CompletableFuture.supplyAsync(() -> MDC.get(CorrelationId.MDC_KEY), rollupExecutor)
+                .get(5, TimeUnit.SECONDS));
+    }
+}
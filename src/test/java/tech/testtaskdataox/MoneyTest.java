@@ -0,0 +1,89 @@
+package tech.testtaskdataox;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.Test;
+import tech.task.dataox.lib.Money;
+import tech.task.dataox.lib.MoneyConverter;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyTest {
+    private static final Money MAX = Money.ofMinor(Long.MAX_VALUE);
+    private static final Money MIN = Money.ofMinor(Long.MIN_VALUE);
+
+    private final ObjectMapper mapper = JsonMapper.builder().build();
+
+    @Test
+    void arithmeticIsExactInMinorUnits() {
+        Money price = Money.valueOf("0.10");
+
+        assertEquals(Money.valueOf("0.30"), price.plus(price).plus(price));
+        assertEquals(Money.valueOf("-0.05"), Money.valueOf("0.05").minus(price));
+        assertEquals(Money.valueOf("0.05"), Money.valueOf("-0.05").negate());
+        assertEquals(-1, Money.valueOf("-0.01").signum());
+        assertSame(Money.ZERO, price.minus(price));
+    }
+
+    @Test
+    void overflowThrowsInsteadOfWrapping() {
+        assertThrows(ArithmeticException.class, () -> MAX.plus(Money.ofMinor(1)));
+        assertThrows(ArithmeticException.class, () -> MIN.minus(Money.ofMinor(1)));
+        assertThrows(ArithmeticException.class, MIN::negate);
+        assertEquals(Money.ofMinor(-Long.MAX_VALUE), MAX.negate());
+    }
+
+    @Test
+    void parsingRefusesWhatMinorUnitsCannotHold() {
+        assertEquals(Money.ofMinor(1999), Money.valueOf(" 19.99 "));
+        assertEquals(Money.ofMinor(1900), Money.of(new BigDecimal("19")));
+        assertEquals(Money.ofMinor(1990), Money.of(new BigDecimal("19.9000")));
+
+        assertThrows(IllegalArgumentException.class, () -> Money.valueOf("19.999"));
+        assertThrows(IllegalArgumentException.class, () -> Money.valueOf("92233720368547758.08"));
+        assertThrows(NumberFormatException.class, () -> Money.valueOf("ten"));
+    }
+
+    @Test
+    void comparesAndPrintsByAmount() {
+        assertEquals(List.of(MIN, Money.valueOf("-1"), Money.ZERO, Money.valueOf("0.01"), MAX),
+                List.of(MAX, Money.valueOf("0.01"), MIN, Money.ZERO, Money.valueOf("-1")).stream().sorted().toList());
+        assertEquals(Money.valueOf("1.50").hashCode(), Money.valueOf("1.5").hashCode());
+        assertEquals("1.50", Money.valueOf("1.5").toString());
+        assertEquals("-0.05", Money.ofMinor(-5).toString());
+    }
+
+    @Test
+    void jsonIsTheDecimalAmountAndReadsBack() throws Exception {
+        for (Money money : List.of(Money.ZERO, Money.valueOf("199.99"), Money.valueOf("-0.05"), MAX, MIN)) {
+            String json = mapper.writeValueAsString(money);
+            assertEquals(money.toBigDecimal().toPlainString(), json);
+            assertEquals(money, mapper.readValue(json, Money.class));
+        }
+        assertEquals(Money.valueOf("12.30"), mapper.readValue("12.3", Money.class));
+        assertEquals(Money.valueOf("12.00"), mapper.readValue("12", Money.class));
+        assertEquals(Money.valueOf("12.30"), mapper.readValue("\"12.30\"", Money.class));
+    }
+
+    @Test
+    void jsonRefusesFractionsOfACent() {
+        assertThrows(JsonMappingException.class, () -> mapper.readValue("1.005", Money.class));
+    }
+
+    @Test
+    void converterMapsMinorUnitsAndNull() {
+        MoneyConverter converter = new MoneyConverter();
+
+        assertEquals(1999L, converter.convertToDatabaseColumn(Money.valueOf("19.99")));
+        assertEquals(Money.valueOf("19.99"), converter.convertToEntityAttribute(1999L));
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+    }
+}
@@ -0,0 +1,119 @@
+package tech.testtaskdataox;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import tech.task.dataox.model.Client;
+import tech.task.dataox.model.dto.ClientConflictStatsDto;
+import tech.task.dataox.model.dto.ConflictStatsDto;
+import tech.task.dataox.model.dto.UpdateClientDto;
+import tech.task.dataox.service.ClientService;
+import tech.task.dataox.service.OptimisticRetryService;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OptimisticRetryTest extends IntegrationTest {
+
+    @Autowired
+    private OptimisticRetryService optimisticRetryService;
+
+    @Autowired
+    private ClientService clientService;
+
+    @Test
+    void eachUpdateAddsOneToTheVersion() {
+        Client client = newClient();
+        long version = version(client);
+
+        clientService.update(client.getId(), UpdateClientDto.builder().name("Renamed").build());
+        clientService.update(client.getId(), UpdateClientDto.builder().name("Renamed again").build());
+
+        assertEquals(version + 2, version(client));
+    }
+
+    @Test
+    void lostVersionRaceIsRetriedInAFreshTransaction() {
+        Client client = newClient();
+        ConflictStatsDto before = optimisticRetryService.getStats(Integer.MAX_VALUE);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String name = optimisticRetryService.inTransaction("rename", Set.of(client.getId()), status -> {
+            Client loaded = clientRepository.findById(client.getId()).orElseThrow();
+            if (attempts.incrementAndGet() == 1) {
+                bumpVersionConcurrently(client);
+            }
+            loaded.setName("Attempt " + attempts.get());
+            return loaded.getName();
+        });
+
+        assertEquals(2, attempts.get());
+        assertEquals("Attempt 2", name);
+        assertEquals("Attempt 2", clientRepository.findById(client.getId()).orElseThrow().getName());
+        ConflictStatsDto after = optimisticRetryService.getStats(Integer.MAX_VALUE);
+        assertEquals(before.getAttempts() + 2, after.getAttempts());
+        assertEquals(before.getConflicts() + 1, after.getConflicts());
+        assertEquals(before.getExhausted(), after.getExhausted());
+        ClientConflictStatsDto stats = statsOf(after, client);
+        assertEquals(2, stats.getAttempts());
+        assertEquals(1, stats.getConflicts());
+        assertEquals(0.5, stats.getConflictRate());
+    }
+
+    @Test
+    void conflictOnEveryAttemptAnswersConflict() {
+        Client client = newClient();
+        ConflictStatsDto before = optimisticRetryService.getStats(Integer.MAX_VALUE);
+        AtomicInteger attempts = new AtomicInteger();
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> optimisticRetryService.inTransaction("rename", Set.of(client.getId()), status -> {
+                    attempts.incrementAndGet();
+                    Client loaded = clientRepository.findById(client.getId()).orElseThrow();
+                    bumpVersionConcurrently(client);
+                    loaded.setName("Never");
+                    return null;
+                }));
+
+        assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+        // retry.optimistic.max-attempts
+        assertEquals(5, attempts.get());
+        assertEquals(before.getExhausted() + 1, optimisticRetryService.getStats(1).getExhausted());
+        assertEquals(5, statsOf(optimisticRetryService.getStats(Integer.MAX_VALUE), client).getConflicts());
+    }
+
+    @Test
+    void otherFailuresAreNotRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> optimisticRetryService.inTransaction("fail", Set.of(),
+                status -> {
+                    attempts.incrementAndGet();
+                    throw new IllegalStateException("not a conflict");
+                }));
+
+        assertEquals(1, attempts.get());
+    }
+
+    // Committed by another transaction between the read and the flush of the attempt
+    private void bumpVersionConcurrently(Client client) {
+        CompletableFuture.runAsync(() -> jdbcTemplate.update(
+                "update clients set version = version + 1 where id = ?", client.getId())).join();
+    }
+
+    private long version(Client client) {
+        return jdbcTemplate.queryForObject("select version from clients where id = ?", Long.class, client.getId());
+    }
+
+    private static ClientConflictStatsDto statsOf(ConflictStatsDto stats, Client client) {
+        return stats.getClients().stream()
+                .filter(c -> c.getClientId().equals(client.getId()))
+                .findFirst()
+                .orElseThrow();
+    }
+}
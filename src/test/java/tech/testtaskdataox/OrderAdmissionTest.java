@@ -0,0 +1,135 @@
+package tech.testtaskdataox;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import tech.task.dataox.exception.TooManyRequestsException;
+import tech.task.dataox.lib.TokenBucket;
+import tech.task.dataox.model.Client;
+import tech.task.dataox.model.Order;
+import tech.task.dataox.service.impl.OrderAdmissionServiceImpl;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Buckets of 3 tokens per supplier and 10 per consumer that practically do not refill during a test
+class OrderAdmissionTest {
+    private final OrderAdmissionServiceImpl admission =
+            new OrderAdmissionServiceImpl(true, 3, 0.001, 10, 0.001, 1000, Duration.ofMinutes(10));
+
+    @Test
+    void takesTheTokensOfABatchAllOrNone() {
+        admission.admitAll(orders(2, 100L, 1L));
+
+        // The supplier has one token left for two orders, so the consumer keeps all of its tokens
+        assertThrows(TooManyRequestsException.class, () -> admission.admitAll(orders(2, 100L, 2L)));
+        List<Order> fullConsumer = new ArrayList<>();
+        for (long supplier = 101; supplier <= 105; supplier++) {
+            fullConsumer.addAll(orders(2, supplier, 2L));
+        }
+        assertDoesNotThrow(() -> admission.admitAll(fullConsumer));
+
+        // And the supplier still has its last token
+        assertDoesNotThrow(() -> admission.admitAll(orders(1, 100L, 3L)));
+    }
+
+    @Test
+    void givesTheTokensOfARefusedBatchBack() {
+        List<Order> batch = new ArrayList<>();
+        for (long supplier = 200; supplier < 205; supplier++) {
+            batch.addAll(orders(2, supplier, 10L));
+        }
+        admission.admitAll(batch);
+        assertThrows(TooManyRequestsException.class, () -> admission.admitAll(orders(1, 210L, 10L)));
+
+        admission.releaseAll(batch);
+
+        assertDoesNotThrow(() -> admission.admitAll(batch));
+    }
+
+    @Test
+    void refusesABatchOverTheCapacityOfABucket() {
+        ResponseStatusException refused = assertThrows(ResponseStatusException.class,
+                () -> admission.admitAll(orders(4, 300L, 20L)));
+
+        assertEquals(HttpStatus.BAD_REQUEST, refused.getStatusCode());
+        // Nothing was taken from the consumer
+        List<Order> fullConsumer = new ArrayList<>();
+        for (long supplier = 301; supplier <= 305; supplier++) {
+            fullConsumer.addAll(orders(2, supplier, 20L));
+        }
+        assertDoesNotThrow(() -> admission.admitAll(fullConsumer));
+    }
+
+    @Test
+    void refusedSupplierLeavesTheConsumerItsToken() {
+        for (int i = 0; i < 3; i++) {
+            admission.admit(400L, 40L);
+        }
+
+        TooManyRequestsException refused = assertThrows(TooManyRequestsException.class,
+                () -> admission.admit(400L, 40L));
+
+        assertTrue(refused.getHeaders().getFirst("Retry-After").matches("[1-9][0-9]*"));
+        // 10 - 3 admitted, the refused order took none
+        for (long supplier = 401; supplier <= 407; supplier++) {
+            long id = supplier;
+            assertDoesNotThrow(() -> admission.admit(id, 40L));
+        }
+        assertThrows(TooManyRequestsException.class, () -> admission.admit(408L, 40L));
+    }
+
+    @Test
+    void tokenBucketTakesPermitsAllOrNone() {
+        TokenBucket bucket = new TokenBucket(5, 1);
+
+        assertEquals(0, bucket.tryAcquire(3));
+        long wait = bucket.tryAcquire(3);
+
+        // One token per second, one of the three is still missing
+        assertTrue(wait > TimeUnit.MILLISECONDS.toNanos(900) && wait <= TimeUnit.SECONDS.toNanos(1), "wait " + wait);
+        assertEquals(0, bucket.tryAcquire(2));
+    }
+
+    @Test
+    void tokenBucketReleaseStopsAtCapacity() {
+        TokenBucket bucket = new TokenBucket(2, 0.001);
+        bucket.tryAcquire(2);
+
+        bucket.release(5);
+
+        assertTrue(bucket.tryAcquire(3) > 0);
+        assertEquals(0, bucket.tryAcquire(2));
+        assertTrue(bucket.tryAcquire() > 0);
+        bucket.release();
+        assertEquals(0, bucket.tryAcquire());
+    }
+
+    @Test
+    void tokenBucketRefillsOverTime() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1, 1000);
+        assertEquals(0, bucket.tryAcquire());
+
+        Thread.sleep(5);
+
+        assertEquals(0, bucket.tryAcquire());
+    }
+
+    private static List<Order> orders(int count, Long supplierId, Long consumerId) {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            orders.add(Order.builder()
+                    .supplier(Client.builder().id(supplierId).build())
+                    .consumer(Client.builder().id(consumerId).build())
+                    .build());
+        }
+        return orders;
+    }
+}
@@ -0,0 +1,227 @@
+package tech.testtaskdataox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import tech.task.dataox.lib.Money;
+import tech.task.dataox.model.Client;
+import tech.task.dataox.model.Order;
+import tech.task.dataox.service.ClientService;
+import tech.task.dataox.service.OrderService;
+import tech.task.dataox.service.ProfitWriteBehindService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Order creation and client deactivation from many threads with processing reduced to zero delay,
+ * checking the invariants the README cases verify by hand. The throughput of the mixed run must reach
+ * {@code -Dstress.min-scaling} (default 0.5) of the same orders created one at a time in the same run,
+ * so contention that serializes the threads fails it on any machine. It is also compared against
+ * {@code stress-baseline.properties}, or {@code -Dstress.baseline} on another machine, with
+ * {@code -Dstress.max-regression} the allowed drop (default 0.5). 0 or less turns either check off.
+ */
+@Slf4j
+class OrderConcurrencyStressTest extends IntegrationTest {
+    private static final int THREADS = 16;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private ProfitWriteBehindService profitWriteBehindService;
+
+    @Test
+    void duplicateOrderHasOneWinner() throws Exception {
+        Client supplier = newClient();
+        Client consumer = newClient();
+        String title = "Book " + UUID.randomUUID();
+
+        Map<HttpStatus, Integer> outcomes = runConcurrently(64,
+                n -> () -> orderService.create(newOrder(title, supplier, consumer, "1.00")));
+
+        assertEquals(Map.of(HttpStatus.OK, 1, HttpStatus.CONFLICT, 63), outcomes);
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "select count(*) from orders where title = ?", Integer.class, title));
+    }
+
+    @Test
+    void consumerProfitNeverDropsToLimit() throws Exception {
+        Client consumer = newClient();
+        List<Client> suppliers = newClients(8);
+
+        // 64 x 100.00 against a limit of -1000: only nine fit above it
+        Map<HttpStatus, Integer> outcomes = runConcurrently(64, n -> () -> orderService.create(
+                newOrder("Order " + n, suppliers.get(n % suppliers.size()), consumer, "100.00")));
+
+        assertEquals(Map.of(HttpStatus.OK, 9, HttpStatus.UNPROCESSABLE_ENTITY, 55), outcomes);
+        assertEquals(Money.valueOf("-900"), clientService.findClientById(consumer.getId()).getProfit());
+        assertProfitsMatchOrders(suppliers, consumer);
+    }
+
+    @Test
+    void noOrdersAfterDeactivation() throws Exception {
+        Client consumer = newClient();
+        List<Client> suppliers = newClients(8);
+        AtomicInteger acceptedAfterDeactivation = new AtomicInteger();
+        long[] deactivatedAt = {Long.MAX_VALUE};
+
+        Map<HttpStatus, Integer> outcomes = runConcurrently(400, n -> () -> {
+            if (n == 100) {
+                clientService.deactivateById(consumer.getId());
+                synchronized (deactivatedAt) {
+                    deactivatedAt[0] = System.nanoTime();
+                }
+                return null;
+            }
+            long startedAt = System.nanoTime();
+            Order order = orderService.create(
+                    newOrder("Order " + n, suppliers.get(n % suppliers.size()), consumer, "1.00"));
+            synchronized (deactivatedAt) {
+                if (startedAt > deactivatedAt[0]) {
+                    acceptedAfterDeactivation.incrementAndGet();
+                }
+            }
+            return order;
+        });
+
+        assertEquals(0, acceptedAfterDeactivation.get());
+        assertTrue(outcomes.getOrDefault(HttpStatus.UNPROCESSABLE_ENTITY, 0) > 0, outcomes::toString);
+        LocalDateTime inactiveAt = clientRepository.findById(consumer.getId()).orElseThrow().getInactiveAt();
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "select count(*) from orders where consumer_id = ? and saved_at > ?",
+                Integer.class, consumer.getId(), inactiveAt));
+    }
+
+    @Test
+    void profitsEqualSumOfOrdersAndThroughputHolds() throws Exception {
+        // The first round warms up the JIT, the connection pool and the lease cache
+        mixedRun(newClients(40), 200, THREADS);
+        // The rate of this machine and run: the same kind of orders one at a time, nothing to contend on
+        long start = System.nanoTime();
+        double sequential = mixedRun(newClients(40), 200, 1).getOrDefault(HttpStatus.OK, 0)
+                / ((System.nanoTime() - start) / 1e9);
+        List<Client> clients = newClients(40);
+
+        start = System.nanoTime();
+        Map<HttpStatus, Integer> outcomes = mixedRun(clients, 800, THREADS);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        int created = outcomes.getOrDefault(HttpStatus.OK, 0);
+        assertTrue(created > 750, outcomes::toString);
+        assertProfitsMatchOrders(clients);
+
+        double ordersPerSecond = created / seconds;
+        log.info("Stress: {} orders in {} s on {} threads, {} orders/s, one thread {} orders/s",
+                created, String.format("%.2f", seconds), THREADS, Math.round(ordersPerSecond), Math.round(sequential));
+        double minScaling = Double.parseDouble(System.getProperty("stress.min-scaling", "0.5"));
+        if (minScaling > 0) {
+            assertTrue(ordersPerSecond >= sequential * minScaling, () -> String.format(
+                    "Throughput %.0f orders/s on %d threads is below %.0f%% of %.0f orders/s on one",
+                    ordersPerSecond, THREADS, minScaling * 100, sequential));
+        }
+        double baseline = Double.parseDouble(System.getProperty("stress.baseline", baseline("create.orders-per-second")));
+        double maxRegression = Double.parseDouble(System.getProperty("stress.max-regression", "0.5"));
+        if (maxRegression > 0) {
+            assertTrue(ordersPerSecond >= baseline * (1 - maxRegression), () -> String.format(
+                    "Throughput %.0f orders/s is more than %.0f%% below the baseline of %.0f",
+                    ordersPerSecond, maxRegression * 100, baseline));
+        }
+    }
+
+    // Random pairs of the given clients with small prices, so the profit limit rarely gets in the way
+    private Map<HttpStatus, Integer> mixedRun(List<Client> clients, int orders, int threads) throws Exception {
+        return runConcurrently(orders, threads, n -> () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int supplier = random.nextInt(clients.size());
+            int consumer = (supplier + 1 + random.nextInt(clients.size() - 1)) % clients.size();
+            return orderService.create(newOrder("Order " + n, clients.get(supplier), clients.get(consumer),
+                    random.nextInt(1, 21) + ".00"));
+        });
+    }
+
+    private void assertProfitsMatchOrders(List<Client> clients, Client... more) {
+        // Supplier credits are written behind, the flush adds the ones still accumulated
+        profitWriteBehindService.flush();
+        List<Client> all = new ArrayList<>(clients);
+        all.addAll(List.of(more));
+        for (Client client : all) {
+            long expected = jdbcTemplate.queryForObject("""
+                    select coalesce(sum(case when supplier_id = ? then price else -price end), 0)
+                    from orders where supplier_id = ? or consumer_id = ?
+                    """, Long.class, client.getId(), client.getId(), client.getId());
+            long actual = jdbcTemplate.queryForObject(
+                    "select profit from clients where id = ?", Long.class, client.getId());
+            assertEquals(expected, actual, "profit of client " + client.getId());
+        }
+    }
+
+    private static Map<HttpStatus, Integer> runConcurrently(int tasks, IntFunction<Callable<?>> task)
+            throws Exception {
+        return runConcurrently(tasks, THREADS, task);
+    }
+
+    // Runs the tasks on that many threads released together and counts the outcomes by status
+    private static Map<HttpStatus, Integer> runConcurrently(int tasks, int threads, IntFunction<Callable<?>> task)
+            throws Exception {
+        Map<HttpStatus, Integer> outcomes = new ConcurrentHashMap<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int n = 0; n < tasks; n++) {
+                Callable<?> work = task.apply(n);
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    try {
+                        if (work.call() != null) {
+                            outcomes.merge(HttpStatus.OK, 1, Integer::sum);
+                        }
+                    } catch (ResponseStatusException e) {
+                        outcomes.merge(HttpStatus.valueOf(e.getStatusCode().value()), 1, Integer::sum);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return outcomes;
+    }
+
+    private static String baseline(String key) throws IOException {
+        Properties baselines = new Properties();
+        try (InputStream in = OrderConcurrencyStressTest.class.getResourceAsStream("/stress-baseline.properties")) {
+            baselines.load(in);
+        }
+        return baselines.getProperty(key);
+    }
+}
@@ -0,0 +1,143 @@
+package tech.testtaskdataox;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import tech.task.dataox.lib.MappedJournal;
+import tech.task.dataox.model.Client;
+import tech.task.dataox.model.dto.IntakeStatusDto;
+import tech.task.dataox.model.intake.IntakeStatus;
+import tech.task.dataox.service.OrderIntakeService;
+import tech.task.dataox.service.ProfitWriteBehindService;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class OrderIntakeTest extends IntegrationTest {
+
+    @TempDir
+    Path journalDir;
+
+    @Autowired
+    private OrderIntakeService orderIntakeService;
+
+    @Autowired
+    private ProfitWriteBehindService profitWriteBehindService;
+
+    @Test
+    void appliesJournaledOrdersWithTheRulesOfCreate() throws Exception {
+        Client supplier = newClient();
+        Client consumer = newClient();
+
+        long first = accept(supplier, consumer, "Book", "600.00");
+        long duplicate = accept(supplier, consumer, "Book", "1.00");
+        long overLimit = accept(supplier, consumer, "Lamp", "500.00");
+        long second = accept(supplier, consumer, "Pen", "300.00");
+
+        IntakeStatusDto applied = awaitDone(first);
+        assertEquals(IntakeStatus.APPLIED, applied.getStatus());
+        assertEquals(IntakeStatus.APPLIED, awaitDone(second).getStatus());
+        assertEquals(409, awaitDone(duplicate).getRejectedWith());
+        assertEquals(422, awaitDone(overLimit).getRejectedWith());
+
+        profitWriteBehindService.flush();
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "select count(*) from orders where consumer_id = ?", Integer.class, consumer.getId()));
+        assertEquals(-90000L, jdbcTemplate.queryForObject(
+                "select profit from clients where id = ?", Long.class, consumer.getId()));
+        assertEquals(90000L, jdbcTemplate.queryForObject(
+                "select profit from clients where id = ?", Long.class, supplier.getId()));
+
+        mvc.perform(get("/api/orders/" + applied.getOrderId())).andExpect(status().isOk());
+        mvc.perform(get("/api/orders/intake/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lag").value(0));
+        mvc.perform(get("/api/orders/intake/" + (second + 1000))).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void rejectsInvalidOrdersBeforeJournaling() throws Exception {
+        Client client = newClient();
+        long appended = orderIntakeService.getStats().getAppendedSeq();
+
+        mvc.perform(post("/api/orders/intake")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Self\",\"supplierId\":%d,\"consumerId\":%d,\"price\":1.00}"
+                                .formatted(client.getId(), client.getId())))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(appended, orderIntakeService.getStats().getAppendedSeq());
+    }
+
+    @Test
+    void journalKeepsRecordsAcrossReopenAndCutsATornTail() throws IOException {
+        Path dir = journalDir;
+        try (MappedJournal journal = MappedJournal.open(dir, 64)) {
+            // 16 byte header + 8 bytes: two records per segment
+            for (int n = 1; n <= 5; n++) {
+                assertEquals(n, journal.append(("record-" + n).getBytes(StandardCharsets.US_ASCII)));
+            }
+            journal.sync(5);
+            assertEquals(3, journal.segmentCount());
+            assertEquals(1, journal.release(2));
+        }
+
+        // Garbage where the sixth record would start, as after a crash in the middle of an append
+        Path last;
+        try (Stream<Path> files = Files.list(dir)) {
+            last = files.filter(p -> p.toString().endsWith(".journal")).sorted().reduce((a, b) -> b).orElseThrow();
+        }
+        try (RandomAccessFile file = new RandomAccessFile(last.toFile(), "rw")) {
+            file.seek(24);
+            file.writeInt(8);
+            file.writeInt(12345);
+            file.writeLong(6);
+        }
+
+        try (MappedJournal journal = MappedJournal.open(dir, 64)) {
+            assertEquals(5, journal.lastSeq());
+            List<MappedJournal.Record> records = journal.readAfter(3);
+            assertEquals(List.of(4L, 5L), records.stream().map(MappedJournal.Record::seq).toList());
+            assertEquals("record-5", new String(records.get(1).payload(), StandardCharsets.US_ASCII));
+            assertEquals(6, journal.append("record-6".getBytes(StandardCharsets.US_ASCII)));
+        }
+    }
+
+    private long accept(Client supplier, Client consumer, String title, String price) throws Exception {
+        String location = mvc.perform(post("/api/orders/intake")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"%s\",\"supplierId\":%d,\"consumerId\":%d,\"price\":%s}"
+                                .formatted(title, supplier.getId(), consumer.getId(), price)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists(HttpHeaders.LOCATION))
+                .andReturn().getResponse().getHeader(HttpHeaders.LOCATION);
+        return Long.parseLong(location.substring(location.lastIndexOf('/') + 1));
+    }
+
+    private IntakeStatusDto awaitDone(long sequence) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        IntakeStatusDto status = orderIntakeService.getStatus(sequence);
+        while (status.getStatus() == IntakeStatus.PENDING && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            status = orderIntakeService.getStatus(sequence);
+        }
+        assertTrue(status.getStatus() != IntakeStatus.PENDING, "sequence " + sequence + " still pending");
+        return status;
+    }
+}
@@ -0,0 +1,135 @@
+package tech.testtaskdataox;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import tech.task.dataox.lib.Money;
+import tech.task.dataox.model.Client;
+import tech.task.dataox.model.Order;
+import tech.task.dataox.model.dto.OrderQuoteDto;
+import tech.task.dataox.service.ClientService;
+import tech.task.dataox.service.OrderQuoteService;
+import tech.task.dataox.service.OrderService;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static tech.testtaskdataox.SqlAssertions.assertMaxQueries;
+
+class OrderQuoteTest extends IntegrationTest {
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderQuoteService orderQuoteService;
+
+    @Test
+    void quotesTheRulesOfCreateWithoutWriting() throws Exception {
+        Client supplier = newClient(Money.ZERO);
+        Client consumer = newClient(Money.valueOf("200.00"));
+        Client inactive = newClient(Money.ZERO);
+        clientService.deactivateById(inactive.getId());
+        orderService.create(newOrder("Existing", supplier, consumer, "10.00"));
+        int orders = countOrders(consumer);
+
+        assertTrue(orderQuoteService.quote(newOrder("Lamp", supplier, consumer, "50.00")).isAccepted());
+        mvc.perform(post("/api/orders/quote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body("Lamp", supplier, consumer, "1190.00")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(false))
+                .andExpect(jsonPath("$.rejectedWith").value(422))
+                .andExpect(jsonPath("$.projectedConsumerProfit").value(-1000.00));
+        mvc.perform(post("/api/orders/quote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body("Existing", supplier, consumer, "1.00")))
+                .andExpect(jsonPath("$.rejectedWith").value(409));
+        mvc.perform(post("/api/orders/quote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body("Lamp", inactive, consumer, "1.00")))
+                .andExpect(jsonPath("$.rejectedWith").value(422))
+                .andExpect(jsonPath("$.reason").value("Supplier not found or inactive"));
+        mvc.perform(post("/api/orders/quote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body("Lamp", consumer, consumer, "1.00")))
+                .andExpect(jsonPath("$.rejectedWith").value(400));
+
+        assertEquals(orders, countOrders(consumer));
+    }
+
+    @Test
+    void quotesACartAsIfCreatedInOrder() throws Exception {
+        Client supplier = newClient(Money.ZERO);
+        Client consumer = newClient(Money.ZERO);
+
+        mvc.perform(post("/api/orders/quote/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"orders\":[%s,%s,%s,%s]}".formatted(
+                                body("Desk", supplier, consumer, "600.00"),
+                                body("Desk", supplier, consumer, "1.00"),
+                                body("Chair", supplier, consumer, "500.00"),
+                                body("Pen", supplier, consumer, "300.00"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.allAccepted").value(false))
+                .andExpect(jsonPath("$.quotes[0].accepted").value(true))
+                .andExpect(jsonPath("$.quotes[0].projectedConsumerProfit").value(-600.00))
+                .andExpect(jsonPath("$.quotes[1].rejectedWith").value(409))
+                .andExpect(jsonPath("$.quotes[2].rejectedWith").value(422))
+                .andExpect(jsonPath("$.quotes[3].accepted").value(true))
+                .andExpect(jsonPath("$.quotes[3].projectedConsumerProfit").value(-900.00));
+    }
+
+    @Test
+    void cartCountsTheCreditOfAnEarlierSaleToItsSupplier() throws Exception {
+        Client maker = newClient(Money.ZERO);
+        Client reseller = newClient(Money.valueOf("-900.00"));
+        Client buyer = newClient(Money.ZERO);
+
+        // Without the 300.00 of the first sale the reseller would drop to -1100.00
+        mvc.perform(post("/api/orders/quote/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"orders\":[%s,%s,%s]}".formatted(
+                                body("Vase", reseller, buyer, "300.00"),
+                                body("Clay", maker, reseller, "200.00"),
+                                body("Glaze", maker, reseller, "250.00"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.allAccepted").value(false))
+                .andExpect(jsonPath("$.quotes[0].projectedConsumerProfit").value(-300.00))
+                .andExpect(jsonPath("$.quotes[1].accepted").value(true))
+                .andExpect(jsonPath("$.quotes[1].projectedConsumerProfit").value(-800.00))
+                .andExpect(jsonPath("$.quotes[2].rejectedWith").value(422))
+                .andExpect(jsonPath("$.quotes[2].projectedConsumerProfit").value(-1050.00));
+    }
+
+    @Test
+    void readsABatchWithAFixedNumberOfQueries() {
+        Client supplier = newClient(Money.ZERO);
+        List<Order> cart = IntStream.range(0, 20)
+                .mapToObj(n -> newOrder("Item " + n, supplier, newClient(Money.ZERO), "5.00"))
+                .toList();
+
+        // Clients, keys in orders, keys in the archive, pending credits
+        List<OrderQuoteDto> quotes = assertMaxQueries(4, () -> orderQuoteService.quoteAll(cart));
+
+        assertTrue(quotes.stream().allMatch(OrderQuoteDto::isAccepted));
+    }
+
+    private int countOrders(Client consumer) {
+        return jdbcTemplate.queryForObject("select count(*) from orders where consumer_id = ?",
+                Integer.class, consumer.getId());
+    }
+
+    private static String body(String title, Client supplier, Client consumer, String price) {
+        return "{\"title\":\"%s\",\"supplierId\":%d,\"consumerId\":%d,\"price\":%s}"
+                .formatted(title, supplier.getId(), consumer.getId(), price);
+    }
+}
@@ -0,0 +1,101 @@
+package tech.testtaskdataox;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import tech.task.dataox.lib.Money;
+import tech.task.dataox.model.Client;
+import tech.task.dataox.service.ClientService;
+import tech.task.dataox.service.ClientSummaryService;
+import tech.task.dataox.service.OrderService;
+import tech.task.dataox.service.ProfitWriteBehindService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProfitWriteBehindTest extends IntegrationTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private ClientSummaryService clientSummaryService;
+
+    @Autowired
+    private ProfitWriteBehindService profitWriteBehindService;
+
+    @Test
+    void creditsOfOneSupplierAreFlushedWithOneUpdate() {
+        Client supplier = newClient(Money.ZERO);
+        for (int n = 0; n < 5; n++) {
+            orderService.create(newOrder("Order " + n, supplier, newClient(Money.ZERO), "10.00"));
+        }
+        long version = clientRepository.findById(supplier.getId()).orElseThrow().getVersion();
+        long flushedClients = profitWriteBehindService.getStats().getFlushedClients();
+
+        assertEquals(0, profit(supplier));
+        assertEquals(Money.valueOf("50.00"), profitWriteBehindService.pendingCredit(supplier.getId()));
+
+        profitWriteBehindService.flush();
+
+        assertEquals(5000, profit(supplier));
+        assertEquals(Money.ZERO, profitWriteBehindService.pendingCredit(supplier.getId()));
+        assertEquals(version + 1, clientRepository.findById(supplier.getId()).orElseThrow().getVersion());
+        // One update for the five credits, the consumers have none
+        assertEquals(flushedClients + 1, profitWriteBehindService.getStats().getFlushedClients());
+    }
+
+    @Test
+    void flushEvictsTheCachedSummaryOfTheSupplier() {
+        Client supplier = newClient(Money.ZERO);
+        orderService.create(newOrder("Order", supplier, newClient(Money.ZERO), "10.00"));
+        assertEquals(Money.ZERO, clientSummaryService.getSummary(supplier.getId()).getProfit());
+
+        profitWriteBehindService.flush();
+
+        assertEquals(Money.valueOf("10.00"), clientSummaryService.getSummary(supplier.getId()).getProfit());
+    }
+
+    @Test
+    void thresholdCountsCreditsNotFlushedYet() {
+        Client client = newClient(Money.valueOf("-950.00"));
+        Client other = newClient(Money.ZERO);
+
+        // -950 - 100 would be below the limit, with the pending credit of 100 it stays at -950
+        orderService.create(newOrder("Sale", client, other, "100.00"));
+        orderService.create(newOrder("Purchase", other, client, "100.00"));
+
+        profitWriteBehindService.flush();
+        assertEquals(-95000, profit(client));
+    }
+
+    @Test
+    void sweepAppliesCreditsLeftByAStoppedInstance() throws InterruptedException {
+        Client supplier = newClient(Money.ZERO);
+        jdbcTemplate.update("insert into profit_deltas (client_id, amount, created_at) values (?, ?, ?)",
+                supplier.getId(), 1234, LocalDateTime.now().minusHours(1));
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (profit(supplier) == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(1234, profit(supplier));
+        assertTrue(profitWriteBehindService.getStats().getSweptCredits() >= 1);
+    }
+
+    @Test
+    void resetDropsCreditsNotFlushedYet() {
+        Client supplier = newClient(Money.ZERO);
+        orderService.create(newOrder("Order", supplier, newClient(Money.ZERO), "10.00"));
+
+        clientService.resetAllProfit();
+        profitWriteBehindService.flush();
+
+        assertEquals(0, profit(supplier));
+    }
+}
@@ -0,0 +1,185 @@
+package tech.testtaskdataox;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.UnknownFieldSet;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import tech.task.dataox.model.Client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ProtobufOrderTest extends IntegrationTest {
+    private static final MediaType PROTOBUF = MediaType.parseMediaType("application/x-protobuf");
+
+    @Test
+    void createsAndReadsAnOrderInProtobuf() throws Exception {
+        Client supplier = newClient();
+        Client consumer = newClient();
+
+        byte[] created = mvc.perform(post("/api/orders")
+                        .contentType(PROTOBUF)
+                        .accept(PROTOBUF, MediaType.APPLICATION_JSON)
+                        .content(createOrder("Kettle", supplier.getId(), consumer.getId(), 12_345)))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(PROTOBUF))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        UnknownFieldSet order = UnknownFieldSet.parseFrom(created);
+        long orderId = order.getField(1).getVarintList().get(0);
+        assertEquals("Kettle", order.getField(2).getLengthDelimitedList().get(0).toStringUtf8());
+        assertEquals(List.of(supplier.getId()), order.getField(3).getVarintList());
+        assertEquals(List.of(consumer.getId()), order.getField(4).getVarintList());
+        assertEquals(List.of(12_345L), order.getField(5).getVarintList());
+        UnknownFieldSet savedAt = UnknownFieldSet.parseFrom(order.getField(8).getLengthDelimitedList().get(0));
+        assertTrue(savedAt.getField(1).getVarintList().get(0) > 1_700_000_000L, "saved_at in epoch seconds");
+
+        byte[] read = mvc.perform(get("/api/orders/{id}", orderId).accept(PROTOBUF))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(PROTOBUF))
+                .andReturn().getResponse().getContentAsByteArray();
+        // The database keeps microseconds, so the timestamps read back may differ from those of the create
+        UnknownFieldSet stored = UnknownFieldSet.parseFrom(read);
+        for (int field = 1; field <= 5; field++) {
+            assertEquals(order.getField(field), stored.getField(field));
+        }
+        assertTrue(stored.hasField(8), "saved_at present");
+
+        mvc.perform(get("/api/orders/{id}", orderId))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.title").value("Kettle"))
+                .andExpect(jsonPath("$.price").value(123.45));
+    }
+
+    @Test
+    void journalsABatchWithOneRequest() throws Exception {
+        Client supplier = newClient();
+        Client consumer = newClient();
+
+        ByteArrayOutputStream batch = new ByteArrayOutputStream();
+        CodedOutputStream out = CodedOutputStream.newInstance(batch);
+        out.writeByteArray(1, createOrder("Cup", supplier.getId(), consumer.getId(), 500));
+        out.writeByteArray(1, createOrder("Plate", supplier.getId(), consumer.getId(), 700));
+        out.flush();
+
+        byte[] accepted = mvc.perform(post("/api/orders/intake/batch")
+                        .contentType(PROTOBUF)
+                        .accept(PROTOBUF, MediaType.APPLICATION_JSON)
+                        .content(batch.toByteArray()))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        List<UnknownFieldSet> statuses = UnknownFieldSet.parseFrom(accepted).getField(1).getLengthDelimitedList()
+                .stream().map(ProtobufOrderTest::parse).toList();
+        assertEquals(2, statuses.size());
+        long first = statuses.get(0).getField(1).getVarintList().get(0);
+        assertEquals(first + 1, statuses.get(1).getField(1).getVarintList().get(0));
+        // PENDING
+        assertEquals(List.of(1L), statuses.get(0).getField(2).getVarintList());
+
+        mvc.perform(post("/api/orders/intake/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"orders\":[{\"title\":\"Bowl\",\"supplierId\":%d,\"consumerId\":%d,\"price\":3.00}]}"
+                                .formatted(supplier.getId(), consumer.getId())))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.statuses.length()").value(1))
+                .andExpect(jsonPath("$.statuses[0].status").value("PENDING"));
+    }
+
+    @Test
+    void createsABatchWithTheOutcomeOfEveryOrder() throws Exception {
+        Client supplier = newClient();
+        Client consumer = newClient();
+        Client stranger = newClient();
+        clientRepository.deleteById(stranger.getId());
+
+        ByteArrayOutputStream batch = new ByteArrayOutputStream();
+        CodedOutputStream out = CodedOutputStream.newInstance(batch);
+        out.writeByteArray(1, createOrder("Fork", supplier.getId(), consumer.getId(), 250));
+        out.writeByteArray(1, createOrder("Knife", stranger.getId(), consumer.getId(), 300));
+        out.flush();
+
+        byte[] created = mvc.perform(post("/api/orders/batch")
+                        .contentType(PROTOBUF)
+                        .accept(PROTOBUF, MediaType.APPLICATION_JSON)
+                        .content(batch.toByteArray()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(PROTOBUF))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        UnknownFieldSet answer = UnknownFieldSet.parseFrom(created);
+        List<UnknownFieldSet> items = answer.getField(1).getLengthDelimitedList().stream()
+                .map(ProtobufOrderTest::parse).toList();
+        assertEquals(2, items.size());
+        assertFalse(answer.hasField(2), "not all created");
+        assertEquals(List.of(1L), items.get(0).getField(1).getVarintList());
+        UnknownFieldSet order = parse(items.get(0).getField(2).getLengthDelimitedList().get(0));
+        assertEquals("Fork", order.getField(2).getLengthDelimitedList().get(0).toStringUtf8());
+        assertFalse(items.get(1).hasField(1), "second not created");
+        assertEquals(List.of(422L), items.get(1).getField(3).getVarintList());
+
+        mvc.perform(post("/api/orders/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"orders\":[{\"title\":\"Spoon\",\"supplierId\":%d,\"consumerId\":%d,\"price\":3.00}]}"
+                                .formatted(supplier.getId(), consumer.getId())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.allCreated").value(true))
+                .andExpect(jsonPath("$.items[0].order.title").value("Spoon"));
+    }
+
+    @Test
+    void rejectsMalformedAndIncompleteMessages() throws Exception {
+        Client consumer = newClient();
+
+        // Title announced as 5 bytes, only one follows
+        mvc.perform(post("/api/orders")
+                        .contentType(PROTOBUF)
+                        .accept(PROTOBUF, MediaType.APPLICATION_JSON)
+                        .content(new byte[]{0x0A, 0x05, 'a'}))
+                .andExpect(status().isBadRequest());
+
+        ByteArrayOutputStream noSupplier = new ByteArrayOutputStream();
+        CodedOutputStream out = CodedOutputStream.newInstance(noSupplier);
+        out.writeString(1, "Spoon");
+        out.writeInt64(3, consumer.getId());
+        out.writeInt64(4, 100);
+        out.flush();
+        mvc.perform(post("/api/orders")
+                        .contentType(PROTOBUF)
+                        .accept(PROTOBUF, MediaType.APPLICATION_JSON)
+                        .content(noSupplier.toByteArray()))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static byte[] createOrder(String title, Long supplierId, Long consumerId, long priceMinor) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CodedOutputStream out = CodedOutputStream.newInstance(bytes);
+        out.writeString(1, title);
+        out.writeInt64(2, supplierId);
+        out.writeInt64(3, consumerId);
+        out.writeInt64(4, priceMinor);
+        // Field of a later schema version, skipped
+        out.writeString(15, "gift wrap");
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static UnknownFieldSet parse(com.google.protobuf.ByteString bytes) {
+        try {
+            return UnknownFieldSet.parseFrom(bytes);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
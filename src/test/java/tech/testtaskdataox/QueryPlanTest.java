@@ -0,0 +1,168 @@
+package tech.testtaskdataox;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tech.task.dataox.TestTaskDataOxApplication;
+import tech.task.dataox.lib.Money;
+import tech.task.dataox.lib.SqlDebugContext;
+import tech.task.dataox.lib.SqlDebugStatementInspector;
+import tech.task.dataox.model.report.RevenueRole;
+import tech.task.dataox.repository.ArchivedOrderRepository;
+import tech.task.dataox.repository.ClientRepository;
+import tech.task.dataox.repository.OrderRepository;
+import tech.task.dataox.repository.ProfitDeltaRepository;
+import tech.task.dataox.repository.RevenueRollupRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the hot repository queries, captures the SQL Hibernate sends through {@link SqlDebugStatementInspector}
+ * and runs EXPLAIN for it against the Flyway-managed H2 schema. Fails when a query falls back to a table scan or
+ * stops using the index that was designed for it.
+ *
+ * <p>The PostgreSQL migration makes some of these indexes partial. The planner only uses such an index when the
+ * query states its predicate as a literal, a bound parameter would not do, so those cases also check the SQL.
+ */
+@SpringBootTest(classes = TestTaskDataOxApplication.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanTest {
+    private static final LocalDateTime AT = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private ProfitDeltaRepository profitDeltaRepository;
+
+    @Autowired
+    private RevenueRollupRepository revenueRollupRepository;
+
+    Stream<Arguments> hotQueries() {
+        return Stream.of(
+            hotQuery("OrderRepository.existsByBusinessKey",
+                    () -> orderRepository.existsByBusinessKey("Book", 1L, 2L),
+                    List.of("Book", 1L, 2L, "Book", 1L, 2L),
+                    List.of("uk_orders_business_key", "idx_orders_archive_business_key")),
+            hotQuery("OrderRepository.findBySupplierIdAndIsActiveTrue",
+                    () -> orderRepository.findBySupplierIdAndIsActiveTrue(1L),
+                    List.of(1L), List.of("idx_orders_supplier_active")),
+            hotQuery("OrderRepository.findByConsumerIdAndIsActiveTrue",
+                    () -> orderRepository.findByConsumerIdAndIsActiveTrue(1L),
+                    List.of(1L), List.of("idx_orders_consumer_active")),
+            hotQuery("OrderRepository.findActiveByUserId",
+                    () -> orderRepository.findActiveByUserId(1L),
+                    List.of(1L, 1L), List.of("idx_orders_supplier_active", "idx_orders_consumer_active")),
+            hotQuery("OrderRepository.findInactiveIds",
+                    () -> orderRepository.findInactiveIds(PageRequest.of(0, 500)),
+                    List.of(500), List.of("idx_orders_inactive"), "is_active=false"),
+            hotQuery("ClientRepository.findClientsByProfitBetween",
+                    () -> clientRepository.findClientsByProfitBetween(PageRequest.of(0, 10),
+                            Money.ZERO, Money.valueOf("1000.00")).getContent(),
+                    List.of(0L, 100000L, 10), List.of("idx_clients_profit_active"), "is_active=true"),
+            hotQuery("ClientRepository.findArchivableIds",
+                    () -> clientRepository.findArchivableIds(AT, PageRequest.of(0, 100)),
+                    List.of(AT, 100), List.of("idx_clients_inactive_at"), "is_active=false"),
+            hotQuery("ClientRepository.isEmailInUse",
+                    () -> clientRepository.isEmailInUse("Test@Test.com"),
+                    List.of("Test@Test.com", "Test@Test.com"),
+                    List.of("idx_clients_email_upper", "idx_clients_archive_email_upper")),
+            hotQuery("ClientRepository.isPhoneInUse",
+                    () -> clientRepository.isPhoneInUse("123456789"),
+                    List.of("123456789", "123456789"), List.of("uk_clients_phone", "idx_clients_archive_phone")),
+            hotQuery("ClientRepository.isEmailInUseByOther",
+                    () -> clientRepository.isEmailInUseByOther("test@test.com", 1L),
+                    List.of("test@test.com", 1L, "test@test.com"),
+                    List.of("uk_clients_email", "idx_clients_archive_email_upper")),
+            hotQuery("ClientRepository.isPhoneInUseByOther",
+                    () -> clientRepository.isPhoneInUseByOther("123456789", 1L),
+                    List.of("123456789", 1L, "123456789"), List.of("uk_clients_phone", "idx_clients_archive_phone")),
+            hotQuery("ClientRepository.findSummaries",
+                    () -> clientRepository.findSummaries(List.of(1L, 2L)),
+                    List.of(1L, 2L, 1L, 2L, 1L, 2L),
+                    List.of("idx_orders_supplier_active", "idx_orders_consumer_active", "primary_key")),
+            hotQuery("ProfitDeltaRepository.sumByClientId",
+                    () -> profitDeltaRepository.sumByClientId(1L),
+                    List.of(1L), List.of("idx_profit_deltas_client")),
+            hotQuery("ArchivedOrderRepository.existsByTitleAndSupplierIdAndConsumerId",
+                    () -> archivedOrderRepository.existsByTitleAndSupplierIdAndConsumerId("Book", 1L, 2L),
+                    List.of("Book", 1L, 2L, 1), List.of("idx_orders_archive_business_key")),
+            hotQuery("RevenueRollupRepository.findRange",
+                    () -> revenueRollupRepository.findRange(1L, List.of(RevenueRole.SUPPLIER, RevenueRole.CONSUMER),
+                            AT, AT.plusDays(1)),
+                    List.of(1L, "SUPPLIER", "CONSUMER", AT, AT.plusDays(1)), List.of("primary_key"))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("hotQueries")
+    void hotQueryUsesIndex(String name, Runnable query, List<Object> params, List<String> expectedIndexes,
+                           String partialIndexPredicate) {
+        String sql = captureSql(query);
+        assertEquals(params.size(), sql.chars().filter(c -> c == '?').count(), () -> "Parameters of " + sql);
+        if (partialIndexPredicate != null) {
+            assertTrue(sql.replace(" ", "").contains(partialIndexPredicate),
+                    () -> "Partial index predicate " + partialIndexPredicate + " not in " + sql);
+        }
+
+        String plan = String.join("\n", jdbcTemplate.queryForList("explain " + sql, String.class, params.toArray()))
+                .toLowerCase();
+        assertFalse(plan.contains("tablescan"), () -> "Table scan in plan of " + sql + ":\n" + plan);
+        for (String index : expectedIndexes) {
+            assertTrue(plan.contains(index), () -> "Index " + index + " not used in plan of " + sql + ":\n" + plan);
+        }
+    }
+
+    // The one statement the query sent, as Hibernate rendered it
+    private static String captureSql(Runnable query) {
+        Logger logger = (Logger) LoggerFactory.getLogger(SqlDebugStatementInspector.class);
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.start();
+        logger.addAppender(appender);
+        SqlDebugContext.enable();
+        try {
+            query.run();
+        } finally {
+            SqlDebugContext.clear();
+            logger.detachAppender(appender);
+        }
+        List<String> statements = appender.list.stream()
+                .map(event -> event.getArgumentArray()[0].toString())
+                .toList();
+        assertEquals(1, statements.size(), () -> "Expected one statement, got " + statements);
+        return statements.get(0);
+    }
+
+    private static Arguments hotQuery(String name, Runnable query, List<Object> params, List<String> expectedIndexes) {
+        return hotQuery(name, query, params, expectedIndexes, null);
+    }
+
+    private static Arguments hotQuery(String name, Runnable query, List<Object> params, List<String> expectedIndexes,
+                                      String partialIndexPredicate) {
+        return Arguments.of(name, query, params, expectedIndexes, partialIndexPredicate);
+    }
+}
@@ -0,0 +1,129 @@
+package tech.testtaskdataox;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import tech.task.dataox.TestTaskDataOxApplication;
+import tech.task.dataox.lib.Money;
+import tech.task.dataox.lib.RequestDeadline;
+import tech.task.dataox.model.Client;
+import tech.task.dataox.repository.ClientRepository;
+import tech.task.dataox.service.ProcessingDelayService;
+import tech.task.dataox.service.ProcessingSchedulerService;
+import tech.task.dataox.service.RequestDeadlineService;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Not on the shared context of IntegrationTest: a single processing worker and a second of processing per order
+@SpringBootTest(classes = TestTaskDataOxApplication.class, properties = {
+        "spring.datasource.url=jdbc:h2:mem:deadline;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "app.test-fixtures.enabled=false",
+        "scheduler.processing.concurrency=1",
+        "request.deadline.commit-reserve-ms=250"})
+@AutoConfigureMockMvc
+@Import(RequestDeadlineTest.OneSecondDelay.class)
+class RequestDeadlineTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private RequestDeadlineService requestDeadlineService;
+
+    @Autowired
+    private ProcessingSchedulerService processingSchedulerService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TestConfiguration
+    static class OneSecondDelay {
+        @Bean
+        @Primary
+        ProcessingDelayService oneSecondProcessingDelay() {
+            return () -> Duration.ofSeconds(1);
+        }
+    }
+
+    @Test
+    void orderThatCannotFinishInTimeIsNotProcessed() throws Exception {
+        Client supplier = newClient();
+        Client consumer = newClient();
+        long before = exceeded(RequestDeadlineService.ADMISSION);
+
+        long start = System.nanoTime();
+        mvc.perform(createOrder(supplier, consumer, "Late").header(RequestDeadline.HEADER, "1000"))
+                .andExpect(status().isGatewayTimeout());
+
+        assertTrue(System.nanoTime() - start < Duration.ofMillis(500).toNanos(), "answered without processing");
+        assertEquals(before + 1, exceeded(RequestDeadlineService.ADMISSION));
+        assertEquals(0, ordersOf(consumer));
+    }
+
+    @Test
+    void queuedOrderGivesUpWhenItsTurnComesTooLate() throws Exception {
+        Client supplier = newClient();
+        Client consumer = newClient();
+        long before = exceeded(RequestDeadlineService.QUEUE);
+
+        // The only worker is busy for a second with an order on the default deadline
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() -> statusOf(
+                createOrder(supplier, consumer, "First")));
+        while (processingSchedulerService.getStats().getRunning() == 0) {
+            Thread.sleep(10);
+        }
+
+        // Fits when it arrives (2000 ms for 1000 ms of work and the reserve), not after a second in the queue
+        assertEquals(504, statusOf(createOrder(supplier, consumer, "Second").header(RequestDeadline.HEADER, "2000")));
+        assertEquals(201, first.get());
+
+        assertEquals(before + 1, exceeded(RequestDeadlineService.QUEUE));
+        assertEquals(1, ordersOf(consumer));
+    }
+
+    private int statusOf(MockHttpServletRequestBuilder request) {
+        try {
+            return mvc.perform(request).andReturn().getResponse().getStatus();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private long exceeded(String stage) {
+        return requestDeadlineService.getStats().getExceededByStage().get(stage);
+    }
+
+    private long ordersOf(Client consumer) {
+        return jdbcTemplate.queryForObject("select count(*) from orders where consumer_id = ?",
+                Long.class, consumer.getId());
+    }
+
+    private static MockHttpServletRequestBuilder createOrder(Client supplier, Client consumer, String title) {
+        return post("/api/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"%s\",\"supplierId\":%d,\"consumerId\":%d,\"price\":10.00}"
+                        .formatted(title, supplier.getId(), consumer.getId()));
+    }
+
+    private Client newClient() {
+        return clientRepository.save(IntegrationTest.client(Money.ZERO));
+    }
+}
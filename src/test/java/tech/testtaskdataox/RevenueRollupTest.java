@@ -0,0 +1,151 @@
+package tech.testtaskdataox;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import tech.task.dataox.lib.BucketFence;
+import tech.task.dataox.lib.Money;
+import tech.task.dataox.model.Client;
+import tech.task.dataox.model.Order;
+import tech.task.dataox.model.dto.RevenueBucketDto;
+import tech.task.dataox.model.report.ReportGranularity;
+import tech.task.dataox.model.report.RevenueRole;
+import tech.task.dataox.service.OrderService;
+import tech.task.dataox.service.RevenueReportService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RevenueRollupTest extends IntegrationTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private RevenueReportService revenueReportService;
+
+    @Autowired
+    private BucketFence rollupFence;
+
+    @Test
+    void deletingAnActiveOrderTakesItOutOfTheRollups() throws InterruptedException {
+        Client supplier = newClient();
+        Client consumer = newClient();
+        Order kept = orderService.create(newOrder("Vase", supplier, consumer, "30.00"));
+        Order deleted = orderService.create(newOrder("Frame", supplier, consumer, "12.50"));
+        awaitHour(supplier, RevenueRole.SUPPLIER, kept.getSavedAt(), rows -> orderCount(rows) == 2);
+
+        orderService.deleteById(deleted.getId());
+
+        List<RevenueBucketDto> rows = awaitHour(supplier, RevenueRole.SUPPLIER, kept.getSavedAt(),
+                found -> orderCount(found) == 1);
+        assertEquals(Money.valueOf("30.00"), rows.get(0).getRevenue());
+        assertEquals(1, orderCount(awaitHour(consumer, RevenueRole.CONSUMER, kept.getSavedAt(),
+                found -> orderCount(found) == 1)));
+    }
+
+    @Test
+    void dayGranularityStartsAtTheBeginningOfTheDay() {
+        Client supplier = newClient();
+        Client consumer = newClient();
+        LocalDateTime day = LocalDateTime.now().minusDays(1).truncatedTo(ChronoUnit.DAYS);
+        orderAt(newOrder("Morning", supplier, consumer, "10.00"), day.plusHours(1));
+        orderAt(newOrder("Evening", supplier, consumer, "5.00"), day.plusHours(20));
+        revenueReportService.rebuild(day, day.plusDays(1));
+
+        List<RevenueBucketDto> rows = revenueReportService.findRevenue(supplier.getId(), RevenueRole.SUPPLIER,
+                day.plusHours(12), day.plusDays(1), ReportGranularity.DAY);
+
+        assertEquals(1, rows.size(), () -> "day buckets were " + rows);
+        assertEquals(day, rows.get(0).getBucket());
+        assertEquals(2, rows.get(0).getOrderCount());
+        assertEquals(Money.valueOf("15.00"), rows.get(0).getRevenue());
+    }
+
+    @Test
+    void rebuildWaitsForTheDeltasOfItsHours() throws Exception {
+        LocalDateTime hour = LocalDateTime.now().minusDays(4).truncatedTo(ChronoUnit.HOURS);
+        rollupFence.enter(hour);
+        CompletableFuture<Integer> rebuild;
+        try {
+            rebuild = CompletableFuture.supplyAsync(() -> revenueReportService.rebuild(hour, hour.plusHours(1)));
+            Thread.sleep(200);
+            assertFalse(rebuild.isDone(), "rebuild ran while a delta of its hour was in flight");
+        } finally {
+            rollupFence.exit(hour);
+        }
+        rebuild.get(5, TimeUnit.SECONDS);
+    }
+
+    // Each delete moves the past hour by a delta while it is being rebuilt, none may count twice
+    @Test
+    void rebuildRacingDeltasCountsEachOrderOnce() throws Exception {
+        Client supplier = newClient();
+        Client consumer = newClient();
+        LocalDateTime hour = LocalDateTime.now().minusDays(3).truncatedTo(ChronoUnit.HOURS);
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            orders.add(orderAt(newOrder("Race " + i, supplier, consumer, "1.00"), hour.plusMinutes(i)));
+        }
+        revenueReportService.rebuild(hour, hour.plusHours(1));
+
+        AtomicBoolean deleting = new AtomicBoolean(true);
+        CompletableFuture<Void> rebuilds = CompletableFuture.runAsync(() -> {
+            while (deleting.get()) {
+                revenueReportService.rebuild(hour, hour.plusHours(1));
+            }
+        });
+        try {
+            for (Order order : orders.subList(0, 30)) {
+                orderService.deleteById(order.getId());
+            }
+        } finally {
+            deleting.set(false);
+        }
+        rebuilds.get(10, TimeUnit.SECONDS);
+
+        List<RevenueBucketDto> rows = awaitHour(supplier, RevenueRole.SUPPLIER, hour,
+                found -> rollupFence.inFlight() == 0);
+        assertEquals(10, orderCount(rows));
+        assertEquals(Money.valueOf("10.00"), rows.get(0).getRevenue());
+    }
+
+    // Created now, then moved to a past hour the rollups get rebuilt for
+    private Order orderAt(Order order, LocalDateTime savedAt) {
+        Order created = orderService.create(order);
+        jdbcTemplate.update("update orders set saved_at = ? where id = ?", savedAt, created.getId());
+        return created;
+    }
+
+    // Rollups are applied after commit on a pool thread
+    private List<RevenueBucketDto> awaitHour(Client client, RevenueRole role, LocalDateTime at,
+                                             Predicate<List<RevenueBucketDto>> done) throws InterruptedException {
+        LocalDateTime hour = at.truncatedTo(ChronoUnit.HOURS);
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        List<RevenueBucketDto> rows = hourOf(client, role, hour);
+        while (!done.test(rows) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            rows = hourOf(client, role, hour);
+        }
+        assertTrue(done.test(rows), "rollups of client " + client.getId() + " were " + rows);
+        return rows;
+    }
+
+    private List<RevenueBucketDto> hourOf(Client client, RevenueRole role, LocalDateTime hour) {
+        return revenueReportService.findRevenue(client.getId(), role, hour, hour.plusHours(1), ReportGranularity.HOUR);
+    }
+
+    private static long orderCount(List<RevenueBucketDto> rows) {
+        return rows.stream().mapToLong(RevenueBucketDto::getOrderCount).sum();
+    }
+}
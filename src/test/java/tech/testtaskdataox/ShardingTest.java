@@ -0,0 +1,237 @@
+package tech.testtaskdataox;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import tech.task.dataox.TestTaskDataOxApplication;
+import tech.task.dataox.lib.Money;
+import tech.task.dataox.lib.ShardRoutingDataSource;
+import tech.task.dataox.model.Client;
+import tech.task.dataox.model.Order;
+import tech.task.dataox.model.dto.ClientSummaryDto;
+import tech.task.dataox.model.dto.OrderQuoteDto;
+import tech.task.dataox.service.ClientService;
+import tech.task.dataox.service.ClientSummaryService;
+import tech.task.dataox.service.OrderQuoteService;
+import tech.task.dataox.service.OrderService;
+import tech.task.dataox.service.ProfitWriteBehindService;
+import tech.task.dataox.service.ShardRoutingService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Three embedded databases of their own. Flushes only when the test asks for one, the sweep takes rows
+// older than a second
+@SpringBootTest(classes = TestTaskDataOxApplication.class, properties = {
+        "sharding.enabled=true",
+        "sharding.urls=jdbc:h2:mem:shard-0;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH,"
+                + "jdbc:h2:mem:shard-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH,"
+                + "jdbc:h2:mem:shard-2;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "app.test-fixtures.enabled=false",
+        "profit.write-behind.flush-interval-ms=3600000",
+        "profit.write-behind.orphan-after-ms=1000",
+        "profit.write-behind.sweep-interval-ms=200"})
+@Import(IntegrationTest.ZeroDelay.class)
+class ShardingTest {
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderQuoteService orderQuoteService;
+
+    @Autowired
+    private ClientSummaryService clientSummaryService;
+
+    @Autowired
+    private ProfitWriteBehindService profitWriteBehindService;
+
+    @Autowired
+    private ShardRoutingService shardRoutingService;
+
+    @Autowired
+    private ShardRoutingDataSource shardRoutingDataSource;
+
+    @Test
+    void clientsAndTheirIdsStayOnTheShardOfTheirEmail() {
+        Set<Integer> used = new HashSet<>();
+        for (int n = 0; n < 6; n++) {
+            Client client = newClient("placed-" + n, Money.ZERO);
+            int shard = shardRoutingService.shardForNewClient(client.getEmail());
+            used.add(shard);
+
+            assertEquals(shard, shardRoutingService.shardOf(client.getId()));
+            for (int other = 0; other < 3; other++) {
+                assertEquals(other == shard ? 1 : 0, jdbc(other).queryForObject(
+                        "select count(*) from clients where id = ?", Integer.class, client.getId()));
+            }
+            assertEquals(client.getEmail(), clientService.findClientById(client.getId()).getEmail());
+        }
+        assertTrue(used.size() > 1, "fixed emails spread over the shards");
+    }
+
+    @Test
+    void orderOfAConsumerOnAnotherShardCreditsTheSupplierOnItsOwn() {
+        Client supplier = newClient("supplier", Money.ZERO);
+        Client consumer = newClientOffShard("consumer", shardRoutingService.shardOf(supplier.getId()));
+        int supplierShard = shardRoutingService.shardOf(supplier.getId());
+        int consumerShard = shardRoutingService.shardOf(consumer.getId());
+        long transferred = profitWriteBehindService.getStats().getTransferredCredits();
+
+        Order order = orderService.create(IntegrationTest.newOrder("Lamp", supplier, consumer, "40.00"));
+
+        assertEquals(consumerShard, shardRoutingService.shardOf(order.getId()));
+        assertEquals(1, jdbc(consumerShard).queryForObject(
+                "select count(*) from orders where id = ?", Integer.class, order.getId()));
+        assertEquals(0, jdbc(supplierShard).queryForObject(
+                "select count(*) from orders where id = ?", Integer.class, order.getId()));
+        assertEquals(order.getId(), orderService.findById(order.getId()).getId());
+        assertEquals(List.of(order.getId()), orderService.findBySupplierId(supplier.getId()).stream()
+                .map(Order::getId).toList());
+        assertEquals(Money.valueOf("-40.00"), clientService.findClientProfitById(consumer.getId()));
+
+        profitWriteBehindService.flush();
+
+        assertEquals(Money.valueOf("40.00"), clientService.findClientProfitById(supplier.getId()));
+        assertEquals(transferred + 1, profitWriteBehindService.getStats().getTransferredCredits());
+        assertEquals(0, jdbc(consumerShard).queryForObject(
+                "select count(*) from profit_deltas where client_id = ?", Integer.class, supplier.getId()));
+
+        ClientSummaryDto summary = clientSummaryService.getSummary(supplier.getId());
+        assertEquals(1, summary.getSuppliedOrders());
+        assertEquals(Money.valueOf("40.00"), summary.getSuppliedTotal());
+    }
+
+    @Test
+    void profitThresholdCountsCreditsLoggedOnOtherShards() {
+        Client indebted = newClient("indebted", Money.valueOf("-990.00"));
+        Client buyer = newClientOffShard("indebted-buyer", shardRoutingService.shardOf(indebted.getId()));
+        Client seller = newClient("indebted-seller", Money.ZERO);
+        // Credit of 40.00 logged on the shard of the buyer, not flushed
+        orderService.create(IntegrationTest.newOrder("Clock", indebted, buyer, "40.00"));
+
+        Order wanted = IntegrationTest.newOrder("Atlas", seller, indebted, "20.00");
+        OrderQuoteDto quote = orderQuoteService.quote(wanted);
+        Order created = orderService.create(wanted);
+
+        assertTrue(quote.isAccepted(), "quote " + quote);
+        assertEquals(Money.valueOf("-970.00"), quote.getProjectedConsumerProfit());
+        assertEquals(indebted.getId(), created.getConsumer().getId());
+        // No credits left for the transfer counts of the other tests
+        profitWriteBehindService.flush();
+    }
+
+    @Test
+    void deletesAnOrderByItsOwnIdOnItsShard() {
+        Client supplier = newClient("deleting-supplier", Money.ZERO);
+        Client consumer = newClient("deleting-consumer", Money.ZERO);
+        Order order = orderService.create(IntegrationTest.newOrder("Rug", supplier, consumer, "5.00"));
+        int shard = shardRoutingService.shardOf(order.getId());
+
+        orderService.deleteById(order.getId());
+
+        assertEquals(0, count(shard, "select count(*) from orders where id = ?", order.getId()));
+        // The id of a client is not an order
+        assertEquals(0, count(shardRoutingService.shardOf(consumer.getId()),
+                "select count(*) from orders where id = ?", consumer.getId()));
+        ResponseStatusException missing = assertThrows(ResponseStatusException.class,
+                () -> orderService.deleteById(consumer.getId()));
+        assertEquals(HttpStatus.NOT_FOUND, missing.getStatusCode());
+        profitWriteBehindService.flush();
+    }
+
+    @Test
+    void repeatedTransferSkipsCreditsAlreadyAdded() throws InterruptedException {
+        Client supplier = newClient("repeated", Money.ZERO);
+        int supplierShard = shardRoutingService.shardOf(supplier.getId());
+        int source = (supplierShard + 1) % 3;
+        LocalDateTime hourAgo = LocalDateTime.now().minusHours(1);
+
+        // State after a transfer that committed on the supplier's shard but failed to delete its source rows
+        jdbc(source).update("insert into profit_deltas (client_id, amount, created_at) values (?, ?, ?)",
+                supplier.getId(), 700, hourAgo);
+        Long deltaId = jdbc(source).queryForObject(
+                "select max(id) from profit_deltas where client_id = ?", Long.class, supplier.getId());
+        jdbc(supplierShard).update(
+                "insert into profit_delta_transfers (source_shard, delta_id, applied_at) values (?, ?, ?)",
+                source, deltaId, hourAgo);
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (System.nanoTime() < deadline && (count(source, "select count(*) from profit_deltas where id = ?", deltaId) > 0
+                || count(supplierShard, "select count(*) from profit_delta_transfers where delta_id = ?", deltaId) > 0)) {
+            Thread.sleep(50);
+        }
+
+        assertEquals(0, count(source, "select count(*) from profit_deltas where id = ?", deltaId));
+        assertEquals(0, count(supplierShard, "select count(*) from profit_delta_transfers where delta_id = ?", deltaId));
+        assertEquals(Money.ZERO, clientService.findClientProfitById(supplier.getId()));
+    }
+
+    @Test
+    void searchMergesThePagesOfAllShards() {
+        List<String> lastNames = IntStream.range(0, 7).mapToObj(n -> "Merged" + (char) ('G' - n)).toList();
+        for (int n = 0; n < lastNames.size(); n++) {
+            clientService.createClient(Client.builder()
+                    .name("Page")
+                    .lastName(lastNames.get(n))
+                    .email("merged-" + n + "@example.com")
+                    .phone("merged-" + n)
+                    .profit(Money.ZERO)
+                    .build());
+        }
+
+        Page<Client> page = clientService.findClientsByKeyword("Merged",
+                PageRequest.of(1, 3, Sort.by("lastName")));
+
+        assertEquals(7, page.getTotalElements());
+        assertEquals(3, page.getTotalPages());
+        assertEquals(lastNames.stream().sorted().toList().subList(3, 6),
+                page.getContent().stream().map(Client::getLastName).toList());
+    }
+
+    private Client newClient(String prefix, Money profit) {
+        return clientService.createClient(Client.builder()
+                .name("John")
+                .lastName("Doe")
+                .email(prefix + "@example.com")
+                .phone(prefix)
+                .profit(profit)
+                .build());
+    }
+
+    // Fixed emails, the first one hashed to another shard
+    private Client newClientOffShard(String prefix, int shard) {
+        for (int n = 0; ; n++) {
+            String candidate = prefix + "-" + n;
+            if (shardRoutingService.shardForNewClient(candidate + "@example.com") != shard) {
+                return newClient(candidate, Money.ZERO);
+            }
+        }
+    }
+
+    private int count(int shard, String sql, Long id) {
+        return jdbc(shard).queryForObject(sql, Integer.class, id);
+    }
+
+    private JdbcTemplate jdbc(int shard) {
+        return new JdbcTemplate(shardRoutingDataSource.getShards().get(shard));
+    }
+}
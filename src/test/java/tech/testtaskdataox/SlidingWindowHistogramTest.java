@@ -0,0 +1,94 @@
+package tech.testtaskdataox;
+
+import org.junit.jupiter.api.Test;
+import tech.task.dataox.lib.SlidingWindowHistogram;
+import tech.task.dataox.model.dto.LatencyStatsDto;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Ten one-minute slots; minutes are passed in, so the windows do not depend on the clock
+class SlidingWindowHistogramTest {
+    private static final long NOW = 1_000;
+
+    private final SlidingWindowHistogram histogram = new SlidingWindowHistogram(10, 60_000);
+
+    @Test
+    void windowHoldsOnlyTheMinutesYoungerThanIt() {
+        histogram.record(10, NOW, NOW);
+        histogram.record(20, NOW - 4, NOW);
+        histogram.record(30, NOW - 5, NOW);
+        histogram.record(40, NOW - 9, NOW);
+
+        assertEquals(1, histogram.window(1, NOW).getTotalCount());
+        assertEquals(2, histogram.window(5, NOW).getTotalCount());
+        assertEquals(4, histogram.window(10, NOW).getTotalCount());
+        // A minute later the oldest one has left the widest window
+        assertEquals(3, histogram.window(10, NOW + 1).getTotalCount());
+    }
+
+    @Test
+    void reusedSlotForgetsItsOldMinute() {
+        histogram.record(10, NOW, NOW);
+        histogram.record(20, NOW + 10, NOW + 10);
+
+        assertEquals(1, histogram.window(10, NOW + 10).getTotalCount());
+        assertEquals(20, histogram.window(10, NOW + 10).getMaxValue());
+        assertEquals(2, histogram.total().getTotalCount());
+    }
+
+    @Test
+    void valuesOutsideTheSlotsCountOnlyInTheTotal() {
+        histogram.record(10, NOW - 10, NOW);
+        histogram.record(10, NOW + 1, NOW);
+        histogram.record(-5, NOW, NOW);
+        histogram.record(1_000_000, NOW, NOW);
+
+        assertEquals(2, histogram.window(10, NOW).getTotalCount());
+        assertEquals(0, histogram.window(10, NOW).getMinValue());
+        assertTrue(histogram.window(10, NOW).getMaxValue() <= 60_000 * 1.01);
+        assertEquals(4, histogram.total().getTotalCount());
+    }
+
+    @Test
+    void percentilesStayWithinTheRecordedPrecision() {
+        for (int value = 1; value <= 1000; value++) {
+            histogram.record(value, NOW, NOW);
+        }
+
+        LatencyStatsDto stats = LatencyStatsDto.from(histogram.window(1, NOW));
+        assertEquals(1000, stats.getCount());
+        assertEquals(500.5, stats.getMeanMs(), 500.5 * 0.01);
+        assertEquals(500, stats.getP50Ms(), 5);
+        assertEquals(900, stats.getP90Ms(), 9);
+        assertEquals(990, stats.getP99Ms(), 10);
+        assertEquals(1000, stats.getMaxMs(), 10);
+    }
+
+    @Test
+    void summarizeKeepsTheOrderOfTheWindowsAndEndsWithAll() {
+        histogram.record(10, NOW, NOW);
+        histogram.record(20, NOW - 3, NOW);
+        histogram.record(30, NOW - 20, NOW);
+
+        Map<String, LatencyStatsDto> summary = histogram.summarize(List.of(5, 1, 10), NOW);
+
+        assertEquals(List.of("5m", "1m", "10m", "all"), List.copyOf(summary.keySet()));
+        assertEquals(2, summary.get("5m").getCount());
+        assertEquals(1, summary.get("1m").getCount());
+        assertEquals(2, summary.get("10m").getCount());
+        assertEquals(3, summary.get("all").getCount());
+    }
+
+    @Test
+    void emptyWindowSummarizesToZeros() {
+        LatencyStatsDto stats = histogram.summarize(List.of(1), NOW).get("1m");
+
+        assertEquals(0, stats.getCount());
+        assertEquals(0, stats.getMeanMs());
+        assertEquals(0, stats.getP99Ms());
+    }
+}
@@ -0,0 +1,100 @@
+package tech.testtaskdataox;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import tech.task.dataox.lib.Money;
+import tech.task.dataox.model.Client;
+import tech.task.dataox.model.Order;
+import tech.task.dataox.repository.OrderRepository;
+import tech.task.dataox.web.SqlAccountingFilter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.aMapWithSize;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static tech.testtaskdataox.SqlAssertions.sqlDebug;
+
+class SparseFieldsTest extends IntegrationTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Test
+    void clientSearchReturnsOnlyRequestedFields() throws Exception {
+        String keyword = "sparse" + UUID.randomUUID().toString().substring(0, 8);
+        newClient(keyword, "Brown", Money.valueOf("20.00"));
+        newClient(keyword, "Adams", Money.valueOf("10.00"));
+
+        // Sorted by a property that is not returned
+        mvc.perform(get("/api/clients").with(sqlDebug())
+                        .param("q", keyword)
+                        .param("fields", "name,profit")
+                        .param("sort", "lastName"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(SqlAccountingFilter.ROWS_HEADER, "0"))
+                .andExpect(jsonPath("$.page.totalElements").value(2))
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.content[0]", aMapWithSize(2)))
+                .andExpect(jsonPath("$.content[0].name").value(keyword))
+                .andExpect(jsonPath("$.content[0].profit").value(10.00))
+                .andExpect(jsonPath("$.content[1].profit").value(20.00));
+    }
+
+    @Test
+    void clientOrdersReturnOnlyRequestedFields() throws Exception {
+        Client supplier = newClient("John", "Doe", Money.ZERO);
+        Client consumer = newClient("John", "Doe", Money.ZERO);
+        LocalDateTime now = LocalDateTime.now();
+        Order order = orderRepository.save(Order.builder()
+                .title("Book")
+                .supplier(supplier)
+                .consumer(consumer)
+                .price(Money.valueOf("15.50"))
+                .startProcessingAt(now)
+                .endProcessingAt(now)
+                .build());
+        jdbcTemplate.update("""
+                insert into orders_archive (id, title, supplier_id, consumer_id, price, version,
+                    start_processing_at, end_processing_at, saved_at, is_active, archived_at)
+                values (?, 'Old book', ?, ?, 700, 0, ?, ?, ?, false, ?)
+                """, order.getId() + 100_000, supplier.getId(), consumer.getId(), now, now, now, now);
+
+        mvc.perform(get("/api/orders/client/" + consumer.getId()).with(sqlDebug())
+                        .param("fields", "orderId,price")
+                        .param("includeArchived", "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(SqlAccountingFilter.ROWS_HEADER, "0"))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0]", aMapWithSize(2)))
+                .andExpect(jsonPath("$[0].orderId").value(order.getId()))
+                .andExpect(jsonPath("$[0].price").value(15.50))
+                .andExpect(jsonPath("$[1]", aMapWithSize(2)))
+                .andExpect(jsonPath("$[1].price").value(7.00));
+
+        mvc.perform(get("/api/orders/client/" + consumer.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]", aMapWithSize(8)));
+    }
+
+    @Test
+    void unknownFieldIsRejected() throws Exception {
+        mvc.perform(get("/api/clients").param("q", "john").param("fields", "id,password"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", containsString("password")));
+        mvc.perform(get("/api/orders/client/1").param("fields", ""))
+                .andExpect(status().isBadRequest());
+    }
+
+    private Client newClient(String name, String lastName, Money profit) {
+        Client client = client(profit);
+        client.setName(name);
+        client.setLastName(lastName);
+        return clientRepository.save(client);
+    }
+}
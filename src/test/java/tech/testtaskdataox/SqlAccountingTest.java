@@ -0,0 +1,89 @@
+package tech.testtaskdataox;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import tech.task.dataox.lib.Money;
+import tech.task.dataox.model.Client;
+import tech.task.dataox.model.dto.SqlEndpointStatsDto;
+import tech.task.dataox.service.ClientService;
+import tech.task.dataox.service.SqlStatsService;
+import tech.task.dataox.web.SqlAccountingFilter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static tech.testtaskdataox.SqlAssertions.assertMaxQueries;
+import static tech.testtaskdataox.SqlAssertions.maxQueries;
+import static tech.testtaskdataox.SqlAssertions.sqlDebug;
+
+// The budgets are the current statement counts; raise one only together with the reason in the change
+class SqlAccountingTest extends IntegrationTest {
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private SqlStatsService sqlStatsService;
+
+    @Test
+    void createClientChecksUniquenessAndInserts() {
+        Client client = assertMaxQueries(3, () -> clientService.createClient(client(Money.ZERO)));
+
+        assertMaxQueries(1, () -> clientService.findClientById(client.getId()));
+    }
+
+    @Test
+    void endpointsStayWithinTheirBudgets() throws Exception {
+        Client supplier = clientService.createClient(client(Money.ZERO));
+        Client consumer = clientService.createClient(client(Money.ZERO));
+
+        mvc.perform(get("/api/clients/" + supplier.getId()).with(sqlDebug()))
+                .andExpect(status().isOk())
+                .andExpect(maxQueries(1));
+        mvc.perform(put("/api/clients/" + supplier.getId()).with(sqlDebug())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Jane\"}"))
+                .andExpect(status().isOk())
+                .andExpect(maxQueries(2));
+        // Fail-fast checks before the processing delay: supplier, consumer, pending credits, business key (4).
+        // A lease per client in two: a takeover and its token, or a takeover finding no row and the first insert (4).
+        // The lock rows of both clients, locked together (1).
+        // The checks again in the order transaction, as things may have changed meanwhile (4).
+        // The order, the supplier credit in the delta log and the consumer profit (3)
+        mvc.perform(post("/api/orders").with(sqlDebug())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Book\",\"supplierId\":%d,\"consumerId\":%d,\"price\":10.00}"
+                                .formatted(supplier.getId(), consumer.getId())))
+                .andExpect(status().isCreated())
+                .andExpect(maxQueries(16));
+        mvc.perform(get("/api/orders/client/" + consumer.getId()).with(sqlDebug()))
+                .andExpect(status().isOk())
+                .andExpect(maxQueries(1));
+    }
+
+    @Test
+    void requestsAreCountedPerEndpoint() throws Exception {
+        Client client = clientService.createClient(client(Money.ZERO));
+
+        mvc.perform(get("/api/clients/" + client.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(SqlAccountingFilter.STATEMENTS_HEADER));
+        mvc.perform(get("/api/clients/" + client.getId()).with(sqlDebug()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(SqlAccountingFilter.ROWS_HEADER))
+                .andExpect(header().exists(SqlAccountingFilter.JDBC_TIME_HEADER));
+
+        SqlEndpointStatsDto stats = sqlStatsService.getStats().stream()
+                .filter(endpoint -> endpoint.getEndpoint().equals("GET /api/clients/{id}"))
+                .findFirst()
+                .orElseThrow();
+        assertTrue(stats.getRequests() >= 2);
+        assertTrue(stats.getMaxStatements() >= 1);
+        assertEquals(0, stats.getOverBudget());
+    }
+}
@@ -0,0 +1,52 @@
+package tech.testtaskdataox;
+
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import tech.task.dataox.lib.SqlAccounting;
+import tech.task.dataox.web.RequestLoggingFilter;
+import tech.task.dataox.web.SqlAccountingFilter;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Statement budgets for tests: around a service call, or on a MockMvc request sent with {@link #sqlDebug()}.
+ */
+final class SqlAssertions {
+
+    private SqlAssertions() {
+    }
+
+    static <T> T assertMaxQueries(long max, Supplier<T> work) {
+        SqlAccounting.Measured<T> measured = SqlAccounting.measure(work);
+        assertWithin(max, measured.usage().statements(), measured.usage());
+        return measured.result();
+    }
+
+    static void assertMaxQueries(long max, Runnable work) {
+        SqlAccounting.Snapshot usage = SqlAccounting.measure(work);
+        assertWithin(max, usage.statements(), usage);
+    }
+
+    static RequestPostProcessor sqlDebug() {
+        return request -> {
+            request.addHeader(RequestLoggingFilter.DEBUG_SQL_HEADER, "true");
+            return request;
+        };
+    }
+
+    static ResultMatcher maxQueries(long max) {
+        return result -> {
+            String statements = result.getResponse().getHeader(SqlAccountingFilter.STATEMENTS_HEADER);
+            assertNotNull(statements, "no " + SqlAccountingFilter.STATEMENTS_HEADER + " header, send the request with sqlDebug()");
+            assertTrue(Long.parseLong(statements) <= max, () -> "expected at most " + max + " statements but "
+                    + result.getRequest().getMethod() + " " + result.getRequest().getRequestURI() + " executed " + statements);
+        };
+    }
+
+    private static void assertWithin(long max, long statements, SqlAccounting.Snapshot usage) {
+        assertTrue(statements <= max, () -> "expected at most " + max + " statements but got " + usage);
+    }
+}
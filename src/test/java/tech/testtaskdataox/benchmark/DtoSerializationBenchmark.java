@@ -0,0 +1,147 @@
+package tech.testtaskdataox.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.web.PagedModel;
+import tech.task.dataox.lib.Money;
+import tech.task.dataox.model.dto.ClientDto;
+import tech.task.dataox.model.dto.OrderDto;
+import tech.task.dataox.web.DtoJsonModule;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * CPU per 10k-row response of the order list and client page endpoints: reflective Jackson with
+ * {@code Page} serialized as-is vs the hand-written DTO serializers, Blackbird and the
+ * {@link PagedModel} envelope. Body sizes, plain and gzipped, are logged once at setup.
+ *
+ * <pre>
+ * ./mvnw test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main DtoSerializationBenchmark -prof gc"
+ * </pre>
+ */
+@Slf4j
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DtoSerializationBenchmark {
+    private static final int ROWS = 10_000;
+
+    private final ObjectMapper reflective = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final ObjectMapper tuned = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .addModule(new BlackbirdModule())
+            .addModule(new DtoJsonModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private List<OrderDto> orders;
+    private Page<ClientDto> clientPage;
+    private PagedModel<ClientDto> clientModel;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        LocalDateTime base = LocalDateTime.of(2025, 8, 18, 14, 0);
+        orders = new ArrayList<>(ROWS);
+        List<ClientDto> clients = new ArrayList<>(ROWS);
+        for (int n = 0; n < ROWS; n++) {
+            LocalDateTime start = base.plusNanos(random.nextLong(86_400_000_000_000L) / 1_000_000 * 1_000_000);
+            orders.add(OrderDto.builder()
+                    .orderId((long) n + 1)
+                    .title("Order number " + n)
+                    .supplierId(1L + random.nextInt(1000))
+                    .consumerId(1L + random.nextInt(1000))
+                    .price(Money.ofMinor(1 + random.nextInt(1_000_000)))
+                    .startProcessingAt(start)
+                    .endProcessingAt(start.plusNanos(1_000_000L * random.nextInt(10_000)))
+                    .savedAt(start.plusSeconds(10))
+                    .build());
+            clients.add(ClientDto.builder()
+                    .id((long) n + 1)
+                    .name("Name" + n)
+                    .lastName("Last" + n)
+                    .email("client" + n + "@example.com")
+                    .address(n + " Main St, NY")
+                    .phone("+38050" + (1_000_000 + n))
+                    .isActive(true)
+                    .profit(Money.ofMinor(random.nextInt(2_000_000) - 100_000))
+                    .createdAt(start)
+                    .build());
+        }
+        clientPage = new PageImpl<>(clients, PageRequest.of(0, ROWS), 5 * ROWS);
+        clientModel = new PagedModel<>(clientPage);
+
+        logSize("orders, reflective", reflective, orders);
+        logSize("orders, tuned", tuned, orders);
+        logSize("client Page, reflective", reflective, clientPage);
+        logSize("client PagedModel, tuned", tuned, clientModel);
+    }
+
+    @Benchmark
+    public void ordersReflective() throws IOException {
+        reflective.writeValue(OutputStream.nullOutputStream(), orders);
+    }
+
+    @Benchmark
+    public void ordersTuned() throws IOException {
+        tuned.writeValue(OutputStream.nullOutputStream(), orders);
+    }
+
+    @Benchmark
+    public void ordersTunedGzip() throws IOException {
+        try (GZIPOutputStream gzip = new GZIPOutputStream(OutputStream.nullOutputStream(), 8192)) {
+            tuned.writeValue(gzip, orders);
+        }
+    }
+
+    @Benchmark
+    public void clientPageReflective() throws IOException {
+        reflective.writeValue(OutputStream.nullOutputStream(), clientPage);
+    }
+
+    @Benchmark
+    public void clientPageTuned() throws IOException {
+        tuned.writeValue(OutputStream.nullOutputStream(), clientModel);
+    }
+
+    private static void logSize(String label, ObjectMapper mapper, Object value) throws IOException {
+        byte[] plain = mapper.writeValueAsBytes(value);
+        ByteArrayOutputStream zipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(zipped)) {
+            gzip.write(plain);
+        }
+        log.info("{}: {} bytes, {} gzipped", label, plain.length, zipped.size());
+    }
+}
@@ -0,0 +1,90 @@
+package tech.testtaskdataox.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import tech.task.dataox.lib.Money;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Money arithmetic of one OrderServiceImpl.create (price check, projected consumer profit, threshold
+ * check, supplier profit) with the former BigDecimal amounts vs long-backed Money.
+ *
+ * <pre>
+ * ./mvnw test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main MoneyArithmeticBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoneyArithmeticBenchmark {
+    private static final int SIZE = 1024;
+    private static final BigDecimal MIN_PROFIT_DECIMAL = new BigDecimal("-1000");
+    private static final Money MIN_PROFIT_MONEY = Money.valueOf("-1000");
+
+    private final BigDecimal[] decimalPrices = new BigDecimal[SIZE];
+    private final BigDecimal[] decimalProfits = new BigDecimal[SIZE];
+    private final Money[] moneyPrices = new Money[SIZE];
+    private final Money[] moneyProfits = new Money[SIZE];
+    private int i;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int n = 0; n < SIZE; n++) {
+            // Values as they come out of numeric(38, 2) / bigint columns
+            long price = 1 + random.nextInt(100_000);
+            long profit = random.nextInt(2_000_000) - 100_000;
+            decimalPrices[n] = BigDecimal.valueOf(price, 2);
+            decimalProfits[n] = BigDecimal.valueOf(profit, 2);
+            moneyPrices[n] = Money.ofMinor(price);
+            moneyProfits[n] = Money.ofMinor(profit);
+        }
+    }
+
+    @Benchmark
+    public void bigDecimal(Blackhole bh) {
+        int n = next();
+        BigDecimal price = decimalPrices[n];
+        BigDecimal supplierProfit = decimalProfits[n];
+        BigDecimal consumerProfit = decimalProfits[SIZE - 1 - n];
+        bh.consume(price.compareTo(BigDecimal.ZERO) <= 0);
+        BigDecimal projected = consumerProfit.subtract(price);
+        bh.consume(projected.compareTo(MIN_PROFIT_DECIMAL) <= 0);
+        bh.consume(supplierProfit.add(price));
+        bh.consume(projected);
+    }
+
+    @Benchmark
+    public void money(Blackhole bh) {
+        int n = next();
+        Money price = moneyPrices[n];
+        Money supplierProfit = moneyProfits[n];
+        Money consumerProfit = moneyProfits[SIZE - 1 - n];
+        bh.consume(!price.isPositive());
+        Money projected = consumerProfit.minus(price);
+        bh.consume(projected.compareTo(MIN_PROFIT_MONEY) <= 0);
+        bh.consume(supplierProfit.plus(price));
+        bh.consume(projected);
+    }
+
+    private int next() {
+        i = (i + 1) & (SIZE - 1);
+        return i;
+    }
+}
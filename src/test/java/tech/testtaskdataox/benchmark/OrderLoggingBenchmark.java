@@ -0,0 +1,116 @@
+package tech.testtaskdataox.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.MDC;
+import tech.task.dataox.lib.LogSampler;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Log calls of one successful OrderServiceImpl.create with processing stubbed out:
+ * synchronous appender (former default) vs the prod async appender, with and without 1-in-100 sampling.
+ *
+ * <pre>
+ * ./mvnw test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main OrderLoggingBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class OrderLoggingBenchmark {
+
+    @Param({"sync", "async", "async-sampled"})
+    public String mode;
+
+    private LoggerContext context;
+    private Logger log;
+    private LogSampler sampler;
+    private File file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("order-logging", ".log").toFile();
+        context = new LoggerContext();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d %5p [%X{correlationId:-}] %t %logger{39} : %m%n");
+        encoder.start();
+
+        FileAppender<ILoggingEvent> fileAppender = new FileAppender<>();
+        fileAppender.setContext(context);
+        fileAppender.setFile(file.getAbsolutePath());
+        fileAppender.setEncoder(encoder);
+        fileAppender.start();
+
+        Appender<ILoggingEvent> appender = fileAppender;
+        if (mode.startsWith("async")) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setQueueSize(8192);
+            async.setNeverBlock(true);
+            async.addAppender(fileAppender);
+            async.start();
+            appender = async;
+        }
+
+        log = context.getLogger("tech.task.dataox.service.impl.OrderServiceImpl");
+        log.setLevel(ch.qos.logback.classic.Level.INFO);
+        log.addAppender(appender);
+        log.setAdditive(false);
+        sampler = new LogSampler(mode.endsWith("sampled") ? 100 : 1);
+        MDC.put("correlationId", "3f1c2a7e-bench");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.stop();
+        file.delete();
+    }
+
+    @Benchmark
+    public void createOrderLogging() {
+        long supplierId = 1;
+        long consumerId = 2;
+        BigDecimal price = BigDecimal.TEN;
+        boolean traced = sampler.sample();
+        log.debug("Attempting to create order...");
+        if (traced) {
+            log.info("Checking profit threshold for consumer id={}, currentProfit={}, orderPrice={}",
+                    consumerId, BigDecimal.ZERO, price);
+            log.info("Start processing order for supplierId={}, consumerId={}", supplierId, consumerId);
+            log.info("Finished processing order: id={}", 42L);
+            log.info("Updated profits: supplierId={}, newProfit={}; consumerId={}, newProfit={}",
+                    supplierId, price, consumerId, price.negate());
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package tech.testtaskdataox.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.google.protobuf.CodedOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.task.dataox.lib.Money;
+import tech.task.dataox.model.dto.CreateOrderDto;
+import tech.task.dataox.model.dto.OrderDto;
+import tech.task.dataox.web.DtoJsonModule;
+import tech.task.dataox.web.OrderProtobuf;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU per order of POST /api/orders and GET /api/orders/{id} in JSON, with the serializers the app
+ * registers, vs {@code application/x-protobuf}: reading the create body and writing the order.
+ * Body sizes are logged once at setup.
+ *
+ * <pre>
+ * ./mvnw test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main OrderProtobufBenchmark -prof gc"
+ * </pre>
+ */
+@Slf4j
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderProtobufBenchmark {
+    private final ObjectMapper json = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .addModule(new BlackbirdModule())
+            .addModule(new DtoJsonModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private byte[] createJson;
+    private byte[] createProtobuf;
+    private OrderDto order;
+
+    @Setup
+    public void setUp() throws IOException {
+        createJson = """
+                {"title":"Book about the cat","supplierId":1042,"consumerId":2077,"price":199.99}"""
+                .getBytes();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CodedOutputStream out = CodedOutputStream.newInstance(bytes);
+        out.writeString(1, "Book about the cat");
+        out.writeInt64(2, 1042);
+        out.writeInt64(3, 2077);
+        out.writeInt64(4, 19_999);
+        out.flush();
+        createProtobuf = bytes.toByteArray();
+
+        LocalDateTime start = LocalDateTime.of(2025, 8, 18, 14, 32, 45, 183_000_000);
+        order = OrderDto.builder()
+                .orderId(73_015L)
+                .title("Book about the cat")
+                .supplierId(1042L)
+                .consumerId(2077L)
+                .price(Money.ofMinor(19_999))
+                .startProcessingAt(start)
+                .endProcessingAt(start.plusNanos(3_040_000_000L))
+                .savedAt(start.plusNanos(17_113_000_000L))
+                .build();
+
+        log.info("create: {} bytes json, {} protobuf", createJson.length, createProtobuf.length);
+        log.info("order: {} bytes json, {} protobuf",
+                json.writeValueAsBytes(order).length, OrderProtobuf.write(order).length);
+    }
+
+    @Benchmark
+    public CreateOrderDto readCreateJson() throws IOException {
+        return json.readValue(createJson, CreateOrderDto.class);
+    }
+
+    @Benchmark
+    public CreateOrderDto readCreateProtobuf() throws IOException {
+        return OrderProtobuf.readCreateOrder(new ByteArrayInputStream(createProtobuf));
+    }
+
+    @Benchmark
+    public byte[] writeOrderJson() throws IOException {
+        return json.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public byte[] writeOrderProtobuf() throws IOException {
+        return OrderProtobuf.write(order);
+    }
+}